@@ -0,0 +1,163 @@
+package com.eviden.cine.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga de bucle cerrado contra una instancia en marcha: N clientes concurrentes
+ * repiten la petición del escenario durante el tiempo indicado. Sirve para comparar la misma
+ * instancia arrancada con VIRTUAL_THREADS_ENABLED=true y false (y el mismo
+ * server.tomcat.threads.max). Cada ejecución añade una línea JSON a target/carga.jsonl.
+ * Para comprobar que la aplicación no fija hilos virtuales, arrancar el servidor con
+ * -Djdk.tracePinnedThreads=short durante la prueba.
+ *
+ * <p>Parámetros (clave=valor): escenario=catalogo|checkout, modo (etiqueta del resultado),
+ * url, clientes, segundos, token (JWT, para el catálogo en el idioma del usuario),
+ * emision y asiento (primer id de asiento del checkout; cada petición usa el siguiente).
+ */
+public final class PruebaCarga {
+
+    private static final Path RESULTADOS = Path.of("target", "carga.jsonl");
+    private static final int MAX_MUESTRAS_POR_CLIENTE = 1 << 16;
+
+    // Latencias de un cliente; solo las escribe su propio hilo
+    private static final class Muestras {
+        private final long[] latencias = new long[MAX_MUESTRAS_POR_CLIENTE];
+        private int n;
+
+        private void anotar(long nanos) {
+            if (n < latencias.length) {
+                latencias[n++] = nanos;
+            }
+        }
+    }
+
+    private PruebaCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> parametros = new HashMap<>();
+        Arrays.stream(args).map(arg -> arg.split("=", 2))
+                .filter(par -> par.length == 2)
+                .forEach(par -> parametros.put(par[0], par[1]));
+
+        String escenario = parametros.getOrDefault("escenario", "catalogo");
+        String url = parametros.getOrDefault("url", "http://localhost:8080");
+        int clientes = Integer.parseInt(parametros.getOrDefault("clientes", "500"));
+        long segundos = Long.parseLong(parametros.getOrDefault("segundos", "30"));
+        String token = parametros.get("token");
+        long emision = Long.parseLong(parametros.getOrDefault("emision", "1"));
+        AtomicLong siguienteAsiento = new AtomicLong(Long.parseLong(parametros.getOrDefault("asiento", "1")));
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        LongAdder correctas = new LongAdder();
+        LongAdder errores = new LongAdder();
+        List<Muestras> porCliente = new ArrayList<>();
+        long fin = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientes; i++) {
+                Muestras muestras = new Muestras();
+                porCliente.add(muestras);
+                executor.submit(() -> {
+                    while (System.nanoTime() < fin) {
+                        HttpRequest peticion = "checkout".equals(escenario)
+                                ? checkout(url, emision, siguienteAsiento.getAndIncrement())
+                                : catalogo(url, token);
+                        long inicio = System.nanoTime();
+                        try {
+                            int estado = cliente.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            // En el checkout, 409 (asiento ya retenido) también es una respuesta válida
+                            if (estado < 400 || estado == 409) {
+                                correctas.increment();
+                            } else {
+                                errores.increment();
+                            }
+                        } catch (IOException e) {
+                            errores.increment();
+                        }
+                        muestras.anotar(System.nanoTime() - inicio);
+                    }
+                    return null;
+                });
+            }
+        }
+
+        // Al cerrar el executor han terminado todos los clientes
+        long[] todas = porCliente.stream()
+                .flatMapToLong(muestras -> Arrays.stream(muestras.latencias, 0, muestras.n))
+                .sorted()
+                .toArray();
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("escenario", escenario);
+        resultado.put("modo", parametros.getOrDefault("modo", "sin-etiqueta"));
+        resultado.put("clientes", clientes);
+        resultado.put("segundos", segundos);
+        resultado.put("correctas", correctas.sum());
+        resultado.put("errores", errores.sum());
+        resultado.put("peticionesPorSegundo", (correctas.sum() + errores.sum()) / (double) segundos);
+        resultado.put("p50Ms", percentil(todas, 0.50));
+        resultado.put("p95Ms", percentil(todas, 0.95));
+        resultado.put("p99Ms", percentil(todas, 0.99));
+        resultado.put("maxMs", todas.length > 0 ? todas[todas.length - 1] / 1_000_000.0 : 0);
+
+        String linea = new ObjectMapper().writeValueAsString(resultado);
+        System.out.println(linea);
+        Files.createDirectories(RESULTADOS.getParent());
+        Files.writeString(RESULTADOS, linea + System.lineSeparator(),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static HttpRequest catalogo(String url, String token) {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(URI.create(url + "/api/movies/all?size=50"))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (token != null) {
+            peticion.header("Authorization", "Bearer " + token);
+        }
+        return peticion.build();
+    }
+
+    private static HttpRequest checkout(String url, long emision, long asiento) {
+        String cuerpo = """
+                {"userId":1,"emisionId":%d,"total":750.0,"asientos":[{"asientoId":%d,"ticketId":1,"asientoSala":"%d"}]}
+                """.formatted(emision, asiento, asiento);
+        return HttpRequest.newBuilder(URI.create(url + "/api/checkout"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1);
+        return ordenadas[Math.max(indice, 0)] / 1_000_000.0;
+    }
+}
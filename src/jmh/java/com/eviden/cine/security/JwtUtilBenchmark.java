@@ -0,0 +1,69 @@
+package com.eviden.cine.security;
+
+import com.eviden.cine.model.Role;
+import com.eviden.cine.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens verificados por segundo en un solo hilo (un núcleo): la ruta antigua del filtro
+ * (validar y después extraer el email, dos análisis), un único análisis y la caché de
+ * tokens verificados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtUtilBenchmark {
+
+    private static final String SECRETO = "ZmFrZXNlY3JldGZvcmp3dHRlc3R1c2VzaWduYXR1cmVzaWduZWQ=";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRETO);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", TimeUnit.HOURS.toMillis(1));
+
+        Role role = new Role();
+        role.setName("USER");
+        User user = new User();
+        user.setUserId(42L);
+        user.setEmail("benchmark@example.com");
+        user.setRole(role);
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String validarYExtraerEmail() {
+        return jwtUtil.validateToken(token) ? jwtUtil.extractEmail(token) : null;
+    }
+
+    @Benchmark
+    public Optional<JwtUtil.TokenVerificado> analizarUnaVez() {
+        return jwtUtil.analizar(token);
+    }
+
+    @Benchmark
+    public Optional<JwtUtil.TokenVerificado> verificarConCache() {
+        return jwtUtil.verificar(token);
+    }
+}
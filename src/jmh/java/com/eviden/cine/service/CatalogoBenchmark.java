@@ -0,0 +1,76 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.dtos.MovieTranslatedDTO;
+import com.eviden.cine.model.Movie;
+import com.eviden.cine.repository.ActorRepository;
+import com.eviden.cine.repository.ClassificationRepository;
+import com.eviden.cine.repository.DirectorRepository;
+import com.eviden.cine.repository.GenreRepository;
+import com.eviden.cine.repository.MovieRepository;
+import com.eviden.cine.security.PrincipalCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Traducción del catálogo a DTOs y su serialización a JSON, como en los listados de películas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CatalogoBenchmark {
+
+    @Param({"200", "2000"})
+    public int peliculas;
+
+    @Param({"es", "en"})
+    public String idioma;
+
+    private MovieService movieService;
+    private List<Movie> catalogo;
+    private List<MovieTranslatedDTO> traducidas;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void preparar() {
+        movieService = new MovieService(mock(MovieRepository.class), mock(GenreRepository.class),
+                mock(ClassificationRepository.class), mock(DirectorRepository.class), mock(ActorRepository.class),
+                mock(PrincipalCache.class), mock(CloudinaryService.class), mock(SeatInventoryService.class),
+                mock(MovieSearchService.class), mock(TranslationService.class), mock(ApplicationEventPublisher.class));
+        catalogo = DatosGenerados.peliculas(peliculas);
+        traducidas = movieService.translateMovies(catalogo, idioma);
+        // Igual que el ObjectMapper de Spring Boot: fechas ISO y módulos del classpath
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public List<MovieTranslatedDTO> translateMovies() {
+        return movieService.translateMovies(catalogo, idioma);
+    }
+
+    @Benchmark
+    public byte[] serializarMovieTranslatedDTO() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(traducidas);
+    }
+}
@@ -0,0 +1,184 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.Asiento;
+import com.eviden.cine.model.Classification;
+import com.eviden.cine.model.Director;
+import com.eviden.cine.model.Emision;
+import com.eviden.cine.model.Genre;
+import com.eviden.cine.model.Message;
+import com.eviden.cine.model.Movie;
+import com.eviden.cine.model.Reservation;
+import com.eviden.cine.model.ReservationDetails;
+import com.eviden.cine.model.Room;
+import com.eviden.cine.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Datos sintéticos para los benchmarks, de tamaño parecido al de producción y siempre los
+ * mismos (semilla fija) para que los resultados se puedan comparar entre commits.
+ */
+final class DatosGenerados {
+
+    static final long SEMILLA = 42;
+    private static final String[] IDIOMAS = {"", "En", "Fr", "De", "It", "Pt"};
+
+    private DatosGenerados() {
+    }
+
+    static List<Movie> peliculas(int cantidad) {
+        Random random = new Random(SEMILLA);
+        List<Genre> generos = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            generos.add(Genre.builder().id(i).name("Género " + i).nameEn("Genre " + i).nameFr("Genre FR " + i)
+                    .nameDe("Genre DE " + i).nameIt("Genere " + i).namePt("Gênero " + i).build());
+        }
+        Classification clasificacion = Classification.builder().id(1).name("+12").build();
+
+        List<Movie> peliculas = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Movie movie = Movie.builder()
+                    .id(i)
+                    .time(80 + random.nextInt(100))
+                    .genre(generos.get(random.nextInt(generos.size())))
+                    .classification(clasificacion)
+                    .director(Director.builder().id(i % 300).name("Director " + (i % 300)).build())
+                    .urlImageX("https://res.cloudinary.com/cine/image/upload/x/" + i + ".jpg")
+                    .urlImageY("https://res.cloudinary.com/cine/image/upload/y/" + i + ".jpg")
+                    .urlTrailer("https://www.youtube.com/watch?v=" + Long.toHexString(random.nextLong()))
+                    .releaseDate(LocalDate.of(1990, 1, 1).plusDays(random.nextInt(12_000)))
+                    .isAvailable(random.nextBoolean())
+                    .rating(random.nextInt(100) / 10.0)
+                    .build();
+            for (String idioma : IDIOMAS) {
+                String titulo = "Título " + idioma + " " + i;
+                String sinopsis = texto(random, 60);
+                switch (idioma) {
+                    case "En" -> { movie.setTitleEn(titulo); movie.setSynopsisEn(sinopsis); }
+                    case "Fr" -> { movie.setTitleFr(titulo); movie.setSynopsisFr(sinopsis); }
+                    case "De" -> { movie.setTitleDe(titulo); movie.setSynopsisDe(sinopsis); }
+                    case "It" -> { movie.setTitleIt(titulo); movie.setSynopsisIt(sinopsis); }
+                    case "Pt" -> { movie.setTitlePt(titulo); movie.setSynopsisPt(sinopsis); }
+                    default -> { movie.setTitle(titulo); movie.setSynopsis(sinopsis); }
+                }
+            }
+            peliculas.add(movie);
+        }
+        return peliculas;
+    }
+
+    /**
+     * Mensajes de un foro: una parte son hilos nuevos y el resto respuestas a un mensaje
+     * anterior, de modo que salen árboles de profundidad variable.
+     */
+    static List<Message> mensajes(int cantidad) {
+        Random random = new Random(SEMILLA);
+        List<User> autores = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            User user = new User();
+            user.setUserId((long) i);
+            user.setEmail("usuario" + i + "@example.com");
+            autores.add(user);
+        }
+
+        List<Message> mensajes = new ArrayList<>(cantidad);
+        LocalDateTime inicio = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 1; i <= cantidad; i++) {
+            Message padre = i > 1 && random.nextInt(10) < 8 ? mensajes.get(random.nextInt(i - 1)) : null;
+            mensajes.add(Message.builder()
+                    .id((long) i)
+                    .author(autores.get(random.nextInt(autores.size())))
+                    .parentMessage(padre)
+                    .text(texto(random, 30))
+                    .upvotes(random.nextInt(50))
+                    .downvotes(random.nextInt(10))
+                    .createdAt(inicio.plusMinutes(i))
+                    .build());
+        }
+        return mensajes;
+    }
+
+    static List<Room> salas(int cantidad) {
+        List<Room> salas = new ArrayList<>(cantidad);
+        for (long i = 1; i <= cantidad; i++) {
+            Room room = new Room();
+            room.setIdroom(i);
+            room.setNombreroom("Sala " + i);
+            room.setFilas(12);
+            room.setColumnas(16);
+            room.setCapacidad(12 * 16);
+            salas.add(room);
+        }
+        return salas;
+    }
+
+    /**
+     * Emisiones de varias semanas en las salas indicadas, una detrás de otra en cada sala.
+     */
+    static List<Emision> emisiones(List<Room> salas, List<Movie> peliculas, int dias, LocalDateTime desde) {
+        Random random = new Random(SEMILLA);
+        List<Emision> emisiones = new ArrayList<>();
+        long id = 1;
+        for (Room sala : salas) {
+            LocalDateTime hora = desde;
+            LocalDateTime fin = desde.plusDays(dias);
+            while (hora.isBefore(fin)) {
+                Movie movie = peliculas.get(random.nextInt(peliculas.size()));
+                emisiones.add(Emision.builder()
+                        .idEmision(id++)
+                        .room(sala)
+                        .movie(movie)
+                        .fechaHoraInicio(hora)
+                        .build());
+                hora = hora.plusMinutes(movie.getTime() + RoomCalendarService.MINUTOS_LIMPIEZA + random.nextInt(60));
+            }
+        }
+        return emisiones;
+    }
+
+    static Reservation reserva(byte[] qr) {
+        Movie movie = peliculas(1).getFirst();
+        Room sala = salas(1).getFirst();
+        Emision emision = Emision.builder()
+                .idEmision(1L)
+                .movie(movie)
+                .room(sala)
+                .fechaHoraInicio(LocalDateTime.of(2025, 6, 1, 20, 30))
+                .build();
+        Reservation reservation = Reservation.builder()
+                .idReserve(12345L)
+                .emision(emision)
+                .totalPrice(45.0)
+                .reservationDate(LocalDateTime.of(2025, 5, 30, 18, 0))
+                .status("PAGADA")
+                .qrContent(qr)
+                .build();
+        List<ReservationDetails> detalles = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            detalles.add(ReservationDetails.builder()
+                    .reservation(reservation)
+                    .asiento(Asiento.builder().idAsiento((long) i).fila("F").columna(i).tipoAsiento("NORMAL").build())
+                    .build());
+        }
+        reservation.setReserveDetails(detalles);
+        return reservation;
+    }
+
+    private static String texto(Random random, int palabras) {
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < palabras; i++) {
+            if (i > 0) {
+                texto.append(' ');
+            }
+            int longitud = 3 + random.nextInt(8);
+            for (int j = 0; j < longitud; j++) {
+                texto.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return texto.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.Reservation;
+import com.google.zxing.WriterException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entradas en PDF por segundo en un hilo, escritas en un flujo que descarta los bytes (como la
+ * descarga, que escribe directamente en la respuesta) y en un array (como el adjunto del correo).
+ * La memoria reservada por entrada sale en gc.alloc.rate.norm, con el -prof gc que el perfil jmh
+ * pasa por defecto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EntradaPdfBenchmark {
+
+    private final PdfService pdfService = new PdfService();
+    private PdfService.Entrada entrada;
+    private Reservation reserva;
+
+    @Setup
+    public void preparar() throws WriterException, IOException {
+        LocalDateTime inicio = LocalDateTime.of(2025, 6, 1, 20, 30);
+        List<String> asientos = List.of("F1", "F2", "F3", "F4", "F5", "F6");
+        String contenido = QrService.contenidoReserva(12345L, "Título 1", inicio, "Sala 1", asientos, 45.0);
+        byte[] qr = new QrService(10, 1).generateQr(contenido);
+        entrada = new PdfService.Entrada(12345L, "Título 1", inicio, "Sala 1", 45.0, asientos, qr);
+        reserva = DatosGenerados.reserva(qr);
+    }
+
+    @Benchmark
+    public void escribirEnLaRespuesta() {
+        pdfService.escribirEntrada(entrada, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public byte[] generarParaElCorreo() {
+        return pdfService.generateReservationPdf(reserva);
+    }
+}
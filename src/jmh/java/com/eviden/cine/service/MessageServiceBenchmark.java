@@ -0,0 +1,55 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.dtos.MessageResponseDTO;
+import com.eviden.cine.repository.ForoRepository;
+import com.eviden.cine.repository.MessageRepository;
+import com.eviden.cine.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Construcción del árbol de respuestas de un foro a partir de sus mensajes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MessageServiceBenchmark {
+
+    private static final Long FORO = 1L;
+
+    @Param({"500", "5000"})
+    public int mensajes;
+
+    private MessageService messageService;
+
+    @Setup
+    public void preparar() {
+        MessageRepository messageRepository = mock(MessageRepository.class);
+        // El repositorio simulado devuelve siempre la misma lista ya generada
+        when(messageRepository.findByForoId(FORO)).thenReturn(DatosGenerados.mensajes(mensajes));
+        messageService = new MessageService(messageRepository, mock(ForoRepository.class), mock(UserRepository.class));
+    }
+
+    @Benchmark
+    public List<MessageResponseDTO> getMessagesByForo() {
+        return messageService.getMessagesByForo(FORO);
+    }
+}
@@ -0,0 +1,56 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.Reservation;
+import com.google.zxing.WriterException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación del QR (pintado y desde la caché) y del PDF de una reserva de seis asientos, lo que
+ * se hace tras cada pago.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReservaDocumentosBenchmark {
+
+    private final QrService qrService = new QrService(100, 60);
+    private final PdfService pdfService = new PdfService();
+    private String contenidoQr;
+    private Reservation reserva;
+
+    @Setup
+    public void preparar() throws WriterException, IOException {
+        contenidoQr = "Reserva: 12345\nUsuario: usuario1@example.com\nEmisión: 1\nAsientos: F1, F2, F3, F4, F5, F6";
+        reserva = DatosGenerados.reserva(qrService.generateQr(contenidoQr));
+    }
+
+    @Benchmark
+    public byte[] generateQr() throws WriterException, IOException {
+        return qrService.generateQr(contenidoQr);
+    }
+
+    @Benchmark
+    public QrService.Qr qrDeReservaCacheado() throws WriterException, IOException {
+        return qrService.qrDeReserva(12345L, contenidoQr);
+    }
+
+    @Benchmark
+    public byte[] generateReservationPdf() {
+        return pdfService.generateReservationPdf(reserva);
+    }
+}
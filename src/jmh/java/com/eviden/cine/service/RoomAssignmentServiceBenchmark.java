@@ -0,0 +1,85 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.Emision;
+import com.eviden.cine.model.Room;
+import com.eviden.cine.repository.EmisionRepository;
+import com.eviden.cine.repository.MovieRepository;
+import com.eviden.cine.repository.ReservationRepository;
+import com.eviden.cine.repository.RoomRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Comprobación de si una sala está libre en un horario, con el calendario de salas cargado
+ * con varias semanas de emisiones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RoomAssignmentServiceBenchmark {
+
+    private static final int CONSULTAS = 1024;
+
+    @Param({"20", "200"})
+    public int salas;
+
+    @Param({"28"})
+    public int dias;
+
+    private RoomAssignmentService roomAssignmentService;
+    private Room[] salasConsultadas;
+    private LocalDateTime[] horas;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        LocalDateTime desde = LocalDateTime.of(2025, 6, 1, 10, 0);
+        List<Room> listaSalas = DatosGenerados.salas(salas);
+        List<Emision> emisiones = DatosGenerados.emisiones(listaSalas, DatosGenerados.peliculas(300), dias, desde);
+
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        EmisionRepository emisionRepository = mock(EmisionRepository.class);
+        when(roomRepository.findAll()).thenReturn(listaSalas);
+        when(emisionRepository.findAll()).thenReturn(emisiones);
+        RoomCalendarService calendario = new RoomCalendarService(emisionRepository, roomRepository);
+        calendario.cargar();
+
+        roomAssignmentService = new RoomAssignmentService(roomRepository, emisionRepository,
+                mock(MovieRepository.class), mock(ReservationRepository.class), calendario);
+
+        Random random = new Random(DatosGenerados.SEMILLA);
+        salasConsultadas = new Room[CONSULTAS];
+        horas = new LocalDateTime[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            salasConsultadas[i] = listaSalas.get(random.nextInt(listaSalas.size()));
+            horas[i] = desde.plusMinutes(random.nextInt(dias * 24 * 60));
+        }
+    }
+
+    @Benchmark
+    public boolean estaSalaDisponible() {
+        int i = siguiente++ & (CONSULTAS - 1);
+        return roomAssignmentService.estaSalaDisponible(salasConsultadas[i], horas[i], 120);
+    }
+}
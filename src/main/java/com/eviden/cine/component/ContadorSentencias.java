@@ -0,0 +1,113 @@
+package com.eviden.cine.component;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo de cada petición. Se registra
+ * como StatementInspector de Hibernate; MetricasPeticionFilter abre y cierra el recuento.
+ * Las sentencias ejecutadas fuera de una petición (tareas programadas, hilos propios) no se
+ * cuentan.
+ *
+ * <p>Cuando una misma sentencia se repite el número de veces indicado dentro de una petición
+ * (el patrón típico de una asociación lazy recorrida en un bucle) se guarda la pila de llamadas
+ * de la aplicación en ese punto, una sola vez por petición, para poder señalar al culpable.
+ */
+@Component
+public class ContadorSentencias implements StatementInspector {
+
+    private static final String PAQUETE = "com.eviden.cine.";
+
+    /**
+     * Sentencias de una petición. Solo lo modifica el hilo de la petición.
+     */
+    public static final class Recuento {
+        private int total;
+        private final Map<String, Integer> porSentencia = new HashMap<>();
+        private String repetida;
+        private int repeticiones;
+        private StackTraceElement[] pila;
+
+        public int getTotal() {
+            return total;
+        }
+
+        /** La sentencia que más se ha repetido, o null si ninguna se repite. */
+        public String getRepetida() {
+            return repetida;
+        }
+
+        public int getRepeticiones() {
+            return repeticiones;
+        }
+
+        /** Pila de la aplicación al alcanzar el umbral de repeticiones, o vacía. */
+        public StackTraceElement[] getPila() {
+            return pila != null ? pila : new StackTraceElement[0];
+        }
+    }
+
+    private static final ThreadLocal<Recuento> actual = new ThreadLocal<>();
+
+    private final int umbralRepeticiones;
+
+    public ContadorSentencias(@Value("${cine.sentencias.repeticiones-sospechosas:5}") int umbralRepeticiones) {
+        this.umbralRepeticiones = umbralRepeticiones;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Recuento recuento = actual.get();
+        if (recuento != null) {
+            anotar(recuento, sql);
+        }
+        return sql;
+    }
+
+    public void iniciar() {
+        actual.set(new Recuento());
+    }
+
+    /**
+     * Sentencias contadas hasta ahora en la petición en curso, o -1 si no hay recuento abierto.
+     */
+    public int enCurso() {
+        Recuento recuento = actual.get();
+        return recuento != null ? recuento.total : -1;
+    }
+
+    /**
+     * Devuelve el recuento desde iniciar() y lo cierra.
+     */
+    public Recuento terminar() {
+        Recuento recuento = actual.get();
+        actual.remove();
+        return recuento != null ? recuento : new Recuento();
+    }
+
+    private void anotar(Recuento recuento, String sql) {
+        recuento.total++;
+        int veces = recuento.porSentencia.merge(sql, 1, Integer::sum);
+        if (veces > recuento.repeticiones && veces > 1) {
+            recuento.repetida = sql;
+            recuento.repeticiones = veces;
+        }
+        if (veces == umbralRepeticiones && recuento.pila == null) {
+            recuento.pila = pilaDeLaAplicacion();
+        }
+    }
+
+    // Solo los marcos de la aplicación: sin Hibernate, Spring, proxies ni este contador
+    private static StackTraceElement[] pilaDeLaAplicacion() {
+        return Arrays.stream(new Throwable().getStackTrace())
+                .filter(marco -> marco.getClassName().startsWith(PAQUETE))
+                .filter(marco -> !marco.getClassName().contains("$$"))
+                .filter(marco -> !marco.getClassName().equals(ContadorSentencias.class.getName()))
+                .toArray(StackTraceElement[]::new);
+    }
+}
@@ -0,0 +1,110 @@
+package com.eviden.cine.component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+
+/**
+ * Registra cuántas sentencias SQL ha lanzado cada petición, por método y patrón de ruta
+ * (el mismo "uri" que http.server.requests), y las compara con el presupuesto del endpoint.
+ * Un endpoint cuyo recuento crece con el tamaño de la respuesta es candidato a N+1.
+ * En modo FALLO la respuesta se retiene en memoria hasta hacer la comprobación, porque para
+ * entonces el controlador ya ha escrito el cuerpo: si se supera el presupuesto el cliente
+ * recibe el error y no un 200. En modo AVISO la respuesta sale sin retener.
+ * Se declara en MetricasConfig y no como @Component para que no entre en los tests de
+ * @WebMvcTest.
+ */
+public class MetricasPeticionFilter extends OncePerRequestFilter {
+
+    static final String METRICA = "cine.hibernate.sentencias";
+    static final String METRICA_EXCEDIDO = "cine.hibernate.presupuesto.excedido";
+
+    private final ContadorSentencias contadorSentencias;
+    private final PresupuestoSentencias presupuestoSentencias;
+    private final MeterRegistry meterRegistry;
+
+    public MetricasPeticionFilter(ContadorSentencias contadorSentencias,
+                                  PresupuestoSentencias presupuestoSentencias,
+                                  MeterRegistry meterRegistry) {
+        this.contadorSentencias = contadorSentencias;
+        this.presupuestoSentencias = presupuestoSentencias;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // La vuelta de una petición asíncrona (StreamingResponseBody) también pasa por aquí para volcar la respuesta
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            // Las sentencias se contaron en la primera pasada; solo queda volcar lo retenido
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                volcar(response);
+            }
+            return;
+        }
+
+        HttpServletResponse salida = presupuestoSentencias.getModo() == PresupuestoSentencias.Modo.FALLO
+                ? new ContentCachingResponseWrapper(response)
+                : response;
+        ContadorSentencias.Recuento recuento;
+        contadorSentencias.iniciar();
+        try {
+            filterChain.doFilter(request, salida);
+        } finally {
+            recuento = contadorSentencias.terminar();
+            DistributionSummary.builder(METRICA)
+                    .description("Sentencias SQL por petición")
+                    .baseUnit("sentencias")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri(request))
+                    .register(meterRegistry)
+                    .record(recuento.getTotal());
+        }
+
+        if (presupuestoSentencias.comprobar(request.getMethod(), uri(request), recuento)) {
+            Counter.builder(METRICA_EXCEDIDO)
+                    .description("Peticiones que superan su presupuesto de sentencias SQL")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri(request))
+                    .register(meterRegistry)
+                    .increment();
+        }
+        if (!request.isAsyncStarted()) {
+            volcar(salida);
+        }
+    }
+
+    // Envía al cliente la respuesta retenida, si la hay
+    private static void volcar(HttpServletResponse response) throws IOException {
+        ContentCachingResponseWrapper retenida =
+                WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (retenida != null) {
+            retenida.copyBodyToResponse();
+        }
+    }
+
+    // Patrón de la ruta (/api/movies/id/{id}) para no crear una serie por cada id
+    static String uri(HttpServletRequest request) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return patron != null ? patron.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,108 @@
+package com.eviden.cine.component;
+
+import com.eviden.cine.exception.CustomException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Máximo de sentencias SQL que puede lanzar una petición, por defecto o por endpoint
+ * ("GET /api/foros=5,/api/rooms/admin=10"; sin método vale para todos). En modo AVISO una
+ * muestra de las peticiones que lo superan deja un warning con la sentencia más repetida y la
+ * pila de la aplicación que la provoca; en modo FALLO (el de los tests) la petición falla.
+ */
+@Component
+public class PresupuestoSentencias {
+    private static final Logger logger = LoggerFactory.getLogger(PresupuestoSentencias.class);
+
+    public static final String CODIGO = "PRESUPUESTO_SENTENCIAS_EXCEDIDO";
+
+    public enum Modo { AVISO, FALLO }
+
+    private final int porDefecto;
+    private final Map<String, Integer> porEndpoint;
+    private final Modo modo;
+    private final double muestreo;
+    private final DoubleSupplier aleatorio;
+
+    public PresupuestoSentencias(@Value("${cine.sentencias.presupuesto:30}") int porDefecto,
+                                 @Value("${cine.sentencias.presupuestos:}") String porEndpoint,
+                                 @Value("${cine.sentencias.modo:AVISO}") Modo modo,
+                                 @Value("${cine.sentencias.muestreo:0.1}") double muestreo) {
+        this(porDefecto, porEndpoint, modo, muestreo, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    PresupuestoSentencias(int porDefecto, String porEndpoint, Modo modo, double muestreo, DoubleSupplier aleatorio) {
+        this.porDefecto = porDefecto;
+        this.porEndpoint = parsear(porEndpoint);
+        this.modo = modo;
+        this.muestreo = muestreo;
+        this.aleatorio = aleatorio;
+    }
+
+    public Modo getModo() {
+        return modo;
+    }
+
+    public int presupuesto(String metodo, String uri) {
+        Integer especifico = porEndpoint.get(metodo + " " + uri);
+        if (especifico == null) {
+            especifico = porEndpoint.get(uri);
+        }
+        return especifico != null ? especifico : porDefecto;
+    }
+
+    /**
+     * Devuelve true si la petición se ha pasado del presupuesto. En modo FALLO lanza CustomException.
+     */
+    public boolean comprobar(String metodo, String uri, ContadorSentencias.Recuento recuento) {
+        int presupuesto = presupuesto(metodo, uri);
+        if (recuento.getTotal() <= presupuesto) {
+            return false;
+        }
+        if (modo == Modo.FALLO) {
+            throw new CustomException(describir(metodo, uri, presupuesto, recuento), CODIGO);
+        }
+        if (aleatorio.getAsDouble() < muestreo) {
+            logger.warn(describir(metodo, uri, presupuesto, recuento));
+        }
+        return true;
+    }
+
+    private static String describir(String metodo, String uri, int presupuesto, ContadorSentencias.Recuento recuento) {
+        StringBuilder texto = new StringBuilder()
+                .append("Posible N+1 en ").append(metodo).append(' ').append(uri).append(": ")
+                .append(recuento.getTotal()).append(" sentencias (presupuesto ").append(presupuesto).append(')');
+        if (recuento.getRepetida() != null) {
+            texto.append(". Repetida ").append(recuento.getRepeticiones()).append(" veces: ")
+                    .append(recuento.getRepetida());
+        }
+        texto.append(Arrays.stream(recuento.getPila())
+                .map(marco -> System.lineSeparator() + "\tat " + marco)
+                .collect(Collectors.joining()));
+        return texto.toString();
+    }
+
+    private static Map<String, Integer> parsear(String configuracion) {
+        Map<String, Integer> presupuestos = new HashMap<>();
+        if (configuracion == null || configuracion.isBlank()) {
+            return presupuestos;
+        }
+        for (String entrada : configuracion.split(",")) {
+            int igual = entrada.lastIndexOf('=');
+            if (igual <= 0) {
+                throw new IllegalArgumentException("Presupuesto de sentencias mal formado: " + entrada);
+            }
+            presupuestos.put(entrada.substring(0, igual).trim(), Integer.parseInt(entrada.substring(igual + 1).trim()));
+        }
+        return presupuestos;
+    }
+}
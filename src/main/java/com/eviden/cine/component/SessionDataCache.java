@@ -1,22 +1,69 @@
 package com.eviden.cine.component;
 
 import com.eviden.cine.dtos.ReservationRequestDTO;
+import com.eviden.cine.util.AppendOnlyLog;
+import com.eviden.cine.util.ExpiringCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Datos de los checkouts de Stripe pendientes de pago y reservas ya creadas por sesión.
+ * Las entradas caducan pasado el TTL (la vida de la sesión de Stripe más un margen para
+ * webhooks tardíos) y el número de entradas está acotado. Cada cambio se anota en un
+ * registro en fichero, de modo que un checkout iniciado antes de un reinicio se puede
+ * confirmar cuando llega su webhook.
+ */
 @Component
 public class SessionDataCache {
     private static final Logger logger = LoggerFactory.getLogger(SessionDataCache.class);
-    private final Map<String, ReservationRequestDTO> sessionCache = new ConcurrentHashMap<>();
-    private final Map<String, Long> reservaIdCache = new ConcurrentHashMap<>();
+    private static final long TICK_MILLIS = 1000;
+    private static final int MIN_LINEAS_COMPACTAR = 1000;
 
+    enum Tipo { PENDIENTE, ELIMINADA, RESERVA }
+
+    record Entrada(Tipo tipo, String sessionId, ReservationRequestDTO datos, Long reservaId, Long creadaEn) {
+    }
+
+    private final ExpiringCache<String, ReservationRequestDTO> sessionCache;
+    private final ExpiringCache<String, Long> reservaIdCache;
+    private final ObjectMapper objectMapper;
+    private final AppendOnlyLog log;
+    private final AtomicLong lineasEnRegistro = new AtomicLong();
+
+    public SessionDataCache(ObjectMapper objectMapper,
+                            @Value("${webhook.event-log.dir:data/webhook}") String directorio,
+                            @Value("${checkout.session-cache.max-entries:10000}") int maxEntradas,
+                            @Value("${checkout.session-cache.ttl-seconds:2700}") long ttlSegundos) throws IOException {
+        this.objectMapper = objectMapper;
+        this.sessionCache = new ExpiringCache<>(maxEntradas, ttlSegundos * 1000);
+        this.reservaIdCache = new ExpiringCache<>(maxEntradas, ttlSegundos * 1000);
+        this.log = new AppendOnlyLog(Path.of(directorio, "checkouts.log"));
+        cargar();
+    }
 
     public void saveReservationData(String sessionId, ReservationRequestDTO reservationRequestDTO) {
-        sessionCache.put(sessionId, reservationRequestDTO);
+        long ahora = System.currentTimeMillis();
+        // Primero en memoria y después en el registro, para que una compactación concurrente no la pierda
+        sessionCache.put(sessionId, reservationRequestDTO, ahora);
+        try {
+            anotar(new Entrada(Tipo.PENDIENTE, sessionId, reservationRequestDTO, null, ahora));
+        } catch (UncheckedIOException e) {
+            sessionCache.remove(sessionId);
+            throw e;
+        }
     }
 
     public ReservationRequestDTO getReservationData(String sessionId) {
@@ -24,17 +71,106 @@ public class SessionDataCache {
     }
 
     public void removeReservationData(String sessionId) {
-        sessionCache.remove(sessionId);
+        if (sessionCache.remove(sessionId) != null) {
+            anotar(new Entrada(Tipo.ELIMINADA, sessionId, null, null, null));
+        }
     }
 
     public void saveReservaId(String sessionId, Long reservaId) {
         logger.info("Guardando reservaId para sessionId: {}", sessionId);
-        reservaIdCache.put(sessionId, reservaId);
+        long ahora = System.currentTimeMillis();
+        reservaIdCache.put(sessionId, reservaId, ahora);
+        anotar(new Entrada(Tipo.RESERVA, sessionId, null, reservaId, ahora));
     }
 
 
     public Long getReservaId(String sessionId) {
         return reservaIdCache.get(sessionId);
     }
-}
 
+    public ExpiringCache.Estadisticas getEstadisticasCheckouts() {
+        return sessionCache.getEstadisticas();
+    }
+
+    public ExpiringCache.Estadisticas getEstadisticasReservas() {
+        return reservaIdCache.getEstadisticas();
+    }
+
+    /**
+     * Retira las entradas caducadas y, si el registro ha crecido mucho respecto a las
+     * entradas vigentes, lo compacta.
+     */
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void limpiarCaducadas() {
+        sessionCache.limpiar();
+        reservaIdCache.limpiar();
+
+        long vigentes = (long) sessionCache.size() + reservaIdCache.size();
+        if (lineasEnRegistro.get() > Math.max(MIN_LINEAS_COMPACTAR, vigentes * 2)) {
+            try {
+                compactar();
+            } catch (IOException e) {
+                logger.error("No se pudo compactar el registro de checkouts: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        log.close();
+    }
+
+    private void anotar(Entrada entrada) {
+        try {
+            log.append(objectMapper.writeValueAsString(entrada));
+            lineasEnRegistro.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el checkout " + entrada.sessionId(), e);
+        }
+    }
+
+    // Reproduce el registro y lo compacta dejando solo el estado vigente
+    private void cargar() throws IOException {
+        List<String> lineas = log.leer();
+        long ahora = System.currentTimeMillis();
+        for (String linea : lineas) {
+            try {
+                Entrada entrada = objectMapper.readValue(linea, Entrada.class);
+                long creadaEn = entrada.creadaEn() != null ? entrada.creadaEn() : ahora;
+                switch (entrada.tipo()) {
+                    case PENDIENTE -> sessionCache.put(entrada.sessionId(), entrada.datos(), creadaEn);
+                    case ELIMINADA -> sessionCache.remove(entrada.sessionId());
+                    case RESERVA -> reservaIdCache.put(entrada.sessionId(), entrada.reservaId(), creadaEn);
+                }
+            } catch (JsonProcessingException e) {
+                logger.warn("Entrada del registro de checkouts ilegible, se ignora: {}", e.getOriginalMessage());
+            }
+        }
+
+        lineasEnRegistro.set(lineas.size());
+        if ((long) sessionCache.size() + reservaIdCache.size() < lineas.size()) {
+            compactar();
+        }
+        logger.info("Recuperados {} checkouts pendientes", sessionCache.size());
+    }
+
+    private void compactar() throws IOException {
+        log.compactar(() -> {
+            List<String> vigentes = new ArrayList<>();
+            sessionCache.forEach((sessionId, entrada) ->
+                    vigentes.add(serializar(new Entrada(Tipo.PENDIENTE, sessionId, entrada.valor(), null, entrada.creadaEn()))));
+            reservaIdCache.forEach((sessionId, entrada) ->
+                    vigentes.add(serializar(new Entrada(Tipo.RESERVA, sessionId, null, entrada.valor(), entrada.creadaEn()))));
+            lineasEnRegistro.set(vigentes.size());
+            return vigentes;
+        });
+    }
+
+    private String serializar(Entrada entrada) {
+        try {
+            return objectMapper.writeValueAsString(entrada);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.eviden.cine.component;
+
+import com.eviden.cine.util.AppendOnlyLog;
+import com.eviden.cine.util.BloomFilter;
+import com.eviden.cine.util.LruCache;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registro de eventos de Stripe ya procesados, para que una reentrega del mismo
+ * evento no cree una segunda reserva. Los ids se anotan en un fichero de solo
+ * escritura al final y se indexan en memoria con un filtro de Bloom (descarta en
+ * O(1) los eventos nuevos) y un LRU con los ids más recientes (confirma los repetidos).
+ * El fichero se compacta a los ids del LRU al arrancar y cada vez que acumula el número
+ * de líneas del umbral de compactación, para que no crezca sin límite entre reinicios.
+ */
+@Component
+public class WebhookEventLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookEventLog.class);
+    private static final double FALSOS_POSITIVOS = 0.01;
+
+    private final AppendOnlyLog log;
+    private final BloomFilter vistos;
+    private final LruCache<String, Boolean> recientes;
+    private final Set<String> enCurso = ConcurrentHashMap.newKeySet();
+    private final int umbralCompactacion;
+    // Líneas del fichero desde la última compactación
+    private final AtomicInteger lineas = new AtomicInteger();
+    private final ReentrantLock lockCompactacion = new ReentrantLock();
+
+    public WebhookEventLog(@Value("${webhook.event-log.dir:data/webhook}") String directorio,
+                           @Value("${webhook.event-log.recent-capacity:10000}") int capacidadRecientes,
+                           @Value("${webhook.event-log.compact-threshold:50000}") int umbralCompactacion)
+            throws IOException {
+        this.log = new AppendOnlyLog(Path.of(directorio, "eventos.log"));
+        this.vistos = new BloomFilter(capacidadRecientes * 10, FALSOS_POSITIVOS);
+        this.recientes = new LruCache<>(capacidadRecientes);
+        this.umbralCompactacion = Math.max(umbralCompactacion, capacidadRecientes + 1);
+        cargar();
+    }
+
+    /**
+     * Reclama el evento para procesarlo. Devuelve false si ya se procesó o si otra
+     * entrega del mismo evento se está procesando ahora mismo.
+     */
+    public boolean iniciar(String eventId) {
+        if (!enCurso.add(eventId)) {
+            return false;
+        }
+        if (yaProcesado(eventId)) {
+            enCurso.remove(eventId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Anota el evento como procesado. A partir de aquí sus reentregas se ignoran.
+     */
+    public void completar(String eventId) {
+        try {
+            // Primero en memoria: una compactación concurrente solo conserva lo que está en el LRU
+            recordar(eventId);
+            log.append(eventId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo anotar el evento " + eventId, e);
+        } finally {
+            enCurso.remove(eventId);
+        }
+        if (lineas.incrementAndGet() >= umbralCompactacion) {
+            compactar();
+        }
+    }
+
+    /**
+     * Suelta un evento cuyo procesamiento ha fallado para que Stripe pueda reintentarlo.
+     */
+    public void abandonar(String eventId) {
+        enCurso.remove(eventId);
+    }
+
+    public boolean yaProcesado(String eventId) {
+        if (!vistos.mightContain(eventId)) {
+            return false;
+        }
+        // Un positivo del filtro que ya no está en el LRU se trata como nuevo; la reserva
+        // no se duplica porque el checkout pendiente se elimina al confirmarla
+        return recientes.get(eventId) != null;
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        log.close();
+    }
+
+    private void recordar(String eventId) {
+        vistos.add(eventId);
+        recientes.put(eventId, Boolean.TRUE);
+    }
+
+    // Recupera los ids del fichero y lo compacta para quedarse solo con los recientes
+    private void cargar() throws IOException {
+        List<String> ids = log.leer();
+        ids.forEach(this::recordar);
+
+        List<String> conservar = recientes.claves();
+        if (conservar.size() < ids.size()) {
+            log.compactar(conservar);
+        }
+        lineas.set(conservar.size());
+        logger.info("Registro de webhooks cargado: {} eventos, {} recientes", ids.size(), conservar.size());
+    }
+
+    // Una sola compactación a la vez; el resto de entregas sigue sin esperar
+    private void compactar() {
+        if (!lockCompactacion.tryLock()) {
+            return;
+        }
+        try {
+            if (lineas.get() < umbralCompactacion) {
+                return;
+            }
+            log.compactar(() -> {
+                List<String> conservar = recientes.claves();
+                lineas.set(conservar.size());
+                return conservar;
+            });
+            logger.info("Registro de webhooks compactado a {} eventos recientes", lineas.get());
+        } catch (IOException e) {
+            // El evento ya está anotado; se vuelve a intentar en la siguiente entrega
+            logger.warn("No se pudo compactar el registro de webhooks: {}", e.getMessage());
+        } finally {
+            lockCompactacion.unlock();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.eviden.cine.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DataSourceConfig {
+
+    static final String REESCRIBIR_LOTES = "rewriteBatchedStatements";
+
+    /**
+     * Sin rewriteBatchedStatements el driver de MySQL envía cada fila de un executeBatch como una
+     * sentencia aparte y las inserciones por lotes (importación del catálogo, generación de emisiones)
+     * pierden la ventaja. Se fuerza aquí, después de enlazar spring.datasource.hikari.*, para que
+     * una configuración externa no lo desactive. El pool de Hikari aún no ha arrancado en este punto.
+     */
+    @Bean
+    public static BeanPostProcessor lotesReescritosEnMysql() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && esMysql(dataSource.getJdbcUrl())) {
+                    dataSource.addDataSourceProperty(REESCRIBIR_LOTES, "true");
+                }
+                return bean;
+            }
+        };
+    }
+
+    static boolean esMysql(String jdbcUrl) {
+        return jdbcUrl != null && jdbcUrl.startsWith("jdbc:mysql:");
+    }
+}
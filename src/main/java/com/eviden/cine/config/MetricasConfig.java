@@ -0,0 +1,125 @@
+package com.eviden.cine.config;
+
+import com.eviden.cine.component.ContadorSentencias;
+import com.eviden.cine.component.MetricasPeticionFilter;
+import com.eviden.cine.component.PresupuestoSentencias;
+import com.eviden.cine.component.SessionDataCache;
+import com.eviden.cine.security.JwtUtil;
+import com.eviden.cine.security.PrincipalCache;
+import com.eviden.cine.service.EmisionService;
+import com.eviden.cine.service.PasswordResetTokenService;
+import com.eviden.cine.service.PostPaymentPipeline;
+import com.eviden.cine.service.QrService;
+import com.eviden.cine.util.ExpiringCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Métricas propias que se publican en /actuator/prometheus además de las de Spring Boot
+ * (http.server.requests, spring.data.repository.invocations, hibernate.*, jvm.*):
+ * sentencias SQL por petición y por llamada a servicio, aciertos de las cachés en memoria,
+ * colas del pipeline posterior al pago y la última generación de emisiones.
+ */
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer contadorSentenciasCustomizer(ContadorSentencias contadorSentencias) {
+        return propiedades -> propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, contadorSentencias);
+    }
+
+    @Bean
+    public MetricasPeticionFilter metricasPeticionFilter(ContadorSentencias contadorSentencias,
+                                                         PresupuestoSentencias presupuestoSentencias,
+                                                         MeterRegistry meterRegistry) {
+        return new MetricasPeticionFilter(contadorSentencias, presupuestoSentencias, meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder metricasCaches(SessionDataCache sessionDataCache,
+                                      PrincipalCache principalCache,
+                                      JwtUtil jwtUtil,
+                                      PasswordResetTokenService passwordResetTokenService,
+                                      QrService qrService) {
+        return registry -> {
+            registrarCache(registry, "checkouts", sessionDataCache::getEstadisticasCheckouts);
+            registrarCache(registry, "reservas", sessionDataCache::getEstadisticasReservas);
+            registrarCache(registry, "principal", principalCache::getEstadisticas);
+            registrarCache(registry, "tokens-jwt", jwtUtil::getEstadisticasTokens);
+            registrarCache(registry, "tokens-recuperacion", passwordResetTokenService::getEstadisticas);
+            registrarCache(registry, "qr", qrService::getEstadisticas);
+        };
+    }
+
+    @Bean
+    public MeterBinder metricasPipeline(PostPaymentPipeline pipeline) {
+        return registry -> {
+            for (PostPaymentPipeline.Etapa etapa : PostPaymentPipeline.Etapa.values()) {
+                String nombre = etapa.name().toLowerCase();
+                Function<ToDoubleFunction<PostPaymentPipeline.EstadisticasEtapa>, ToDoubleFunction<PostPaymentPipeline>> de =
+                        campo -> p -> campo.applyAsDouble(p.getEstadisticas().get(etapa));
+                Gauge.builder("cine.pipeline.cola", pipeline, de.apply(PostPaymentPipeline.EstadisticasEtapa::enCola))
+                        .description("Tareas en cola por etapa").tag("etapa", nombre).register(registry);
+                Gauge.builder("cine.pipeline.activos", pipeline, de.apply(PostPaymentPipeline.EstadisticasEtapa::activos))
+                        .description("Tareas en ejecución por etapa").tag("etapa", nombre).register(registry);
+                FunctionCounter.builder("cine.pipeline.completados", pipeline, de.apply(PostPaymentPipeline.EstadisticasEtapa::completados))
+                        .tag("etapa", nombre).register(registry);
+                FunctionCounter.builder("cine.pipeline.fallidos", pipeline, de.apply(PostPaymentPipeline.EstadisticasEtapa::fallidos))
+                        .tag("etapa", nombre).register(registry);
+                FunctionCounter.builder("cine.pipeline.reintentos", pipeline, de.apply(PostPaymentPipeline.EstadisticasEtapa::reintentos))
+                        .tag("etapa", nombre).register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder metricasEmisiones(EmisionService emisionService) {
+        return registry -> {
+            Gauge.builder("cine.emisiones.generacion.duracion", emisionService,
+                            s -> suma(s.getUltimoInforme(), EmisionService.InformeParticion::millis))
+                    .description("Duración de la última generación de emisiones")
+                    .baseUnit("milliseconds").register(registry);
+            Gauge.builder("cine.emisiones.generacion.insertadas", emisionService,
+                            s -> suma(s.getUltimoInforme(), EmisionService.InformeParticion::emisiones))
+                    .register(registry);
+            Gauge.builder("cine.emisiones.generacion.particiones.fallidas", emisionService,
+                            s -> s.getUltimoInforme().stream().filter(i -> !i.correcta()).count())
+                    .register(registry);
+        };
+    }
+
+    static void registrarCache(MeterRegistry registry, String cache, Supplier<ExpiringCache.Estadisticas> estadisticas) {
+        Map<String, ToDoubleFunction<Supplier<ExpiringCache.Estadisticas>>> contadores = Map.of(
+                "cine.cache.aciertos", s -> s.get().aciertos(),
+                "cine.cache.fallos", s -> s.get().fallos(),
+                "cine.cache.expulsadas", s -> s.get().expulsadas(),
+                "cine.cache.caducadas", s -> s.get().caducadas());
+        contadores.forEach((nombre, valor) -> FunctionCounter.builder(nombre, estadisticas, valor)
+                .tag("cache", cache).register(registry));
+        Gauge.builder("cine.cache.tamano", estadisticas, s -> s.get().tamano())
+                .tag("cache", cache).register(registry);
+        Gauge.builder("cine.cache.ratio.aciertos", estadisticas, s -> {
+                    ExpiringCache.Estadisticas e = s.get();
+                    long total = e.aciertos() + e.fallos();
+                    return total == 0 ? Double.NaN : (double) e.aciertos() / total;
+                })
+                .description("Aciertos / (aciertos + fallos) desde el arranque")
+                .tag("cache", cache).register(registry);
+    }
+
+    private static <T> double suma(List<T> informe, ToDoubleFunction<T> campo) {
+        return informe.stream().mapToDouble(campo).sum();
+    }
+}
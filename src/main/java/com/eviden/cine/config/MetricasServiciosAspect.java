@@ -0,0 +1,65 @@
+package com.eviden.cine.config;
+
+import com.eviden.cine.component.ContadorSentencias;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Temporizador por método público de los servicios (cine.servicio, etiquetado con clase,
+ * método y excepción). Junto con http.server.requests por endpoint y
+ * spring.data.repository.invocations por consulta permite ver en qué capa se va el tiempo.
+ * Dentro de una petición registra también las sentencias SQL de cada llamada
+ * (cine.servicio.sentencias), incluidas las de los servicios a los que llama.
+ * Las llamadas internas dentro de un mismo servicio no pasan por el proxy y no se miden.
+ */
+@Aspect
+@Component
+public class MetricasServiciosAspect {
+
+    static final String METRICA = "cine.servicio";
+    static final String METRICA_SENTENCIAS = "cine.servicio.sentencias";
+
+    private final MeterRegistry meterRegistry;
+    private final ContadorSentencias contadorSentencias;
+
+    public MetricasServiciosAspect(MeterRegistry meterRegistry, ContadorSentencias contadorSentencias) {
+        this.meterRegistry = meterRegistry;
+        this.contadorSentencias = contadorSentencias;
+    }
+
+    @Around("execution(public * com.eviden.cine.service..*(..))")
+    public Object medir(ProceedingJoinPoint punto) throws Throwable {
+        String clase = punto.getSignature().getDeclaringType().getSimpleName();
+        String metodo = punto.getSignature().getName();
+        int sentenciasAntes = contadorSentencias.enCurso();
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        String excepcion = "none";
+        try {
+            return punto.proceed();
+        } catch (Throwable e) {
+            excepcion = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            muestra.stop(Timer.builder(METRICA)
+                    .description("Duración de los métodos de servicio")
+                    .tag("class", clase)
+                    .tag("method", metodo)
+                    .tag("exception", excepcion)
+                    .register(meterRegistry));
+            if (sentenciasAntes >= 0) {
+                DistributionSummary.builder(METRICA_SENTENCIAS)
+                        .description("Sentencias SQL por llamada a servicio")
+                        .baseUnit("sentencias")
+                        .tag("class", clase)
+                        .tag("method", metodo)
+                        .register(meterRegistry)
+                        .record((double) contadorSentencias.enCurso() - sentenciasAntes);
+            }
+        }
+    }
+}
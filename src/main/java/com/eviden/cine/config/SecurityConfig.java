@@ -5,6 +5,7 @@ import com.eviden.cine.security.JwtAuthenticationFilter;
 import com.eviden.cine.security.JwtUtil;
 import com.eviden.cine.security.UserDetailsServiceImpl;
 import com.eviden.cine.service.UserService;
+import com.eviden.cine.util.KeysetPage;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -84,6 +85,8 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Collections.singletonList("http://localhost:5173"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        // Cursor de la página siguiente en los listados paginados
+        configuration.setExposedHeaders(Collections.singletonList(KeysetPage.CABECERA_CURSOR));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -57,6 +57,15 @@ public class AsientoController {
         return ResponseEntity.ok(asientoService.obtenerAsientosPorroom(idroom));
     }
 
+    @Operation(summary = "Obtener los asientos de una emisión",
+            description = "Devuelve los asientos de la sala de la emisión con su disponibilidad para esa emisión concreta")
+    @ApiResponse(responseCode = "200", description = "Asientos de la emisión con su disponibilidad")
+    @GetMapping("/emision/{idEmision}")
+    public ResponseEntity<List<Asiento>> obtenerPorEmision(
+            @Parameter(description = "ID de la emisión") @PathVariable Long idEmision) {
+        return ResponseEntity.ok(asientoService.obtenerAsientosPorEmision(idEmision));
+    }
+
     @Operation(summary = "Eliminar un asiento por su ID")
     @ApiResponse(responseCode = "204", description = "Asiento eliminado correctamente")
     @DeleteMapping("/{id}")
@@ -1,10 +1,13 @@
 package com.eviden.cine.controller;
 
 import com.eviden.cine.component.SessionDataCache;
+import com.eviden.cine.dtos.AsientoTicketDTO;
 import com.eviden.cine.dtos.ReservationRequestDTO;
 import com.eviden.cine.dtos.ReservationResponseDTO;
+import com.eviden.cine.exception.CustomException;
 import com.eviden.cine.model.Reservation;
 import com.eviden.cine.service.ReservationService;
+import com.eviden.cine.service.SeatHoldService;
 import com.stripe.exception.StripeException;
 import com.stripe.model.checkout.Session;
 import com.stripe.param.checkout.SessionCreateParams;
@@ -20,6 +23,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -32,10 +37,14 @@ public class CheckoutController {
     private static final Logger logger = LoggerFactory.getLogger(CheckoutController.class);
     private final SessionDataCache sessionDataCache;
     private final ReservationService reservationService;
+    private final SeatHoldService seatHoldService;
+
+    // Stripe no admite sesiones que caduquen antes de 30 minutos
+    private static final long MIN_STRIPE_EXPIRATION_SECONDS = 1800;
 
     @Operation(
             summary = "Crear una sesión de pago en Stripe",
-            description = "Genera una sesión de pago en Stripe para la reserva proporcionada en el body.",
+            description = "Retiene los asientos seleccionados durante el pago y genera una sesión de pago en Stripe para la reserva proporcionada en el body.",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
@@ -43,6 +52,16 @@ public class CheckoutController {
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = Map.class))
                     ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "La emisión o alguno de los asientos no existe, o el asiento no es de la sala de la emisión",
+                            content = @Content(mediaType = "application/json")
+                    ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Alguno de los asientos ya está vendido o retenido por otra compra",
+                            content = @Content(mediaType = "application/json")
+                    ),
                     @ApiResponse(
                             responseCode = "500",
                             description = "Error al crear la sesión",
@@ -52,6 +71,17 @@ public class CheckoutController {
     )
     @PostMapping
     public ResponseEntity<Map<String, String>> createCheckoutSession(@RequestBody ReservationRequestDTO reservationRequestDTO) {
+        String holdToken;
+        try {
+            List<Long> asientoIds = reservationRequestDTO.getAsientos().stream()
+                    .map(AsientoTicketDTO::getAsientoId)
+                    .toList();
+            holdToken = seatHoldService.retenerAsientos(reservationRequestDTO.getEmisionId(), asientoIds);
+        } catch (CustomException e) {
+            return ResponseEntity.status(estadoDeRechazo(e))
+                    .body(Map.of("error", e.getMessage()));
+        }
+
         try {
             String asientoList = reservationRequestDTO.getAsientos().stream()
                     .map(seat -> String.valueOf(seat.getAsientoSala()))
@@ -68,16 +98,25 @@ public class CheckoutController {
                     .setQuantity(1L)
                     .build();
 
+            // La retención dura al menos lo mismo que la sesión, para que no se pueda pagar con los
+            // asientos ya liberados
+            long expiraEn = Instant.now()
+                    .plusSeconds(Math.max(seatHoldService.getTtlSegundos(), MIN_STRIPE_EXPIRATION_SECONDS))
+                    .getEpochSecond();
+            seatHoldService.extender(holdToken, expiraEn * 1000);
+
             SessionCreateParams params = SessionCreateParams.builder()
                     .setMode(SessionCreateParams.Mode.PAYMENT)
                     .setSuccessUrl("http://localhost:5173/success?session_id={CHECKOUT_SESSION_ID}")
                     .setCancelUrl("http://localhost:5173/cancel")
+                    .setExpiresAt(expiraEn)
                     .addLineItem(lineItem)
                     .build();
 
             Session session = Session.create(params);
 
             // Guardamos los datos en cache para ser procesados en el webhook
+            reservationRequestDTO.setHoldToken(holdToken);
             sessionDataCache.saveReservationData(session.getId(), reservationRequestDTO);
 
             return ResponseEntity.ok(Map.of(
@@ -86,6 +125,7 @@ public class CheckoutController {
             ));
 
         } catch (StripeException e) {
+            seatHoldService.liberar(holdToken);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error creando la sesión"));
         }
@@ -126,4 +166,11 @@ public class CheckoutController {
         return ResponseEntity.ok(dto);
     }
 
+    // Asiento vendido o retenido por otra compra: conflicto; cualquier otro rechazo es una petición inválida
+    private static HttpStatus estadoDeRechazo(CustomException e) {
+        return "SEAT_ALREADY_SOLD".equals(e.getCode()) || "SEAT_HELD".equals(e.getCode())
+                ? HttpStatus.CONFLICT
+                : HttpStatus.BAD_REQUEST;
+    }
+
 }
\ No newline at end of file
@@ -37,10 +37,15 @@ public class EmisionController {
         this.movieService = movieService;
     }
 
-    @Operation(summary = "Listar todas las emisiones")
+    @Operation(summary = "Listar las emisiones futuras",
+            description = "Paginado por cursor: si hay más páginas, la cabecera X-Next-Cursor trae el valor de 'after' para pedir la siguiente")
     @GetMapping
-    public ResponseEntity<List<Emision>> listarTodas() {
-        return ResponseEntity.ok(emisionService.obtenerTodas());
+    public ResponseEntity<List<EmisionFrontDTO>> listarTodas(
+            @Parameter(description = "Cursor: id de la última emisión de la página anterior")
+            @RequestParam(value = "after", required = false) Long after,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 200)")
+            @RequestParam(value = "size", required = false) Integer size) {
+        return emisionService.obtenerPagina(after, size).aRespuesta();
     }
 
     @GetMapping("/{id}")
@@ -65,10 +70,7 @@ public class EmisionController {
 
         String email = authentication != null ? authentication.getName() : null;
         String language = movieService.resolveLanguage(email, acceptLanguage);
-        System.out.println("Idioma resuelto: " + language);
         String tituloTraducido = movieService.getTituloTraducido (emision.getMovie() , language);
-        System.out.println("titulo traducido:" + tituloTraducido);
-        System.out.println("el idioma que se le pasa"+ language);
 
         EmisionSimple2DTO dto = EmisionSimple2DTO.of(emision, tituloTraducido);
 
@@ -5,7 +5,10 @@ import com.eviden.cine.dtos.MovieTranslatedDTO;
 import com.eviden.cine.model.Genre;
 import com.eviden.cine.model.Movie;
 import com.eviden.cine.movie_filter.MoviesSpecifications;
+import com.eviden.cine.service.BillboardSnapshotService;
+import com.eviden.cine.service.CatalogImportService;
 import com.eviden.cine.service.CloudinaryService;
+import com.eviden.cine.service.MovieSearchService;
 import com.eviden.cine.service.MovieService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -18,7 +21,9 @@ import jakarta.persistence.criteria.Join;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -26,10 +31,10 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 
 @RestController
@@ -42,27 +47,41 @@ public class MovieController {
 
     private final MovieService movieService;
     private final CloudinaryService cloudinaryService;
-
-    public MovieController(MovieService movieService, CloudinaryService cloudinaryService) {
+    private final BillboardSnapshotService billboardSnapshotService;
+    private final MovieSearchService movieSearchService;
+    private final CatalogImportService catalogImportService;
+
+    public MovieController(MovieService movieService, CloudinaryService cloudinaryService,
+                           BillboardSnapshotService billboardSnapshotService,
+                           MovieSearchService movieSearchService,
+                           CatalogImportService catalogImportService) {
         this.movieService = movieService;
         this.cloudinaryService = cloudinaryService;
+        this.billboardSnapshotService = billboardSnapshotService;
+        this.movieSearchService = movieSearchService;
+        this.catalogImportService = catalogImportService;
     }
 
     @GetMapping("/all")
     @Operation(
             summary = "Obtener todas las películas traducidas",
-            description = "Devuelve una lista completa de películas con los textos traducidos al idioma solicitado"
+            description = """
+                Devuelve las películas con los textos traducidos al idioma solicitado, paginadas por cursor.
+                Si hay más páginas, la cabecera X-Next-Cursor trae el valor de 'after' para pedir la siguiente.
+                """
     )
     public ResponseEntity<List<MovieTranslatedDTO>> getAllMoviesTranslated(
             Authentication authentication,
-            @RequestHeader(value = "Accept-Language", required = false) String acceptLanguage
+            @RequestHeader(value = "Accept-Language", required = false) String acceptLanguage,
+            @Parameter(description = "Cursor: id de la última película de la página anterior")
+            @RequestParam(value = "after", required = false) Long after,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 200)")
+            @RequestParam(value = "size", required = false) Integer size
     ) {
         String email = authentication != null ? authentication.getName() : null;
         String language = movieService.resolveLanguage(email, acceptLanguage);
 
-        List<Movie> allMovies = movieService.getAllMovies();
-        List<MovieTranslatedDTO> translatedMovies = movieService.translateMovies(allMovies, language);
-        return ResponseEntity.ok(translatedMovies);
+        return movieService.getTranslatedMoviesPage(language, after, size).aRespuesta();
     }
 
     @GetMapping("/id/{id}")
@@ -105,24 +124,9 @@ public class MovieController {
         String userEmail = (authentication != null) ? authentication.getName() : null;
         String resolvedLanguage = movieService.resolveLanguage(userEmail, acceptLanguage);
 
-        // Buscar solo películas disponibles, sin filtrado por texto
-        List<Movie> availableMovies = movieService.searchByKeyword(null);
-
-        // Traducir películas al idioma correspondiente
-        List<MovieTranslatedDTO> translatedMovies = movieService.translateMovies(availableMovies, resolvedLanguage);
-
-        // Ahora sí, hacer búsqueda textual con el idioma correcto
-        String lowerCaseQuery = query.toLowerCase();
-        List<MovieTranslatedDTO> filteredMovies = translatedMovies.stream()
-                .filter(movie ->
-                        movie.getTitle() != null && movie.getTitle().toLowerCase().contains(lowerCaseQuery) ||
-                                movie.getDirector() != null && movie.getDirector().getName() != null &&
-                                        movie.getDirector().getName().toLowerCase().contains(lowerCaseQuery) ||
-                                movie.getCasting() != null && movie.getCasting().stream()
-                                        .anyMatch(actor -> actor.getName() != null &&
-                                                actor.getName().toLowerCase().contains(lowerCaseQuery))
-                )
-                .collect(Collectors.toList());
+        // Índice en memoria: ids ordenados por relevancia; solo esas películas se cargan y traducen
+        List<Integer> ids = movieSearchService.buscar(query, resolvedLanguage);
+        List<MovieTranslatedDTO> filteredMovies = movieService.getResultadosBusqueda(ids, resolvedLanguage);
 
         return ResponseEntity.ok(filteredMovies);
     }
@@ -168,20 +172,18 @@ public class MovieController {
 
         // Convertir el String movieDTO en un objeto MovieDTO
         MovieDTO movieDto = objectMapper.readValue(movieDTO, MovieDTO.class); // Aquí hacemos el parseo del JSON
-        System.out.println(movieDto.toString());
         // Subir imágenes a Cloudinary
         if (imageX.isEmpty()) {
-            System.out.println("El archivo imageX está vacío.");
+            logger.debug("El archivo imageX está vacío.");
         }
         if (imageY.isEmpty()) {
-            System.out.println("El archivo imageY está vacío.");
+            logger.debug("El archivo imageY está vacío.");
         }
 
         String urlImageX = cloudinaryService.uploadImage(imageX, 1200, 600); // Cargar la imagen X
         String urlImageY = cloudinaryService.uploadImage(imageY, 400, 600); // Cargar la imagen Y
 
-        System.out.println("URL de la imagen X: " + urlImageX);
-        System.out.println("URL de la imagen Y: " + urlImageY);
+        logger.debug("Imágenes subidas: {} {}", urlImageX, urlImageY);
         // Asignar las URL de las imágenes subidas al DTO
         movieDto.setUrlImageX(urlImageX);
         movieDto.setUrlImageY(urlImageY);
@@ -192,6 +194,28 @@ public class MovieController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Importa un catálogo de películas",
+            description = "Importa en bloque un fichero JSON (array de películas) o CSV (con cabecera). "
+                    + "Género, clasificación, director y reparto se indican por nombre y se crean si no existen")
+    public ResponseEntity<CatalogImportService.InformeImportacion> importCatalog(
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Traducir títulos y sinopsis a todos los idiomas")
+            @RequestParam(value = "translate", defaultValue = "false") boolean translate,
+            @RequestHeader(value = "Accept-Language", required = false) String acceptLanguage) throws IOException {
+
+        String nombre = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        CatalogImportService.Formato formato = nombre.endsWith(".csv") || "text/csv".equals(file.getContentType())
+                ? CatalogImportService.Formato.CSV
+                : CatalogImportService.Formato.JSON;
+        String idiomaOrigen = movieService.resolveLanguage(null, acceptLanguage);
+
+        try (InputStream entrada = file.getInputStream()) {
+            return ResponseEntity.ok(catalogImportService.importar(entrada, formato, idiomaOrigen, translate));
+        }
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/update/{id}")
     @Operation(summary = "Actualiza una película existente")
@@ -324,22 +348,35 @@ public class MovieController {
                 - Si el usuario está autenticado, se usa su idioma preferido
                 - Si no, se toma del header Accept-Language
                 - Si no se especifica ninguno, se usa español (es) por defecto
+                La respuesta está paginada por cursor: si hay más páginas, la cabecera X-Next-Cursor
+                trae el valor de 'after' para pedir la siguiente.
                 """)
     public ResponseEntity<List<MovieTranslatedDTO>> getTranslatedMovies(
             Authentication authentication,
-            @RequestHeader(value = "Accept-Language", required = false) String acceptLanguage
+            @RequestHeader(value = "Accept-Language", required = false) String acceptLanguage,
+            @Parameter(description = "Cursor: id de la última película de la página anterior")
+            @RequestParam(value = "after", required = false) Long after,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 200)")
+            @RequestParam(value = "size", required = false) Integer size
     ) {
         String email = authentication != null ? authentication.getName() : null;
         String language = movieService.resolveLanguage(email, acceptLanguage);
-        List<Movie> allMovies = movieService.getAllMovies();
-        List<MovieTranslatedDTO> translatedMovies = movieService.translateMovies(allMovies, language);
-        return ResponseEntity.ok(translatedMovies);
+        return movieService.getTranslatedMoviesPage(language, after, size).aRespuesta();
     }
 
     @GetMapping("/billboard")
-    @Operation(summary = "Películas en cartelera disponibles", description = "Devuelve las películas activas que tienen funciones con asientos disponibles")
-    public ResponseEntity<List<Movie>> getBillboardMovies() {
-        return ResponseEntity.ok(movieService.getMoviesForBillboard());
+    @Operation(summary = "Películas en cartelera disponibles", description = "Devuelve las películas activas que tienen funciones con asientos disponibles, traducidas al idioma del usuario")
+    public ResponseEntity<byte[]> getBillboardMovies(
+            Authentication authentication,
+            @RequestHeader(value = "Accept-Language", required = false) String acceptLanguage
+    ) {
+        String email = authentication != null ? authentication.getName() : null;
+        String language = movieService.resolveLanguage(email, acceptLanguage);
+        // JSON precalculado por BillboardSnapshotService
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE)
+                .body(billboardSnapshotService.getJson(language));
     }
 
 }
@@ -2,7 +2,6 @@ package com.eviden.cine.controller;
 
 import com.eviden.cine.dtos.ReservationRequestDTO;
 import com.eviden.cine.dtos.ReservationResponseDTO;
-import com.eviden.cine.model.Reservation;
 import com.eviden.cine.service.ReservationService;
 import com.google.zxing.WriterException;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,14 +12,17 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/reservations")
@@ -71,7 +73,7 @@ public class ReservationController {
 
     @Operation(
             summary = "Obtener todas las reservas",
-            description = "Devuelve una lista de todas las reservas realizadas con información completa de cada una."
+            description = "Devuelve las reservas realizadas paginadas por cursor, sin el QR. Si hay más páginas, la cabecera X-Next-Cursor trae el valor de 'after' para pedir la siguiente."
     )
     @ApiResponse(
             responseCode = "200",
@@ -79,8 +81,12 @@ public class ReservationController {
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReservationResponseDTO.class))
     )
     @GetMapping("/all")
-    public ResponseEntity<List<ReservationResponseDTO>> getAllReservations() {
-        return ResponseEntity.ok(reservationService.getAllReservationsDTO());
+    public ResponseEntity<List<ReservationResponseDTO>> getAllReservations(
+            @Parameter(description = "Cursor: id de la última reserva de la página anterior")
+            @RequestParam(value = "after", required = false) Long after,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 200)")
+            @RequestParam(value = "size", required = false) Integer size) {
+        return reservationService.getReservationsPage(after, size).aRespuesta();
     }
 
     @Operation(
@@ -124,17 +130,35 @@ public class ReservationController {
             content = @Content(mediaType = "application/pdf")
     )
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadPdf(@PathVariable Long id) {
-        Reservation reservation = reservationService.findById(id);
-        if (reservation == null) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<StreamingResponseBody> downloadPdf(@PathVariable Long id) throws IOException, WriterException {
+        // Los datos se leen aquí; el PDF se escribe directamente en la respuesta
+        return reservationService.getEntrada(id)
+                .map(entrada -> ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=entrada_" + id + ".pdf")
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .<StreamingResponseBody>body(salida -> reservationService.escribirPdf(entrada, salida)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 
-        byte[] pdf = reservationService.generatePdf(reservation);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=entrada_" + id + ".pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+    @Operation(
+            summary = "Obtener el QR de una reserva",
+            description = "Devuelve el código QR de la reserva en PNG. La respuesta lleva un ETag con el hash de su contenido y se puede cachear en el cliente."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "QR de la reserva", content = @Content(mediaType = "image/png")),
+            @ApiResponse(responseCode = "304", description = "El QR no ha cambiado desde el ETag enviado", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Reserva no encontrada", content = @Content)
+    })
+    @GetMapping("/{id}/qr")
+    public ResponseEntity<byte[]> getQr(@PathVariable Long id) throws IOException, WriterException {
+        // El ETag permite a Spring responder 304 si coincide con If-None-Match
+        return reservationService.getQr(id)
+                .map(qr -> ResponseEntity.ok()
+                        .contentType(MediaType.IMAGE_PNG)
+                        .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate())
+                        .eTag(qr.hash())
+                        .body(qr.png()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @Operation(
@@ -1,10 +1,12 @@
 package com.eviden.cine.controller;
 
 import com.eviden.cine.component.SessionDataCache;
+import com.eviden.cine.component.WebhookEventLog;
 import com.eviden.cine.dtos.ReservationRequestDTO;
 import com.eviden.cine.model.Reservation;
-import com.eviden.cine.service.EmailService;
+import com.eviden.cine.service.PostPaymentPipeline;
 import com.eviden.cine.service.ReservationService;
+import com.eviden.cine.service.SeatHoldService;
 import com.stripe.model.Event;
 import com.stripe.model.checkout.Session;
 import com.stripe.net.Webhook;
@@ -26,22 +28,27 @@ public class StripeWebhookController {
 
     private final SessionDataCache sessionDataCache;
     private final ReservationService reservationService;
-    private final EmailService emailService;
+    private final PostPaymentPipeline postPaymentPipeline;
+    private final SeatHoldService seatHoldService;
+    private final WebhookEventLog webhookEventLog;
 
     // Añadir este método en StripeWebhookController
     @Setter
     @Value("${stripe.webhook.secret}")
     private String endpointSecret;
 
-    public StripeWebhookController(SessionDataCache sessionDataCache,ReservationService reservationService, EmailService emailService) {
+    public StripeWebhookController(SessionDataCache sessionDataCache,ReservationService reservationService, PostPaymentPipeline postPaymentPipeline,
+                                   SeatHoldService seatHoldService, WebhookEventLog webhookEventLog) {
         this.sessionDataCache = sessionDataCache;
         this.reservationService=reservationService;
-        this.emailService=emailService;
+        this.postPaymentPipeline=postPaymentPipeline;
+        this.seatHoldService=seatHoldService;
+        this.webhookEventLog=webhookEventLog;
     }
 
     @Operation(
             summary = "Procesar webhook de Stripe",
-            description = "Maneja el evento webhook proveniente de Stripe. Cuando se completa una sesión de checkout, se procesa la reserva, se genera el QR y se envía el correo de confirmación."
+            description = "Maneja el evento webhook proveniente de Stripe. Cuando se completa una sesión de checkout, se guarda la reserva y se responde a Stripe; el QR, el PDF y el correo de confirmación se generan en segundo plano. Las reentregas de un evento ya procesado se ignoran."
     )
     @ApiResponse(
             responseCode = "200",
@@ -60,18 +67,16 @@ public class StripeWebhookController {
             Event event = Webhook.constructEvent(payload, sigHeader, endpointSecret);
 
             if ("checkout.session.completed".equals(event.getType())) {
-                Session session = (Session) event.getData().getObject();
-                String customerEmail = session.getCustomerDetails().getEmail();
-                ReservationRequestDTO reservationRequestDTO = sessionDataCache.getReservationData(session.getId());
-
-                if (reservationRequestDTO != null) {
-                    Reservation reserva = reservationService.createConfirmedReservation(reservationRequestDTO);
-                    sessionDataCache.saveReservaId(session.getId(), reserva.getIdReserve());
-                    sessionDataCache.removeReservationData(session.getId());
-                    //Crear QR
-                    byte[] qrImage = reserva.getQrContent();
-                    //Enviar el correo
-                    emailService.enviarCorreoConfirmacion(customerEmail, reserva, qrImage);
+                // Stripe puede reentregar el mismo evento, incluso en paralelo
+                if (!webhookEventLog.iniciar(event.getId())) {
+                    return ResponseEntity.ok("Event already processed");
+                }
+                try {
+                    procesarCheckoutCompletado((Session) event.getData().getObject());
+                    webhookEventLog.completar(event.getId());
+                } catch (Exception e) {
+                    webhookEventLog.abandonar(event.getId());
+                    throw e;
                 }
 
                 return ResponseEntity.ok("Webhook handled successfully");
@@ -83,4 +88,19 @@ public class StripeWebhookController {
             return ResponseEntity.status(400).body("Webhook error: " + e.getMessage());
         }
     }
+
+    private void procesarCheckoutCompletado(Session session) {
+        String customerEmail = session.getCustomerDetails().getEmail();
+        ReservationRequestDTO reservationRequestDTO = sessionDataCache.getReservationData(session.getId());
+
+        if (reservationRequestDTO != null) {
+            Reservation reserva = reservationService.guardarReserva(reservationRequestDTO);
+            sessionDataCache.saveReservaId(session.getId(), reserva.getIdReserve());
+            sessionDataCache.removeReservationData(session.getId());
+            // Los asientos ya constan como vendidos, la retención deja de ser necesaria
+            seatHoldService.liberar(reservationRequestDTO.getHoldToken());
+            // QR, PDF y correo fuera del hilo del webhook
+            postPaymentPipeline.procesar(reserva, customerEmail);
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package com.eviden.cine.controller;
 
 import com.eviden.cine.dtos.UpdateProfileDTO;
+import com.eviden.cine.dtos.UserDTO;
 import com.eviden.cine.model.User;
 import com.eviden.cine.repository.UserRepository;
 import com.eviden.cine.service.UserService;
@@ -36,14 +37,18 @@ public class UserController {
     }
 
     @GetMapping
-    @Operation(summary = "Obtener todos los usuarios", description = "Devuelve una lista de todos los usuarios registrados en el sistema.")
+    @Operation(summary = "Obtener todos los usuarios", description = "Devuelve los usuarios registrados en el sistema, paginados por cursor. Si hay más páginas, la cabecera X-Next-Cursor trae el valor de 'after' para pedir la siguiente.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Usuarios obtenidos correctamente",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = User.class))),
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserDTO.class))),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userRepository.findAll());
+    public ResponseEntity<List<UserDTO>> getAllUsers(
+            @Parameter(description = "Cursor: id del último usuario de la página anterior")
+            @RequestParam(value = "after", required = false) Long after,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 200)")
+            @RequestParam(value = "size", required = false) Integer size) {
+        return userService.getUsersPage(after, size).aRespuesta();
     }
 
     @GetMapping("/{id}")
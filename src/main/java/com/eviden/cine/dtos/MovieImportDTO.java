@@ -0,0 +1,63 @@
+package com.eviden.cine.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Schema(description = "Fila de un catálogo de películas para la importación masiva (JSON o CSV). "
+        + "Las relaciones se indican por nombre y se crean si no existen")
+public class MovieImportDTO {
+
+    @Schema(description = "Título de la película", example = "Titanic")
+    private String title;
+
+    @Schema(description = "Sinopsis de la película", example = "Una historia de amor durante el trágico hundimiento del Titanic")
+    private String synopsis;
+
+    @Schema(description = "Duración de la película en minutos", example = "195")
+    private Integer time;
+
+    @Schema(description = "Nombre del género", example = "Romance")
+    private String genre;
+
+    @Schema(description = "Nombre de la clasificación por edad", example = "PG13")
+    private String classification;
+
+    @Schema(description = "Nombre del director", example = "James Cameron")
+    private String director;
+
+    @Schema(description = "Nombres del reparto; en CSV separados por '|'", example = "[\"Leonardo DiCaprio\", \"Kate Winslet\"]")
+    private List<String> casting;
+
+    @Schema(description = "URL de la imagen horizontal promocional", example = "https://example.com/banner.jpg")
+    private String urlImageX;
+
+    @Schema(description = "URL de la imagen vertical promocional", example = "https://example.com/poster.jpg")
+    private String urlImageY;
+
+    @Schema(description = "URL del tráiler de la película", example = "https://youtube.com/watch?v=xyz123")
+    private String urlTrailer;
+
+    @Schema(description = "Fecha de estreno de la película", example = "2025-04-03")
+    private LocalDate releaseDate;
+
+    @Schema(description = "Indica si la película esta disponible actualmente", example = "true")
+    private Boolean isAvailable;
+
+    @Schema(description = "Indica si la pelicula esta marcada como 'próximamente'", example = "false")
+    private Boolean isComingSoon;
+
+    @Schema(description = "Calificación de la película", example = "8.8")
+    private Double rating;
+}
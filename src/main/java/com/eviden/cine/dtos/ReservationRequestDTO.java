@@ -26,4 +26,7 @@ public class ReservationRequestDTO {
 
     @Schema(description = "Total en céntimos del importe de la reserva (se dividirá por 100 en el backend)", example = "2100", required = true)
     private Double total;
+
+    @Schema(description = "Token de la retención de asientos creada en el checkout", accessMode = Schema.AccessMode.READ_ONLY)
+    private String holdToken;
 }
@@ -12,7 +12,7 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Schema(description = "DTO que representa los datos de una reserva realizada, incluyendo detalles del usuario, película y QR.")
+@Schema(description = "DTO que representa los datos de una reserva realizada, incluyendo detalles del usuario, película y la ruta de su QR.")
 public class ReservationResponseDTO {
 
     @Schema(description = "Identificador único de la reserva", example = "1001")
@@ -45,6 +45,6 @@ public class ReservationResponseDTO {
     @Schema(description = "Lista de asientos seleccionados", example = "[\"A5\", \"A6\"]")
     private List<String> selectedSeats;
 
-    @Schema(description = "Código QR en base64 para escanear en el cine", example = "data:image/png;base64,...")
-    private String qrBase64;
+    @Schema(description = "Ruta del código QR (PNG) para escanear en el cine", example = "/api/reservations/1001/qr")
+    private String qrUrl;
 }
@@ -0,0 +1,8 @@
+package com.eviden.cine.event;
+
+/**
+ * Se publica cuando cambia algo que afecta a la cartelera: películas, emisiones
+ * o una emisión que se llena o vuelve a tener asientos libres.
+ */
+public record CarteleraModificadaEvent(String motivo) {
+}
@@ -38,7 +38,7 @@ public class Asiento {
     private String tipoAsiento;
 
     @Column(nullable = false)
-    @Schema(description = "Indica si el asiento está disponible", example = "true")
+    @Schema(description = "Indica si el asiento físico está habilitado; la ocupación por emisión se guarda en el inventario de la emisión", example = "true")
     @ToString.Include
     private boolean disponible;
 
@@ -13,7 +13,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "emisiones")
+@Table(name = "emisiones", indexes = {
+        // Consultas de emisiones futuras: por sala, por película y en general
+        @Index(name = "idx_emision_sala_inicio", columnList = "id_room, fecha_hora_inicio"),
+        @Index(name = "idx_emision_pelicula_inicio", columnList = "id_pelicula, fecha_hora_inicio"),
+        @Index(name = "idx_emision_inicio", columnList = "fecha_hora_inicio")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,41 @@
+package com.eviden.cine.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "tokens_recuperacion",
+        uniqueConstraints = @UniqueConstraint(name = "uk_token_recuperacion_hash", columnNames = "hash_token"),
+        indexes = {
+                @Index(name = "idx_token_recuperacion_email", columnList = "email"),
+                @Index(name = "idx_token_recuperacion_expira", columnList = "expira_en")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Token de un solo uso para restablecer la contraseña; solo se guarda su hash")
+public class PasswordResetToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hash_token", nullable = false, length = 64)
+    @Schema(description = "SHA-256 en hexadecimal del token enviado por correo")
+    private String hashToken;
+
+    @Column(nullable = false)
+    @Schema(description = "Email del usuario que pidió el cambio", example = "usuario@example.com")
+    private String email;
+
+    @Column(name = "expira_en", nullable = false)
+    @Schema(description = "Momento en que el token caduca", example = "2025-04-24T15:30:00")
+    private LocalDateTime expiraEn;
+}
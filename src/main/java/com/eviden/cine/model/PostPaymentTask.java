@@ -0,0 +1,55 @@
+package com.eviden.cine.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "tareas_post_pago", indexes = {
+        @Index(name = "idx_tarea_post_pago_estado", columnList = "estado, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Reserva pagada cuyo QR, PDF y correo están pendientes de enviar")
+public class PostPaymentTask {
+
+    public enum Estado {
+        PENDIENTE,
+        EN_CURSO,
+        FALLIDA
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_reserva", nullable = false)
+    @Schema(description = "ID de la reserva pagada", example = "1001")
+    private Long idReserva;
+
+    @Column(nullable = false)
+    @Schema(description = "Correo al que se envía la entrada", example = "cliente@example.com")
+    private String email;
+
+    @Column(name = "creada_en", nullable = false)
+    @Schema(description = "Momento en que se confirmó el pago", example = "2025-04-24T15:30:00")
+    private LocalDateTime creadaEn;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    @Schema(description = "PENDIENTE, EN_CURSO (reclamada por una instancia) o FALLIDA (intentos agotados, "
+            + "queda para revisión manual)", example = "PENDIENTE")
+    private Estado estado;
+
+    @Column(name = "reclamada_en")
+    @Schema(description = "Momento en que una instancia la reclamó; pasado el plazo otra puede retomarla",
+            example = "2025-04-24T15:30:05")
+    private LocalDateTime reclamadaEn;
+}
@@ -45,13 +45,14 @@ public class Reservation {
     @Schema(description = "Estado de la reserva", example = "confirmed")
     private String status;
 
-    @Lob
-    @Column(name = "qr_content")
-    @Basic(fetch = FetchType.LAZY)
-    @Schema(description = "Contenido del código QR en binario", accessMode = Schema.AccessMode.READ_ONLY)
+    // PNG del QR mientras se preparan el PDF y el correo; no se guarda, se pinta bajo demanda (QrService)
+    @Transient
+    @JsonIgnore
+    @Schema(hidden = true)
     private byte[] qrContent;
 
     @OneToMany(mappedBy = "reservation", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("idReserveDetails")
     @JsonManagedReference
     @Schema(description = "Lista de detalles de la reserva (asientos y tickets seleccionados)")
     private List<ReservationDetails> reserveDetails;
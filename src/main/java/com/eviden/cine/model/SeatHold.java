@@ -0,0 +1,46 @@
+package com.eviden.cine.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "retenciones_asientos", indexes = {
+        @Index(name = "idx_retencion_token", columnList = "token"),
+        @Index(name = "idx_retencion_expira", columnList = "expira_en")
+}, uniqueConstraints = {
+        // Un asiento de una emisión solo puede estar retenido una vez, aunque lo reclamen dos instancias
+        @UniqueConstraint(name = "uk_retencion_asiento", columnNames = {"id_emision", "id_asiento"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Retención temporal de un asiento de una emisión mientras dura el pago")
+public class SeatHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_emision", nullable = false)
+    @Schema(description = "ID de la emisión", example = "5")
+    private Long idEmision;
+
+    @Column(name = "id_asiento", nullable = false)
+    @Schema(description = "ID del asiento retenido", example = "12")
+    private Long idAsiento;
+
+    @Column(nullable = false, length = 36)
+    @Schema(description = "Token que agrupa los asientos retenidos en un mismo checkout")
+    private String token;
+
+    @Column(name = "expira_en", nullable = false)
+    @Schema(description = "Momento en que la retención caduca", example = "2025-04-24T15:30:00")
+    private LocalDateTime expiraEn;
+}
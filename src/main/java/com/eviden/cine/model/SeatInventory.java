@@ -0,0 +1,36 @@
+package com.eviden.cine.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "inventario_asientos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Mapa de ocupación de los asientos de una emisión concreta")
+public class SeatInventory {
+
+    @Id
+    @Column(name = "id_emision")
+    @Schema(description = "ID de la emisión a la que pertenece el inventario", example = "1")
+    private Long idEmision;
+
+    @Column(name = "total_asientos", nullable = false)
+    @Schema(description = "Número de asientos de la sala (filas * columnas)", example = "108")
+    private int totalAsientos;
+
+    @Column(name = "ocupados", nullable = false)
+    @Schema(description = "Número de asientos vendidos para la emisión", example = "12")
+    private int ocupados;
+
+    @Lob
+    @Column(name = "ocupacion", nullable = false)
+    @Schema(description = "Mapa de bits de ocupación, un bit por asiento", accessMode = Schema.AccessMode.READ_ONLY)
+    private byte[] ocupacion;
+}
@@ -0,0 +1,49 @@
+package com.eviden.cine.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "memoria_traduccion",
+        uniqueConstraints = @UniqueConstraint(name = "uk_memoria_traduccion",
+                columnNames = {"hash_texto", "idioma_origen", "idioma_destino"}),
+        indexes = @Index(name = "idx_memoria_traduccion_hash", columnList = "hash_texto"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Traducción automática ya obtenida, reutilizada para el mismo texto y par de idiomas")
+public class TranslationMemory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hash_texto", nullable = false, length = 64)
+    @Schema(description = "SHA-256 en hexadecimal del texto original")
+    private String hashTexto;
+
+    @Column(name = "idioma_origen", nullable = false, length = 5)
+    @Schema(description = "Idioma del texto original", example = "es")
+    private String idiomaOrigen;
+
+    @Column(name = "idioma_destino", nullable = false, length = 5)
+    @Schema(description = "Idioma de la traducción", example = "en")
+    private String idiomaDestino;
+
+    @Column(name = "texto_traducido", nullable = false, length = 1000)
+    private String textoTraducido;
+
+    @Column(name = "proveedor", nullable = false, length = 30)
+    @Schema(description = "Proveedor que hizo la traducción", example = "mymemory")
+    private String proveedor;
+
+    @Column(name = "creada_en", nullable = false)
+    private LocalDateTime creadaEn;
+}
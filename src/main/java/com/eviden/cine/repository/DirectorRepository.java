@@ -1,12 +1,16 @@
 package com.eviden.cine.repository;
 
 import com.eviden.cine.model.Director;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface DirectorRepository extends JpaRepository<Director, Integer> {
     List<Director> findByNameContainingIgnoreCase(String name);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Director> findByName(String name);
 }
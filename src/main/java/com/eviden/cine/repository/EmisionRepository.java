@@ -1,16 +1,92 @@
 package com.eviden.cine.repository;
 
+import com.eviden.cine.dtos.EmisionFrontDTO;
 import com.eviden.cine.model.Emision;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface EmisionRepository extends JpaRepository<Emision, Long> {
-    List<Emision> findByRoom_Region_Id(Long regionId);
+public interface EmisionRepository extends JpaRepository<Emision, Long>, EmisionRepositoryCustom {
     List<Emision> findByMovie_Id(Long movieId);
     List<Emision> findByMovie_TitleIgnoreCase(String title);
     List<Emision> findByRoom_Idroom(Long roomId);
+    List<Emision> findByFechaHoraInicioBetween(LocalDateTime desde, LocalDateTime hasta);
+
+    // emisiones futuras (usan el índice de fecha_hora_inicio); película y sala en la misma consulta
+    @Query("""
+           SELECT e
+           FROM   Emision e
+           JOIN FETCH e.movie
+           JOIN FETCH e.room
+           WHERE  e.fechaHoraInicio > :ahora
+           ORDER BY e.fechaHoraInicio
+           """)
+    List<Emision> findFuturas(@Param("ahora") LocalDateTime ahora);
+
+    // usa el índice (id_pelicula, fecha_hora_inicio)
+    @Query("""
+           SELECT e
+           FROM   Emision e
+           JOIN FETCH e.movie m
+           JOIN FETCH e.room r
+           LEFT JOIN FETCH r.region
+           WHERE  m.id = :movieId
+           AND    e.fechaHoraInicio > :ahora
+           ORDER BY e.fechaHoraInicio
+           """)
+    List<Emision> findFuturasByMovie(@Param("movieId") int movieId, @Param("ahora") LocalDateTime ahora);
+
+    // usa el índice (id_room, fecha_hora_inicio)
+    @Query("""
+           SELECT new com.eviden.cine.dtos.EmisionFrontDTO(
+                  e.idEmision, m.title, r.idroom, r.nombreroom, rg.id, rg.name,
+                  e.fechaHoraInicio, e.idioma, e.estado)
+           FROM   Emision e
+           JOIN   e.movie m
+           JOIN   e.room r
+           LEFT JOIN r.region rg
+           WHERE  r.idroom = :roomId
+           AND    e.fechaHoraInicio > :ahora
+           ORDER BY e.fechaHoraInicio
+           """)
+    List<EmisionFrontDTO> findFuturasByRoom(@Param("roomId") Long roomId, @Param("ahora") LocalDateTime ahora);
+
+    // una búsqueda por rango en el índice (id_room, fecha_hora_inicio) por cada sala de la región
+    @Query("""
+           SELECT new com.eviden.cine.dtos.EmisionFrontDTO(
+                  e.idEmision, m.title, r.idroom, r.nombreroom, rg.id, rg.name,
+                  e.fechaHoraInicio, e.idioma, e.estado)
+           FROM   Emision e
+           JOIN   e.movie m
+           JOIN   e.room r
+           JOIN   r.region rg
+           WHERE  rg.id = :regionId
+           AND    e.fechaHoraInicio > :ahora
+           ORDER BY e.fechaHoraInicio
+           """)
+    List<EmisionFrontDTO> findFuturasByRegion(@Param("regionId") Long regionId, @Param("ahora") LocalDateTime ahora);
+
+    // página de emisiones futuras por cursor, proyectada directamente al DTO (sin cargar entidades)
+    @Query("""
+           SELECT new com.eviden.cine.dtos.EmisionFrontDTO(
+                  e.idEmision, m.title, r.idroom, r.nombreroom, rg.id, rg.name,
+                  e.fechaHoraInicio, e.idioma, e.estado)
+           FROM   Emision e
+           JOIN   e.movie m
+           JOIN   e.room r
+           LEFT JOIN r.region rg
+           WHERE  e.idEmision > :despues
+           AND    e.fechaHoraInicio > :ahora
+           ORDER BY e.idEmision
+           """)
+    List<EmisionFrontDTO> findFuturasDespuesDe(@Param("despues") Long despues,
+                                               @Param("ahora") LocalDateTime ahora,
+                                               Pageable limite);
 
 }
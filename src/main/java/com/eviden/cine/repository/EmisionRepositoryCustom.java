@@ -0,0 +1,16 @@
+package com.eviden.cine.repository;
+
+import com.eviden.cine.model.Emision;
+
+import java.util.List;
+
+public interface EmisionRepositoryCustom {
+
+    /**
+     * Inserta las emisiones con inserciones JDBC por lotes dentro de una única transacción.
+     * Las entidades no reciben el id generado.
+     *
+     * @return número de emisiones insertadas
+     */
+    int insertarEnLote(List<Emision> emisiones);
+}
@@ -0,0 +1,40 @@
+package com.eviden.cine.repository;
+
+import com.eviden.cine.model.Emision;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public class EmisionRepositoryCustomImpl implements EmisionRepositoryCustom {
+
+    private static final int TAMANO_LOTE = 100;
+    private static final String INSERT = """
+            INSERT INTO emisiones (id_pelicula, id_room, fecha_hora_inicio, idioma, estado)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmisionRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public int insertarEnLote(List<Emision> emisiones) {
+        int[][] resultado = jdbcTemplate.batchUpdate(INSERT, emisiones, TAMANO_LOTE, (ps, emision) -> {
+            ps.setInt(1, emision.getMovie().getId());
+            ps.setLong(2, emision.getRoom().getIdroom());
+            ps.setTimestamp(3, Timestamp.valueOf(emision.getFechaHoraInicio()));
+            ps.setString(4, emision.getIdioma());
+            ps.setString(5, emision.getEstado().name());
+        });
+        int total = 0;
+        for (int[] lote : resultado) {
+            total += lote.length;
+        }
+        return total;
+    }
+}
@@ -1,16 +1,19 @@
 package com.eviden.cine.repository;
 
 import com.eviden.cine.model.Movie;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 @Repository
-public interface MovieRepository extends JpaRepository<Movie, Integer>, JpaSpecificationExecutor<Movie> {
+public interface MovieRepository extends JpaRepository<Movie, Integer>, JpaSpecificationExecutor<Movie>, MovieRepositoryCustom {
     Optional<Movie> findMovieByTitle(String title); // buscar pelicula por titulo
     Optional<Movie> findMovieById(int id); // buscar pelicula por id
     List<Movie> findByGenreName(String genreName); // buscar pelicula por genero
@@ -26,4 +29,88 @@ public interface MovieRepository extends JpaRepository<Movie, Integer>, JpaSpeci
            WHERE  LOWER(e.room.region.name) = LOWER(:regionName)
            """)
     List<Movie> findDistinctByRegionName(@Param("regionName") String regionName);
+
+    // de las películas indicadas, las que tienen alguna emisión activa en una sala con asientos
+    // habilitados; las entradas vendidas no cuentan, una emisión agotada sigue siendo buscable
+    @Query("""
+           SELECT m
+           FROM   Movie m
+           WHERE  m.id IN :ids
+           AND    EXISTS (SELECT 1
+                          FROM   Emision e
+                          JOIN   e.room r
+                          JOIN   r.asientos a
+                          WHERE  e.movie = m
+                          AND    e.estado = com.eviden.cine.model.Emision.EstadoEmision.ACTIVO
+                          AND    a.disponible = true)
+           """)
+    List<Movie> findBuscablesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Fila del catálogo paginado: solo las columnas que se muestran, con título, sinopsis y
+     * género ya en el idioma pedido. No carga reparto, reseñas, favoritos ni emisiones.
+     */
+    interface FilaCatalogo {
+        Integer getId();
+        String getTitle();
+        String getSynopsis();
+        String getUrlImageX();
+        String getUrlImageY();
+        String getUrlTrailer();
+        Integer getGenreId();
+        String getGenreName();
+        Integer getClassificationId();
+        String getClassificationName();
+        Integer getDirectorId();
+        String getDirectorName();
+        Double getRating();
+        LocalDate getReleaseDate();
+        Integer getTime();
+        Boolean getIsAvailable();
+        Boolean getIsComingSoon();
+    }
+
+    // página del catálogo por cursor: películas con id mayor que :despues, ordenadas por id
+    @Query("""
+           SELECT m.id AS id,
+                  CASE WHEN :idioma = 'en' THEN m.titleEn
+                       WHEN :idioma = 'fr' THEN m.titleFr
+                       WHEN :idioma = 'de' THEN m.titleDe
+                       WHEN :idioma = 'it' THEN m.titleIt
+                       WHEN :idioma = 'pt' THEN m.titlePt
+                       ELSE m.title END AS title,
+                  CASE WHEN :idioma = 'en' THEN m.synopsisEn
+                       WHEN :idioma = 'fr' THEN m.synopsisFr
+                       WHEN :idioma = 'de' THEN m.synopsisDe
+                       WHEN :idioma = 'it' THEN m.synopsisIt
+                       WHEN :idioma = 'pt' THEN m.synopsisPt
+                       ELSE m.synopsis END AS synopsis,
+                  m.urlImageX AS urlImageX,
+                  m.urlImageY AS urlImageY,
+                  m.urlTrailer AS urlTrailer,
+                  g.id AS genreId,
+                  COALESCE(CASE WHEN :idioma = 'en' THEN g.nameEn
+                                WHEN :idioma = 'fr' THEN g.nameFr
+                                WHEN :idioma = 'de' THEN g.nameDe
+                                WHEN :idioma = 'it' THEN g.nameIt
+                                WHEN :idioma = 'pt' THEN g.namePt END, g.name) AS genreName,
+                  c.id AS classificationId,
+                  c.name AS classificationName,
+                  d.id AS directorId,
+                  d.name AS directorName,
+                  m.rating AS rating,
+                  m.releaseDate AS releaseDate,
+                  m.time AS time,
+                  m.isAvailable AS isAvailable,
+                  m.isComingSoon AS isComingSoon
+           FROM   Movie m
+           LEFT JOIN m.genre g
+           LEFT JOIN m.classification c
+           LEFT JOIN m.director d
+           WHERE  m.id > :despues
+           ORDER BY m.id
+           """)
+    List<FilaCatalogo> findCatalogoDespuesDe(@Param("idioma") String idioma,
+                                             @Param("despues") int despues,
+                                             Pageable limite);
 }
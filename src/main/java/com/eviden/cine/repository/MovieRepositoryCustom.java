@@ -0,0 +1,14 @@
+package com.eviden.cine.repository;
+
+import com.eviden.cine.model.Movie;
+
+import java.util.List;
+
+public interface MovieRepositoryCustom {
+
+    /**
+     * Inserta las películas y su reparto con inserciones JDBC por lotes y asigna a cada
+     * película el id generado. Genre, Classification, Director y los actores deben tener id.
+     */
+    int insertarEnLote(List<Movie> peliculas);
+}
@@ -0,0 +1,122 @@
+package com.eviden.cine.repository;
+
+import com.eviden.cine.model.Actor;
+import com.eviden.cine.model.Movie;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MovieRepositoryCustomImpl implements MovieRepositoryCustom {
+
+    private static final int TAMANO_LOTE = 500;
+    private static final String INSERT_MOVIE = """
+            INSERT INTO movie (title, synopsis, title_en, title_fr, title_de, title_it, title_pt,
+                               synopsis_en, synopsis_fr, synopsis_de, synopsis_it, synopsis_pt,
+                               time, genre_id, classification_id, director_id, url_imagex, url_imagey,
+                               url_trailer, release_date, is_available, is_coming_soon, rating)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_CASTING = "INSERT INTO movie_casting (movie_id, actor_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MovieRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Cada lote viaja como un único INSERT multi-fila solo si la conexión tiene
+     * rewriteBatchedStatements=true (lo fuerza DataSourceConfig); sin él son TAMANO_LOTE idas y
+     * vueltas a la base de datos. Con la reescritura MySQL sigue devolviendo un id por fila.
+     */
+    @Override
+    @Transactional
+    public int insertarEnLote(List<Movie> peliculas) {
+        if (peliculas.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_MOVIE, Statement.RETURN_GENERATED_KEYS)) {
+                for (int desde = 0; desde < peliculas.size(); desde += TAMANO_LOTE) {
+                    List<Movie> lote = peliculas.subList(desde, Math.min(desde + TAMANO_LOTE, peliculas.size()));
+                    for (Movie movie : lote) {
+                        rellenar(ps, movie);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    // Los ids generados llegan en el mismo orden que las filas del lote
+                    try (ResultSet claves = ps.getGeneratedKeys()) {
+                        for (Movie movie : lote) {
+                            if (!claves.next()) {
+                                throw new SQLException("No se recibieron todos los ids generados de movie");
+                            }
+                            movie.setId(claves.getInt(1));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+
+        List<int[]> reparto = new ArrayList<>();
+        for (Movie movie : peliculas) {
+            if (movie.getCasting() != null) {
+                for (Actor actor : movie.getCasting()) {
+                    reparto.add(new int[]{movie.getId(), actor.getId()});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_CASTING, reparto, TAMANO_LOTE, (ps, fila) -> {
+            ps.setInt(1, fila[0]);
+            ps.setInt(2, fila[1]);
+        });
+        return peliculas.size();
+    }
+
+    private static void rellenar(PreparedStatement ps, Movie movie) throws SQLException {
+        ps.setString(1, movie.getTitle());
+        ps.setString(2, movie.getSynopsis());
+        ps.setString(3, movie.getTitleEn());
+        ps.setString(4, movie.getTitleFr());
+        ps.setString(5, movie.getTitleDe());
+        ps.setString(6, movie.getTitleIt());
+        ps.setString(7, movie.getTitlePt());
+        ps.setString(8, movie.getSynopsisEn());
+        ps.setString(9, movie.getSynopsisFr());
+        ps.setString(10, movie.getSynopsisDe());
+        ps.setString(11, movie.getSynopsisIt());
+        ps.setString(12, movie.getSynopsisPt());
+        ps.setInt(13, movie.getTime());
+        setId(ps, 14, movie.getGenre() != null ? movie.getGenre().getId() : null);
+        setId(ps, 15, movie.getClassification() != null ? movie.getClassification().getId() : null);
+        setId(ps, 16, movie.getDirector() != null ? movie.getDirector().getId() : null);
+        ps.setString(17, movie.getUrlImageX());
+        ps.setString(18, movie.getUrlImageY());
+        ps.setString(19, movie.getUrlTrailer());
+        if (movie.getReleaseDate() != null) {
+            ps.setDate(20, Date.valueOf(movie.getReleaseDate()));
+        } else {
+            ps.setNull(20, Types.DATE);
+        }
+        ps.setBoolean(21, movie.isAvailable());
+        ps.setBoolean(22, movie.isComingSoon());
+        ps.setDouble(23, movie.getRating());
+    }
+
+    private static void setId(PreparedStatement ps, int indice, Integer id) throws SQLException {
+        if (id != null) {
+            ps.setInt(indice, id);
+        } else {
+            ps.setNull(indice, Types.INTEGER);
+        }
+    }
+}
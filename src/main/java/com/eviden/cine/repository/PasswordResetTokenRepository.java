@@ -0,0 +1,33 @@
+package com.eviden.cine.repository;
+
+import com.eviden.cine.model.PasswordResetToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
+    Optional<PasswordResetToken> findByHashToken(String hashToken);
+
+    // Borrados en bloque, sin cargar las entidades. El de un token devuelve 1 solo en el nodo que lo consume
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.hashToken = :hashToken")
+    int borrarPorHash(@Param("hashToken") String hashToken);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.email = :email")
+    int borrarPorEmail(@Param("email") String email);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.expiraEn < :ahora")
+    int borrarCaducados(@Param("ahora") LocalDateTime ahora);
+}
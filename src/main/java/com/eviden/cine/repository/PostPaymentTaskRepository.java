@@ -0,0 +1,62 @@
+package com.eviden.cine.repository;
+
+import com.eviden.cine.model.PostPaymentTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PostPaymentTaskRepository extends JpaRepository<PostPaymentTask, Long> {
+
+    /**
+     * Tareas que se pueden reclamar: pendientes, o en curso en una instancia que no las ha
+     * terminado desde antes de "caducada" (caída o reiniciada a mitad).
+     */
+    @Query("""
+           SELECT t FROM PostPaymentTask t
+           WHERE  t.estado = com.eviden.cine.model.PostPaymentTask.Estado.PENDIENTE
+              OR (t.estado = com.eviden.cine.model.PostPaymentTask.Estado.EN_CURSO AND t.reclamadaEn < :caducada)
+           ORDER BY t.id
+           """)
+    List<PostPaymentTask> findReclamables(@Param("caducada") LocalDateTime caducada, Pageable limite);
+
+    /**
+     * Reclama la tarea para esta instancia. Devuelve 0 si otra la ha reclamado antes, ha
+     * terminado o ha fallado: solo quien obtiene 1 la procesa.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+           UPDATE PostPaymentTask t
+           SET    t.estado = com.eviden.cine.model.PostPaymentTask.Estado.EN_CURSO, t.reclamadaEn = :ahora
+           WHERE  t.id = :id
+             AND (t.estado = com.eviden.cine.model.PostPaymentTask.Estado.PENDIENTE
+              OR (t.estado = com.eviden.cine.model.PostPaymentTask.Estado.EN_CURSO AND t.reclamadaEn < :caducada))
+           """)
+    int reclamar(@Param("id") Long id, @Param("ahora") LocalDateTime ahora, @Param("caducada") LocalDateTime caducada);
+
+    @Transactional
+    @Modifying
+    @Query("""
+           UPDATE PostPaymentTask t
+           SET    t.estado = com.eviden.cine.model.PostPaymentTask.Estado.PENDIENTE, t.reclamadaEn = null
+           WHERE  t.id = :id AND t.estado = com.eviden.cine.model.PostPaymentTask.Estado.EN_CURSO
+           """)
+    int soltar(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("""
+           UPDATE PostPaymentTask t
+           SET    t.estado = com.eviden.cine.model.PostPaymentTask.Estado.FALLIDA
+           WHERE  t.id = :id
+           """)
+    int marcarFallida(@Param("id") Long id);
+}
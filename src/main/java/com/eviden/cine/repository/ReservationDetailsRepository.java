@@ -1,7 +1,39 @@
 package com.eviden.cine.repository;
 
+import com.eviden.cine.model.Asiento;
 import com.eviden.cine.model.ReservationDetails;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ReservationDetailsRepository extends JpaRepository<ReservationDetails, Long> {
+
+    // asientos vendidos en una emisión, usado para reconstruir su inventario
+    @Query("""
+           SELECT d.asiento
+           FROM   ReservationDetails d
+           WHERE  d.reservation.emision.idEmision = :idEmision
+           """)
+    List<Asiento> findAsientosVendidosByEmision(@Param("idEmision") Long idEmision);
+
+    interface AsientoDeReserva {
+        Long getIdReserve();
+        String getFila();
+        Integer getColumna();
+    }
+
+    // asientos de varias reservas en una sola consulta, para los listados paginados
+    @Query("""
+           SELECT d.reservation.idReserve AS idReserve,
+                  a.fila AS fila,
+                  a.columna AS columna
+           FROM   ReservationDetails d
+           JOIN   d.asiento a
+           WHERE  d.reservation.idReserve IN :ids
+           ORDER BY d.idReserveDetails
+           """)
+    List<AsientoDeReserva> findAsientosByReservas(@Param("ids") Collection<Long> ids);
 }
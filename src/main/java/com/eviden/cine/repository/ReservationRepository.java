@@ -1,10 +1,146 @@
 package com.eviden.cine.repository;
 
 import com.eviden.cine.model.Reservation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
-    List<Reservation> findByUserEmail(String email);
+
+    /**
+     * Fila del listado paginado de reservas: columnas del DTO, sin el QR ni los detalles.
+     */
+    interface FilaReserva {
+        Long getIdReserve();
+        String getStatus();
+        Double getTotalPrice();
+        LocalDateTime getReservationDate();
+        String getMovieTitle();
+        String getUserEmail();
+        String getUserName();
+        String getRoomName();
+        LocalDateTime getShowTime();
+    }
+
+    // página de reservas por cursor: reservas con id mayor que :despues, ordenadas por id
+    @Query("""
+           SELECT r.idReserve AS idReserve,
+                  r.status AS status,
+                  r.totalPrice AS totalPrice,
+                  r.reservationDate AS reservationDate,
+                  m.title AS movieTitle,
+                  u.email AS userEmail,
+                  u.username AS userName,
+                  s.nombreroom AS roomName,
+                  e.fechaHoraInicio AS showTime
+           FROM   Reservation r
+           JOIN   r.user u
+           JOIN   r.emision e
+           JOIN   e.movie m
+           JOIN   e.room s
+           WHERE  r.idReserve > :despues
+           ORDER BY r.idReserve
+           """)
+    List<FilaReserva> findPaginaDespuesDe(@Param("despues") Long despues, Pageable limite);
+
+    /**
+     * Fila de reserva con uno de sus asientos: una fila por asiento (o una con el asiento a null si
+     * la reserva no tiene detalles), para sacar reservas completas en una sola consulta.
+     */
+    interface FilaReservaConAsiento extends FilaReserva {
+        String getFila();
+        Integer getColumna();
+    }
+
+    // reservas de un usuario con sus asientos, sin el QR, en una sola consulta
+    @Query("""
+           SELECT r.idReserve AS idReserve,
+                  r.status AS status,
+                  r.totalPrice AS totalPrice,
+                  r.reservationDate AS reservationDate,
+                  m.title AS movieTitle,
+                  u.email AS userEmail,
+                  u.username AS userName,
+                  s.nombreroom AS roomName,
+                  e.fechaHoraInicio AS showTime,
+                  a.fila AS fila,
+                  a.columna AS columna
+           FROM   Reservation r
+           JOIN   r.user u
+           JOIN   r.emision e
+           JOIN   e.movie m
+           JOIN   e.room s
+           LEFT JOIN r.reserveDetails d
+           LEFT JOIN d.asiento a
+           WHERE  u.email = :email
+           ORDER BY r.idReserve, d.idReserveDetails
+           """)
+    List<FilaReservaConAsiento> findFilasByUserEmail(@Param("email") String email);
+
+    // todas las reservas con sus asientos, sin el QR
+    @Query("""
+           SELECT r.idReserve AS idReserve,
+                  r.status AS status,
+                  r.totalPrice AS totalPrice,
+                  r.reservationDate AS reservationDate,
+                  m.title AS movieTitle,
+                  u.email AS userEmail,
+                  u.username AS userName,
+                  s.nombreroom AS roomName,
+                  e.fechaHoraInicio AS showTime,
+                  a.fila AS fila,
+                  a.columna AS columna
+           FROM   Reservation r
+           JOIN   r.user u
+           JOIN   r.emision e
+           JOIN   e.movie m
+           JOIN   e.room s
+           LEFT JOIN r.reserveDetails d
+           LEFT JOIN d.asiento a
+           ORDER BY r.idReserve, d.idReserveDetails
+           """)
+    List<FilaReservaConAsiento> findFilasConAsientos();
+
+    // una reserva con sus asientos, sin el QR
+    @Query("""
+           SELECT r.idReserve AS idReserve,
+                  r.status AS status,
+                  r.totalPrice AS totalPrice,
+                  r.reservationDate AS reservationDate,
+                  m.title AS movieTitle,
+                  u.email AS userEmail,
+                  u.username AS userName,
+                  s.nombreroom AS roomName,
+                  e.fechaHoraInicio AS showTime,
+                  a.fila AS fila,
+                  a.columna AS columna
+           FROM   Reservation r
+           JOIN   r.user u
+           JOIN   r.emision e
+           JOIN   e.movie m
+           JOIN   e.room s
+           LEFT JOIN r.reserveDetails d
+           LEFT JOIN d.asiento a
+           WHERE  r.idReserve = :id
+           ORDER BY d.idReserveDetails
+           """)
+    List<FilaReservaConAsiento> findFilasById(@Param("id") Long id);
+
+    // la reserva con todo lo que necesitan el QR, el PDF y el correo, para retomar su envío
+    @Query("""
+           SELECT DISTINCT r
+           FROM   Reservation r
+           JOIN FETCH r.emision e
+           JOIN FETCH e.movie
+           JOIN FETCH e.room
+           LEFT JOIN FETCH r.reserveDetails d
+           LEFT JOIN FETCH d.asiento
+           WHERE  r.idReserve = :id
+           """)
+    Optional<Reservation> findCompletaById(@Param("id") Long id);
 }
@@ -0,0 +1,46 @@
+package com.eviden.cine.repository;
+
+import com.eviden.cine.model.SeatHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SeatHoldRepository extends JpaRepository<SeatHold, Long> {
+    List<SeatHold> findByExpiraEnAfter(LocalDateTime fecha);
+
+    @Transactional
+    void deleteByToken(String token);
+
+    @Transactional
+    void deleteByExpiraEnBefore(LocalDateTime fecha);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE SeatHold h SET h.expiraEn = :expiraEn WHERE h.token = :token")
+    int actualizarExpiracion(@Param("token") String token, @Param("expiraEn") LocalDateTime expiraEn);
+
+    @Transactional
+    @Modifying
+    @Query("""
+           DELETE FROM SeatHold h
+           WHERE  h.idEmision = :idEmision AND h.idAsiento IN :idsAsientos AND h.expiraEn <= :ahora
+           """)
+    int borrarCaducadas(@Param("idEmision") Long idEmision, @Param("idsAsientos") Collection<Long> idsAsientos,
+                        @Param("ahora") LocalDateTime ahora);
+
+    @Query("""
+           SELECT COUNT(h) FROM SeatHold h
+           WHERE  h.idEmision = :idEmision AND h.idAsiento IN :idsAsientos
+             AND  h.token <> :token AND h.expiraEn > :ahora
+           """)
+    long contarRetenidosPorOtro(@Param("idEmision") Long idEmision, @Param("idsAsientos") Collection<Long> idsAsientos,
+                                @Param("token") String token, @Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,9 @@
+package com.eviden.cine.repository;
+
+import com.eviden.cine.model.SeatInventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SeatInventoryRepository extends JpaRepository<SeatInventory, Long> {
+}
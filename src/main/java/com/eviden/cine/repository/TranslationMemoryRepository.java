@@ -0,0 +1,13 @@
+package com.eviden.cine.repository;
+
+import com.eviden.cine.model.TranslationMemory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TranslationMemoryRepository extends JpaRepository<TranslationMemory, Long> {
+    List<TranslationMemory> findByHashTextoIn(Collection<String> hashes);
+}
@@ -1,14 +1,45 @@
 package com.eviden.cine.repository;
 
 import com.eviden.cine.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
-
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
+    /**
+     * Fila del listado paginado de usuarios: sin contraseña ni favoritos.
+     */
+    interface FilaUsuario {
+        Long getUserId();
+        String getUsername();
+        String getEmail();
+        String getPreferredLanguage();
+        String getRegion();
+        Long getRoleId();
+        String getRoleName();
+    }
+
+    // página de usuarios por cursor: usuarios con id mayor que :despues, ordenados por id
+    @Query("""
+           SELECT u.userId AS userId,
+                  u.username AS username,
+                  u.email AS email,
+                  u.preferredLanguage AS preferredLanguage,
+                  u.region AS region,
+                  r.roleId AS roleId,
+                  r.name AS roleName
+           FROM   User u
+           JOIN   u.role r
+           WHERE  u.userId > :despues
+           ORDER BY u.userId
+           """)
+    List<FilaUsuario> findPaginaDespuesDe(@Param("despues") Long despues, Pageable limite);
 }
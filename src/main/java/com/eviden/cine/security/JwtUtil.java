@@ -1,30 +1,70 @@
 package com.eviden.cine.security;
 
 import com.eviden.cine.model.User;
+import com.eviden.cine.util.ExpiringCache;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
 
+    private static final long TICK_MILLIS = 1000;
+
+    /**
+     * Datos de un token con firma y caducidad ya comprobadas.
+     */
+    public record TokenVerificado(String email, Long userId, String rol, long expiraEn) {
+    }
+
+    // La clave y el parser se construyen una sola vez; el parser de jjwt es inmutable y seguro entre hilos
+    private record Firma(Key clave, JwtParser parser) {
+    }
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expirationMs}")
     private long jwtExpirationMs;
 
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private int maxTokensVerificados = 10000;
+
+    @Value("${jwt.verified-cache.ttl-seconds:300}")
+    private long ttlTokensVerificadosSegundos = 300;
+
+    // Se crean en el primer uso; si dos hilos coinciden, ambos construyen un valor equivalente
+    private volatile Firma firma;
+    private volatile ExpiringCache<String, TokenVerificado> verificados;
+
+    private Firma firma() {
+        Firma actual = firma;
+        if (actual == null) {
+            Key clave = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+            actual = new Firma(clave, Jwts.parserBuilder().setSigningKey(clave).build());
+            firma = actual;
+        }
+        return actual;
+    }
+
+    private ExpiringCache<String, TokenVerificado> verificados() {
+        ExpiringCache<String, TokenVerificado> actual = verificados;
+        if (actual == null) {
+            actual = new ExpiringCache<>(maxTokensVerificados, ttlTokensVerificadosSegundos * 1000);
+            verificados = actual;
+        }
+        return actual;
     }
 
     public String generateToken(User user) {
@@ -34,10 +74,41 @@ public class JwtUtil {
                 .claim("role", user.getRole().getName())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(firma().clave(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Comprueba el token y devuelve sus datos, o vacío si no es válido o ha caducado.
+     * El token se analiza una sola vez; los ya verificados se sirven de memoria hasta que
+     * caducan, sin volver a comprobar la firma.
+     */
+    public Optional<TokenVerificado> verificar(String token) {
+        ExpiringCache<String, TokenVerificado> cache = verificados();
+        TokenVerificado verificado = cache.get(token);
+        if (verificado != null && verificado.expiraEn() > System.currentTimeMillis()) {
+            return Optional.of(verificado);
+        }
+        Optional<TokenVerificado> analizado = analizar(token);
+        analizado.ifPresent(t -> cache.put(token, t));
+        return analizado;
+    }
+
+    // Sin pasar por la caché de tokens verificados
+    Optional<TokenVerificado> analizar(String token) {
+        try {
+            Claims claims = extractClaims(token);
+            Object userId = claims.get("userId");
+            Date expiracion = claims.getExpiration();
+            return Optional.of(new TokenVerificado(
+                    claims.getSubject(),
+                    userId != null ? Long.parseLong(userId.toString()) : null,
+                    claims.get("role", String.class),
+                    expiracion != null ? expiracion.getTime() : Long.MAX_VALUE));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
 
     public String extractEmail(String token) {
         return extractClaims(token).getSubject();
@@ -53,9 +124,7 @@ public class JwtUtil {
     }
 
     private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return firma().parser()
                 .parseClaimsJws(token)
                 .getBody();
     }
@@ -65,4 +134,13 @@ public class JwtUtil {
         return userId != null ? Long.parseLong(userId.toString()) : null;
     }
 
+    public ExpiringCache.Estadisticas getEstadisticasTokens() {
+        return verificados().getEstadisticas();
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void limpiarCaducados() {
+        verificados().limpiar();
+    }
+
 }
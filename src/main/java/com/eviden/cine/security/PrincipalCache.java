@@ -0,0 +1,89 @@
+package com.eviden.cine.security;
+
+import com.eviden.cine.model.User;
+import com.eviden.cine.repository.UserRepository;
+import com.eviden.cine.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Datos del usuario autenticado que se necesitan en cada petición: credenciales, rol e idioma
+ * preferido. Se guardan por email durante un TTL corto para que el filtro JWT y la resolución
+ * del idioma no consulten la tabla de usuarios en cada petición. Los cambios de perfil, de rol
+ * o de contraseña invalidan la entrada; el TTL cubre los cambios hechos fuera de la aplicación.
+ */
+@Component
+public class PrincipalCache {
+
+    private static final long TICK_MILLIS = 1000;
+
+    public record Perfil(Long userId, String email, String password, String rol, String preferredLanguage) {
+
+        public UserDetails aUserDetails() {
+            return new org.springframework.security.core.userdetails.User(
+                    email, password, List.of(new SimpleGrantedAuthority("ROLE_" + rol)));
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final ExpiringCache<String, Perfil> perfiles;
+    // Se incrementa en cada invalidación; una carga que empezó antes no se guarda
+    private final AtomicLong version = new AtomicLong();
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${seguridad.principal-cache.max-entries:10000}") int maxEntradas,
+                          @Value("${seguridad.principal-cache.ttl-seconds:60}") long ttlSegundos) {
+        this.userRepository = userRepository;
+        this.perfiles = new ExpiringCache<>(maxEntradas, ttlSegundos * 1000);
+    }
+
+    public Optional<Perfil> obtener(String email) {
+        Perfil perfil = perfiles.get(email);
+        if (perfil != null) {
+            return Optional.of(perfil);
+        }
+        long versionLeida = version.get();
+        Optional<Perfil> cargado = userRepository.findByEmail(email).map(PrincipalCache::aPerfil);
+        cargado.ifPresent(p -> {
+            if (version.get() == versionLeida) {
+                perfiles.put(email, p);
+            }
+        });
+        return cargado;
+    }
+
+    /**
+     * Idioma preferido del usuario, o español si no existe o no tiene ninguno.
+     */
+    public String idiomaPreferido(String email) {
+        return obtener(email).map(Perfil::preferredLanguage).orElse("es");
+    }
+
+    public void invalidar(String email) {
+        if (email != null) {
+            version.incrementAndGet();
+            perfiles.remove(email);
+        }
+    }
+
+    public ExpiringCache.Estadisticas getEstadisticas() {
+        return perfiles.getEstadisticas();
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void limpiarCaducadas() {
+        perfiles.limpiar();
+    }
+
+    private static Perfil aPerfil(User user) {
+        return new Perfil(user.getUserId(), user.getEmail(), user.getPassword(),
+                user.getRole().getName(), user.getPreferredLanguage());
+    }
+}
@@ -2,7 +2,9 @@ package com.eviden.cine.service;
 
 import com.eviden.cine.exception.CustomException;
 import com.eviden.cine.model.Asiento;
+import com.eviden.cine.model.Emision;
 import com.eviden.cine.repository.AsientoRepository;
+import com.eviden.cine.repository.EmisionRepository;
 import com.eviden.cine.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,11 +17,19 @@ public class AsientoService {
 
     private final AsientoRepository asientoRepository;
     private final RoomRepository roomRepository;
+    private final EmisionRepository emisionRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatHoldService seatHoldService;
 
     @Autowired
-    public AsientoService(AsientoRepository asientoRepository, RoomRepository roomRepository) {
+    public AsientoService(AsientoRepository asientoRepository, RoomRepository roomRepository,
+                          EmisionRepository emisionRepository, SeatInventoryService seatInventoryService,
+                          SeatHoldService seatHoldService) {
         this.asientoRepository = asientoRepository;
         this.roomRepository = roomRepository;
+        this.emisionRepository = emisionRepository;
+        this.seatInventoryService = seatInventoryService;
+        this.seatHoldService = seatHoldService;
     }
 
     public List<Asiento> obtenerTodosLosAsientos() {
@@ -34,6 +44,24 @@ public class AsientoService {
         return asientoRepository.findByroomIdroom(idRoom);
     }
 
+    public List<Asiento> obtenerAsientosPorEmision(Long idEmision) {
+        Emision emision = emisionRepository.findById(idEmision)
+                .orElseThrow(() -> new CustomException("La emisión con ID " + idEmision + " no existe."));
+
+        // Copias con la disponibilidad de esta emisión (vendidos y retenidos), sin tocar el asiento físico
+        return asientoRepository.findByroomIdroom(emision.getRoom().getIdroom()).stream()
+                .map(asiento -> Asiento.builder()
+                        .idAsiento(asiento.getIdAsiento())
+                        .fila(asiento.getFila())
+                        .columna(asiento.getColumna())
+                        .tipoAsiento(asiento.getTipoAsiento())
+                        .disponible(asiento.isDisponible()
+                                && !seatInventoryService.estaOcupado(emision, asiento)
+                                && !seatHoldService.estaRetenido(idEmision, asiento.getIdAsiento()))
+                        .build())
+                .toList();
+    }
+
     public Asiento guardarAsiento(Asiento asiento) {
         Long idRoom = asiento.getRoom().getIdroom();
 
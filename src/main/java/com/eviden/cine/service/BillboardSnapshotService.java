@@ -0,0 +1,198 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.dtos.GenreTranslatedDTO;
+import com.eviden.cine.dtos.MovieTranslatedDTO;
+import com.eviden.cine.event.CarteleraModificadaEvent;
+import com.eviden.cine.model.Movie;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cartelera precalculada por idioma. Cada idioma tiene una instantánea inmutable con las
+ * películas traducidas y su JSON ya serializado, de modo que servir la cartelera es una
+ * búsqueda en un mapa. Las instantáneas se reconstruyen en segundo plano cuando llega un
+ * {@link CarteleraModificadaEvent} (tras el commit) y se sustituyen de forma atómica.
+ * Los DTO de una instantánea no salen de esta clase: quien pide las películas recibe
+ * copias, así que modificarlas no altera la cartelera que ven las demás peticiones.
+ */
+@Service
+public class BillboardSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillboardSnapshotService.class);
+    static final List<String> IDIOMAS = List.of("es", "en", "fr", "de", "it", "pt");
+    private static final String IDIOMA_POR_DEFECTO = "es";
+
+    private record Instantanea(List<MovieTranslatedDTO> peliculas, byte[] json) {
+    }
+
+    private final MovieService movieService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final long esperaMs;
+
+    private final AtomicReference<Map<String, Instantanea>> instantaneas = new AtomicReference<>();
+    private final AtomicBoolean pendiente = new AtomicBoolean();
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cartelera");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BillboardSnapshotService(MovieService movieService,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${cartelera.reconstruccion.espera-ms:200}") long esperaMs) {
+        this.movieService = movieService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.esperaMs = esperaMs;
+    }
+
+    /**
+     * JSON de la cartelera en el idioma indicado. El array es compartido y no debe modificarse.
+     */
+    public byte[] getJson(String idioma) {
+        return obtener(idioma).json();
+    }
+
+    public List<MovieTranslatedDTO> getPeliculas(String idioma) {
+        return obtener(idioma).peliculas().stream()
+                .map(BillboardSnapshotService::copia)
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarteleraModificada(CarteleraModificadaEvent evento) {
+        logger.debug("Cartelera modificada: {}", evento.motivo());
+        solicitarReconstruccion();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        solicitarReconstruccion();
+    }
+
+    // Red de seguridad para cambios que no publican evento (p. ej. cambios de sala)
+    @Scheduled(fixedDelayString = "${cartelera.reconstruccion.periodo-ms:300000}",
+            initialDelayString = "${cartelera.reconstruccion.periodo-ms:300000}")
+    public void refrescoPeriodico() {
+        solicitarReconstruccion();
+    }
+
+    /**
+     * Programa una reconstrucción. Las peticiones que llegan mientras hay una pendiente
+     * se agrupan en ella.
+     */
+    public void solicitarReconstruccion() {
+        if (pendiente.compareAndSet(false, true)) {
+            executor.schedule(() -> {
+                pendiente.set(false);
+                try {
+                    reconstruir();
+                } catch (RuntimeException e) {
+                    logger.error("❌ Error al reconstruir la cartelera", e);
+                }
+            }, esperaMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Reconstruye todas las instantáneas a partir de la base de datos y las publica juntas.
+     */
+    public void reconstruir() {
+        reconstruccion.lock();
+        try {
+            long inicio = System.nanoTime();
+            Map<String, Instantanea> nuevas = transactionTemplate.execute(status -> construir());
+            instantaneas.set(nuevas);
+            logger.info("Cartelera reconstruida: {} películas en {} ms",
+                    nuevas.get(IDIOMA_POR_DEFECTO).peliculas().size(), (System.nanoTime() - inicio) / 1_000_000);
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    private Instantanea obtener(String idioma) {
+        Map<String, Instantanea> actuales = instantaneas.get();
+        if (actuales == null) {
+            // Primera petición antes de que termine la construcción inicial
+            reconstruccion.lock();
+            try {
+                if (instantaneas.get() == null) {
+                    reconstruir();
+                }
+            } finally {
+                reconstruccion.unlock();
+            }
+            actuales = instantaneas.get();
+        }
+        Instantanea instantanea = idioma != null ? actuales.get(idioma.toLowerCase()) : null;
+        return instantanea != null ? instantanea : actuales.get(IDIOMA_POR_DEFECTO);
+    }
+
+    // Se serializa dentro de la transacción: las colecciones perezosas se cargan aquí y no en la petición
+    private Map<String, Instantanea> construir() {
+        List<Movie> peliculas = movieService.getMoviesForBillboard();
+        Map<String, Instantanea> mapa = new HashMap<>();
+        for (String idioma : IDIOMAS) {
+            List<MovieTranslatedDTO> traducidas = movieService.translateMovies(peliculas, idioma).stream()
+                    .map(BillboardSnapshotService::paraCartelera)
+                    .toList();
+            try {
+                mapa.put(idioma, new Instantanea(traducidas, objectMapper.writeValueAsBytes(traducidas)));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return Map.copyOf(mapa);
+    }
+
+    // Igual que en la entidad Movie, la cartelera no expone emisiones ni favoritos
+    private static MovieTranslatedDTO paraCartelera(MovieTranslatedDTO dto) {
+        dto.setEmisiones(null);
+        dto.setFavorites(null);
+        dto.setReview(dto.getReview() != null ? List.copyOf(dto.getReview()) : null);
+        dto.setCasting(dto.getCasting() != null ? List.copyOf(dto.getCasting()) : null);
+        return dto;
+    }
+
+    // Las listas ya son inmutables y se pueden compartir; el género es otro DTO y se copia
+    private static MovieTranslatedDTO copia(MovieTranslatedDTO dto) {
+        GenreTranslatedDTO genero = dto.getGenre() != null
+                ? new GenreTranslatedDTO(dto.getGenre().getId(), dto.getGenre().getName())
+                : null;
+        return new MovieTranslatedDTO(dto.getId(), dto.getTitle(), dto.getSynopsis(), dto.getUrlImageX(),
+                dto.getUrlImageY(), dto.getUrlTrailer(), genero, dto.getClassification(), dto.getRating(),
+                dto.getReleaseDate(), dto.getTime(), dto.getDirector(), dto.getIsAvailable(), dto.getIsComingSoon(),
+                dto.getReview(), null, null, dto.getCasting());
+    }
+}
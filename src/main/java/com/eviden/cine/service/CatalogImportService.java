@@ -0,0 +1,348 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.dtos.MovieImportDTO;
+import com.eviden.cine.event.CarteleraModificadaEvent;
+import com.eviden.cine.model.Actor;
+import com.eviden.cine.model.Classification;
+import com.eviden.cine.model.Director;
+import com.eviden.cine.model.Genre;
+import com.eviden.cine.model.Movie;
+import com.eviden.cine.repository.ActorRepository;
+import com.eviden.cine.repository.ClassificationRepository;
+import com.eviden.cine.repository.DirectorRepository;
+import com.eviden.cine.repository.GenreRepository;
+import com.eviden.cine.repository.MovieRepository;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Importación masiva del catálogo de películas desde un fichero JSON (array de objetos) o
+ * CSV (con cabecera). El fichero se lee fila a fila y las películas se insertan por lotes,
+ * así que la memoria usada no depende del tamaño del fichero. Géneros, clasificaciones,
+ * directores y actores se resuelven por nombre contra diccionarios cargados con una consulta
+ * cada uno al empezar; los que no existen se crean.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportService.class);
+    private static final int TAMANO_LOTE = 500;
+    private static final int MAX_ERRORES = 100;
+    private static final int LONGITUD_TITULO = 255;
+    private static final int LONGITUD_SINOPSIS = 1000;
+    private static final int LONGITUD_URL = 255;
+
+    public enum Formato { JSON, CSV }
+
+    public record InformeImportacion(int leidas, int importadas, int rechazadas, List<String> errores, long millis) {
+    }
+
+    /**
+     * Entidades por nombre (sin distinguir mayúsculas); crea y guarda las que faltan.
+     */
+    private static final class Diccionario<E> {
+        private final Map<String, E> porNombre = new HashMap<>();
+        private final Function<String, E> crear;
+
+        private Diccionario(List<E> existentes, Function<E, String> nombre, Function<String, E> crear) {
+            existentes.forEach(entidad -> porNombre.putIfAbsent(clave(nombre.apply(entidad)), entidad));
+            this.crear = crear;
+        }
+
+        private E obtener(String nombre) {
+            if (nombre == null || nombre.isBlank()) {
+                return null;
+            }
+            return porNombre.computeIfAbsent(clave(nombre), k -> crear.apply(nombre.trim()));
+        }
+
+        private static String clave(String nombre) {
+            return nombre.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final MovieRepository movieRepository;
+    private final GenreRepository genreRepository;
+    private final ClassificationRepository classificationRepository;
+    private final DirectorRepository directorRepository;
+    private final ActorRepository actorRepository;
+    private final TranslationService translationService;
+    private final MovieSearchService movieSearchService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader lectorJson;
+    private final ObjectReader lectorCsv;
+
+    public CatalogImportService(MovieRepository movieRepository,
+                                GenreRepository genreRepository,
+                                ClassificationRepository classificationRepository,
+                                DirectorRepository directorRepository,
+                                ActorRepository actorRepository,
+                                TranslationService translationService,
+                                MovieSearchService movieSearchService,
+                                ApplicationEventPublisher eventPublisher,
+                                ObjectMapper objectMapper) {
+        this.movieRepository = movieRepository;
+        this.genreRepository = genreRepository;
+        this.classificationRepository = classificationRepository;
+        this.directorRepository = directorRepository;
+        this.actorRepository = actorRepository;
+        this.translationService = translationService;
+        this.movieSearchService = movieSearchService;
+        this.eventPublisher = eventPublisher;
+        this.lectorJson = objectMapper.readerFor(MovieImportDTO.class);
+
+        CsvMapper csvMapper = CsvMapper.builder()
+                .addModule(new JavaTimeModule())
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .build();
+        // Cabecera con los nombres de los campos; el reparto va en una columna separado por '|'
+        CsvSchema esquema = CsvSchema.emptySchema().withHeader().withArrayElementSeparator("|");
+        this.lectorCsv = csvMapper.readerFor(MovieImportDTO.class).with(esquema);
+    }
+
+    /**
+     * Importa el catálogo. Las filas no válidas se descartan y se informan. Cada lote se guarda
+     * en su propia transacción; si la base de datos rechaza un lote se reintenta fila a fila y
+     * solo se descartan las que fallan. Si el fichero está mal formado la importación se detiene
+     * y se conservan las filas leídas hasta ese punto.
+     *
+     * @param traducir si es false los títulos y sinopsis se copian a todos los idiomas sin traducir
+     */
+    public InformeImportacion importar(InputStream entrada, Formato formato, String idiomaOrigen, boolean traducir)
+            throws IOException {
+        long inicio = System.nanoTime();
+        Diccionario<Genre> generos = new Diccionario<>(genreRepository.findAll(), Genre::getName,
+                nombre -> genreRepository.save(Genre.builder().name(nombre).build()));
+        Diccionario<Classification> clasificaciones = new Diccionario<>(classificationRepository.findAll(),
+                Classification::getName,
+                nombre -> classificationRepository.save(Classification.builder().name(nombre).build()));
+        Diccionario<Director> directores = new Diccionario<>(directorRepository.findAll(), Director::getName,
+                nombre -> directorRepository.save(Director.builder().name(nombre).build()));
+        Diccionario<Actor> actores = new Diccionario<>(actorRepository.findAll(), Actor::getName,
+                nombre -> actorRepository.save(Actor.builder().name(nombre).build()));
+
+        List<Movie> lote = new ArrayList<>(TAMANO_LOTE);
+        List<Integer> filasDelLote = new ArrayList<>(TAMANO_LOTE);
+        List<String> errores = new ArrayList<>();
+        int leidas = 0;
+        int importadas = 0;
+        int rechazadas = 0;
+
+        ObjectReader lector = formato == Formato.CSV ? lectorCsv : lectorJson;
+        try (MappingIterator<MovieImportDTO> filas = lector.readValues(entrada)) {
+            while (filas.hasNextValue()) {
+                leidas++;
+                MovieImportDTO fila;
+                try {
+                    fila = filas.nextValue();
+                } catch (JsonMappingException e) {
+                    // Valor con formato incorrecto: el iterador salta a la fila siguiente
+                    rechazadas++;
+                    anotar(errores, leidas, e.getOriginalMessage());
+                    continue;
+                }
+
+                String error = validar(fila);
+                if (error != null) {
+                    rechazadas++;
+                    anotar(errores, leidas, error);
+                    continue;
+                }
+
+                lote.add(aPelicula(fila, generos, clasificaciones, directores, actores));
+                filasDelLote.add(leidas);
+                if (lote.size() == TAMANO_LOTE) {
+                    int guardadas = guardarLote(lote, filasDelLote, idiomaOrigen, traducir, errores);
+                    importadas += guardadas;
+                    rechazadas += lote.size() - guardadas;
+                    lote.clear();
+                    filasDelLote.clear();
+                }
+            }
+        } catch (JsonParseException e) {
+            // El resto del fichero no se puede leer; se conservan las filas anteriores
+            anotar(errores, leidas, "fichero mal formado, importación detenida: " + e.getOriginalMessage());
+        }
+        if (!lote.isEmpty()) {
+            int guardadas = guardarLote(lote, filasDelLote, idiomaOrigen, traducir, errores);
+            importadas += guardadas;
+            rechazadas += lote.size() - guardadas;
+        }
+        if (importadas > 0) {
+            eventPublisher.publishEvent(new CarteleraModificadaEvent("importación de catálogo"));
+        }
+
+        long millis = (System.nanoTime() - inicio) / 1_000_000;
+        logger.info("📥 Catálogo importado: {} filas leídas, {} películas importadas, {} rechazadas en {} ms",
+                leidas, importadas, rechazadas, millis);
+        return new InformeImportacion(leidas, importadas, rechazadas, List.copyOf(errores), millis);
+    }
+
+    private static Movie aPelicula(MovieImportDTO fila, Diccionario<Genre> generos,
+                                   Diccionario<Classification> clasificaciones, Diccionario<Director> directores,
+                                   Diccionario<Actor> actores) {
+        return Movie.builder()
+                .title(fila.getTitle().trim())
+                .synopsis(fila.getSynopsis())
+                .time(fila.getTime())
+                .genre(generos.obtener(fila.getGenre()))
+                .classification(clasificaciones.obtener(fila.getClassification()))
+                .director(directores.obtener(fila.getDirector()))
+                .casting(fila.getCasting() == null ? List.of() : fila.getCasting().stream()
+                        .map(actores::obtener)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .toList())
+                .urlImageX(fila.getUrlImageX())
+                .urlImageY(fila.getUrlImageY())
+                .urlTrailer(fila.getUrlTrailer())
+                .releaseDate(fila.getReleaseDate())
+                .isAvailable(Boolean.TRUE.equals(fila.getIsAvailable()))
+                .isComingSoon(Boolean.TRUE.equals(fila.getIsComingSoon()))
+                .rating(fila.getRating() != null ? fila.getRating() : 0)
+                .build();
+    }
+
+    private int guardarLote(List<Movie> lote, List<Integer> filas, String idiomaOrigen, boolean traducir,
+                            List<String> errores) {
+        if (traducir) {
+            traducirLote(lote, idiomaOrigen);
+        } else {
+            lote.forEach(CatalogImportService::copiarATodosLosIdiomas);
+        }
+        try {
+            int insertadas = movieRepository.insertarEnLote(lote);
+            lote.forEach(movieSearchService::indexar);
+            return insertadas;
+        } catch (DataIntegrityViolationException e) {
+            // El lote se ha deshecho entero: se repite fila a fila para descartar solo las que fallan
+            logger.warn("Lote de {} películas rechazado por la base de datos, se reintenta fila a fila: {}",
+                    lote.size(), e.getMostSpecificCause().getMessage());
+        }
+        int insertadas = 0;
+        for (int i = 0; i < lote.size(); i++) {
+            Movie movie = lote.get(i);
+            try {
+                insertadas += movieRepository.insertarEnLote(List.of(movie));
+                movieSearchService.indexar(movie);
+            } catch (DataIntegrityViolationException e) {
+                anotar(errores, filas.get(i),
+                        "rechazada por la base de datos: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        return insertadas;
+    }
+
+    // Todos los títulos y sinopsis del lote en una sola tanda de traducciones
+    private void traducirLote(List<Movie> lote, String idiomaOrigen) {
+        Set<String> textos = new LinkedHashSet<>();
+        for (Movie movie : lote) {
+            textos.add(movie.getTitle());
+            if (movie.getSynopsis() != null) {
+                textos.add(movie.getSynopsis());
+            }
+        }
+        Map<String, Map<String, String>> traducciones =
+                translationService.traducir(textos, idiomaOrigen, BillboardSnapshotService.IDIOMAS);
+
+        for (Movie movie : lote) {
+            Map<String, String> titulos = traducciones.getOrDefault(movie.getTitle(), Map.of());
+            Map<String, String> sinopsis = movie.getSynopsis() != null
+                    ? traducciones.getOrDefault(movie.getSynopsis(), Map.of())
+                    : Map.of();
+            String titulo = movie.getTitle();
+            String sinopsisOriginal = movie.getSynopsis();
+
+            // El original ya se ha validado, pero una traducción puede no caber en su columna
+            movie.setTitleEn(recortar(titulos.getOrDefault("en", titulo), LONGITUD_TITULO));
+            movie.setTitleFr(recortar(titulos.getOrDefault("fr", titulo), LONGITUD_TITULO));
+            movie.setTitleDe(recortar(titulos.getOrDefault("de", titulo), LONGITUD_TITULO));
+            movie.setTitleIt(recortar(titulos.getOrDefault("it", titulo), LONGITUD_TITULO));
+            movie.setTitlePt(recortar(titulos.getOrDefault("pt", titulo), LONGITUD_TITULO));
+            movie.setTitle(recortar(titulos.getOrDefault("es", titulo), LONGITUD_TITULO));
+
+            movie.setSynopsisEn(recortar(sinopsis.getOrDefault("en", sinopsisOriginal), LONGITUD_SINOPSIS));
+            movie.setSynopsisFr(recortar(sinopsis.getOrDefault("fr", sinopsisOriginal), LONGITUD_SINOPSIS));
+            movie.setSynopsisDe(recortar(sinopsis.getOrDefault("de", sinopsisOriginal), LONGITUD_SINOPSIS));
+            movie.setSynopsisIt(recortar(sinopsis.getOrDefault("it", sinopsisOriginal), LONGITUD_SINOPSIS));
+            movie.setSynopsisPt(recortar(sinopsis.getOrDefault("pt", sinopsisOriginal), LONGITUD_SINOPSIS));
+            movie.setSynopsis(recortar(sinopsis.getOrDefault("es", sinopsisOriginal), LONGITUD_SINOPSIS));
+        }
+    }
+
+    static String recortar(String texto, int longitud) {
+        if (texto == null || texto.length() <= longitud) {
+            return texto;
+        }
+        // Sin partir un par sustituto al cortar
+        int fin = Character.isHighSurrogate(texto.charAt(longitud - 1)) ? longitud - 1 : longitud;
+        return texto.substring(0, fin);
+    }
+
+    private static void copiarATodosLosIdiomas(Movie movie) {
+        movie.setTitleEn(movie.getTitle());
+        movie.setTitleFr(movie.getTitle());
+        movie.setTitleDe(movie.getTitle());
+        movie.setTitleIt(movie.getTitle());
+        movie.setTitlePt(movie.getTitle());
+        movie.setSynopsisEn(movie.getSynopsis());
+        movie.setSynopsisFr(movie.getSynopsis());
+        movie.setSynopsisDe(movie.getSynopsis());
+        movie.setSynopsisIt(movie.getSynopsis());
+        movie.setSynopsisPt(movie.getSynopsis());
+    }
+
+    private static String validar(MovieImportDTO fila) {
+        if (fila.getTitle() == null || fila.getTitle().isBlank()) {
+            return "falta el título";
+        }
+        if (fila.getTitle().length() > LONGITUD_TITULO) {
+            return "el título supera " + LONGITUD_TITULO + " caracteres";
+        }
+        if (fila.getSynopsis() != null && fila.getSynopsis().length() > LONGITUD_SINOPSIS) {
+            return "la sinopsis supera " + LONGITUD_SINOPSIS + " caracteres";
+        }
+        if (fila.getTime() == null || fila.getTime() <= 0) {
+            return "duración no válida";
+        }
+        if (demasiadoLarga(fila.getUrlImageX()) || demasiadoLarga(fila.getUrlImageY())
+                || demasiadoLarga(fila.getUrlTrailer())) {
+            return "una URL supera " + LONGITUD_URL + " caracteres";
+        }
+        return null;
+    }
+
+    private static boolean demasiadoLarga(String url) {
+        return url != null && url.length() > LONGITUD_URL;
+    }
+
+    private static void anotar(List<String> errores, int fila, String mensaje) {
+        if (errores.size() < MAX_ERRORES) {
+            errores.add("Fila " + fila + ": " + mensaje);
+        }
+    }
+}
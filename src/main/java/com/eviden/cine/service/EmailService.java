@@ -22,6 +22,10 @@ public class EmailService {
     }
 
     public void enviarCorreoConfirmacion(String emailDestino, Reservation reserva, byte[] qrImage) throws MessagingException {
+        enviarCorreoConfirmacion(emailDestino, reserva, qrImage, null);
+    }
+
+    public void enviarCorreoConfirmacion(String emailDestino, Reservation reserva, byte[] qrImage, byte[] pdf) throws MessagingException {
         MimeMessage mensaje = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(mensaje, true);
 
@@ -65,6 +69,9 @@ public class EmailService {
 
         helper.setText(cuerpo, true);
         helper.addAttachment("ticket_qr.png", new ByteArrayResource(qrImage));
+        if (pdf != null) {
+            helper.addAttachment("entrada_" + reserva.getIdReserve() + ".pdf", new ByteArrayResource(pdf));
+        }
 
         mailSender.send(mensaje);
     }
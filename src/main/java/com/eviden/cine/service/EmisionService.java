@@ -3,6 +3,7 @@ package com.eviden.cine.service;
 import com.eviden.cine.dtos.EmisionDTO;
 import com.eviden.cine.dtos.EmisionFrontDTO;
 import com.eviden.cine.dtos.EmisionResponseDTO;
+import com.eviden.cine.event.CarteleraModificadaEvent;
 import com.eviden.cine.exception.CustomException;
 import com.eviden.cine.model.Emision;
 import com.eviden.cine.model.Movie;
@@ -10,48 +11,96 @@ import com.eviden.cine.model.Room;
 import com.eviden.cine.repository.EmisionRepository;
 import com.eviden.cine.repository.MovieRepository;
 import com.eviden.cine.repository.RoomRepository;
+import com.eviden.cine.util.KeysetPage;
+import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.security.SecureRandom;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 @EnableScheduling
 @Service
 public class EmisionService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmisionService.class);
-    private static final SecureRandom random = new SecureRandom();
+    private static final int DIAS_PLANIFICACION = 7;
+
+    /**
+     * Cómo se reparte la generación automática: todas las salas juntas, por región o por sala.
+     * Las particiones se planifican en paralelo en hilos virtuales.
+     */
+    public enum ModoParticion { NINGUNA, REGION, SALA }
+
+    public record InformeParticion(String particion, int salas, int emisiones, long millis, boolean correcta) {
+    }
 
 
     private final EmisionRepository emisionRepository;
     private final MovieRepository movieRepository;
     private final RoomRepository roomRepository;
     private final RoomAssignmentService roomAssignmentService;
+    private final SeatInventoryService seatInventoryService;
+    private final RoomCalendarService roomCalendarService;
+    private final WeeklySchedulePlanner weeklySchedulePlanner;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Setter
+    @Value("${emisiones.generacion.particion:NINGUNA}")
+    private ModoParticion modoParticion = ModoParticion.NINGUNA;
+
+    private volatile List<InformeParticion> ultimoInforme = List.of();
 
     @Autowired
     public EmisionService(
             EmisionRepository emisionRepository,
             MovieRepository movieRepository,
             RoomRepository roomRepository,
-            RoomAssignmentService roomAssignmentService
+            RoomAssignmentService roomAssignmentService,
+            SeatInventoryService seatInventoryService,
+            RoomCalendarService roomCalendarService,
+            WeeklySchedulePlanner weeklySchedulePlanner,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.emisionRepository = emisionRepository;
         this.movieRepository = movieRepository;
         this.roomRepository = roomRepository;
         this.roomAssignmentService = roomAssignmentService;
+        this.seatInventoryService = seatInventoryService;
+        this.roomCalendarService = roomCalendarService;
+        this.weeklySchedulePlanner = weeklySchedulePlanner;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Emision> obtenerTodas() {
-        return emisionRepository.findAll().stream()
-                .filter(em -> em.getFechaHoraInicio().isAfter(LocalDateTime.now()))
-                .toList();
+        return emisionRepository.findFuturas(LocalDateTime.now());
+    }
+
+    /**
+     * Página de emisiones futuras, paginada por cursor sobre el id de la emisión.
+     */
+    public KeysetPage<EmisionFrontDTO> obtenerPagina(Long despues, Integer tamano) {
+        int limite = KeysetPage.tamano(tamano);
+        List<EmisionFrontDTO> filas = emisionRepository.findFuturasDespuesDe(
+                KeysetPage.cursor(despues), LocalDateTime.now(), KeysetPage.limite(limite));
+        return KeysetPage.de(filas, limite, EmisionFrontDTO::id);
     }
 
     public Optional<Emision> obtenerPorId(Long id) {
@@ -81,7 +130,10 @@ public class EmisionService {
                 .estado(dto.getEstado())
                 .build();
 
-        return emisionRepository.save(emision);
+        Emision guardada = emisionRepository.save(emision);
+        roomCalendarService.registrar(guardada);
+        eventPublisher.publishEvent(new CarteleraModificadaEvent("emisión creada"));
+        return guardada;
     }
 
     public Emision actualizarDesdeDTO(Long id, EmisionDTO dto) {
@@ -106,7 +158,10 @@ public class EmisionService {
             emision.setIdioma(dto.getIdioma());
             emision.setEstado(dto.getEstado());
 
-            return emisionRepository.save(emision);
+            Emision guardada = emisionRepository.save(emision);
+            roomCalendarService.registrar(guardada);
+            eventPublisher.publishEvent(new CarteleraModificadaEvent("emisión modificada"));
+            return guardada;
         }).orElseThrow(() -> new CustomException("Emisión no encontrada con ID: " + id));
     }
 
@@ -115,27 +170,22 @@ public class EmisionService {
             throw new CustomException("No se encontró la emisión con ID: " + id);
         }
         emisionRepository.deleteById(id);
+        seatInventoryService.eliminar(id);
+        roomCalendarService.eliminar(id);
+        eventPublisher.publishEvent(new CarteleraModificadaEvent("emisión eliminada"));
     }
 
     public List<EmisionFrontDTO> emisionesPorRegion(Long regionId) {
-        return emisionRepository.findByRoom_Region_Id(regionId).stream()
-                .filter(em -> em.getFechaHoraInicio().isAfter(LocalDateTime.now()))
-                .map(EmisionFrontDTO::of)
-                .toList();
+        return emisionRepository.findFuturasByRegion(regionId, LocalDateTime.now());
     }
 
 
     public List<Emision> getEmisionesByMovieId(Long id) {
-        return emisionRepository.findByMovie_Id(id).stream()
-                .filter(em -> em.getFechaHoraInicio().isAfter(LocalDateTime.now()))
-                .toList();
+        return emisionRepository.findFuturasByMovie(Math.toIntExact(id), LocalDateTime.now());
     }
 
     public List<EmisionFrontDTO> obtenerEmisionesPorSala(Long roomId) {
-        return emisionRepository.findByRoom_Idroom(roomId).stream()
-                .filter(em -> em.getFechaHoraInicio().isAfter(LocalDateTime.now()))
-                .map(EmisionFrontDTO::of)
-                .toList();
+        return emisionRepository.findFuturasByRoom(roomId, LocalDateTime.now());
     }
 
 
@@ -165,102 +215,86 @@ public class EmisionService {
 
         List<Room> salas = roomRepository.findAll();
 
-        LocalDateTime inicioSemana = LocalDateTime.now()
-                .withHour(0).withMinute(0).withSecond(0).withNano(0); // Hoy
-
-        for (Room sala : salas) {
-            for (int dia = 0; dia < 7; dia++) {
-                LocalDateTime horaActual = inicioSemana.plusDays(dia).withHour(13); // 13:00 cada día
-
-                while (horaActual.getHour() < 24) {
-                    Movie pelicula = seleccionarPeliculaDisponible(peliculas, sala, horaActual);
-                    if (pelicula == null) {
-                        logger.warn("🛑 Sin películas disponibles para sala '{}' a las {}", sala.getNombreroom(), horaActual);
-                        horaActual = horaActual.plusMinutes(30); // Reintenta en otro slot
-                        continue;
-                    }
-
-                    int duracionConLimpieza = pelicula.getTime() + 20;
-                    LocalDateTime fin = horaActual.plusMinutes(duracionConLimpieza);
-                    if (fin.isAfter(horaActual.toLocalDate().atTime(23, 59))) break;
-
-                    EmisionDTO dto = EmisionDTO.builder()
-                            .idPelicula(pelicula.getId())
-                            .fechaHoraInicio(horaActual)
-                            .idioma("Español")
-                            .estado(Emision.EstadoEmision.ACTIVO)
-                            .build();
-
-                    try {
-                        if (!roomAssignmentService.estaSalaDisponible(sala, horaActual, pelicula.getTime())) {
-                            horaActual = horaActual.plusMinutes(30);
-                            continue;
-                        }
-
-                        Emision nuevaEmision = Emision.builder()
-                                .movie(pelicula)
-                                .room(sala) // ⬅️ Usa directamente la sala del bucle
-                                .fechaHoraInicio(horaActual)
-                                .idioma("Español")
-                                .estado(Emision.EstadoEmision.ACTIVO)
-                                .build();
-
-                        emisionRepository.save(nuevaEmision);
-
-                        logger.info("📅 Día {} ✅ Emisión: '{}' en '{}' a las {}",
-                                dia + 1, pelicula.getTitle(), sala.getNombreroom(), horaActual);
-
-                        horaActual = horaActual.plusMinutes(duracionConLimpieza);
-
-                    } catch (Exception ex) {
-                        logger.warn("⚠️ No se pudo generar emisión en '{}': {}", sala.getNombreroom(), ex.getMessage());
-                        horaActual = horaActual.plusMinutes(30);
-                    }
-
+        LocalDate hoy = LocalDate.now();
+        LocalDateTime desde = hoy.atStartOfDay();
+        LocalDateTime hasta = hoy.plusDays(DIAS_PLANIFICACION).atStartOfDay();
+        // Se incluye el día anterior por si alguna emisión termina pasada la medianoche
+        List<Emision> existentes = emisionRepository.findByFechaHoraInicioBetween(desde.minusDays(1), hasta);
+
+        long inicio = System.nanoTime();
+        Map<String, List<Room>> particiones = particionar(salas);
+        List<InformeParticion> informes = new ArrayList<>();
+        if (particiones.size() <= 1) {
+            particiones.forEach((nombre, salasParticion) ->
+                    informes.add(planificarParticion(nombre, salasParticion, peliculas, existentes, hoy)));
+        } else {
+            // Las particiones no comparten salas: se planifican y guardan en paralelo, cada una en su transacción
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<InformeParticion>> futuros = particiones.entrySet().stream()
+                        .map(entry -> executor.submit(() ->
+                                planificarParticion(entry.getKey(), entry.getValue(), peliculas, existentes, hoy)))
+                        .toList();
+                for (Future<InformeParticion> futuro : futuros) {
+                    informes.add(futuro.get());
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CustomException("Generación de emisiones interrumpida");
+            } catch (ExecutionException e) {
+                throw new CustomException("Error al generar emisiones: " + e.getCause().getMessage());
             }
         }
-    }
+        ultimoInforme = List.copyOf(informes);
 
-    private Movie seleccionarPeliculaDisponible(List<Movie> peliculas, Room sala, LocalDateTime hora) {
-        List<Movie> candidatas = peliculas.stream()
-                .filter(movie -> {
-                    List<Emision> emisionesSala = emisionRepository.findByRoom_Idroom(sala.getIdroom());
+        int insertadas = informes.stream().mapToInt(InformeParticion::emisiones).sum();
+        logger.info("📅 ✅ Generadas {} emisiones en {} particiones ({}) en {} ms", insertadas, informes.size(),
+                modoParticion, (System.nanoTime() - inicio) / 1_000_000);
 
-                    boolean haySolape = emisionesSala.stream().anyMatch(emision -> {
-                        LocalDateTime inicio = emision.getFechaHoraInicio();
-                        LocalDateTime fin = inicio.plusMinutes((long) emision.getMovie().getTime() + 20L);
-                        LocalDateTime nuevaFin = hora.plusMinutes((long) movie.getTime() + 20L);
-                        return hora.isBefore(fin) && inicio.isBefore(nuevaFin);
-                    });
-
-
-                    if (haySolape) return false;
-
-                    boolean yaProgramadaEseDia = emisionesSala.stream().anyMatch(emision ->
-                            emision.getFechaHoraInicio().toLocalDate().equals(hora.toLocalDate()) &&
-                                    emision.getMovie().getId() == movie.getId()
-                    );
+        if (insertadas > 0) {
+            // Las inserciones por lotes no devuelven los ids; se recargan para el calendario de salas
+            emisionRepository.findByFechaHoraInicioBetween(desde, hasta).forEach(roomCalendarService::registrar);
+            eventPublisher.publishEvent(new CarteleraModificadaEvent("generación automática de emisiones"));
+        }
+    }
 
-                    return !yaProgramadaEseDia;
-                })
-                .toList();
+    /**
+     * Resultado de la última generación automática, una entrada por partición.
+     */
+    public List<InformeParticion> getUltimoInforme() {
+        return ultimoInforme;
+    }
 
-        if (candidatas.isEmpty()) return null;
+    private Map<String, List<Room>> particionar(List<Room> salas) {
+        Map<String, List<Room>> particiones = new LinkedHashMap<>();
+        for (Room sala : salas) {
+            String clave = switch (modoParticion) {
+                case NINGUNA -> "todas";
+                case REGION -> "region-" + (sala.getRegion() != null ? sala.getRegion().getId() : "sin-region");
+                case SALA -> "sala-" + sala.getIdroom();
+            };
+            particiones.computeIfAbsent(clave, k -> new ArrayList<>()).add(sala);
+        }
+        return particiones;
+    }
 
-        List<Movie> estrenos = candidatas.stream()
-                .filter(movie -> movie.getReleaseDate() != null &&
-                        !movie.getReleaseDate().isBefore(LocalDateTime.now().toLocalDate().minusDays(14)))
+    private InformeParticion planificarParticion(String nombre, List<Room> salas, List<Movie> peliculas,
+                                                 List<Emision> existentes, LocalDate hoy) {
+        long inicio = System.nanoTime();
+        Set<Long> idsSalas = salas.stream().map(Room::getIdroom).collect(Collectors.toSet());
+        List<Emision> existentesParticion = existentes.stream()
+                .filter(emision -> idsSalas.contains(emision.getRoom().getIdroom()))
                 .toList();
-
-        if (!estrenos.isEmpty()) {
-            return estrenos.get(random.nextInt(estrenos.size()));
+        try {
+            List<Emision> nuevas = weeklySchedulePlanner.planificar(peliculas, salas, existentesParticion, hoy,
+                    DIAS_PLANIFICACION);
+            int insertadas = nuevas.isEmpty() ? 0 : emisionRepository.insertarEnLote(nuevas);
+            long millis = (System.nanoTime() - inicio) / 1_000_000;
+            logger.info("📅 Partición '{}': {} salas, {} emisiones en {} ms", nombre, salas.size(), insertadas, millis);
+            return new InformeParticion(nombre, salas.size(), insertadas, millis, true);
+        } catch (RuntimeException ex) {
+            long millis = (System.nanoTime() - inicio) / 1_000_000;
+            logger.warn("⚠️ No se pudo generar la partición '{}': {}", nombre, ex.getMessage());
+            return new InformeParticion(nombre, salas.size(), 0, millis, false);
         }
-
-        return candidatas.get(random.nextInt(candidatas.size()));
     }
-
-
-
-
-}
\ No newline at end of file
+}
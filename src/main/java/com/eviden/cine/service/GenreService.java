@@ -2,9 +2,8 @@ package com.eviden.cine.service;
 
 import com.eviden.cine.dtos.GenreTranslatedDTO;
 import com.eviden.cine.model.Genre;
-import com.eviden.cine.model.User;
 import com.eviden.cine.repository.GenreRepository;
-import com.eviden.cine.repository.UserRepository;
+import com.eviden.cine.security.PrincipalCache;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,11 +12,11 @@ import java.util.List;
 public class GenreService {
 
     private final GenreRepository genreRepository;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
-    public GenreService(GenreRepository genreRepository, UserRepository userRepository) {
+    public GenreService(GenreRepository genreRepository, PrincipalCache principalCache) {
         this.genreRepository = genreRepository;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
     public List<Genre> getAllGenres() {
@@ -37,9 +36,7 @@ public class GenreService {
     }
 
     public List<GenreTranslatedDTO> getGenresForUserLanguage(String email) {
-        String language = userRepository.findByEmail(email)
-                .map(User::getPreferredLanguage)
-                .orElse("es");
+        String language = principalCache.idiomaPreferido(email);
 
         return genreRepository.findAll().stream()
                 .map(g -> {
@@ -56,9 +53,7 @@ public class GenreService {
         String lang = "es";
 
         if (email != null) {
-            lang = userRepository.findByEmail(email)
-                    .map(User::getPreferredLanguage)
-                    .orElse("es");
+            lang = principalCache.idiomaPreferido(email);
         } else if (acceptLang != null && !acceptLang.isBlank()) {
             lang = acceptLang;
         }
@@ -0,0 +1,91 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.Actor;
+import com.eviden.cine.model.Movie;
+import com.eviden.cine.repository.MovieRepository;
+import com.eviden.cine.util.SearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice de búsqueda de películas por título, director y actores, uno por idioma
+ * (el título cambia según el idioma). Se carga al arrancar y MovieService lo mantiene
+ * al día al crear, modificar o eliminar películas.
+ */
+@Service
+public class MovieSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovieSearchService.class);
+    static final int PESO_TITULO = 3;
+    static final int PESO_DIRECTOR = 2;
+    static final int PESO_ACTOR = 1;
+
+    private final MovieRepository movieRepository;
+    private final Map<String, SearchIndex<Integer>> indices = new HashMap<>();
+
+    public MovieSearchService(MovieRepository movieRepository) {
+        this.movieRepository = movieRepository;
+        BillboardSnapshotService.IDIOMAS.forEach(idioma -> indices.put(idioma, new SearchIndex<>()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void cargar() {
+        List<Movie> peliculas = movieRepository.findAll();
+        peliculas.forEach(this::indexar);
+        logger.info("Índice de búsqueda cargado: {} películas", peliculas.size());
+    }
+
+    public void indexar(Movie movie) {
+        List<SearchIndex.Campo> comunes = new ArrayList<>();
+        if (movie.getDirector() != null) {
+            comunes.add(new SearchIndex.Campo(movie.getDirector().getName(), PESO_DIRECTOR));
+        }
+        if (movie.getCasting() != null) {
+            for (Actor actor : movie.getCasting()) {
+                comunes.add(new SearchIndex.Campo(actor.getName(), PESO_ACTOR));
+            }
+        }
+
+        indices.forEach((idioma, indice) -> {
+            List<SearchIndex.Campo> campos = new ArrayList<>();
+            // El título va primero: también se usa para ordenar los empates
+            campos.add(new SearchIndex.Campo(titulo(movie, idioma), PESO_TITULO));
+            campos.addAll(comunes);
+            indice.indexar(movie.getId(), campos);
+        });
+    }
+
+    public void eliminar(int id) {
+        indices.values().forEach(indice -> indice.eliminar(id));
+    }
+
+    /**
+     * Ids de las películas que coinciden con la consulta, ordenados por relevancia.
+     * Los idiomas no soportados buscan sobre los títulos en español.
+     */
+    public List<Integer> buscar(String consulta, String idioma) {
+        SearchIndex<Integer> indice = idioma != null ? indices.get(idioma.toLowerCase()) : null;
+        return (indice != null ? indice : indices.get("es")).buscar(consulta);
+    }
+
+    private static String titulo(Movie movie, String idioma) {
+        return switch (idioma) {
+            case "en" -> movie.getTitleEn();
+            case "fr" -> movie.getTitleFr();
+            case "de" -> movie.getTitleDe();
+            case "it" -> movie.getTitleIt();
+            case "pt" -> movie.getTitlePt();
+            default -> movie.getTitle();
+        };
+    }
+}
@@ -3,15 +3,20 @@ package com.eviden.cine.service;
 import com.eviden.cine.dtos.GenreTranslatedDTO;
 import com.eviden.cine.dtos.MovieDTO;
 import com.eviden.cine.dtos.MovieTranslatedDTO;
+import com.eviden.cine.event.CarteleraModificadaEvent;
 import com.eviden.cine.model.*;
 import com.eviden.cine.repository.*;
-import com.eviden.cine.util.Translator;
+import com.eviden.cine.security.PrincipalCache;
+import com.eviden.cine.util.KeysetPage;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -23,8 +28,12 @@ public class MovieService {
     private final ClassificationRepository classificationRepository;
     private final DirectorRepository directorRepository;
     private final ActorRepository actorRepository;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
     private final CloudinaryService cloudinaryService;
+    private final SeatInventoryService seatInventoryService;
+    private final MovieSearchService movieSearchService;
+    private final TranslationService translationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public MovieService(
             MovieRepository movieRepository,
@@ -32,15 +41,23 @@ public class MovieService {
             ClassificationRepository classificationRepository,
             DirectorRepository directorRepository,
             ActorRepository actorRepository,
-            UserRepository userRepository, CloudinaryService cloudinaryService
+            PrincipalCache principalCache, CloudinaryService cloudinaryService,
+            SeatInventoryService seatInventoryService,
+            MovieSearchService movieSearchService,
+            TranslationService translationService,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.movieRepository = movieRepository;
         this.genreRepository = genreRepository;
         this.classificationRepository = classificationRepository;
         this.directorRepository = directorRepository;
         this.actorRepository = actorRepository;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
         this.cloudinaryService = cloudinaryService;
+        this.seatInventoryService = seatInventoryService;
+        this.movieSearchService = movieSearchService;
+        this.translationService = translationService;
+        this.eventPublisher = eventPublisher;
     }
 
     // ──────────────────────── CRUD ────────────────────────
@@ -49,6 +66,48 @@ public class MovieService {
         return movieRepository.findAll();
     }
 
+    /**
+     * Página del catálogo traducido, paginada por cursor. Solo se leen las columnas del listado:
+     * reparto, reseñas, favoritos y emisiones quedan a null y se consultan en el detalle.
+     */
+    public KeysetPage<MovieTranslatedDTO> getTranslatedMoviesPage(String lang, Long after, Integer size) {
+        int tamano = KeysetPage.tamano(size);
+        String idioma = lang != null ? lang.toLowerCase() : "es";
+        int despues = (int) Math.min(KeysetPage.cursor(after), Integer.MAX_VALUE);
+
+        List<MovieRepository.FilaCatalogo> filas =
+                movieRepository.findCatalogoDespuesDe(idioma, despues, KeysetPage.limite(tamano));
+        return KeysetPage.de(filas, tamano, MovieRepository.FilaCatalogo::getId)
+                .map(MovieService::toTranslatedDTO);
+    }
+
+    private static MovieTranslatedDTO toTranslatedDTO(MovieRepository.FilaCatalogo fila) {
+        return new MovieTranslatedDTO(
+                fila.getId(),
+                fila.getTitle(),
+                fila.getSynopsis(),
+                fila.getUrlImageX(),
+                fila.getUrlImageY(),
+                fila.getUrlTrailer(),
+                fila.getGenreId() != null ? new GenreTranslatedDTO(fila.getGenreId(), fila.getGenreName()) : null,
+                fila.getClassificationId() != null
+                        ? Classification.builder().id(fila.getClassificationId()).name(fila.getClassificationName()).build()
+                        : null,
+                fila.getRating(),
+                fila.getReleaseDate(),
+                fila.getTime(),
+                fila.getDirectorId() != null
+                        ? Director.builder().id(fila.getDirectorId()).name(fila.getDirectorName()).build()
+                        : null,
+                fila.getIsAvailable(),
+                fila.getIsComingSoon(),
+                null,
+                null,
+                null,
+                null
+        );
+    }
+
     public Optional<Movie> getMovieById(int id) {
         return movieRepository.findMovieById(id);
     }
@@ -82,6 +141,33 @@ public class MovieService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Resultados de una búsqueda en el índice: las películas con esos ids que tienen alguna
+     * emisión activa (aunque esté agotada), traducidas y en el mismo orden de relevancia.
+     */
+    @Transactional(readOnly = true)
+    public List<MovieTranslatedDTO> getResultadosBusqueda(List<Integer> ids, String lang) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Movie> porId = movieRepository.findBuscablesByIdIn(ids).stream()
+                .collect(Collectors.toMap(Movie::getId, movie -> movie));
+        List<Movie> ordenadas = ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        // Como en la cartelera: sin emisiones ni favoritos, y las colecciones se cargan aquí y no al serializar
+        return translateMovies(ordenadas, lang).stream()
+                .map(dto -> {
+                    dto.setEmisiones(null);
+                    dto.setFavorites(null);
+                    dto.setReview(dto.getReview() != null ? List.copyOf(dto.getReview()) : null);
+                    dto.setCasting(dto.getCasting() != null ? List.copyOf(dto.getCasting()) : null);
+                    return dto;
+                })
+                .toList();
+    }
+
     @Transactional
     public Movie createMovie(MovieDTO movieDTO, String idiomaOrigen) {
         Movie movie = new Movie();
@@ -110,48 +196,33 @@ public class MovieService {
         movie.setDirector(movieDTO.getDirector());
         movie.setCasting(movieDTO.getCasting());
 
-        return movieRepository.save(movie);
+        Movie guardada = movieRepository.save(movie);
+        movieSearchService.indexar(guardada);
+        eventPublisher.publishEvent(new CarteleraModificadaEvent("película creada"));
+        return guardada;
     }
 
-    private static void translateMovie(MovieDTO movieDTO, Movie movie, String idiomaOrigen) {
+    private void translateMovie(MovieDTO movieDTO, Movie movie, String idiomaOrigen) {
         if (movieDTO.getTitle() != null && movieDTO.getSynopsis() != null) {
-            movie.setTitleEn(idiomaOrigen.equalsIgnoreCase("en")
-                    ? movieDTO.getTitle()
-                    : Translator.traducir(movieDTO.getTitle(), idiomaOrigen, "en"));
-            movie.setTitleFr(idiomaOrigen.equalsIgnoreCase("fr")
-                    ? movieDTO.getTitle()
-                    : Translator.traducir(movieDTO.getTitle(), idiomaOrigen, "fr"));
-            movie.setTitleDe(idiomaOrigen.equalsIgnoreCase("de")
-                    ? movieDTO.getTitle()
-                    : Translator.traducir(movieDTO.getTitle(), idiomaOrigen, "de"));
-            movie.setTitleIt(idiomaOrigen.equalsIgnoreCase("it")
-                    ? movieDTO.getTitle()
-                    : Translator.traducir(movieDTO.getTitle(), idiomaOrigen, "it"));
-            movie.setTitlePt(idiomaOrigen.equalsIgnoreCase("pt")
-                    ? movieDTO.getTitle()
-                    : Translator.traducir(movieDTO.getTitle(), idiomaOrigen, "pt"));
-            movie.setTitle(idiomaOrigen.equalsIgnoreCase("es")
-                    ? movieDTO.getTitle()
-                    : Translator.traducir(movieDTO.getTitle(), idiomaOrigen, "es"));
-
-            movie.setSynopsisEn(idiomaOrigen.equalsIgnoreCase("en")
-                    ? movieDTO.getSynopsis()
-                    : Translator.traducir(movieDTO.getSynopsis(), idiomaOrigen, "en"));
-            movie.setSynopsisFr(idiomaOrigen.equalsIgnoreCase("fr")
-                    ? movieDTO.getSynopsis()
-                    : Translator.traducir(movieDTO.getSynopsis(), idiomaOrigen, "fr"));
-            movie.setSynopsisDe(idiomaOrigen.equalsIgnoreCase("de")
-                    ? movieDTO.getSynopsis()
-                    : Translator.traducir(movieDTO.getSynopsis(), idiomaOrigen, "de"));
-            movie.setSynopsisIt(idiomaOrigen.equalsIgnoreCase("it")
-                    ? movieDTO.getSynopsis()
-                    : Translator.traducir(movieDTO.getSynopsis(), idiomaOrigen, "it"));
-            movie.setSynopsisPt(idiomaOrigen.equalsIgnoreCase("pt")
-                    ? movieDTO.getSynopsis()
-                    : Translator.traducir(movieDTO.getSynopsis(), idiomaOrigen, "pt"));
-            movie.setSynopsis(idiomaOrigen.equalsIgnoreCase("es")
-                    ? movieDTO.getSynopsis()
-                    : Translator.traducir(movieDTO.getSynopsis(), idiomaOrigen, "es"));
+            // Título y sinopsis a todos los idiomas en una sola tanda (memoria de traducción + proveedor en paralelo)
+            Map<String, Map<String, String>> traducciones = translationService.traducir(
+                    List.of(movieDTO.getTitle(), movieDTO.getSynopsis()), idiomaOrigen, BillboardSnapshotService.IDIOMAS);
+            Map<String, String> titulos = traducciones.getOrDefault(movieDTO.getTitle(), Map.of());
+            Map<String, String> sinopsis = traducciones.getOrDefault(movieDTO.getSynopsis(), Map.of());
+
+            movie.setTitleEn(titulos.getOrDefault("en", movieDTO.getTitle()));
+            movie.setTitleFr(titulos.getOrDefault("fr", movieDTO.getTitle()));
+            movie.setTitleDe(titulos.getOrDefault("de", movieDTO.getTitle()));
+            movie.setTitleIt(titulos.getOrDefault("it", movieDTO.getTitle()));
+            movie.setTitlePt(titulos.getOrDefault("pt", movieDTO.getTitle()));
+            movie.setTitle(titulos.getOrDefault("es", movieDTO.getTitle()));
+
+            movie.setSynopsisEn(sinopsis.getOrDefault("en", movieDTO.getSynopsis()));
+            movie.setSynopsisFr(sinopsis.getOrDefault("fr", movieDTO.getSynopsis()));
+            movie.setSynopsisDe(sinopsis.getOrDefault("de", movieDTO.getSynopsis()));
+            movie.setSynopsisIt(sinopsis.getOrDefault("it", movieDTO.getSynopsis()));
+            movie.setSynopsisPt(sinopsis.getOrDefault("pt", movieDTO.getSynopsis()));
+            movie.setSynopsis(sinopsis.getOrDefault("es", movieDTO.getSynopsis()));
         }
     }
 
@@ -198,7 +269,10 @@ public class MovieService {
             // Traducciones
             translateMovie(movieDTO, movie, idiomaOrigen);
 
-            return movieRepository.save(movie);
+            Movie guardada = movieRepository.save(movie);
+            movieSearchService.indexar(guardada);
+            eventPublisher.publishEvent(new CarteleraModificadaEvent("película modificada"));
+            return guardada;
         }).orElse(null);
     }
 
@@ -223,6 +297,8 @@ public class MovieService {
 
             // Eliminar la película de la base de datos
             movieRepository.deleteById(id);
+            movieSearchService.eliminar(id);
+            eventPublisher.publishEvent(new CarteleraModificadaEvent("película eliminada"));
         });
     }
 
@@ -426,21 +502,15 @@ public class MovieService {
     }
 
     private boolean tieneAsientosDisponibles(Emision emision) {
-        if (emision.getRoom() == null || emision.getRoom().getAsientos() == null) {
-            return false;
-        }
-        //se comprueba que haya minimo un sasiento
-        return emision.getRoom().getAsientos().stream()
-                .anyMatch(Asiento::isDisponible);
+        // se consulta el inventario de la emisión, sin cargar los asientos de la sala
+        return seatInventoryService.tieneAsientosLibres(emision);
     }
 
     public String resolveLanguage(String email, String lang) {
         if (lang != null) {
             return lang; // Priorizar el encabezado de lenguaje
         } else if (email != null) {
-            return userRepository.findByEmail(email)
-                    .map(User::getPreferredLanguage)
-                    .orElse("es");
+            return principalCache.idiomaPreferido(email);
         } else {
             return "es"; // Valor por defecto
         }
@@ -0,0 +1,33 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.util.Translator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Traducciones con la API pública de MyMemory.
+ */
+@Component
+public class MyMemoryTranslationProvider implements TranslationProvider {
+
+    private final double peticionesPorSegundo;
+
+    public MyMemoryTranslationProvider(@Value("${traduccion.mymemory.peticiones-por-segundo:10}") double peticionesPorSegundo) {
+        this.peticionesPorSegundo = peticionesPorSegundo;
+    }
+
+    @Override
+    public String nombre() {
+        return "mymemory";
+    }
+
+    @Override
+    public double peticionesPorSegundo() {
+        return peticionesPorSegundo;
+    }
+
+    @Override
+    public String traducir(String texto, String idiomaOrigen, String idiomaDestino) throws Exception {
+        return Translator.traducirOFallar(texto, idiomaOrigen, idiomaDestino);
+    }
+}
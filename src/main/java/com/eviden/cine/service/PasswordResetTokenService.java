@@ -0,0 +1,119 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.PasswordResetToken;
+import com.eviden.cine.repository.PasswordResetTokenRepository;
+import com.eviden.cine.util.ExpiringCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Tokens de recuperación de contraseña. En la base de datos se guarda solo el hash del token,
+ * con su email y caducidad, de modo que todos los nodos ven los mismos tokens y sobreviven a un
+ * reinicio. Delante hay una caché acotada con los emitidos recientemente. El borrado en la base
+ * de datos decide quién consume un token, así que solo se puede usar una vez aunque llegue a
+ * varios nodos a la vez. Los caducados se purgan periódicamente en bloque.
+ */
+@Service
+public class PasswordResetTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordResetTokenService.class);
+
+    private record Pendiente(String email, long expiraEn) {
+    }
+
+    private final PasswordResetTokenRepository repository;
+    private final ExpiringCache<String, Pendiente> recientes;
+    private final long ttlMillis;
+
+    public PasswordResetTokenService(PasswordResetTokenRepository repository,
+                                     @Value("${usuarios.reset-token.max-entries:10000}") int maxEntradas,
+                                     @Value("${usuarios.reset-token.ttl-minutes:30}") long ttlMinutos) {
+        this.repository = repository;
+        this.ttlMillis = ttlMinutos * 60_000;
+        this.recientes = new ExpiringCache<>(maxEntradas, ttlMillis);
+    }
+
+    /**
+     * Crea un token para el email y anula los que tuviera pendientes. Devuelve el token en claro,
+     * que solo viaja en el correo.
+     */
+    public String emitir(String email) {
+        String token = UUID.randomUUID().toString();
+        String hash = hash(token);
+        long expiraEn = System.currentTimeMillis() + ttlMillis;
+
+        repository.borrarPorEmail(email);
+        repository.save(PasswordResetToken.builder()
+                .hashToken(hash)
+                .email(email)
+                .expiraEn(aFecha(expiraEn))
+                .build());
+        recientes.put(hash, new Pendiente(email, expiraEn));
+        return token;
+    }
+
+    /**
+     * Consume el token y devuelve el email al que pertenece, o vacío si no existe, ha caducado
+     * o ya se ha usado.
+     */
+    public Optional<String> consumir(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String hash = hash(token);
+        Pendiente pendiente = recientes.remove(hash);
+        if (pendiente == null) {
+            pendiente = repository.findByHashToken(hash)
+                    .map(t -> new Pendiente(t.getEmail(), aMillis(t.getExpiraEn())))
+                    .orElse(null);
+        }
+        if (pendiente == null || repository.borrarPorHash(hash) == 0) {
+            return Optional.empty();
+        }
+        return pendiente.expiraEn() > System.currentTimeMillis()
+                ? Optional.of(pendiente.email())
+                : Optional.empty();
+    }
+
+    @Scheduled(fixedDelayString = "${usuarios.reset-token.purga-ms:600000}")
+    public void purgarCaducados() {
+        int borrados = repository.borrarCaducados(LocalDateTime.now());
+        if (borrados > 0) {
+            logger.info("Purgados {} tokens de recuperación caducados", borrados);
+        }
+        recientes.limpiar();
+    }
+
+    public ExpiringCache.Estadisticas getEstadisticas() {
+        return recientes.getEstadisticas();
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static LocalDateTime aFecha(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static long aMillis(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,137 +1,206 @@
 package com.eviden.cine.service;
 
 import com.eviden.cine.model.Reservation;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageData;
 import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.colors.Color;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.borders.SolidBorder;
-import com.itextpdf.layout.element.Cell;
-import com.itextpdf.layout.element.Image;
-import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.layout.element.Table;
-import com.itextpdf.layout.properties.HorizontalAlignment;
-import com.itextpdf.layout.properties.TextAlignment;
-import com.itextpdf.layout.properties.UnitValue;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Entradas en PDF. La plantilla (logo, fuentes, colores, textos fijos y la posición de cada
+ * campo) se prepara una sola vez; por cada entrada solo se escriben los datos de la reserva,
+ * directamente sobre el flujo de salida.
+ */
 @Service
 public class PdfService {
 
     // Paleta de colores
     private static final DeviceRgb ORANGE = new DeviceRgb(242, 125, 22);    // #F27D16
     private static final DeviceRgb GRAY_800 = new DeviceRgb(31, 41, 55);    // #1F2937
-    private static final DeviceRgb WHITE = (DeviceRgb) ColorConstants.WHITE;
+    private static final Color WHITE = ColorConstants.WHITE;
+    private static final Color GRAY = ColorConstants.GRAY;
 
-    public byte[] generateReservationPdf(Reservation reservation) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document doc = new Document(pdf);
-
-            // Logo
-            InputStream logoStream = new ClassPathResource("static/img/logo-cine.png").getInputStream();
-            Image logo = new Image(ImageDataFactory.create(logoStream.readAllBytes()))
-                    .setWidth(200)
-                    .setHorizontalAlignment(HorizontalAlignment.CENTER)
-                    .setMarginBottom(15);
-            doc.add(logo);
-
-            // Título
-            doc.add(new Paragraph("🎟 Entrada de Cine")
-                    .setFontSize(22)
-                    .setBold()
-                    .setFontColor(ORANGE)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(10));
-
-            doc.add(new Paragraph("Reserva Nº: " + reservation.getIdReserve())
-                    .setFontSize(12)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setFontColor(GRAY_800)
-                    .setMarginBottom(20));
-
-            // Tabla con fondo gris oscuro y texto blanco
-            Table table = new Table(UnitValue.createPercentArray(new float[]{1, 2}))
-                    .useAllAvailableWidth()
-                    .setMarginBottom(20)
-                    .setBorder(new SolidBorder(GRAY_800, 1));
-
-            table.addCell(cell("Película")).setBackgroundColor(GRAY_800);
-            table.addCell(text(reservation.getEmision().getMovie().getTitle()));
-
-            table.addCell(cell("Fecha")).setBackgroundColor(GRAY_800);
-            table.addCell(text(reservation.getEmision().getFechaHoraInicio().toLocalDate().toString()));
-
-            table.addCell(cell("Hora")).setBackgroundColor(GRAY_800);
-            table.addCell(text(reservation.getEmision().getFechaHoraInicio().toLocalTime().toString()));
-
-            table.addCell(cell("Sala")).setBackgroundColor(GRAY_800);
-            table.addCell(text(reservation.getEmision().getRoom().getNombreroom()));
-
-            table.addCell(cell("Precio")).setBackgroundColor(GRAY_800);
-            table.addCell(text(reservation.getTotalPrice() + " €"));
-
-            String asientos = reservation.getReserveDetails().stream()
-                    .map(d -> d.getAsiento().getFila() + d.getAsiento().getColumna())
-                    .reduce((a, b) -> a + ", " + b).orElse("No especificado");
-
-            table.addCell(cell("Asientos")).setBackgroundColor(GRAY_800);
-            table.addCell(text(asientos));
-
-            doc.add(table);
-
-            // Código QR
-            if (reservation.getQrContent() != null) {
-                Image qrImage = new Image(ImageDataFactory.create(reservation.getQrContent()))
-                        .setWidth(150)
-                        .setHeight(150)
-                        .setHorizontalAlignment(HorizontalAlignment.CENTER);
-
-                doc.add(new Paragraph("Código QR de tu entrada")
-                        .setFontSize(10)
-                        .setTextAlignment(TextAlignment.CENTER)
-                        .setFontColor(GRAY_800));
-                doc.add(qrImage);
-            }
+    private static final String[] ETIQUETAS = {"Película", "Fecha", "Hora", "Sala", "Precio", "Asientos"};
 
-            // Footer
-            doc.add(new Paragraph("Gracias por confiar en nosotros 🎬")
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setFontColor(GRAY_800)
-                    .setFontSize(10)
-                    .setItalic()
-                    .setMarginTop(30));
+    /**
+     * Datos variables de una entrada.
+     */
+    public record Entrada(Long idReserva, String pelicula, LocalDateTime inicio, String sala, Double precio,
+                          List<String> asientos, byte[] qr) {
+    }
 
-            doc.add(new Paragraph("© 2025 CineApp · Entrada digital válida solo con identificación")
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setFontColor(ColorConstants.GRAY)
-                    .setFontSize(8));
+    /**
+     * Posiciones en puntos sobre un A4, calculadas a partir del tamaño del logo.
+     */
+    private record Plantilla(Rectangle logo, float tituloY, float reservaY, float tablaArriba, float tablaX,
+                             float tablaAncho, float valorX, float valorAncho, float captionQrY, Rectangle qr,
+                             float pieConQrY, float pieSinQrY) {
+    }
 
-            doc.close();
-            return baos.toByteArray();
+    private static final PageSize PAGINA = PageSize.A4;
+    private static final float MARGEN = 36;
+    private static final float ALTO_FILA = 24;
+    private static final float LADO_QR = 150;
+
+    private final ImageData logo;
+    private final FontProgram normal;
+    private final FontProgram negrita;
+    private final FontProgram cursiva;
+    private final Plantilla plantilla;
+
+    public PdfService() {
+        try (InputStream logoStream = new ClassPathResource("static/img/logo-cine.png").getInputStream()) {
+            this.logo = ImageDataFactory.create(logoStream.readAllBytes());
+            this.normal = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+            this.negrita = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+            this.cursiva = FontProgramFactory.createFont(StandardFonts.HELVETICA_OBLIQUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo preparar la plantilla de las entradas", e);
+        }
+        this.plantilla = calcularPlantilla(logo);
+    }
 
+    public byte[] generateReservationPdf(Reservation reservation) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(64 * 1024);
+        escribirEntrada(aEntrada(reservation), baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Escribe la entrada en el flujo indicado, sin cerrarlo.
+     */
+    public void escribirEntrada(Entrada entrada, OutputStream salida) {
+        try {
+            PdfWriter writer = new PdfWriter(salida);
+            writer.setCloseStream(false);
+            try (PdfDocument pdf = new PdfDocument(writer)) {
+                PdfFont fuenteNormal = PdfFontFactory.createFont(normal, PdfEncodings.WINANSI);
+                PdfFont fuenteNegrita = PdfFontFactory.createFont(negrita, PdfEncodings.WINANSI);
+                PdfFont fuenteCursiva = PdfFontFactory.createFont(cursiva, PdfEncodings.WINANSI);
+                PdfCanvas canvas = new PdfCanvas(pdf.addNewPage(PAGINA));
+                Plantilla p = plantilla;
+
+                canvas.addImageFittedIntoRectangle(logo, p.logo(), false);
+                centrado(canvas, fuenteNegrita, 22, ORANGE, "Entrada de Cine", p.tituloY());
+                centrado(canvas, fuenteNormal, 12, GRAY_800, "Reserva Nº: " + entrada.idReserva(), p.reservaY());
+
+                // Tabla con fondo gris oscuro y texto blanco
+                canvas.saveState()
+                        .setFillColor(GRAY_800)
+                        .rectangle(p.tablaX(), p.tablaArriba() - ETIQUETAS.length * ALTO_FILA, p.tablaAncho(),
+                                ETIQUETAS.length * ALTO_FILA)
+                        .fill()
+                        .restoreState();
+                String[] valores = {
+                        entrada.pelicula(),
+                        entrada.inicio().toLocalDate().toString(),
+                        entrada.inicio().toLocalTime().toString(),
+                        entrada.sala(),
+                        entrada.precio() + " €",
+                        entrada.asientos().isEmpty() ? "No especificado" : String.join(", ", entrada.asientos())
+                };
+                for (int i = 0; i < ETIQUETAS.length; i++) {
+                    float y = p.tablaArriba() - (i + 1) * ALTO_FILA + 8;
+                    texto(canvas, fuenteNegrita, 12, WHITE, ETIQUETAS[i], p.tablaX() + 5, y);
+                    texto(canvas, fuenteNormal, 12, WHITE,
+                            ajustar(fuenteNormal, 12, String.valueOf(valores[i]), p.valorAncho()), p.valorX(), y);
+                }
+
+                float pieY = p.pieSinQrY();
+                if (entrada.qr() != null) {
+                    centrado(canvas, fuenteNormal, 10, GRAY_800, "Código QR de tu entrada", p.captionQrY());
+                    canvas.addImageFittedIntoRectangle(ImageDataFactory.create(entrada.qr()), p.qr(), false);
+                    pieY = p.pieConQrY();
+                }
+
+                centrado(canvas, fuenteCursiva, 10, GRAY_800, "Gracias por confiar en nosotros", pieY);
+                centrado(canvas, fuenteNormal, 8, GRAY,
+                        "© 2025 CineApp · Entrada digital válida solo con identificación", pieY - 14);
+            }
         } catch (Exception e) {
             throw new RuntimeException("Error generando PDF", e);
         }
     }
 
-    private Cell cell(String label) {
-        return new Cell().add(new Paragraph(label))
-                .setFontColor(WHITE)
-                .setPadding(5)
-                .setBold();
+    static Entrada aEntrada(Reservation reservation) {
+        return new Entrada(
+                reservation.getIdReserve(),
+                reservation.getEmision().getMovie().getTitle(),
+                reservation.getEmision().getFechaHoraInicio(),
+                reservation.getEmision().getRoom().getNombreroom(),
+                reservation.getTotalPrice(),
+                reservation.getReserveDetails().stream()
+                        .map(d -> d.getAsiento().getFila() + d.getAsiento().getColumna())
+                        .toList(),
+                reservation.getQrContent());
     }
 
-    private Paragraph text(String value) {
-        return new Paragraph(value)
-                .setFontColor(WHITE)
-                .setPaddingLeft(5);
+    private static Plantilla calcularPlantilla(ImageData logo) {
+        float arriba = PAGINA.getHeight() - MARGEN;
+        float anchoUtil = PAGINA.getWidth() - 2 * MARGEN;
+        float anchoLogo = 200;
+        float altoLogo = anchoLogo * logo.getHeight() / logo.getWidth();
+        Rectangle rectLogo = new Rectangle((PAGINA.getWidth() - anchoLogo) / 2, arriba - altoLogo, anchoLogo, altoLogo);
+
+        float tituloY = rectLogo.getBottom() - 15 - 22;
+        float reservaY = tituloY - 10 - 16;
+        float tablaArriba = reservaY - 20;
+        float tablaAbajo = tablaArriba - ETIQUETAS.length * ALTO_FILA;
+        float valorX = MARGEN + anchoUtil / 3 + 5;
+
+        float captionQrY = tablaAbajo - 20 - 10;
+        Rectangle qr = new Rectangle((PAGINA.getWidth() - LADO_QR) / 2, captionQrY - 6 - LADO_QR, LADO_QR, LADO_QR);
+
+        return new Plantilla(rectLogo, tituloY, reservaY, tablaArriba, MARGEN, anchoUtil,
+                valorX, MARGEN + anchoUtil - valorX - 5, captionQrY, qr, qr.getBottom() - 30, tablaAbajo - 30);
+    }
+
+    private static void centrado(PdfCanvas canvas, PdfFont fuente, float tamano, Color color, String texto, float y) {
+        float x = (PAGINA.getWidth() - fuente.getWidth(texto, tamano)) / 2;
+        texto(canvas, fuente, tamano, color, texto, x, y);
+    }
+
+    private static void texto(PdfCanvas canvas, PdfFont fuente, float tamano, Color color, String texto,
+                              float x, float y) {
+        canvas.beginText()
+                .setFontAndSize(fuente, tamano)
+                .setFillColor(color)
+                .moveText(x, y)
+                .showText(texto)
+                .endText();
+    }
+
+    // Recorta el texto con puntos suspensivos si no cabe en el ancho de su columna
+    private static String ajustar(PdfFont fuente, float tamano, String texto, float ancho) {
+        if (fuente.getWidth(texto, tamano) <= ancho) {
+            return texto;
+        }
+        int fin = texto.length();
+        while (fin > 0 && fuente.getWidth(texto.substring(0, fin) + "…", tamano) > ancho) {
+            fin--;
+        }
+        return texto.substring(0, fin) + "…";
     }
 }
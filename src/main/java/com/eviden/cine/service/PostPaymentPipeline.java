@@ -0,0 +1,274 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.PostPaymentTask;
+import com.eviden.cine.model.Reservation;
+import com.eviden.cine.repository.PostPaymentTaskRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Procesa en segundo plano lo que ocurre tras un pago confirmado: generar el QR,
+ * generar el PDF de la entrada y enviar el correo. Cada reserva pagada se apunta antes
+ * en "tareas_post_pago" y se borra al enviar el correo. Cada etapa tiene su propio pool
+ * con una cola acotada; si una cola está llena el trabajo no se ejecuta en el hilo que lo
+ * envía, sino que la tarea se queda apuntada y la retoma una pasada periódica, que también
+ * recupera las pendientes tras un reinicio. Los fallos se reintentan con espera exponencial,
+ * volviendo a encolar en el pool de la etapa, hasta un número máximo de intentos.
+ * <p>
+ * Con varias instancias cada tarea la procesa solo la que la reclama en la tabla (PENDIENTE a
+ * EN_CURSO en un UPDATE condicionado). Una tarea EN_CURSO que no termina en el plazo de
+ * reclamación, porque su instancia se cayó, la puede reclamar otra; el plazo tiene que ser
+ * mayor que lo que tardan las tres etapas con sus reintentos.
+ */
+@Service
+public class PostPaymentPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostPaymentPipeline.class);
+
+    public enum Etapa { QR, PDF, EMAIL }
+
+    public record EstadisticasEtapa(int enCola, int activos, long completados, long fallidos, long reintentos) {
+    }
+
+    @FunctionalInterface
+    private interface Trabajo {
+        void ejecutar() throws Exception;
+    }
+
+    private final ReservationService reservationService;
+    private final PdfService pdfService;
+    private final EmailService emailService;
+    private final PostPaymentTaskRepository tareaRepository;
+    private final int capacidadCola;
+    private final int maxIntentos;
+    private final long esperaInicialMillis;
+    private final Duration plazoReclamacion;
+
+    private final Map<Etapa, ThreadPoolExecutor> pools = new EnumMap<>(Etapa.class);
+    private final Map<Etapa, AtomicLong> completados = new EnumMap<>(Etapa.class);
+    private final Map<Etapa, AtomicLong> fallidos = new EnumMap<>(Etapa.class);
+    private final Map<Etapa, AtomicLong> reintentos = new EnumMap<>(Etapa.class);
+    // Solo programa la vuelta a la cola de la etapa; el trabajo siempre corre en los pools
+    private final ScheduledExecutorService reintentador;
+
+    public PostPaymentPipeline(ReservationService reservationService,
+                               PdfService pdfService,
+                               EmailService emailService,
+                               PostPaymentTaskRepository tareaRepository,
+                               @Value("${pipeline.post-payment.threads:2}") int hilos,
+                               @Value("${pipeline.post-payment.queue-capacity:100}") int capacidadCola,
+                               @Value("${pipeline.post-payment.max-attempts:3}") int maxIntentos,
+                               @Value("${pipeline.post-payment.backoff-ms:1000}") long esperaInicialMillis,
+                               @Value("${pipeline.post-payment.claim-timeout-ms:600000}") long plazoReclamacionMillis) {
+        this.reservationService = reservationService;
+        this.pdfService = pdfService;
+        this.emailService = emailService;
+        this.tareaRepository = tareaRepository;
+        this.capacidadCola = capacidadCola;
+        this.maxIntentos = Math.max(1, maxIntentos);
+        this.esperaInicialMillis = esperaInicialMillis;
+        this.plazoReclamacion = Duration.ofMillis(plazoReclamacionMillis);
+
+        for (Etapa etapa : Etapa.values()) {
+            pools.put(etapa, crearPool(etapa, hilos, capacidadCola));
+            completados.put(etapa, new AtomicLong());
+            fallidos.put(etapa, new AtomicLong());
+            reintentos.put(etapa, new AtomicLong());
+        }
+        this.reintentador = Executors.newSingleThreadScheduledExecutor(hilo("post-pago-reintentos"));
+    }
+
+    /**
+     * Apunta y encola el procesamiento de una reserva ya guardada. Vuelve en cuanto la
+     * tarea queda apuntada, aunque la primera etapa no tenga sitio todavía.
+     */
+    public void procesar(Reservation reserva, String emailDestino) {
+        LocalDateTime ahora = LocalDateTime.now();
+        // Se apunta ya reclamada por esta instancia
+        PostPaymentTask tarea = tareaRepository.save(PostPaymentTask.builder()
+                .idReserva(reserva.getIdReserve())
+                .email(emailDestino)
+                .creadaEn(ahora)
+                .estado(PostPaymentTask.Estado.EN_CURSO)
+                .reclamadaEn(ahora)
+                .build());
+        iniciar(tarea.getId(), reserva, emailDestino);
+    }
+
+    /**
+     * Reclama y vuelve a encolar las tareas apuntadas que nadie está procesando: las que no
+     * cupieron en una cola y las que quedaron a medias en un reinicio o en una instancia caída.
+     */
+    @Scheduled(fixedDelayString = "${pipeline.post-payment.pending-delay-ms:5000}")
+    public void reanudarPendientes() {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime caducada = ahora.minus(plazoReclamacion);
+        for (PostPaymentTask tarea : tareaRepository.findReclamables(caducada, PageRequest.of(0, capacidadCola))) {
+            // Otra instancia puede haberla reclamado (o terminado) desde la consulta
+            if (tareaRepository.reclamar(tarea.getId(), ahora, caducada) == 0) {
+                continue;
+            }
+            Optional<Reservation> reserva = reservationService.findCompleta(tarea.getIdReserva());
+            if (reserva.isEmpty()) {
+                logger.warn("La reserva {} ya no existe, se descarta su envío", tarea.getIdReserva());
+                terminar(tarea.getId());
+                continue;
+            }
+            if (!iniciar(tarea.getId(), reserva.get(), tarea.getEmail())) {
+                // La primera etapa sigue llena: se retoma en la siguiente pasada
+                return;
+            }
+        }
+    }
+
+    public Map<Etapa, EstadisticasEtapa> getEstadisticas() {
+        Map<Etapa, EstadisticasEtapa> estadisticas = new EnumMap<>(Etapa.class);
+        pools.forEach((etapa, pool) -> estadisticas.put(etapa, new EstadisticasEtapa(
+                pool.getQueue().size(),
+                pool.getActiveCount(),
+                completados.get(etapa).get(),
+                fallidos.get(etapa).get(),
+                reintentos.get(etapa).get())));
+        return estadisticas;
+    }
+
+    @PreDestroy
+    public void detener() {
+        reintentador.shutdown();
+        pools.values().forEach(ThreadPoolExecutor::shutdown);
+        try {
+            for (ThreadPoolExecutor pool : pools.values()) {
+                if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                    pool.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            pools.values().forEach(ThreadPoolExecutor::shutdownNow);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean iniciar(Long idTarea, Reservation reserva, String emailDestino) {
+        return enviar(idTarea, Etapa.QR, 1, () -> {
+            if (reserva.getQrContent() == null) {
+                reservationService.adjuntarQr(reserva);
+            }
+        }, () -> generarPdf(idTarea, reserva, emailDestino));
+    }
+
+    private void generarPdf(Long idTarea, Reservation reserva, String emailDestino) {
+        AtomicReference<byte[]> pdf = new AtomicReference<>();
+        enviar(idTarea, Etapa.PDF, 1,
+                () -> pdf.set(pdfService.generateReservationPdf(reserva)),
+                () -> enviarCorreo(idTarea, reserva, emailDestino, pdf.get()));
+    }
+
+    private void enviarCorreo(Long idTarea, Reservation reserva, String emailDestino, byte[] pdf) {
+        enviar(idTarea, Etapa.EMAIL, 1,
+                () -> emailService.enviarCorreoConfirmacion(emailDestino, reserva, reserva.getQrContent(), pdf),
+                () -> {
+                    terminar(idTarea);
+                    logger.info("Reserva {} procesada y notificada a {}", reserva.getIdReserve(), emailDestino);
+                });
+    }
+
+    private boolean enviar(Long idTarea, Etapa etapa, int intento, Trabajo trabajo, Runnable siguiente) {
+        try {
+            pools.get(etapa).execute(() -> ejecutar(idTarea, etapa, intento, trabajo, siguiente));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Cola llena o aplicación apagándose: la tarea sigue apuntada y se retoma desde el principio
+            soltar(idTarea);
+            logger.warn("Etapa {} sin sitio, la tarea {} queda pendiente", etapa, idTarea);
+            return false;
+        }
+    }
+
+    private void ejecutar(Long idTarea, Etapa etapa, int intento, Trabajo trabajo, Runnable siguiente) {
+        try {
+            trabajo.ejecutar();
+        } catch (Exception e) {
+            if (intento >= maxIntentos) {
+                fallidos.get(etapa).incrementAndGet();
+                logger.error("Etapa {} fallida tras {} intentos: {}", etapa, intento, e.getMessage(), e);
+                abandonar(idTarea);
+                return;
+            }
+            long espera = esperaInicialMillis << (intento - 1);
+            reintentos.get(etapa).incrementAndGet();
+            logger.warn("Etapa {} fallida (intento {}), se reintenta en {} ms: {}", etapa, intento, espera, e.getMessage());
+            try {
+                reintentador.schedule(() -> enviar(idTarea, etapa, intento + 1, trabajo, siguiente),
+                        espera, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rechazo) {
+                soltar(idTarea);
+            }
+            return;
+        }
+        completados.get(etapa).incrementAndGet();
+        siguiente.run();
+    }
+
+    private void terminar(Long idTarea) {
+        try {
+            tareaRepository.deleteById(idTarea);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo borrar la tarea post-pago {}: {}", idTarea, e.getMessage());
+        }
+    }
+
+    private void abandonar(Long idTarea) {
+        try {
+            tareaRepository.marcarFallida(idTarea);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo marcar como fallida la tarea post-pago {}: {}", idTarea, e.getMessage());
+        }
+    }
+
+    // Vuelve a PENDIENTE para que la reclame la siguiente pasada, de esta o de otra instancia
+    private void soltar(Long idTarea) {
+        try {
+            tareaRepository.soltar(idTarea);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo liberar la tarea post-pago {}: {}", idTarea, e.getMessage());
+        }
+    }
+
+    // Sin política de desbordamiento propia: un rechazo lo gestiona enviar sin usar el hilo que encola
+    private static ThreadPoolExecutor crearPool(Etapa etapa, int hilos, int capacidadCola) {
+        return new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                hilo("post-pago-" + etapa.name().toLowerCase()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static ThreadFactory hilo(String prefijo) {
+        AtomicInteger contador = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefijo + "-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
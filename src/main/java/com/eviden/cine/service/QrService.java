@@ -1,34 +1,158 @@
 package com.eviden.cine.service;
 
+import com.eviden.cine.util.ExpiringCache;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.FileSystems;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
+/**
+ * Genera los QR de las entradas. El de una reserva no se guarda en la base de datos: se pinta
+ * cuando se pide y se guarda en una caché direccionada por contenido (id de la reserva + hash
+ * del texto del QR), así que un cambio en los datos de la reserva produce otra entrada y otro
+ * ETag. Los codificadores y los buffers de imagen se reutilizan desde un pool pequeño.
+ */
 @Service
 public class QrService {
 
-    public byte[] generateQr(String content) throws WriterException, IOException {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        var bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, 300, 300);
+    static final int LADO = 300;
+    private static final long TICK_MILLIS = 60_000;
+
+    /**
+     * PNG de un QR y el hash de su contenido, que sirve de ETag.
+     */
+    public record Qr(byte[] png, String hash) {
+    }
+
+    // Codificador con su imagen y su buffer de salida; lo usa un solo hilo cada vez
+    private static final class Renderizador {
+        private final QRCodeWriter writer = new QRCodeWriter();
+        private final BufferedImage imagen = new BufferedImage(LADO, LADO, BufferedImage.TYPE_BYTE_BINARY);
+        private final byte[] pixeles = ((DataBufferByte) imagen.getRaster().getDataBuffer()).getData();
+        private final ByteArrayOutputStream salida = new ByteArrayOutputStream(4096);
+
+        private byte[] pintar(String contenido) throws WriterException, IOException {
+            BitMatrix matriz = writer.encode(contenido, BarcodeFormat.QR_CODE, LADO, LADO);
+            if (matriz.getWidth() != LADO || matriz.getHeight() != LADO) {
+                // Contenido demasiado largo para 300x300: se pinta a su tamaño sin reutilizar la imagen
+                try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
+                    MatrixToImageWriter.writeToStream(matriz, "PNG", stream);
+                    return stream.toByteArray();
+                }
+            }
+            // En TYPE_BYTE_BINARY un bit a 0 es negro y a 1 blanco, 8 píxeles por byte
+            int bytesPorFila = (LADO + 7) / 8;
+            Arrays.fill(pixeles, (byte) 0xFF);
+            for (int y = 0; y < LADO; y++) {
+                int fila = y * bytesPorFila;
+                for (int x = 0; x < LADO; x++) {
+                    if (matriz.get(x, y)) {
+                        pixeles[fila + (x >> 3)] &= (byte) ~(0x80 >> (x & 7));
+                    }
+                }
+            }
+            salida.reset();
+            ImageIO.write(imagen, "png", salida);
+            return salida.toByteArray();
+        }
+    }
+
+    private final BlockingQueue<Renderizador> pool;
+    private final ExpiringCache<String, Qr> porReserva;
+
+    public QrService(@Value("${reservas.qr.cache.max-entries:2000}") int maxEntradas,
+                     @Value("${reservas.qr.cache.ttl-minutes:1440}") long ttlMinutos) {
+        this.pool = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+        this.porReserva = new ExpiringCache<>(maxEntradas, ttlMinutos * 60_000);
+    }
 
-        try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", stream);
-            return stream.toByteArray(); // Devuelve la imagen en formato byte[]
+    public byte[] generateQr(String content) throws WriterException, IOException {
+        Renderizador renderizador = pool.poll();
+        if (renderizador == null) {
+            renderizador = new Renderizador();
+        }
+        try {
+            return renderizador.pintar(content);
+        } finally {
+            // Si el pool está lleno el renderizador sobrante se descarta
+            pool.offer(renderizador);
         }
     }
 
     public void generateQrToFile(String content, String filePath) throws WriterException, IOException {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        var bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, 300, 300);
+        Files.write(Path.of(filePath), generateQr(content));
+    }
+
+    /**
+     * QR de una reserva, desde la caché si ya se ha pintado con el mismo contenido.
+     */
+    public Qr qrDeReserva(Long idReserva, String contenido) throws WriterException, IOException {
+        String hash = hash(contenido);
+        String clave = idReserva + ":" + hash;
+        Qr qr = porReserva.get(clave);
+        if (qr == null) {
+            qr = new Qr(generateQr(contenido), hash);
+            porReserva.put(clave, qr);
+        }
+        return qr;
+    }
+
+    /**
+     * Texto que codifica el QR de una reserva. Es exactamente el que se guardaba antes con la
+     * reserva, incluidos los cuatro espacios al principio de cada línea y el salto de línea final,
+     * para que el QR de las entradas ya emitidas no cambie. Los asientos van en el orden de sus
+     * detalles de reserva (el de inserción, que es el del id del detalle).
+     */
+    public static String contenidoReserva(Long idReserva, String pelicula, LocalDateTime inicio, String sala,
+                                          List<String> asientos, Double total) {
+        return """
+                    Reserva Nº: %d
+                    Emisión: %s
+                    Fecha: %s
+                    Hora: %s
+                    Sala: %s
+                    Asientos: %s
+                    Precio total: %.2f €
+                """.formatted(idReserva, pelicula, inicio.toLocalDate(), inicio.toLocalTime(), sala,
+                String.join(", ", asientos), total);
+    }
 
-        Path path = FileSystems.getDefault().getPath(filePath);
-        MatrixToImageWriter.writeToPath(bitMatrix, "PNG", path);
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void limpiarCaducados() {
+        porReserva.limpiar();
+    }
+
+    public ExpiringCache.Estadisticas getEstadisticas() {
+        return porReserva.getEstadisticas();
+    }
+
+    static String hash(String contenido) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(contenido.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
     }
 }
@@ -5,14 +5,19 @@ import com.eviden.cine.dtos.ReservationRequestDTO;
 import com.eviden.cine.dtos.ReservationResponseDTO;
 import com.eviden.cine.model.*;
 import com.eviden.cine.repository.*;
+import com.eviden.cine.util.KeysetPage;
 import com.google.zxing.WriterException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +30,9 @@ public class ReservationService {
     private final UserRepository userRepo;
     private final QrService qrService;
     private final PdfService pdfService;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatHoldService seatHoldService;
+    private final ReservationDetailsRepository reservationDetailsRepo;
 
     public ReservationService(
             ReservationRepository reservationRepo,
@@ -33,7 +41,10 @@ public class ReservationService {
             EmisionRepository emisionRepo,
             UserRepository userRepo,
             QrService qrService,
-            PdfService pdfService) {
+            PdfService pdfService,
+            SeatInventoryService seatInventoryService,
+            SeatHoldService seatHoldService,
+            ReservationDetailsRepository reservationDetailsRepo) {
         this.reservationRepo = reservationRepo;
         this.asientoRepo = asientoRepo;
         this.ticketRepo = ticketRepo;
@@ -41,13 +52,36 @@ public class ReservationService {
         this.userRepo = userRepo;
         this.qrService = qrService;
         this.pdfService = pdfService;
+        this.seatInventoryService = seatInventoryService;
+        this.seatHoldService = seatHoldService;
+        this.reservationDetailsRepo = reservationDetailsRepo;
     }
 
     public Reservation findById(Long id) {
         return reservationRepo.findById(id).orElse(null);
     }
 
+    /**
+     * Reserva con su emisión y sus asientos ya cargados, para generar la entrada fuera de una transacción.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Reservation> findCompleta(Long id) {
+        return reservationRepo.findCompletaById(id);
+    }
+
+    @Transactional
     public Reservation createConfirmedReservation(ReservationRequestDTO requestDTO) throws IOException, WriterException {
+        return adjuntarQr(guardarReserva(requestDTO));
+    }
+
+    /**
+     * Guarda la reserva y marca sus asientos como vendidos, sin generar el QR. El inventario de
+     * asientos se escribe en la misma transacción; si esta se deshace, los asientos se liberan.
+     * Los asientos retenidos por un checkout distinto del de la reserva (holdToken, null en una
+     * venta directa) no se venden: ese cliente puede estar pagando en Stripe.
+     */
+    @Transactional
+    public Reservation guardarReserva(ReservationRequestDTO requestDTO) {
         User user = userRepo.findById(requestDTO.getUserId())
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + requestDTO.getUserId()));
         Emision emision = emisionRepo.findById(requestDTO.getEmisionId())
@@ -61,14 +95,14 @@ public class ReservationService {
         reservation.setTotalPrice(requestDTO.getTotal() / 100);
         reservation.setReserveDetails(new ArrayList<>());
 
+        List<Asiento> asientos = new ArrayList<>();
         for (AsientoTicketDTO item : requestDTO.getAsientos()) {
             Asiento asiento = asientoRepo.findById(item.getAsientoId())
                     .orElseThrow(() -> new RuntimeException("Asiento no encontrado con ID: " + item.getAsientoId()));
             Ticket ticket = ticketRepo.findById(item.getTicketId())
                     .orElseThrow(() -> new RuntimeException("Ticket no encontrado con ID: " + item.getTicketId()));
 
-            asiento.setDisponible(false);
-            asientoRepo.save(asiento);
+            asientos.add(asiento);
 
             ReservationDetails detail = new ReservationDetails();
             detail.setAsiento(asiento);
@@ -77,64 +111,141 @@ public class ReservationService {
             reservation.getReserveDetails().add(detail);
         }
 
-        reservation = reservationRepo.save(reservation);
-
-        String qrContent = """
-            Reserva Nº: %d
-            Emisión: %s
-            Fecha: %s
-            Hora: %s
-            Sala: %s
-            Asientos: %s
-            Precio total: %.2f €
-        """.formatted(
+        // La ocupación se marca solo para esta emisión, no en el asiento físico. La retención se
+        // comprueba después de vender: una retención que entre a la vez ve ya el asiento vendido
+        seatInventoryService.venderAsientos(emision, asientos);
+        seatHoldService.comprobarNoRetenidosPorOtro(emision.getIdEmision(),
+                asientos.stream().map(Asiento::getIdAsiento).toList(), requestDTO.getHoldToken());
+        return reservationRepo.save(reservation);
+    }
+
+    /**
+     * Pinta el QR de la reserva (o lo toma de la caché) y lo deja en memoria para el PDF y el correo.
+     */
+    public Reservation adjuntarQr(Reservation reservation) throws IOException, WriterException {
+        String contenido = QrService.contenidoReserva(
                 reservation.getIdReserve(),
                 reservation.getEmision().getMovie().getTitle(),
-                reservation.getEmision().getFechaHoraInicio().toLocalDate(),
-                reservation.getEmision().getFechaHoraInicio().toLocalTime(),
+                reservation.getEmision().getFechaHoraInicio(),
                 reservation.getEmision().getRoom().getNombreroom(),
                 reservation.getReserveDetails().stream()
                         .map(detail -> detail.getAsiento().getFila() + detail.getAsiento().getColumna())
-                        .collect(Collectors.joining(", ")),
-                reservation.getTotalPrice()
-        );
+                        .toList(),
+                reservation.getTotalPrice());
+        reservation.setQrContent(qrService.qrDeReserva(reservation.getIdReserve(), contenido).png());
+        return reservation;
+    }
 
-        reservation.setQrContent(qrService.generateQr(qrContent));
-        return reservationRepo.save(reservation);
+    /**
+     * QR de una reserva, pintado a partir de sus datos actuales; vacío si la reserva no existe.
+     */
+    @Transactional(readOnly = true)
+    public Optional<QrService.Qr> getQr(Long id) throws IOException, WriterException {
+        List<ReservationRepository.FilaReservaConAsiento> filas = reservationRepo.findFilasById(id);
+        if (filas.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(qrDeFilas(filas));
+    }
+
+    /**
+     * Datos de la entrada en PDF de una reserva, con su QR; vacío si la reserva no existe.
+     */
+    @Transactional(readOnly = true)
+    public Optional<PdfService.Entrada> getEntrada(Long id) throws IOException, WriterException {
+        List<ReservationRepository.FilaReservaConAsiento> filas = reservationRepo.findFilasById(id);
+        if (filas.isEmpty()) {
+            return Optional.empty();
+        }
+        ReservationRepository.FilaReserva fila = filas.getFirst();
+        return Optional.of(new PdfService.Entrada(fila.getIdReserve(), fila.getMovieTitle(), fila.getShowTime(),
+                fila.getRoomName(), fila.getTotalPrice(), asientos(filas), qrDeFilas(filas).png()));
     }
 
+    private QrService.Qr qrDeFilas(List<ReservationRepository.FilaReservaConAsiento> filas)
+            throws IOException, WriterException {
+        ReservationRepository.FilaReserva fila = filas.getFirst();
+        String contenido = QrService.contenidoReserva(
+                fila.getIdReserve(),
+                fila.getMovieTitle(),
+                fila.getShowTime(),
+                fila.getRoomName(),
+                asientos(filas),
+                fila.getTotalPrice());
+        return qrService.qrDeReserva(fila.getIdReserve(), contenido);
+    }
+
+    private static List<String> asientos(List<ReservationRepository.FilaReservaConAsiento> filas) {
+        return filas.stream()
+                .filter(fila -> fila.getFila() != null)
+                .map(fila -> fila.getFila() + fila.getColumna())
+                .toList();
+    }
+
+    /**
+     * Todas las reservas con sus asientos en una sola consulta, sin el QR.
+     */
+    @Transactional(readOnly = true)
     public List<ReservationResponseDTO> getAllReservationsDTO() {
-        return reservationRepo.findAll().stream()
-                .map(this::buildReservationDTO)
-                .collect(Collectors.toList());
+        return agrupar(reservationRepo.findFilasConAsientos());
     }
 
+    /**
+     * Página de reservas por cursor. Dos consultas por página: las columnas de las reservas
+     * y los asientos de todas ellas. El QR no se incluye, solo la ruta desde la que se sirve.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ReservationResponseDTO> getReservationsPage(Long after, Integer size) {
+        int tamano = KeysetPage.tamano(size);
+        KeysetPage<ReservationRepository.FilaReserva> pagina = KeysetPage.de(
+                reservationRepo.findPaginaDespuesDe(KeysetPage.cursor(after), KeysetPage.limite(tamano)),
+                tamano, ReservationRepository.FilaReserva::getIdReserve);
+        if (pagina.items().isEmpty()) {
+            return new KeysetPage<>(List.of(), null);
+        }
+
+        List<Long> ids = pagina.items().stream().map(ReservationRepository.FilaReserva::getIdReserve).toList();
+        Map<Long, List<String>> asientos = reservationDetailsRepo.findAsientosByReservas(ids).stream()
+                .collect(Collectors.groupingBy(ReservationDetailsRepository.AsientoDeReserva::getIdReserve,
+                        Collectors.mapping(a -> a.getFila() + a.getColumna(), Collectors.toList())));
+
+        return pagina.map(fila -> aDTO(fila, asientos.getOrDefault(fila.getIdReserve(), List.of())).build());
+    }
+
+    /**
+     * Reservas del usuario con sus asientos en una sola consulta, sin el QR: un usuario con
+     * muchas reservas no carga entidades ni imágenes.
+     */
     @Transactional(readOnly = true)
     public List<ReservationResponseDTO> getReservationsByEmailDTO(String email) {
-        return reservationRepo.findByUserEmail(email).stream()
-                .map(this::buildReservationDTO)
-                .collect(Collectors.toList());
+        return agrupar(reservationRepo.findFilasByUserEmail(email));
     }
 
+    /**
+     * Detalle de una reserva en una consulta. El QR se sirve aparte, en su qrUrl.
+     */
+    @Transactional(readOnly = true)
     public ReservationResponseDTO getReservationById(Long id) {
-        return reservationRepo.findById(id)
-                .map(this::buildReservationDTO)
-                .orElseThrow(() -> new RuntimeException("Reserva no encontrada con ID: " + id));
+        List<ReservationResponseDTO> reserva = agrupar(reservationRepo.findFilasById(id));
+        if (reserva.isEmpty()) {
+            throw new RuntimeException("Reserva no encontrada con ID: " + id);
+        }
+        return reserva.getFirst();
     }
 
     public byte[] generatePdf(Reservation reservation) {
         return pdfService.generateReservationPdf(reservation);
     }
 
+    public void escribirPdf(PdfService.Entrada entrada, OutputStream salida) {
+        pdfService.escribirEntrada(entrada, salida);
+    }
+
     public ReservationResponseDTO buildReservationDTO(Reservation res) {
         List<String> seats = res.getReserveDetails().stream()
                 .map(d -> d.getAsiento().getFila() + String.valueOf(d.getAsiento().getColumna()))
                 .collect(Collectors.toList());
 
-        String qrBase64 = res.getQrContent() != null
-                ? java.util.Base64.getEncoder().encodeToString(res.getQrContent())
-                : null;
-
         return ReservationResponseDTO.builder()
                 .idReserve(res.getIdReserve())
                 .status(res.getStatus())
@@ -146,7 +257,40 @@ public class ReservationService {
                 .roomName(res.getEmision().getRoom().getNombreroom())
                 .showTime(res.getEmision().getFechaHoraInicio().toString())
                 .selectedSeats(seats)
-                .qrBase64(qrBase64)
+                .qrUrl(qrUrl(res.getIdReserve()))
                 .build();
     }
+
+    private static String qrUrl(Long id) {
+        return "/api/reservations/" + id + "/qr";
+    }
+
+    // Las filas llegan ordenadas por reserva, una por asiento
+    private static List<ReservationResponseDTO> agrupar(List<ReservationRepository.FilaReservaConAsiento> filas) {
+        Map<Long, ReservationResponseDTO> reservas = new LinkedHashMap<>();
+        for (ReservationRepository.FilaReservaConAsiento fila : filas) {
+            ReservationResponseDTO dto = reservas.computeIfAbsent(fila.getIdReserve(),
+                    id -> aDTO(fila, new ArrayList<>()).build());
+            if (fila.getFila() != null) {
+                dto.getSelectedSeats().add(fila.getFila() + fila.getColumna());
+            }
+        }
+        return new ArrayList<>(reservas.values());
+    }
+
+    private static ReservationResponseDTO.ReservationResponseDTOBuilder aDTO(ReservationRepository.FilaReserva fila,
+                                                                          List<String> asientos) {
+        return ReservationResponseDTO.builder()
+                .idReserve(fila.getIdReserve())
+                .status(fila.getStatus())
+                .totalPrice(fila.getTotalPrice())
+                .reservationDate(fila.getReservationDate().toString())
+                .movieTitle(fila.getMovieTitle())
+                .userEmail(fila.getUserEmail())
+                .userName(fila.getUserName())
+                .roomName(fila.getRoomName())
+                .showTime(fila.getShowTime().toString())
+                .selectedSeats(asientos)
+                .qrUrl(qrUrl(fila.getIdReserve()));
+    }
 }
@@ -13,7 +13,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
 
 @Service
@@ -23,16 +22,19 @@ public class RoomAssignmentService {
     private final EmisionRepository emisionRepository;
     private final MovieRepository movieRepository;
     private final ReservationRepository reservationRepository;
+    private final RoomCalendarService roomCalendarService;
 
     @Autowired
     public RoomAssignmentService(RoomRepository roomRepository,
                                  EmisionRepository emisionRepository,
                                  MovieRepository movieRepository,
-                                 ReservationRepository reservationRepository) {
+                                 ReservationRepository reservationRepository,
+                                 RoomCalendarService roomCalendarService) {
         this.roomRepository = roomRepository;
         this.emisionRepository = emisionRepository;
         this.movieRepository = movieRepository;
         this.reservationRepository = reservationRepository;
+        this.roomCalendarService = roomCalendarService;
     }
 
     public Room selectRoom(EmisionDTO dto) {
@@ -89,34 +91,17 @@ public class RoomAssignmentService {
     }
 
     private Room buscarSalaGrandeDisponible(LocalDateTime fechaHoraInicio, Integer duracionPelicula) {
-        return roomRepository.findAll().stream()
-                .filter(room -> estaSalaDisponible(room, fechaHoraInicio, duracionPelicula))
-                .max(Comparator.comparing(Room::getCapacidad))
+        return roomCalendarService.buscarSalaLibre(fechaHoraInicio, duracionPelicula, RoomCalendarService.Preferencia.GRANDE)
                 .orElseThrow(() -> new CustomException("No hay salas grandes disponibles para ese horario"));
     }
 
     private Room buscarSalaPequenaDisponible(LocalDateTime fechaHoraInicio, Integer duracionPelicula) {
-        return roomRepository.findAll().stream()
-                .filter(room -> estaSalaDisponible(room, fechaHoraInicio, duracionPelicula))
-                .min(Comparator.comparing(Room::getCapacidad))
+        return roomCalendarService.buscarSalaLibre(fechaHoraInicio, duracionPelicula, RoomCalendarService.Preferencia.PEQUENA)
                 .orElseThrow(() -> new CustomException("No hay salas pequeñas disponibles para ese horario"));
     }
 
     public boolean estaSalaDisponible(Room room, LocalDateTime nuevaHoraInicio, Integer duracionNueva) {
-        List<Emision> emisiones = emisionRepository.findByRoom_Idroom(room.getIdroom());
-
-        for (Emision emision : emisiones) {
-            LocalDateTime inicioExistente = emision.getFechaHoraInicio();
-            LocalDateTime finExistente = inicioExistente.plusMinutes((long) emision.getMovie().getTime() + 20L);
-
-            LocalDateTime finNueva = nuevaHoraInicio.plusMinutes((long) duracionNueva + 20L);
-
-            boolean seSolapan = nuevaHoraInicio.isBefore(finExistente) && inicioExistente.isBefore(finNueva);
-            if (seSolapan) {
-                return false;
-            }
-        }
-        return true;
+        return roomCalendarService.estaLibre(room.getIdroom(), nuevaHoraInicio, duracionNueva);
     }
 
 }
@@ -0,0 +1,194 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.Emision;
+import com.eviden.cine.model.Room;
+import com.eviden.cine.repository.EmisionRepository;
+import com.eviden.cine.repository.RoomRepository;
+import com.eviden.cine.util.IntervalTree;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Calendario de ocupación de las salas en memoria. Cada sala tiene un árbol de intervalos
+ * con sus emisiones (inicio, inicio + duración de la película + limpieza), de modo que
+ * comprobar si una sala está libre no consulta la base de datos. EmisionService y
+ * RoomService lo mantienen al día al crear, modificar o eliminar emisiones y salas.
+ */
+@Service
+public class RoomCalendarService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomCalendarService.class);
+    static final long MINUTOS_LIMPIEZA = 20;
+    // Las emisiones terminadas hace más de esto se retiran del calendario
+    private static final long DIAS_HISTORICO = 1;
+    private static final Comparator<Room> POR_CAPACIDAD =
+            Comparator.comparing(Room::getCapacidad, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /**
+     * Orden en que se prueban las salas al buscar una libre.
+     */
+    public enum Preferencia { PEQUENA, GRANDE }
+
+    private record Ocupacion(Long idRoom, long inicio, long fin) {
+    }
+
+    private static final class CalendarioSala {
+        private final IntervalTree<Long> emisiones = new IntervalTree<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    }
+
+    private final EmisionRepository emisionRepository;
+    private final RoomRepository roomRepository;
+
+    private final Map<Long, CalendarioSala> calendarios = new ConcurrentHashMap<>();
+    private final Map<Long, Ocupacion> ocupaciones = new ConcurrentHashMap<>();
+    private final Map<Long, Room> salas = new ConcurrentHashMap<>();
+    // Salas de menor a mayor capacidad; solo se reordena al añadir o quitar una sala
+    private volatile List<Room> porCapacidad = List.of();
+    private final ReentrantLock cambioSalas = new ReentrantLock();
+
+    public RoomCalendarService(EmisionRepository emisionRepository, RoomRepository roomRepository) {
+        this.emisionRepository = emisionRepository;
+        this.roomRepository = roomRepository;
+    }
+
+    @PostConstruct
+    public void cargar() {
+        roomRepository.findAll().forEach(this::registrarSala);
+        List<Emision> emisiones = emisionRepository.findAll();
+        LocalDateTime limite = LocalDateTime.now().minusDays(DIAS_HISTORICO);
+        emisiones.stream()
+                .filter(emision -> fin(emision).isAfter(limite))
+                .forEach(this::registrar);
+        logger.info("Calendario de salas cargado: {} salas, {} emisiones", salas.size(), ocupaciones.size());
+    }
+
+    /**
+     * Registra una emisión nueva o actualiza la ocupación de una existente.
+     */
+    public void registrar(Emision emision) {
+        if (emision.getIdEmision() == null || emision.getRoom() == null || emision.getMovie() == null) {
+            return;
+        }
+        eliminar(emision.getIdEmision());
+
+        Ocupacion ocupacion = new Ocupacion(emision.getRoom().getIdroom(),
+                minuto(emision.getFechaHoraInicio()), minuto(fin(emision)));
+        CalendarioSala calendario = calendarios.computeIfAbsent(ocupacion.idRoom(), id -> new CalendarioSala());
+        calendario.lock.writeLock().lock();
+        try {
+            calendario.emisiones.insertar(ocupacion.inicio(), ocupacion.fin(), emision.getIdEmision());
+        } finally {
+            calendario.lock.writeLock().unlock();
+        }
+        ocupaciones.put(emision.getIdEmision(), ocupacion);
+    }
+
+    public void eliminar(Long idEmision) {
+        Ocupacion ocupacion = ocupaciones.remove(idEmision);
+        if (ocupacion == null) {
+            return;
+        }
+        CalendarioSala calendario = calendarios.get(ocupacion.idRoom());
+        if (calendario != null) {
+            calendario.lock.writeLock().lock();
+            try {
+                calendario.emisiones.eliminar(ocupacion.inicio(), idEmision);
+            } finally {
+                calendario.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void registrarSala(Room room) {
+        if (room.getIdroom() == null) {
+            return;
+        }
+        cambioSalas.lock();
+        try {
+            salas.put(room.getIdroom(), room);
+            reordenar();
+        } finally {
+            cambioSalas.unlock();
+        }
+    }
+
+    public void eliminarSala(Long idRoom) {
+        cambioSalas.lock();
+        try {
+            salas.remove(idRoom);
+            reordenar();
+        } finally {
+            cambioSalas.unlock();
+        }
+        calendarios.remove(idRoom);
+        ocupaciones.values().removeIf(ocupacion -> ocupacion.idRoom().equals(idRoom));
+    }
+
+    public boolean estaLibre(Long idRoom, LocalDateTime inicio, int duracionMinutos) {
+        CalendarioSala calendario = calendarios.get(idRoom);
+        if (calendario == null) {
+            return true;
+        }
+        long desde = minuto(inicio);
+        long hasta = desde + duracionMinutos + MINUTOS_LIMPIEZA;
+        calendario.lock.readLock().lock();
+        try {
+            return !calendario.emisiones.haySolape(desde, hasta);
+        } finally {
+            calendario.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve la sala libre en ese horario más pequeña o más grande, según la preferencia.
+     */
+    public Optional<Room> buscarSalaLibre(LocalDateTime inicio, int duracionMinutos, Preferencia preferencia) {
+        List<Room> salasOrdenadas = porCapacidad;
+        boolean grandePrimero = preferencia == Preferencia.GRANDE;
+        for (int i = 0; i < salasOrdenadas.size(); i++) {
+            Room room = salasOrdenadas.get(grandePrimero ? salasOrdenadas.size() - 1 - i : i);
+            if (estaLibre(room.getIdroom(), inicio, duracionMinutos)) {
+                return Optional.of(room);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Scheduled(cron = "0 30 2 * * ?") // Todos los días a las 2:30 AM
+    public void purgarPasadas() {
+        long limite = minuto(LocalDateTime.now().minusDays(DIAS_HISTORICO));
+        List<Long> pasadas = ocupaciones.entrySet().stream()
+                .filter(entry -> entry.getValue().fin() <= limite)
+                .map(Map.Entry::getKey)
+                .toList();
+        pasadas.forEach(this::eliminar);
+        logger.info("Calendario de salas: retiradas {} emisiones pasadas", pasadas.size());
+    }
+
+    private void reordenar() {
+        porCapacidad = salas.values().stream().sorted(POR_CAPACIDAD).toList();
+    }
+
+    private static LocalDateTime fin(Emision emision) {
+        return emision.getFechaHoraInicio().plusMinutes(emision.getMovie().getTime() + MINUTOS_LIMPIEZA);
+    }
+
+    private static long minuto(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+}
@@ -19,11 +19,14 @@ public class RoomService {
 
     private final RoomRepository roomRepository;
     private final RegionService regionService;
+    private final RoomCalendarService roomCalendarService;
 
     @Autowired
-    public RoomService(RoomRepository roomRepository, RegionService regionService) {
+    public RoomService(RoomRepository roomRepository, RegionService regionService,
+                       RoomCalendarService roomCalendarService) {
         this.roomRepository = roomRepository;
         this.regionService = regionService;
+        this.roomCalendarService = roomCalendarService;
     }
 
     public List<Room> obtenerTodasLasSalas() {
@@ -77,7 +80,9 @@ public class RoomService {
                 }
             }
         }
-        return roomRepository.save(room);
+        Room guardada = roomRepository.save(room);
+        roomCalendarService.registrarSala(guardada);
+        return guardada;
     }
 
     private String tipoAsientoPorFila(char fila) {
@@ -97,16 +102,6 @@ public class RoomService {
     }
 
     public RoomAdminResponseDTO toRoomAdminResponseDTO(Room room) {
-        System.out.println(">>> Procesando sala: " + room.getIdroom() + " - " + room.getNombreroom());
-
-        room.getEmisiones().forEach(em -> {
-            System.out.println(" - Emisión ID: " + em.getIdEmision());
-            if (em.getMovie() == null) {
-                System.out.println("   ⚠ Película es NULL para esta emisión");
-            } else {
-                System.out.println("   ✔ Película: " + em.getMovie().getTitle());
-            }
-        });
         return RoomAdminResponseDTO.builder()
                 .idroom(room.getIdroom())
                 .nombreroom(room.getNombreroom())
@@ -140,5 +135,6 @@ public class RoomService {
 
     public void eliminarSala(Long id) {
         roomRepository.deleteById(id);
+        roomCalendarService.eliminarSala(id);
     }
 }
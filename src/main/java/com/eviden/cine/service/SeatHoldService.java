@@ -0,0 +1,260 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.exception.CustomException;
+import com.eviden.cine.model.Asiento;
+import com.eviden.cine.model.Emision;
+import com.eviden.cine.model.SeatHold;
+import com.eviden.cine.repository.AsientoRepository;
+import com.eviden.cine.repository.EmisionRepository;
+import com.eviden.cine.repository.SeatHoldRepository;
+import com.eviden.cine.util.TimerWheel;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Retención de asientos durante el checkout. Cada asiento de una emisión se reclama con
+ * compare-and-set sobre un mapa concurrente, las retenciones caducan pasado el TTL y se
+ * liberan desde una rueda de temporizadores. Las retenciones se guardan también en base
+ * de datos para recuperarlas tras un reinicio; la tabla tiene una clave única por emisión y
+ * asiento, así que entre instancias (o tras un reinicio) es la base de datos la que decide.
+ */
+@Service
+public class SeatHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldService.class);
+    private static final long TICK_MILLIS = 1000;
+    private static final int CUBOS_RUEDA = 2048;
+
+    record SeatKey(Long idEmision, Long idAsiento) {
+    }
+
+    private record Retencion(String token, long expiraEn) {
+    }
+
+    private record Grupo(Retencion retencion, List<SeatKey> asientos) {
+    }
+
+    private final SeatHoldRepository seatHoldRepository;
+    private final EmisionRepository emisionRepository;
+    private final AsientoRepository asientoRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final long ttlSegundos;
+
+    private final Map<SeatKey, Retencion> retenciones = new ConcurrentHashMap<>();
+    private final Map<String, Grupo> grupos = new ConcurrentHashMap<>();
+    private final TimerWheel<Grupo> rueda = new TimerWheel<>(TICK_MILLIS, CUBOS_RUEDA, System.currentTimeMillis());
+
+    public SeatHoldService(SeatHoldRepository seatHoldRepository,
+                           EmisionRepository emisionRepository,
+                           AsientoRepository asientoRepository,
+                           SeatInventoryService seatInventoryService,
+                           @Value("${checkout.hold.ttl-seconds:1800}") long ttlSegundos) {
+        this.seatHoldRepository = seatHoldRepository;
+        this.emisionRepository = emisionRepository;
+        this.asientoRepository = asientoRepository;
+        this.seatInventoryService = seatInventoryService;
+        this.ttlSegundos = ttlSegundos;
+    }
+
+    public long getTtlSegundos() {
+        return ttlSegundos;
+    }
+
+    /**
+     * Retiene los asientos indicados para la emisión. Si alguno está vendido o retenido
+     * por otro checkout no se retiene ninguno y se lanza CustomException.
+     *
+     * @return token que identifica la retención
+     */
+    public String retenerAsientos(Long idEmision, List<Long> idsAsientos) {
+        Emision emision = emisionRepository.findById(idEmision)
+                .orElseThrow(() -> new CustomException("Emisión no encontrada con ID: " + idEmision));
+        List<Asiento> asientos = asientoRepository.findAllById(idsAsientos);
+        if (asientos.size() != idsAsientos.size()) {
+            throw new CustomException("Uno o más asientos no fueron encontrados.", "SEAT_INVALID");
+        }
+        comprobarNoVendidos(emision, asientos);
+
+        Retencion retencion = new Retencion(UUID.randomUUID().toString(),
+                System.currentTimeMillis() + ttlSegundos * 1000);
+        List<SeatKey> tomadas = new ArrayList<>();
+
+        for (Long idAsiento : idsAsientos) {
+            SeatKey key = new SeatKey(idEmision, idAsiento);
+            if (!reclamar(key, retencion)) {
+                tomadas.forEach(k -> retenciones.remove(k, retencion));
+                throw new CustomException("El asiento " + idAsiento + " está reservado por otra compra en curso",
+                        "SEAT_HELD");
+            }
+            tomadas.add(key);
+        }
+
+        Grupo grupo = new Grupo(retencion, List.copyOf(tomadas));
+        grupos.put(retencion.token(), grupo);
+        rueda.programar(grupo, retencion.expiraEn());
+
+        try {
+            // Una venta directa que se haya colado entre la primera comprobación y la reclamación
+            comprobarNoVendidos(emision, asientos);
+            // Filas caducadas que la rueda aún no ha borrado (de esta u otra instancia) chocarían con la clave única
+            seatHoldRepository.borrarCaducadas(idEmision, idsAsientos, LocalDateTime.now());
+            seatHoldRepository.saveAll(tomadas.stream().map(key -> toEntity(key, retencion)).toList());
+        } catch (DataIntegrityViolationException e) {
+            liberarGrupo(grupo);
+            throw new CustomException("Alguno de los asientos está reservado por otra compra en curso", "SEAT_HELD");
+        } catch (RuntimeException e) {
+            liberarGrupo(grupo);
+            throw e;
+        }
+        return retencion.token();
+    }
+
+    /**
+     * Lanza CustomException (SEAT_HELD) si alguno de los asientos está retenido por un checkout
+     * distinto del indicado (null en una venta sin checkout). Se mira la memoria y la tabla, que
+     * también tiene las retenciones de las demás instancias.
+     */
+    public void comprobarNoRetenidosPorOtro(Long idEmision, List<Long> idsAsientos, String token) {
+        long ahora = System.currentTimeMillis();
+        for (Long idAsiento : idsAsientos) {
+            Retencion retencion = retenciones.get(new SeatKey(idEmision, idAsiento));
+            if (retencion != null && retencion.expiraEn() > ahora && !retencion.token().equals(token)) {
+                throw new CustomException("El asiento " + idAsiento + " está reservado por otra compra en curso",
+                        "SEAT_HELD");
+            }
+        }
+        if (seatHoldRepository.contarRetenidosPorOtro(idEmision, idsAsientos, token != null ? token : "",
+                LocalDateTime.now()) > 0) {
+            throw new CustomException("Alguno de los asientos está reservado por otra compra en curso", "SEAT_HELD");
+        }
+    }
+
+    /**
+     * Alarga una retención vigente hasta el instante indicado (por ejemplo, hasta que caduque la
+     * sesión de pago asociada). Si la retención ya no existe o dura más, no hace nada.
+     */
+    public void extender(String token, long hastaMillis) {
+        Grupo grupo = grupos.get(token);
+        if (grupo == null || hastaMillis <= grupo.retencion().expiraEn()
+                || grupo.retencion().expiraEn() <= System.currentTimeMillis()) {
+            return;
+        }
+        Retencion extendida = new Retencion(token, hastaMillis);
+        Grupo nuevo = new Grupo(extendida, grupo.asientos());
+        if (!grupos.replace(token, grupo, nuevo)) {
+            return;
+        }
+        // La entrada antigua de la rueda se descarta al vencer porque ya no es el grupo vigente
+        grupo.asientos().forEach(key -> retenciones.replace(key, grupo.retencion(), extendida));
+        rueda.programar(nuevo, hastaMillis);
+        seatHoldRepository.actualizarExpiracion(token,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(hastaMillis), ZoneId.systemDefault()));
+    }
+
+    public boolean estaRetenido(Long idEmision, Long idAsiento) {
+        Retencion retencion = retenciones.get(new SeatKey(idEmision, idAsiento));
+        return retencion != null && retencion.expiraEn() > System.currentTimeMillis();
+    }
+
+    /**
+     * Libera los asientos de una retención (pago completado o checkout cancelado).
+     */
+    public void liberar(String token) {
+        if (token == null) {
+            return;
+        }
+        Grupo grupo = grupos.get(token);
+        if (grupo != null) {
+            liberarGrupo(grupo);
+            seatHoldRepository.deleteByToken(token);
+        }
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void liberarCaducadas() {
+        for (Grupo grupo : rueda.avanzar(System.currentTimeMillis())) {
+            if (grupos.get(grupo.retencion().token()) == grupo) {
+                logger.info("Retención {} caducada, se liberan {} asientos", grupo.retencion().token(), grupo.asientos().size());
+                liberarGrupo(grupo);
+                seatHoldRepository.deleteByToken(grupo.retencion().token());
+            }
+        }
+    }
+
+    @PostConstruct
+    public void cargarRetenciones() {
+        LocalDateTime ahora = LocalDateTime.now();
+        seatHoldRepository.deleteByExpiraEnBefore(ahora);
+
+        Map<String, List<SeatHold>> porToken = seatHoldRepository.findByExpiraEnAfter(ahora).stream()
+                .collect(Collectors.groupingBy(SeatHold::getToken));
+
+        porToken.forEach((token, holds) -> {
+            long expiraEn = holds.getFirst().getExpiraEn().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            Retencion retencion = new Retencion(token, expiraEn);
+            List<SeatKey> asientos = holds.stream()
+                    .map(hold -> new SeatKey(hold.getIdEmision(), hold.getIdAsiento()))
+                    .toList();
+            asientos.forEach(key -> retenciones.put(key, retencion));
+            Grupo grupo = new Grupo(retencion, asientos);
+            grupos.put(token, grupo);
+            rueda.programar(grupo, expiraEn);
+        });
+        logger.info("Recuperadas {} retenciones de asientos", porToken.size());
+    }
+
+    private boolean reclamar(SeatKey key, Retencion nueva) {
+        while (true) {
+            Retencion actual = retenciones.putIfAbsent(key, nueva);
+            if (actual == null) {
+                return true;
+            }
+            if (actual.expiraEn() > System.currentTimeMillis()) {
+                return false;
+            }
+            // La retención anterior ha caducado aunque la rueda aún no la haya liberado
+            if (retenciones.replace(key, actual, nueva)) {
+                return true;
+            }
+        }
+    }
+
+    private void liberarGrupo(Grupo grupo) {
+        grupo.asientos().forEach(key -> retenciones.remove(key, grupo.retencion()));
+        grupos.remove(grupo.retencion().token(), grupo);
+    }
+
+    // Un asiento de otra sala o fuera de sus dimensiones lo rechaza el inventario con SEAT_INVALID
+    private void comprobarNoVendidos(Emision emision, List<Asiento> asientos) {
+        for (Asiento asiento : asientos) {
+            if (seatInventoryService.estaOcupado(emision, asiento)) {
+                throw new CustomException("El asiento " + asiento.getFila() + asiento.getColumna()
+                        + " ya está vendido para esta emisión", "SEAT_ALREADY_SOLD");
+            }
+        }
+    }
+
+    private SeatHold toEntity(SeatKey key, Retencion retencion) {
+        return SeatHold.builder()
+                .idEmision(key.idEmision())
+                .idAsiento(key.idAsiento())
+                .token(retencion.token())
+                .expiraEn(LocalDateTime.ofInstant(Instant.ofEpochMilli(retencion.expiraEn()), ZoneId.systemDefault()))
+                .build();
+    }
+}
@@ -0,0 +1,258 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.event.CarteleraModificadaEvent;
+import com.eviden.cine.exception.CustomException;
+import com.eviden.cine.model.Asiento;
+import com.eviden.cine.model.Emision;
+import com.eviden.cine.model.Room;
+import com.eviden.cine.model.SeatInventory;
+import com.eviden.cine.repository.ReservationDetailsRepository;
+import com.eviden.cine.repository.SeatInventoryRepository;
+import com.eviden.cine.util.SeatBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Inventario de asientos por emisión. La ocupación se guarda como un mapa de bits
+ * (filas * columnas) persistido en "inventario_asientos" y cacheado en memoria,
+ * de modo que vender, liberar y contar asientos libres no carga entidades Asiento.
+ * Si la venta ocurre dentro de una transacción, el inventario se escribe en ella y los
+ * asientos se devuelven al mapa en memoria si esa transacción se deshace.
+ */
+@Service
+public class SeatInventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatInventoryService.class);
+    private static final int BLOQUEOS = 64;
+
+    private final SeatInventoryRepository seatInventoryRepository;
+    private final ReservationDetailsRepository reservationDetailsRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaccionNueva;
+    private final Map<Long, SeatBitmap> inventarios = new ConcurrentHashMap<>();
+    // Serializan la escritura del inventario de cada emisión. Son ReentrantLock y no synchronized
+    // para no fijar el hilo virtual a su portador mientras dura la escritura en la base de datos
+    private final ReentrantLock[] bloqueos = new ReentrantLock[BLOQUEOS];
+
+    public SeatInventoryService(SeatInventoryRepository seatInventoryRepository,
+                                ReservationDetailsRepository reservationDetailsRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager) {
+        this.seatInventoryRepository = seatInventoryRepository;
+        this.reservationDetailsRepository = reservationDetailsRepository;
+        this.eventPublisher = eventPublisher;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < BLOQUEOS; i++) {
+            bloqueos[i] = new ReentrantLock();
+        }
+    }
+
+    public boolean tieneAsientosLibres(Emision emision) {
+        return contarAsientosLibres(emision) > 0;
+    }
+
+    public int contarAsientosLibres(Emision emision) {
+        if (emision.getRoom() == null) {
+            return 0;
+        }
+        if (emision.getIdEmision() == null) {
+            return capacidad(emision.getRoom());
+        }
+        return obtenerMapa(emision).freeCount();
+    }
+
+    public boolean estaOcupado(Emision emision, Asiento asiento) {
+        return obtenerMapa(emision).isOccupied(indice(emision.getRoom(), asiento));
+    }
+
+    /**
+     * Marca como vendidos los asientos indicados. Si alguno no es de la sala de la emisión o ya
+     * estaba vendido se lanza CustomException; si falla esa comprobación o la escritura del
+     * inventario no queda ocupado ninguno.
+     */
+    public void venderAsientos(Emision emision, List<Asiento> asientos) {
+        // Se validan todos antes de ocupar ningún bit
+        List<Integer> indices = asientos.stream().map(asiento -> indice(emision.getRoom(), asiento)).toList();
+        SeatBitmap mapa = obtenerMapa(emision);
+        List<Integer> ocupados = new ArrayList<>(indices.size());
+        boolean vendidos = false;
+
+        try {
+            for (int i = 0; i < indices.size(); i++) {
+                if (!mapa.tryOccupy(indices.get(i))) {
+                    Asiento asiento = asientos.get(i);
+                    throw new CustomException("El asiento " + asiento.getFila() + asiento.getColumna()
+                            + " ya está vendido para esta emisión", "SEAT_ALREADY_SOLD");
+                }
+                ocupados.add(indices.get(i));
+            }
+            persistir(emision.getIdEmision(), mapa);
+            vendidos = true;
+        } finally {
+            if (!vendidos) {
+                ocupados.forEach(mapa::release);
+            }
+        }
+
+        devolverSiSeDeshace(emision.getIdEmision(), mapa, ocupados);
+        // La cartelera solo cambia cuando la emisión se queda sin asientos
+        if (mapa.freeCount() == 0) {
+            eventPublisher.publishEvent(new CarteleraModificadaEvent("emisión completa"));
+        }
+    }
+
+    public void liberarAsientos(Emision emision, List<Asiento> asientos) {
+        SeatBitmap mapa = obtenerMapa(emision);
+        boolean estabaCompleta = mapa.freeCount() == 0;
+        asientos.forEach(asiento -> mapa.release(indice(emision.getRoom(), asiento)));
+        persistir(emision.getIdEmision(), mapa);
+        if (estabaCompleta && mapa.freeCount() > 0) {
+            eventPublisher.publishEvent(new CarteleraModificadaEvent("emisión con asientos libres"));
+        }
+    }
+
+    public void eliminar(Long idEmision) {
+        inventarios.remove(idEmision);
+        if (seatInventoryRepository.existsById(idEmision)) {
+            seatInventoryRepository.deleteById(idEmision);
+        }
+    }
+
+    /**
+     * Posición del asiento en el mapa de la sala. Lanza CustomException si el asiento es de otra
+     * sala o queda fuera de sus filas y columnas.
+     */
+    int indice(Room room, Asiento asiento) {
+        int indice = posicion(room, asiento);
+        if (indice < 0) {
+            throw new CustomException("El asiento " + asiento.getFila() + asiento.getColumna()
+                    + " no pertenece a la sala de esta emisión", "SEAT_INVALID");
+        }
+        return indice;
+    }
+
+    // -1 si el asiento no es de la sala o no cabe en ella
+    private static int posicion(Room room, Asiento asiento) {
+        if (asiento.getRoom() != null && !Objects.equals(asiento.getRoom().getIdroom(), room.getIdroom())) {
+            return -1;
+        }
+        String fila = asiento.getFila();
+        Integer columna = asiento.getColumna();
+        if (fila == null || fila.isEmpty() || columna == null) {
+            return -1;
+        }
+        int numeroFila = Character.toUpperCase(fila.charAt(0)) - 'A';
+        if (numeroFila < 0 || numeroFila >= room.getFilas() || columna < 1 || columna > room.getColumnas()) {
+            return -1;
+        }
+        return numeroFila * room.getColumnas() + (columna - 1);
+    }
+
+    // Si la venta forma parte de una transacción que acaba deshaciéndose, la fila del inventario
+    // vuelve sola a su estado anterior, pero los bits del mapa en memoria hay que soltarlos
+    private void devolverSiSeDeshace(Long idEmision, SeatBitmap mapa, List<Integer> ocupados) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                boolean estabaCompleta = mapa.freeCount() == 0;
+                ocupados.forEach(mapa::release);
+                logger.info("Devueltos {} asientos de la emisión {} tras deshacerse la venta", ocupados.size(), idEmision);
+                // Otra venta confirmada entretanto pudo guardar estos bits; la transacción original
+                // ya ha terminado, así que se escribe en una nueva
+                try {
+                    transaccionNueva.executeWithoutResult(estado -> persistir(idEmision, mapa));
+                } catch (RuntimeException e) {
+                    logger.warn("No se pudo guardar el inventario de la emisión {}: {}", idEmision, e.getMessage());
+                }
+                if (estabaCompleta) {
+                    eventPublisher.publishEvent(new CarteleraModificadaEvent("emisión con asientos libres"));
+                }
+            }
+        });
+    }
+
+    private SeatBitmap obtenerMapa(Emision emision) {
+        Room room = emision.getRoom();
+        // La carga consulta la base de datos, así que se hace fuera de computeIfAbsent (que bloquea
+        // la entrada del mapa con un monitor); si dos hilos cargan a la vez se queda el primero
+        SeatBitmap mapa = inventarios.get(emision.getIdEmision());
+        if (mapa == null) {
+            SeatBitmap cargado = cargar(emision.getIdEmision(), room);
+            mapa = Objects.requireNonNullElse(inventarios.putIfAbsent(emision.getIdEmision(), cargado), cargado);
+        }
+
+        // Si la sala ha cambiado de dimensiones el mapa cacheado ya no es válido
+        if (mapa.size() != capacidad(room)) {
+            mapa = reconstruir(emision.getIdEmision(), room);
+            inventarios.put(emision.getIdEmision(), mapa);
+        }
+        return mapa;
+    }
+
+    private SeatBitmap cargar(Long idEmision, Room room) {
+        int capacidad = capacidad(room);
+        return seatInventoryRepository.findById(idEmision)
+                .filter(inv -> inv.getTotalAsientos() == capacidad)
+                .map(inv -> SeatBitmap.fromBytes(capacidad, inv.getOcupacion()))
+                .orElseGet(() -> reconstruir(idEmision, room));
+    }
+
+    // Reconstruye el mapa a partir de las reservas existentes (emisiones anteriores al inventario)
+    private SeatBitmap reconstruir(Long idEmision, Room room) {
+        logger.info("Reconstruyendo inventario de asientos para la emisión {}", idEmision);
+        SeatBitmap mapa = new SeatBitmap(capacidad(room));
+        for (Asiento asiento : reservationDetailsRepository.findAsientosVendidosByEmision(idEmision)) {
+            int indice = posicion(room, asiento);
+            if (indice >= 0) {
+                mapa.tryOccupy(indice);
+            }
+        }
+        // Es una caché de las reservas, no parte de la operación que la pide (que puede ser una
+        // consulta de solo lectura o una venta que aún no ha escrito nada), así que va aparte
+        transaccionNueva.executeWithoutResult(estado -> persistir(idEmision, mapa));
+        return mapa;
+    }
+
+    private void persistir(Long idEmision, SeatBitmap mapa) {
+        // Se serializa por emisión para no sobrescribir un estado más reciente. Dentro de una
+        // transacción se vuelca en el acto para que el orden de escritura sea el del bloqueo y
+        // no el de los commits; cada venta escribe una sola vez por transacción
+        ReentrantLock bloqueo = bloqueos[Math.floorMod(idEmision.hashCode(), BLOQUEOS)];
+        bloqueo.lock();
+        try {
+            seatInventoryRepository.saveAndFlush(SeatInventory.builder()
+                    .idEmision(idEmision)
+                    .totalAsientos(mapa.size())
+                    .ocupados(mapa.occupiedCount())
+                    .ocupacion(mapa.toBytes())
+                    .build());
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    private int capacidad(Room room) {
+        return room.getFilas() * room.getColumnas();
+    }
+}
@@ -0,0 +1,20 @@
+package com.eviden.cine.service;
+
+/**
+ * Proveedor de traducciones automáticas. TranslationService cachea sus resultados y
+ * limita la frecuencia de llamadas según {@link #peticionesPorSegundo()}.
+ */
+public interface TranslationProvider {
+
+    /**
+     * Nombre con el que se guardan sus traducciones en la memoria de traducción.
+     */
+    String nombre();
+
+    double peticionesPorSegundo();
+
+    /**
+     * Traduce el texto o lanza una excepción si no puede; nunca devuelve el original como si fuera traducción.
+     */
+    String traducir(String texto, String idiomaOrigen, String idiomaDestino) throws Exception;
+}
@@ -0,0 +1,177 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.TranslationMemory;
+import com.eviden.cine.repository.TranslationMemoryRepository;
+import com.eviden.cine.util.LruCache;
+import com.eviden.cine.util.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Traducciones automáticas con memoria de traducción. Cada traducción se identifica por
+ * (hash del texto, idioma origen, idioma destino) y se busca primero en una caché LRU en
+ * memoria, después en la tabla "memoria_traduccion" y, si no está, se pide al proveedor.
+ * Las peticiones al proveedor de una misma tanda se hacen en paralelo en hilos virtuales,
+ * respetando su límite de peticiones por segundo.
+ */
+@Service
+public class TranslationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationService.class);
+    // Igual que las columnas de título y sinopsis de Movie
+    private static final int LONGITUD_MAXIMA = 1000;
+
+    private record Clave(String hash, String origen, String destino) {
+    }
+
+    private final TranslationMemoryRepository translationMemoryRepository;
+    private final TranslationProvider provider;
+    private final RateLimiter limitador;
+    private final LruCache<Clave, String> cache;
+    private final TransactionTemplate transaccionNueva;
+
+    public TranslationService(TranslationMemoryRepository translationMemoryRepository,
+                              TranslationProvider provider,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${traduccion.cache.max-entries:10000}") int maxEntradas) {
+        this.translationMemoryRepository = translationMemoryRepository;
+        this.provider = provider;
+        this.limitador = new RateLimiter(provider.peticionesPorSegundo());
+        this.cache = new LruCache<>(maxEntradas);
+        // La memoria se guarda en su propia transacción: un duplicado no debe deshacer la operación que traduce
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Traduce varios textos a varios idiomas en una sola tanda. Devuelve, para cada texto,
+     * un mapa idioma → traducción. Si una traducción falla se devuelve el texto original
+     * (y no se guarda en la memoria).
+     */
+    public Map<String, Map<String, String>> traducir(Collection<String> textos, String idiomaOrigen,
+                                                     Collection<String> idiomasDestino) {
+        String origen = idiomaOrigen.toLowerCase();
+        Map<String, String> hashes = new HashMap<>();
+        Map<Clave, String> traducidas = new HashMap<>();
+        Map<Clave, String> pendientes = new LinkedHashMap<>();
+
+        for (String texto : textos) {
+            String hash = hashes.computeIfAbsent(texto, TranslationService::hash);
+            for (String destino : idiomasDestino) {
+                Clave clave = new Clave(hash, origen, destino.toLowerCase());
+                if (clave.destino().equals(origen)) {
+                    continue;
+                }
+                String cacheada = cache.get(clave);
+                if (cacheada != null) {
+                    traducidas.put(clave, cacheada);
+                } else {
+                    pendientes.put(clave, texto);
+                }
+            }
+        }
+
+        if (!pendientes.isEmpty()) {
+            List<String> hashesPendientes = pendientes.keySet().stream().map(Clave::hash).distinct().toList();
+            for (TranslationMemory memoria : translationMemoryRepository.findByHashTextoIn(hashesPendientes)) {
+                Clave clave = new Clave(memoria.getHashTexto(), memoria.getIdiomaOrigen(), memoria.getIdiomaDestino());
+                if (pendientes.remove(clave) != null) {
+                    traducidas.put(clave, memoria.getTextoTraducido());
+                    cache.put(clave, memoria.getTextoTraducido());
+                }
+            }
+        }
+
+        if (!pendientes.isEmpty()) {
+            Map<Clave, String> nuevas = pedirAlProveedor(pendientes);
+            nuevas.forEach(cache::put);
+            traducidas.putAll(nuevas);
+            guardar(nuevas);
+        }
+
+        Map<String, Map<String, String>> resultado = new HashMap<>();
+        for (String texto : textos) {
+            Map<String, String> porIdioma = resultado.computeIfAbsent(texto, t -> new HashMap<>());
+            for (String destino : idiomasDestino) {
+                Clave clave = new Clave(hashes.get(texto), origen, destino.toLowerCase());
+                porIdioma.put(clave.destino(), traducidas.getOrDefault(clave, texto));
+            }
+        }
+        return resultado;
+    }
+
+    private Map<Clave, String> pedirAlProveedor(Map<Clave, String> pendientes) {
+        Map<Clave, String> nuevas = new ConcurrentHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            pendientes.forEach((clave, texto) -> executor.submit(() -> {
+                try {
+                    limitador.adquirir();
+                    String traduccion = provider.traducir(texto, clave.origen(), clave.destino());
+                    if (traduccion != null) {
+                        nuevas.put(clave, traduccion);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    logger.warn("No se pudo traducir de {} a {} con {}: {}", clave.origen(), clave.destino(),
+                            provider.nombre(), e.getMessage());
+                }
+            }));
+        }
+        logger.info("Traducciones pedidas a {}: {} de {} correctas", provider.nombre(), nuevas.size(), pendientes.size());
+        return nuevas;
+    }
+
+    private void guardar(Map<Clave, String> nuevas) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<TranslationMemory> memorias = nuevas.entrySet().stream()
+                .filter(entry -> entry.getValue().length() <= LONGITUD_MAXIMA)
+                .map(entry -> TranslationMemory.builder()
+                        .hashTexto(entry.getKey().hash())
+                        .idiomaOrigen(entry.getKey().origen())
+                        .idiomaDestino(entry.getKey().destino())
+                        .textoTraducido(entry.getValue())
+                        .proveedor(provider.nombre())
+                        .creadaEn(ahora)
+                        .build())
+                .toList();
+        if (memorias.isEmpty()) {
+            return;
+        }
+        try {
+            transaccionNueva.executeWithoutResult(status -> translationMemoryRepository.saveAll(memorias));
+        } catch (DataIntegrityViolationException e) {
+            // Otra petición ha traducido el mismo texto a la vez; ya están en la caché
+            logger.warn("Traducciones ya guardadas por otra petición: {}", e.getMessage());
+        }
+    }
+
+    static String hash(String texto) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
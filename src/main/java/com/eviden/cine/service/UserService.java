@@ -1,21 +1,21 @@
 package com.eviden.cine.service;
 
+import com.eviden.cine.dtos.RoleDTO;
 import com.eviden.cine.dtos.UpdateProfileDTO;
+import com.eviden.cine.dtos.UserDTO;
 import com.eviden.cine.model.Role;
 import com.eviden.cine.model.User;
 import com.eviden.cine.repository.RoleRepository;
 import com.eviden.cine.repository.UserRepository;
+import com.eviden.cine.security.PrincipalCache;
 import com.eviden.cine.security.RandomPWordGenerator;
+import com.eviden.cine.util.KeysetPage;
 import jakarta.mail.MessagingException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-
 @Service
 public class UserService {
 
@@ -24,22 +24,40 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
     private final RandomPWordGenerator randomPWordGenerator;
-
-    public Map<String, String> getResetTokens() {
-        return resetTokens;
-    }
-
-    private final Map<String, String> resetTokens = new HashMap<>();
+    private final PrincipalCache principalCache;
+    private final PasswordResetTokenService passwordResetTokenService;
 
     public UserService(UserRepository userRepository,
                        RoleRepository roleRepository,
                        PasswordEncoder passwordEncoder,
-                       EmailService emailService, RandomPWordGenerator randomPWordGenerator) {
+                       EmailService emailService, RandomPWordGenerator randomPWordGenerator,
+                       PrincipalCache principalCache, PasswordResetTokenService passwordResetTokenService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
         this.randomPWordGenerator = randomPWordGenerator;
+        this.principalCache = principalCache;
+        this.passwordResetTokenService = passwordResetTokenService;
+    }
+
+    /**
+     * Página de usuarios por cursor. Se leen solo las columnas del listado; la contraseña y
+     * los favoritos no se incluyen.
+     */
+    public KeysetPage<UserDTO> getUsersPage(Long after, Integer size) {
+        int tamano = KeysetPage.tamano(size);
+        return KeysetPage.de(
+                        userRepository.findPaginaDespuesDe(KeysetPage.cursor(after), KeysetPage.limite(tamano)),
+                        tamano, UserRepository.FilaUsuario::getUserId)
+                .map(fila -> UserDTO.builder()
+                        .userId(fila.getUserId())
+                        .username(fila.getUsername())
+                        .email(fila.getEmail())
+                        .preferredLanguage(fila.getPreferredLanguage())
+                        .region(fila.getRegion())
+                        .role(RoleDTO.builder().roleId(fila.getRoleId()).name(fila.getRoleName()).build())
+                        .build());
     }
 
     public User changeUserRoleById(Long userId, Long roleId) {
@@ -50,7 +68,9 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("Role not found with ID: " + roleId));
 
         user.setRole(newRole);
-        return userRepository.save(user);
+        User guardado = userRepository.save(user);
+        principalCache.invalidar(user.getEmail());
+        return guardado;
     }
 
     public User updateProfile(UpdateProfileDTO dto, String authenticatedEmail) {
@@ -65,15 +85,18 @@ public class UserService {
         user.setPreferredLanguage(dto.getPreferredLanguage());
         user.setRegion(dto.getRegion());
 
-        return userRepository.save(user);
+        User guardado = userRepository.save(user);
+        // El email puede haber cambiado: se descartan el anterior y el nuevo
+        principalCache.invalidar(authenticatedEmail);
+        principalCache.invalidar(dto.getEmail());
+        return guardado;
     }
 
     public void sendResetToken(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con ese email"));
 
-        String token = UUID.randomUUID().toString();
-        resetTokens.put(token, email);
+        String token = passwordResetTokenService.emitir(user.getEmail());
 
         try {
             emailService.sendPasswordResetEmail(email, token);
@@ -83,18 +106,15 @@ public class UserService {
     }
 
     public void resetPassword(String token, String newPassword) {
-        String email = resetTokens.get(token);
-        if (email == null) {
-            throw new RuntimeException("Token inválido o expirado");
-        }
+        String email = passwordResetTokenService.consumir(token)
+                .orElseThrow(() -> new RuntimeException("Token inválido o expirado"));
 
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
-
-        resetTokens.remove(token);
+        principalCache.invalidar(email);
     }
 
     public User findOrCreateUser(String email, OAuth2User oAuth2User) {
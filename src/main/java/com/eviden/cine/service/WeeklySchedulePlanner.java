@@ -0,0 +1,177 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.Emision;
+import com.eviden.cine.model.Movie;
+import com.eviden.cine.model.Room;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Planifica en memoria las emisiones automáticas de varios días para todas las salas.
+ * Para cada sala y día recorre los huecos libres entre las emisiones ya existentes
+ * y los va llenando con películas que quepan en el hueco.
+ */
+@Service
+public class WeeklySchedulePlanner {
+
+    static final LocalTime APERTURA = LocalTime.of(13, 0);
+    static final LocalTime CIERRE = LocalTime.of(23, 59);
+    private static final long DIAS_ESTRENO = 14;
+
+    private record Bloqueo(LocalDateTime inicio, LocalDateTime fin) {
+    }
+
+    private final Random random;
+
+    @Autowired
+    public WeeklySchedulePlanner() {
+        this(new SecureRandom());
+    }
+
+    WeeklySchedulePlanner(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Devuelve las emisiones nuevas (sin guardar) para los días indicados.
+     *
+     * @param existentes emisiones ya programadas en el periodo; sus horarios se respetan
+     */
+    public List<Emision> planificar(List<Movie> peliculas, List<Room> salas, List<Emision> existentes,
+                                    LocalDate desde, int dias) {
+        List<Emision> nuevas = new ArrayList<>();
+        if (peliculas.isEmpty()) {
+            return nuevas;
+        }
+
+        Map<Long, List<Bloqueo>> bloqueosPorSala = new HashMap<>();
+        // Películas ya programadas por sala y día, para no repetir en la misma sala el mismo día
+        Map<String, Set<Integer>> programadas = new HashMap<>();
+        for (Emision emision : existentes) {
+            Long idRoom = emision.getRoom().getIdroom();
+            bloqueosPorSala.computeIfAbsent(idRoom, id -> new ArrayList<>()).add(bloqueo(emision));
+            programadas.computeIfAbsent(clave(idRoom, emision.getFechaHoraInicio().toLocalDate()), k -> new HashSet<>())
+                    .add(emision.getMovie().getId());
+        }
+        bloqueosPorSala.values().forEach(lista -> lista.sort(Comparator.comparing(Bloqueo::inicio)));
+
+        // Emisiones por película en el periodo, para repartir las películas entre salas
+        Map<Integer, Integer> usos = new HashMap<>();
+        LocalDate limiteEstreno = desde.minusDays(DIAS_ESTRENO);
+
+        for (Room sala : salas) {
+            List<Bloqueo> bloqueos = bloqueosPorSala.getOrDefault(sala.getIdroom(), List.of());
+            for (int dia = 0; dia < dias; dia++) {
+                LocalDate fecha = desde.plusDays(dia);
+                Set<Integer> delDia = programadas.computeIfAbsent(clave(sala.getIdroom(), fecha), k -> new HashSet<>());
+                planificarDia(sala, fecha, bloqueos, delDia, peliculas, usos, limiteEstreno, nuevas);
+            }
+        }
+        return nuevas;
+    }
+
+    private void planificarDia(Room sala, LocalDate fecha, List<Bloqueo> bloqueos, Set<Integer> delDia,
+                               List<Movie> peliculas, Map<Integer, Integer> usos, LocalDate limiteEstreno,
+                               List<Emision> nuevas) {
+        LocalDateTime cursor = fecha.atTime(APERTURA);
+        LocalDateTime cierre = fecha.atTime(CIERRE);
+        int i = 0;
+
+        while (cursor.isBefore(cierre)) {
+            while (i < bloqueos.size() && !bloqueos.get(i).fin().isAfter(cursor)) {
+                i++;
+            }
+            Bloqueo siguiente = i < bloqueos.size() ? bloqueos.get(i) : null;
+            if (siguiente != null && !siguiente.inicio().isAfter(cursor)) {
+                // El cursor cae dentro de una emisión existente
+                cursor = siguiente.fin();
+                continue;
+            }
+
+            LocalDateTime limite = siguiente != null && siguiente.inicio().isBefore(cierre) ? siguiente.inicio() : cierre;
+            long hueco = ChronoUnit.MINUTES.between(cursor, limite);
+            Movie pelicula = elegir(peliculas, hueco, delDia, usos, limiteEstreno);
+
+            if (pelicula == null) {
+                if (siguiente == null || !siguiente.inicio().isBefore(cierre)) {
+                    return;
+                }
+                cursor = siguiente.fin();
+                continue;
+            }
+
+            nuevas.add(Emision.builder()
+                    .movie(pelicula)
+                    .room(sala)
+                    .fechaHoraInicio(cursor)
+                    .idioma("Español")
+                    .estado(Emision.EstadoEmision.ACTIVO)
+                    .build());
+            delDia.add(pelicula.getId());
+            usos.merge(pelicula.getId(), 1, Integer::sum);
+            cursor = cursor.plusMinutes(duracion(pelicula));
+        }
+    }
+
+    /**
+     * Elige la película para un hueco: entre las que caben y no se han programado ese día
+     * en la sala, prefiere estrenos, después las menos programadas en el periodo y después
+     * la más larga (aprovecha mejor el hueco). Los empates se deshacen al azar.
+     */
+    private Movie elegir(List<Movie> peliculas, long hueco, Set<Integer> delDia,
+                         Map<Integer, Integer> usos, LocalDate limiteEstreno) {
+        List<Movie> mejores = new ArrayList<>();
+        Comparator<Movie> orden = Comparator
+                .comparing((Movie movie) -> !esEstreno(movie, limiteEstreno))
+                .thenComparing(movie -> usos.getOrDefault(movie.getId(), 0))
+                .thenComparing(movie -> -movie.getTime());
+
+        for (Movie pelicula : peliculas) {
+            if (duracion(pelicula) > hueco || delDia.contains(pelicula.getId())) {
+                continue;
+            }
+            if (mejores.isEmpty()) {
+                mejores.add(pelicula);
+                continue;
+            }
+            int comparacion = orden.compare(pelicula, mejores.get(0));
+            if (comparacion < 0) {
+                mejores.clear();
+                mejores.add(pelicula);
+            } else if (comparacion == 0) {
+                mejores.add(pelicula);
+            }
+        }
+        return mejores.isEmpty() ? null : mejores.get(random.nextInt(mejores.size()));
+    }
+
+    private static boolean esEstreno(Movie movie, LocalDate limiteEstreno) {
+        return movie.getReleaseDate() != null && !movie.getReleaseDate().isBefore(limiteEstreno);
+    }
+
+    private static long duracion(Movie movie) {
+        return movie.getTime() + RoomCalendarService.MINUTOS_LIMPIEZA;
+    }
+
+    private static Bloqueo bloqueo(Emision emision) {
+        return new Bloqueo(emision.getFechaHoraInicio(), emision.getFechaHoraInicio().plusMinutes(duracion(emision.getMovie())));
+    }
+
+    private static String clave(Long idRoom, LocalDate fecha) {
+        return idRoom + "@" + fecha;
+    }
+}
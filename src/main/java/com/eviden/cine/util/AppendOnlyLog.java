@@ -0,0 +1,142 @@
+package com.eviden.cine.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Registro en fichero de solo escritura al final, una entrada por línea.
+ * Cada escritura se sincroniza con disco antes de volver, de modo que lo que se
+ * ha anotado sobrevive a un reinicio. Una última línea a medio escribir (caída
+ * durante la escritura) se recorta al abrir el registro.
+ */
+public class AppendOnlyLog implements Closeable {
+
+    private final Path fichero;
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel canal;
+
+    public AppendOnlyLog(Path fichero) throws IOException {
+        this.fichero = fichero;
+        if (fichero.getParent() != null) {
+            Files.createDirectories(fichero.getParent());
+        }
+        this.canal = abrir();
+        recortarLineaIncompleta();
+    }
+
+    public Path getFichero() {
+        return fichero;
+    }
+
+    public List<String> leer() throws IOException {
+        lock.lock();
+        try {
+            String contenido = Files.readString(fichero, StandardCharsets.UTF_8);
+            List<String> lineas = new ArrayList<>();
+            int inicio = 0;
+            int fin;
+            while ((fin = contenido.indexOf('\n', inicio)) >= 0) {
+                if (fin > inicio) {
+                    lineas.add(contenido.substring(inicio, fin));
+                }
+                inicio = fin + 1;
+            }
+            return lineas;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void append(String linea) throws IOException {
+        if (linea.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Una entrada del registro no puede contener saltos de línea");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap((linea + '\n').getBytes(StandardCharsets.UTF_8));
+        lock.lock();
+        try {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sustituye el contenido del registro por las líneas indicadas. Se escribe en un
+     * fichero temporal que después reemplaza al original de forma atómica.
+     */
+    public void compactar(List<String> lineas) throws IOException {
+        compactar(() -> lineas);
+    }
+
+    /**
+     * Igual que {@link #compactar(List)}, pero las líneas se obtienen con el registro
+     * bloqueado, de modo que ninguna escritura concurrente se pierde entre la foto
+     * del estado y la sustitución del fichero.
+     */
+    public void compactar(Supplier<List<String>> instantanea) throws IOException {
+        Path temporal = fichero.resolveSibling(fichero.getFileName() + ".tmp");
+
+        lock.lock();
+        try {
+            StringBuilder contenido = new StringBuilder();
+            instantanea.get().forEach(linea -> contenido.append(linea).append('\n'));
+            try (FileChannel salida = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(contenido.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    salida.write(buffer);
+                }
+                salida.force(true);
+            }
+            canal.close();
+            Files.move(temporal, fichero, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            canal = abrir();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            canal.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recortarLineaIncompleta() throws IOException {
+        long tamano = canal.size();
+        if (tamano == 0) {
+            return;
+        }
+        byte[] contenido = Files.readAllBytes(fichero);
+        int ultimo = contenido.length - 1;
+        while (ultimo >= 0 && contenido[ultimo] != '\n') {
+            ultimo--;
+        }
+        if (ultimo < contenido.length - 1) {
+            canal.truncate(ultimo + 1);
+            canal.force(true);
+        }
+    }
+
+    private FileChannel abrir() throws IOException {
+        return FileChannel.open(fichero, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,87 @@
+package com.eviden.cine.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para cadenas. Responde "seguro que no está" o "puede que esté";
+ * los bits se activan con CAS, por lo que admite inserciones y consultas concurrentes.
+ */
+public class BloomFilter {
+
+    private final int numBits;
+    private final int numHashes;
+    private final AtomicLongArray bits;
+
+    /**
+     * @param elementosEsperados número de elementos para el que se dimensiona el filtro
+     * @param probabilidadFalsoPositivo probabilidad de falso positivo deseada (0, 1)
+     */
+    public BloomFilter(int elementosEsperados, double probabilidadFalsoPositivo) {
+        if (elementosEsperados <= 0) {
+            throw new IllegalArgumentException("El número de elementos esperados debe ser positivo");
+        }
+        if (probabilidadFalsoPositivo <= 0 || probabilidadFalsoPositivo >= 1) {
+            throw new IllegalArgumentException("La probabilidad de falso positivo debe estar entre 0 y 1");
+        }
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-elementosEsperados * Math.log(probabilidadFalsoPositivo) / (ln2 * ln2));
+        this.numBits = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / elementosEsperados * ln2));
+        this.bits = new AtomicLongArray((numBits + 63) >>> 6);
+    }
+
+    public void add(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, numBits);
+            int palabra = bit >>> 6;
+            long mascara = 1L << bit;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+                if ((actual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    public boolean mightContain(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int numBits() {
+        return numBits;
+    }
+
+    public int numHashes() {
+        return numHashes;
+    }
+
+    // FNV-1a de 64 bits seguido del mezclador final de MurmurHash3
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,194 @@
+package com.eviden.cine.util;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché concurrente con tamaño máximo y caducidad por entrada.
+ * Las lecturas no bloquean y descartan al vuelo las entradas caducadas; una rueda de
+ * temporizadores retira las que nadie vuelve a leer. Al superar el tamaño máximo se
+ * expulsan las entradas más antiguas. Lleva la cuenta de aciertos, fallos, expulsiones
+ * y caducidades.
+ */
+public class ExpiringCache<K, V> {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int CUBOS_RUEDA = 4096;
+
+    public record Estadisticas(long aciertos, long fallos, long expulsadas, long caducadas, int tamano) {
+    }
+
+    public record Entrada<V>(V valor, long creadaEn) {
+    }
+
+    private record Nodo<V>(V valor, long expiraEn) {
+    }
+
+    // La rueda y la cola solo guardan la clave y la caducidad, no retienen el valor
+    private record Programado<K>(K clave, long expiraEn) {
+    }
+
+    private final int maxEntradas;
+    private final long ttlMillis;
+    private final LongSupplier reloj;
+
+    private final Map<K, Nodo<V>> mapa = new ConcurrentHashMap<>();
+    private final TimerWheel<Programado<K>> rueda;
+    // Orden de inserción, para expulsar primero las entradas más antiguas
+    private final Queue<Programado<K>> orden = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock limpieza = new ReentrantLock();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder expulsadas = new LongAdder();
+    private final LongAdder caducadas = new LongAdder();
+
+    public ExpiringCache(int maxEntradas, long ttlMillis) {
+        this(maxEntradas, ttlMillis, System::currentTimeMillis);
+    }
+
+    public ExpiringCache(int maxEntradas, long ttlMillis, LongSupplier reloj) {
+        if (maxEntradas <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("La caché necesita un tamaño y un TTL positivos");
+        }
+        this.maxEntradas = maxEntradas;
+        this.ttlMillis = ttlMillis;
+        this.reloj = reloj;
+        this.rueda = new TimerWheel<>(TICK_MILLIS, CUBOS_RUEDA, reloj.getAsLong());
+    }
+
+    public V get(K clave) {
+        Nodo<V> nodo = mapa.get(clave);
+        if (nodo == null) {
+            fallos.increment();
+            return null;
+        }
+        if (nodo.expiraEn() <= reloj.getAsLong()) {
+            if (mapa.remove(clave, nodo)) {
+                caducadas.increment();
+            }
+            fallos.increment();
+            return null;
+        }
+        aciertos.increment();
+        return nodo.valor();
+    }
+
+    public void put(K clave, V valor) {
+        put(clave, valor, reloj.getAsLong());
+    }
+
+    /**
+     * Guarda una entrada creada en el instante indicado; caduca pasado el TTL desde ese instante.
+     * Sirve para restaurar entradas sin alargar su vida.
+     */
+    public void put(K clave, V valor, long creadaEn) {
+        Nodo<V> nodo = new Nodo<>(valor, creadaEn + ttlMillis);
+        Programado<K> programado = new Programado<>(clave, nodo.expiraEn());
+        mapa.put(clave, nodo);
+        rueda.programar(programado, nodo.expiraEn());
+        orden.add(programado);
+
+        if (mapa.size() > maxEntradas) {
+            expulsar();
+        } else {
+            limpiar();
+        }
+    }
+
+    public V remove(K clave) {
+        Nodo<V> nodo = mapa.remove(clave);
+        return nodo != null ? nodo.valor() : null;
+    }
+
+    public int size() {
+        return mapa.size();
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Recorre las entradas vigentes junto con su instante de creación.
+     */
+    public void forEach(BiConsumer<K, Entrada<V>> accion) {
+        long ahora = reloj.getAsLong();
+        mapa.forEach((clave, nodo) -> {
+            if (nodo.expiraEn() > ahora) {
+                accion.accept(clave, new Entrada<>(nodo.valor(), nodo.expiraEn() - ttlMillis));
+            }
+        });
+    }
+
+    /**
+     * Retira las entradas caducadas. Si otro hilo ya está limpiando no hace nada.
+     */
+    public void limpiar() {
+        if (!limpieza.tryLock()) {
+            return;
+        }
+        try {
+            long ahora = reloj.getAsLong();
+            for (Programado<K> programado : rueda.avanzar(ahora)) {
+                if (quitar(programado, ahora)) {
+                    caducadas.increment();
+                }
+            }
+            podarOrden();
+        } finally {
+            limpieza.unlock();
+        }
+    }
+
+    public Estadisticas getEstadisticas() {
+        return new Estadisticas(aciertos.sum(), fallos.sum(), expulsadas.sum(), caducadas.sum(), mapa.size());
+    }
+
+    private void expulsar() {
+        limpieza.lock();
+        try {
+            Programado<K> programado;
+            while (mapa.size() > maxEntradas && (programado = orden.poll()) != null) {
+                if (quitar(programado, Long.MAX_VALUE)) {
+                    expulsadas.increment();
+                }
+            }
+            podarOrden();
+        } finally {
+            limpieza.unlock();
+        }
+    }
+
+    // Quita la entrada si sigue siendo la programada y ha caducado antes de "limite"
+    private boolean quitar(Programado<K> programado, long limite) {
+        boolean[] quitada = new boolean[1];
+        mapa.computeIfPresent(programado.clave(), (clave, nodo) -> {
+            if (nodo.expiraEn() == programado.expiraEn() && nodo.expiraEn() <= limite) {
+                quitada[0] = true;
+                return null;
+            }
+            return nodo;
+        });
+        return quitada[0];
+    }
+
+    // Descarta de la cabeza de la cola las entradas que ya no están en el mapa
+    private void podarOrden() {
+        Programado<K> cabeza;
+        while ((cabeza = orden.peek()) != null && !vigente(cabeza)) {
+            orden.poll();
+        }
+    }
+
+    private boolean vigente(Programado<K> programado) {
+        Nodo<V> nodo = mapa.get(programado.clave());
+        return nodo != null && nodo.expiraEn() == programado.expiraEn();
+    }
+}
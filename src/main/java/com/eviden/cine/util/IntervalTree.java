@@ -0,0 +1,182 @@
+package com.eviden.cine.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Árbol de intervalos semiabiertos [inicio, fin). Es un treap ordenado por inicio en el
+ * que cada nodo guarda el mayor fin de su subárbol, de modo que insertar, eliminar y
+ * comprobar si un intervalo se solapa con alguno guardado cuesta O(log n) esperado.
+ * No es seguro para uso concurrente; quien lo comparta debe sincronizar los accesos.
+ */
+public class IntervalTree<T> {
+
+    private static final class Nodo<T> {
+        final long inicio;
+        final long fin;
+        final T valor;
+        final int prioridad = ThreadLocalRandom.current().nextInt();
+        long maxFin;
+        Nodo<T> izq;
+        Nodo<T> der;
+
+        Nodo(long inicio, long fin, T valor) {
+            this.inicio = inicio;
+            this.fin = fin;
+            this.valor = valor;
+            this.maxFin = fin;
+        }
+    }
+
+    private Nodo<T> raiz;
+    private int size;
+
+    public void insertar(long inicio, long fin, T valor) {
+        if (fin < inicio) {
+            throw new IllegalArgumentException("El fin del intervalo no puede ser anterior al inicio");
+        }
+        raiz = insertar(raiz, new Nodo<>(inicio, fin, valor));
+        size++;
+    }
+
+    /**
+     * Elimina el intervalo que empieza en "inicio" con el valor indicado.
+     *
+     * @return true si existía
+     */
+    public boolean eliminar(long inicio, T valor) {
+        int antes = size;
+        raiz = eliminar(raiz, inicio, valor);
+        return size < antes;
+    }
+
+    public boolean haySolape(long inicio, long fin) {
+        Nodo<T> nodo = raiz;
+        while (nodo != null) {
+            if (nodo.inicio < fin && inicio < nodo.fin) {
+                return true;
+            }
+            // Si algún intervalo de la izquierda termina después de "inicio" y no se solapa,
+            // empieza después de "fin", y todos los de la derecha también
+            if (nodo.izq != null && nodo.izq.maxFin > inicio) {
+                nodo = nodo.izq;
+            } else {
+                nodo = nodo.der;
+            }
+        }
+        return false;
+    }
+
+    public List<T> solapes(long inicio, long fin) {
+        List<T> resultado = new ArrayList<>();
+        solapes(raiz, inicio, fin, resultado);
+        return resultado;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Nodo<T> insertar(Nodo<T> nodo, Nodo<T> nuevo) {
+        if (nodo == null) {
+            return nuevo;
+        }
+        if (nuevo.inicio < nodo.inicio) {
+            nodo.izq = insertar(nodo.izq, nuevo);
+            if (nodo.izq.prioridad > nodo.prioridad) {
+                nodo = rotarDerecha(nodo);
+            }
+        } else {
+            nodo.der = insertar(nodo.der, nuevo);
+            if (nodo.der.prioridad > nodo.prioridad) {
+                nodo = rotarIzquierda(nodo);
+            }
+        }
+        actualizar(nodo);
+        return nodo;
+    }
+
+    private Nodo<T> eliminar(Nodo<T> nodo, long inicio, T valor) {
+        if (nodo == null) {
+            return null;
+        }
+        if (inicio < nodo.inicio) {
+            nodo.izq = eliminar(nodo.izq, inicio, valor);
+        } else if (inicio > nodo.inicio) {
+            nodo.der = eliminar(nodo.der, inicio, valor);
+        } else if (nodo.valor.equals(valor)) {
+            size--;
+            return unir(nodo.izq, nodo.der);
+        } else {
+            // Con inicios repetidos el nodo buscado puede estar a cualquier lado tras las rotaciones
+            int antes = size;
+            nodo.izq = eliminar(nodo.izq, inicio, valor);
+            if (size == antes) {
+                nodo.der = eliminar(nodo.der, inicio, valor);
+            }
+        }
+        actualizar(nodo);
+        return nodo;
+    }
+
+    // Une dos treaps en los que todos los inicios de "a" son menores o iguales que los de "b"
+    private Nodo<T> unir(Nodo<T> a, Nodo<T> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.prioridad > b.prioridad) {
+            a.der = unir(a.der, b);
+            actualizar(a);
+            return a;
+        }
+        b.izq = unir(a, b.izq);
+        actualizar(b);
+        return b;
+    }
+
+    private void solapes(Nodo<T> nodo, long inicio, long fin, List<T> resultado) {
+        if (nodo == null || nodo.maxFin <= inicio) {
+            return;
+        }
+        solapes(nodo.izq, inicio, fin, resultado);
+        if (nodo.inicio < fin && inicio < nodo.fin) {
+            resultado.add(nodo.valor);
+        }
+        if (nodo.inicio < fin) {
+            solapes(nodo.der, inicio, fin, resultado);
+        }
+    }
+
+    private Nodo<T> rotarDerecha(Nodo<T> nodo) {
+        Nodo<T> izq = nodo.izq;
+        nodo.izq = izq.der;
+        izq.der = nodo;
+        actualizar(nodo);
+        actualizar(izq);
+        return izq;
+    }
+
+    private Nodo<T> rotarIzquierda(Nodo<T> nodo) {
+        Nodo<T> der = nodo.der;
+        nodo.der = der.izq;
+        der.izq = nodo;
+        actualizar(nodo);
+        actualizar(der);
+        return der;
+    }
+
+    private void actualizar(Nodo<T> nodo) {
+        long maxFin = nodo.fin;
+        if (nodo.izq != null) {
+            maxFin = Math.max(maxFin, nodo.izq.maxFin);
+        }
+        if (nodo.der != null) {
+            maxFin = Math.max(maxFin, nodo.der.maxFin);
+        }
+        nodo.maxFin = maxFin;
+    }
+}
@@ -0,0 +1,60 @@
+package com.eviden.cine.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Página de un listado paginado por cursor (keyset). Las filas se ordenan por id y cada
+ * página empieza después del último id de la anterior ({@code WHERE id > :cursor}), así que
+ * el coste de una página no depende de cuántas se hayan recorrido antes ni del tamaño de la
+ * tabla. El cursor de la página siguiente se devuelve en la cabecera {@value #CABECERA_CURSOR}
+ * para que el cuerpo siga siendo un array JSON; si no hay cabecera, es la última página.
+ */
+public record KeysetPage<T>(List<T> items, Long siguiente) {
+
+    public static final String CABECERA_CURSOR = "X-Next-Cursor";
+    public static final int TAMANO_POR_DEFECTO = 50;
+    public static final int TAMANO_MAXIMO = 200;
+
+    public static int tamano(Integer pedido) {
+        return pedido != null ? Math.clamp(pedido, 1, TAMANO_MAXIMO) : TAMANO_POR_DEFECTO;
+    }
+
+    // Los ids son autoincrementales y empiezan en 1
+    public static long cursor(Long despues) {
+        return despues != null ? despues : 0L;
+    }
+
+    /**
+     * Límite para la consulta: una fila más que el tamaño de página para saber si hay
+     * página siguiente sin hacer un count.
+     */
+    public static Pageable limite(int tamano) {
+        return PageRequest.of(0, tamano + 1);
+    }
+
+    public static <T> KeysetPage<T> de(List<T> filas, int tamano, ToLongFunction<T> id) {
+        if (filas.size() <= tamano) {
+            return new KeysetPage<>(filas, null);
+        }
+        List<T> items = List.copyOf(filas.subList(0, tamano));
+        return new KeysetPage<>(items, id.applyAsLong(items.getLast()));
+    }
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetPage<>(items.stream().<R>map(mapper).toList(), siguiente);
+    }
+
+    public ResponseEntity<List<T>> aRespuesta() {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (siguiente != null) {
+            respuesta.header(CABECERA_CURSOR, siguiente.toString());
+        }
+        return respuesta.body(items);
+    }
+}
@@ -0,0 +1,76 @@
+package com.eviden.cine.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caché en memoria de tamaño fijo que expulsa la entrada usada hace más tiempo.
+ */
+public class LruCache<K, V> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, V> entradas;
+
+    public LruCache(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacidad;
+            }
+        };
+    }
+
+    public V get(K clave) {
+        lock.lock();
+        try {
+            return entradas.get(clave);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(K clave, V valor) {
+        lock.lock();
+        try {
+            entradas.put(clave, valor);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(K clave) {
+        lock.lock();
+        try {
+            entradas.remove(clave);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copia de las claves, de la usada hace más tiempo a la más reciente.
+     */
+    public List<K> claves() {
+        lock.lock();
+        try {
+            return new ArrayList<>(entradas.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entradas.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.eviden.cine.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limita las llamadas a un número por segundo repartiéndolas en el tiempo: cada llamada
+ * reserva el siguiente hueco libre y espera hasta él fuera del cerrojo, de modo que
+ * los hilos (también los virtuales) no bloquean a los demás mientras esperan.
+ */
+public class RateLimiter {
+
+    private final long intervaloNanos;
+    private final LongSupplier reloj;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long siguienteHueco;
+
+    public RateLimiter(double permisosPorSegundo) {
+        this(permisosPorSegundo, System::nanoTime);
+    }
+
+    RateLimiter(double permisosPorSegundo, LongSupplier reloj) {
+        if (permisosPorSegundo <= 0) {
+            throw new IllegalArgumentException("Los permisos por segundo deben ser positivos");
+        }
+        this.intervaloNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permisosPorSegundo);
+        this.reloj = reloj;
+        this.siguienteHueco = reloj.getAsLong();
+    }
+
+    /**
+     * Espera hasta que haya un permiso disponible.
+     */
+    public void adquirir() throws InterruptedException {
+        long espera = reservar();
+        if (espera > 0) {
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+    }
+
+    /**
+     * Reserva el siguiente hueco y devuelve cuántos nanosegundos faltan para él.
+     */
+    long reservar() {
+        lock.lock();
+        try {
+            long ahora = reloj.getAsLong();
+            long hueco = Math.max(siguienteHueco, ahora);
+            siguienteHueco = hueco + intervaloNanos;
+            return hueco - ahora;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
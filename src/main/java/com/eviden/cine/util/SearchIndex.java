@@ -0,0 +1,241 @@
+package com.eviden.cine.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria para búsquedas de texto. Cada documento tiene varios campos
+ * con un peso; los textos se normalizan (minúsculas y sin acentos) y se parten en términos.
+ * Los términos de la consulta de 3 o más caracteres se buscan como subcadena mediante un
+ * índice de trigramas; los más cortos, como prefijo de un término.
+ * Todos los términos de la consulta deben aparecer en algún campo del documento.
+ */
+public class SearchIndex<K> {
+
+    private static final int N = 3;
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Puntuación según cómo coincide un término de la consulta con un término del campo
+    private static final int EXACTO = 3;
+    private static final int PREFIJO = 2;
+    private static final int SUBCADENA = 1;
+
+    public record Campo(String texto, int peso) {
+    }
+
+    private record Documento(String[][] terminos, int[] pesos, String orden) {
+    }
+
+    private record Resultado<K>(K clave, int puntuacion, String orden) {
+    }
+
+    private final Map<K, Documento> documentos = new HashMap<>();
+    private final Map<String, Set<K>> trigramas = new HashMap<>();
+    private final NavigableMap<String, Set<K>> terminos = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Añade el documento o sustituye el que tuviera la misma clave.
+     */
+    public void indexar(K clave, List<Campo> campos) {
+        List<Campo> conTexto = campos.stream().filter(campo -> campo.texto() != null).toList();
+        String[][] terminosCampos = new String[conTexto.size()][];
+        int[] pesos = new int[conTexto.size()];
+        for (int i = 0; i < conTexto.size(); i++) {
+            terminosCampos[i] = tokenizar(conTexto.get(i).texto());
+            pesos[i] = conTexto.get(i).peso();
+        }
+        String orden = conTexto.isEmpty() ? "" : normalizar(conTexto.getFirst().texto());
+        Documento documento = new Documento(terminosCampos, pesos, orden);
+
+        lock.writeLock().lock();
+        try {
+            quitar(clave);
+            documentos.put(clave, documento);
+            for (String termino : distintos(documento)) {
+                terminos.computeIfAbsent(termino, t -> new HashSet<>()).add(clave);
+                for (String trigrama : trigramasDe(termino)) {
+                    trigramas.computeIfAbsent(trigrama, t -> new HashSet<>()).add(clave);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void eliminar(K clave) {
+        lock.writeLock().lock();
+        try {
+            quitar(clave);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve las claves que coinciden con la consulta, de mayor a menor puntuación.
+     * La puntuación suma, por cada término de la consulta, la mejor coincidencia
+     * (exacta, prefijo o subcadena) multiplicada por el peso del campo.
+     */
+    public List<K> buscar(String consulta) {
+        String[] consultaTerminos = consulta == null ? new String[0] : tokenizar(consulta);
+        if (consultaTerminos.length == 0) {
+            return List.of();
+        }
+
+        List<Resultado<K>> resultados = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<K> candidatos = null;
+            for (String termino : consultaTerminos) {
+                Set<K> encontrados = candidatos(termino);
+                if (candidatos == null) {
+                    candidatos = encontrados;
+                } else {
+                    candidatos.retainAll(encontrados);
+                }
+                if (candidatos.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            for (K clave : candidatos) {
+                Documento documento = documentos.get(clave);
+                int puntuacion = puntuar(documento, consultaTerminos);
+                if (puntuacion > 0) {
+                    resultados.add(new Resultado<>(clave, puntuacion, documento.orden()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        resultados.sort(Comparator.comparingInt((Resultado<K> r) -> -r.puntuacion())
+                .thenComparing(Resultado::orden));
+        return resultados.stream().map(Resultado::clave).toList();
+    }
+
+    /**
+     * Minúsculas y sin tildes ni diacríticos: "Amélie" y "amelie" se indexan igual.
+     */
+    public static String normalizar(String texto) {
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinMarcas.toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] tokenizar(String texto) {
+        return Arrays.stream(SEPARADORES.split(normalizar(texto)))
+                .filter(termino -> !termino.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static List<String> trigramasDe(String termino) {
+        List<String> resultado = new ArrayList<>();
+        for (int i = 0; i + N <= termino.length(); i++) {
+            resultado.add(termino.substring(i, i + N));
+        }
+        return resultado;
+    }
+
+    private static Set<String> distintos(Documento documento) {
+        Set<String> resultado = new HashSet<>();
+        for (String[] campo : documento.terminos()) {
+            resultado.addAll(Arrays.asList(campo));
+        }
+        return resultado;
+    }
+
+    // Devuelve un conjunto nuevo que el llamante puede modificar
+    private Set<K> candidatos(String termino) {
+        Set<K> resultado = new HashSet<>();
+        if (termino.length() < N) {
+            terminos.subMap(termino, true, termino + Character.MAX_VALUE, true)
+                    .values()
+                    .forEach(resultado::addAll);
+            return resultado;
+        }
+
+        List<Set<K>> listas = new ArrayList<>();
+        for (String trigrama : trigramasDe(termino)) {
+            Set<K> lista = trigramas.get(trigrama);
+            if (lista == null) {
+                return resultado;
+            }
+            listas.add(lista);
+        }
+        listas.sort(Comparator.comparingInt(Set::size));
+        resultado.addAll(listas.getFirst());
+        for (int i = 1; i < listas.size() && !resultado.isEmpty(); i++) {
+            resultado.retainAll(listas.get(i));
+        }
+        return resultado;
+    }
+
+    // Los trigramas pueden dar falsos positivos; aquí se comprueba la coincidencia real
+    private static int puntuar(Documento documento, String[] consultaTerminos) {
+        int total = 0;
+        for (String buscado : consultaTerminos) {
+            int mejor = 0;
+            for (int c = 0; c < documento.terminos().length; c++) {
+                for (String termino : documento.terminos()[c]) {
+                    int tipo = termino.equals(buscado) ? EXACTO
+                            : termino.startsWith(buscado) ? PREFIJO
+                            : buscado.length() >= N && termino.contains(buscado) ? SUBCADENA
+                            : 0;
+                    mejor = Math.max(mejor, tipo * documento.pesos()[c]);
+                }
+            }
+            if (mejor == 0) {
+                return 0;
+            }
+            total += mejor;
+        }
+        return total;
+    }
+
+    private void quitar(K clave) {
+        Documento anterior = documentos.remove(clave);
+        if (anterior == null) {
+            return;
+        }
+        for (String termino : distintos(anterior)) {
+            quitarDe(terminos, termino, clave);
+            for (String trigrama : trigramasDe(termino)) {
+                quitarDe(trigramas, trigrama, clave);
+            }
+        }
+    }
+
+    private static <K> void quitarDe(Map<String, Set<K>> mapa, String termino, K clave) {
+        Set<K> claves = mapa.get(termino);
+        if (claves != null) {
+            claves.remove(clave);
+            if (claves.isEmpty()) {
+                mapa.remove(termino);
+            }
+        }
+    }
+}
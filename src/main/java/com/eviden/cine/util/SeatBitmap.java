@@ -0,0 +1,107 @@
+package com.eviden.cine.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Mapa de bits de ocupación de los asientos de una emisión.
+ * Cada bit representa un asiento (fila * columnas + columna) y se modifica con CAS,
+ * por lo que vender o liberar un asiento no necesita bloqueos.
+ */
+public class SeatBitmap {
+
+    private final int size;
+    private final AtomicLongArray words;
+
+    public SeatBitmap(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("El tamaño del mapa de asientos no puede ser negativo");
+        }
+        this.size = size;
+        this.words = new AtomicLongArray((size + 63) >>> 6);
+    }
+
+    public static SeatBitmap fromBytes(int size, byte[] bytes) {
+        SeatBitmap bitmap = new SeatBitmap(size);
+        if (bytes == null) {
+            return bitmap;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < bitmap.words.length() && buffer.remaining() >= Long.BYTES; i++) {
+            bitmap.words.set(i, buffer.getLong());
+        }
+        return bitmap;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Marca el asiento como ocupado. Devuelve false si ya lo estaba.
+     */
+    public boolean tryOccupy(int index) {
+        checkIndex(index);
+        int word = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long current = words.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el asiento. Devuelve false si ya estaba libre.
+     */
+    public boolean release(int index) {
+        checkIndex(index);
+        int word = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long current = words.get(word);
+            if ((current & mask) == 0) {
+                return false;
+            }
+            if (words.compareAndSet(word, current, current & ~mask)) {
+                return true;
+            }
+        }
+    }
+
+    public boolean isOccupied(int index) {
+        checkIndex(index);
+        return (words.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    public int occupiedCount() {
+        int count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    public int freeCount() {
+        return size - occupiedCount();
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length() * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < words.length(); i++) {
+            buffer.putLong(words.get(i));
+        }
+        return buffer.array();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Asiento fuera del mapa: " + index + " (tamaño " + size + ")");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.eviden.cine.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rueda de temporizadores (hashed timer wheel). Cada elemento se guarda en el cubo
+ * de su instante de caducidad, de modo que al avanzar solo se recorren los cubos
+ * vencidos y no todos los elementos pendientes. Programar y avanzar comparten un cerrojo
+ * para que un elemento no caiga en un cubo que el avance acaba de dejar atrás.
+ */
+public class TimerWheel<T> {
+
+    private record Entrada<T>(T elemento, long caducaEn) {
+    }
+
+    private final long tickMillis;
+    private final List<Queue<Entrada<T>>> cubos;
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private long ultimoTick;
+
+    public TimerWheel(long tickMillis, int numeroCubos, long ahoraMillis) {
+        if (tickMillis <= 0 || numeroCubos <= 0) {
+            throw new IllegalArgumentException("La rueda necesita un tick y un número de cubos positivos");
+        }
+        this.tickMillis = tickMillis;
+        this.cubos = new ArrayList<>(numeroCubos);
+        for (int i = 0; i < numeroCubos; i++) {
+            cubos.add(new ConcurrentLinkedQueue<>());
+        }
+        this.ultimoTick = ahoraMillis / tickMillis;
+    }
+
+    public void programar(T elemento, long caducaEnMillis) {
+        // Un elemento ya vencido va al siguiente cubo pendiente para no esperar una vuelta entera
+        cerrojo.lock();
+        try {
+            long tick = Math.max(caducaEnMillis / tickMillis, ultimoTick + 1);
+            cubos.get(indice(tick)).add(new Entrada<>(elemento, caducaEnMillis));
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Avanza la rueda hasta el instante indicado y devuelve los elementos caducados.
+     */
+    public List<T> avanzar(long ahoraMillis) {
+        long tickActual = ahoraMillis / tickMillis;
+        List<T> caducados = new ArrayList<>();
+        cerrojo.lock();
+        try {
+            if (tickActual <= ultimoTick) {
+                return caducados;
+            }
+
+            // Si ha pasado más de una vuelta basta con recorrer cada cubo una vez
+            long pasos = Math.min(tickActual - ultimoTick, cubos.size());
+            for (long tick = tickActual - pasos + 1; tick <= tickActual; tick++) {
+                Queue<Entrada<T>> cubo = cubos.get(indice(tick));
+                List<Entrada<T>> pendientes = new ArrayList<>();
+                Entrada<T> entrada;
+                while ((entrada = cubo.poll()) != null) {
+                    if (entrada.caducaEn() <= ahoraMillis) {
+                        caducados.add(entrada.elemento());
+                    } else {
+                        // Pertenece a una vuelta posterior de la rueda
+                        pendientes.add(entrada);
+                    }
+                }
+                cubo.addAll(pendientes);
+            }
+            ultimoTick = tickActual;
+            return caducados;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private int indice(long tick) {
+        return (int) Math.floorMod(tick, (long) cubos.size());
+    }
+}
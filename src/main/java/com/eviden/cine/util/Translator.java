@@ -4,6 +4,7 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
@@ -19,22 +20,7 @@ public class Translator {
 
     public static String traducir(String texto, String from, String to) {
         try {
-            String query = "?q=" + URLEncoder.encode(texto, StandardCharsets.UTF_8)
-                    + "&langpair=" + URLEncoder.encode(from + "|" + to, StandardCharsets.UTF_8);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(API_URL + query))
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(
-                    request,
-                    HttpResponse.BodyHandlers.ofString()
-            );
-
-            JSONObject json = new JSONObject(response.body());
-            return json.getJSONObject("responseData").getString("translatedText");
-
+            return traducirOFallar(texto, from, to);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();  // Reinterrumpir el hilo
             logger.error("La solicitud de traducción fue interrumpida para el texto: {}", texto, e);
@@ -44,4 +30,31 @@ public class Translator {
             return texto;
         }
     }
+
+    /**
+     * Igual que {@link #traducir} pero lanza la excepción en lugar de devolver el texto original,
+     * para que quien llama pueda distinguir un fallo de una traducción.
+     */
+    public static String traducirOFallar(String texto, String from, String to) throws IOException, InterruptedException {
+        String query = "?q=" + URLEncoder.encode(texto, StandardCharsets.UTF_8)
+                + "&langpair=" + URLEncoder.encode(from + "|" + to, StandardCharsets.UTF_8);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(API_URL + query))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = httpClient.send(
+                request,
+                HttpResponse.BodyHandlers.ofString()
+        );
+
+        JSONObject json = new JSONObject(response.body());
+        // MyMemory responde 200 con un aviso en el texto cuando se agota la cuota
+        int estado = json.optInt("responseStatus", 200);
+        if (estado != 200) {
+            throw new IOException("MyMemory respondió " + estado + ": " + json.optString("responseDetails"));
+        }
+        return json.getJSONObject("responseData").getString("translatedText");
+    }
 }
@@ -0,0 +1,113 @@
+package com.eviden.cine.component;
+
+import com.eviden.cine.exception.CustomException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricasPeticionFilterTest {
+
+    private ContadorSentencias contador;
+    private SimpleMeterRegistry registry;
+    private MetricasPeticionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        contador = new ContadorSentencias(3);
+        registry = new SimpleMeterRegistry();
+        filter = new MetricasPeticionFilter(contador,
+                new PresupuestoSentencias(10, "GET /api/foros=2", PresupuestoSentencias.Modo.FALLO, 1.0, () -> 0.0),
+                registry);
+    }
+
+    @Test
+    void registraLasSentenciasDeLaPeticionPorPatronDeRuta() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/movies/id/7");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/movies/id/{id}");
+            contador.inspect("select * from movies where id=?");
+            contador.inspect("select * from genres where id=?");
+        });
+
+        DistributionSummary sentencias = registry.get("cine.hibernate.sentencias")
+                .tag("method", "GET").tag("uri", "/api/movies/id/{id}").summary();
+        assertEquals(1, sentencias.count());
+        assertEquals(2, sentencias.totalAmount());
+    }
+
+    @Test
+    void fueraDeUnaPeticionNoSeCuentaNada() throws Exception {
+        assertEquals("select 1", contador.inspect("select 1"));
+        assertEquals(-1, contador.enCurso());
+        assertEquals(0, contador.terminar().getTotal());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/desconocida"), new MockHttpServletResponse(),
+                (req, res) -> { });
+        assertEquals(0, registry.get("cine.hibernate.sentencias").tag("uri", "UNKNOWN").summary().totalAmount());
+    }
+
+    @Test
+    void superarElPresupuestoDelEndpointFallaConLaSentenciaRepetidaYLaPila() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/foros");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        CustomException e = assertThrows(CustomException.class, () ->
+                filter.doFilter(request, response, (req, res) -> {
+                    req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/foros");
+                    contador.inspect("select * from foros");
+                    for (int i = 0; i < 4; i++) {
+                        contador.inspect("select * from users where user_id=?");
+                    }
+                    res.getWriter().write("[{\"id\":1}]");
+                    res.flushBuffer();
+                }));
+
+        assertEquals(PresupuestoSentencias.CODIGO, e.getCode());
+        assertTrue(e.getMessage().contains("5 sentencias (presupuesto 2)"));
+        assertTrue(e.getMessage().contains("Repetida 4 veces: select * from users where user_id=?"));
+        assertTrue(e.getMessage().contains(MetricasPeticionFilterTest.class.getName()));
+        // La métrica de sentencias se registra aunque la petición falle
+        assertEquals(5, registry.get("cine.hibernate.sentencias").tag("uri", "/api/foros").summary().totalAmount());
+        // El cuerpo escrito por el controlador no llega al cliente: recibe el error, no un 200
+        assertFalse(response.isCommitted());
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    void enModoFallo_dentroDelPresupuesto_laRespuestaRetenidaSeEnvia() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/foros"), response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/foros");
+            contador.inspect("select * from foros");
+            res.getWriter().write("[]");
+        });
+
+        assertEquals("[]", response.getContentAsString());
+        assertEquals(2, response.getContentLength());
+    }
+
+    @Test
+    void enModoAviso_laRespuestaNoSeRetiene() throws Exception {
+        MetricasPeticionFilter filtroAviso = new MetricasPeticionFilter(contador,
+                new PresupuestoSentencias(0, "", PresupuestoSentencias.Modo.AVISO, 0.0, () -> 0.0), registry);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtroAviso.doFilter(new MockHttpServletRequest("GET", "/api/foros"), response, (req, res) -> {
+            contador.inspect("select * from foros");
+            res.getWriter().write("[]");
+            res.flushBuffer();
+            assertSame(response, res);
+        });
+
+        assertTrue(response.isCommitted());
+        assertEquals(1, registry.get("cine.hibernate.presupuesto.excedido").counter().count());
+    }
+}
@@ -0,0 +1,43 @@
+package com.eviden.cine.component;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresupuestoSentenciasTest {
+
+    private static ContadorSentencias.Recuento recuento(int sentencias) {
+        ContadorSentencias contador = new ContadorSentencias(5);
+        contador.iniciar();
+        for (int i = 0; i < sentencias; i++) {
+            contador.inspect("select * from emisiones where id=?");
+        }
+        return contador.terminar();
+    }
+
+    @Test
+    void presupuestoPorMetodoYRutaPorRutaOPorDefecto() {
+        PresupuestoSentencias presupuesto = new PresupuestoSentencias(30,
+                "GET /api/rooms/admin=10, /api/foros=5", PresupuestoSentencias.Modo.AVISO, 1.0, () -> 0.0);
+
+        assertEquals(10, presupuesto.presupuesto("GET", "/api/rooms/admin"));
+        assertEquals(30, presupuesto.presupuesto("POST", "/api/rooms/admin"));
+        assertEquals(5, presupuesto.presupuesto("DELETE", "/api/foros"));
+        assertEquals(30, presupuesto.presupuesto("GET", "/api/movies/all"));
+    }
+
+    @Test
+    void enModoAvisoSoloInformaDeQueSeHaExcedido() {
+        PresupuestoSentencias muestreado = new PresupuestoSentencias(3, "", PresupuestoSentencias.Modo.AVISO, 0.1, () -> 0.5);
+
+        assertFalse(muestreado.comprobar("GET", "/api/foros", recuento(3)));
+        // Fuera de la muestra no hay warning, pero sí cuenta como excedido
+        assertTrue(muestreado.comprobar("GET", "/api/foros", recuento(4)));
+    }
+
+    @Test
+    void configuracionMalFormadaNoArranca() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new PresupuestoSentencias(30, "/api/foros", PresupuestoSentencias.Modo.AVISO, 0.1, () -> 0.0));
+    }
+}
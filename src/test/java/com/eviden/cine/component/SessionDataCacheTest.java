@@ -2,22 +2,34 @@ package com.eviden.cine.component;
 
 import com.eviden.cine.dtos.AsientoTicketDTO;
 import com.eviden.cine.dtos.ReservationRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class SessionDataCacheTest {
 
+    // Configurado como el ObjectMapper de Spring
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
     private SessionDataCache cache;
     private ReservationRequestDTO reservation;
     private String sessionId = "abc123";
 
+    @TempDir
+    Path directorio;
+
     @BeforeEach
-    void setUp() {
-        cache = new SessionDataCache();
+    void setUp() throws IOException {
+        cache = new SessionDataCache(objectMapper, directorio.toString(), 100, 3600);
         reservation = new ReservationRequestDTO();
         reservation.setUserId(1L);
         reservation.setEmisionId(10L);
@@ -53,4 +65,53 @@ class SessionDataCacheTest {
         assertNotNull(result);
         assertEquals(42L, result);
     }
+
+    @Test
+    void reinicio_recuperaCheckoutsPendientesYReservas() throws IOException {
+        reservation.setHoldToken("hold_1");
+        cache.saveReservationData(sessionId, reservation);
+        cache.saveReservationData("otra", reservation);
+        cache.removeReservationData("otra");
+        cache.saveReservaId("pagada", 7L);
+        cache.cerrar();
+
+        SessionDataCache recuperada = new SessionDataCache(objectMapper, directorio.toString(), 100, 3600);
+
+        ReservationRequestDTO result = recuperada.getReservationData(sessionId);
+        assertNotNull(result);
+        assertEquals(10L, result.getEmisionId());
+        assertEquals("hold_1", result.getHoldToken());
+        assertEquals("A2", result.getAsientos().get(0).getAsientoSala());
+        assertNull(recuperada.getReservationData("otra"));
+        assertEquals(7L, recuperada.getReservaId("pagada"));
+        // Al arrancar el registro se compacta al estado vigente
+        assertEquals(2, Files.readAllLines(directorio.resolve("checkouts.log")).size());
+    }
+
+    @Test
+    void reinicio_ignoraLineaIncompleta() throws IOException {
+        cache.saveReservationData(sessionId, reservation);
+        cache.cerrar();
+        Files.writeString(directorio.resolve("checkouts.log"), "{\"tipo\":\"PENDI",
+                StandardOpenOption.APPEND);
+
+        SessionDataCache recuperada = new SessionDataCache(objectMapper, directorio.toString(), 100, 3600);
+
+        assertNotNull(recuperada.getReservationData(sessionId));
+    }
+
+    @Test
+    void tamanoAcotado_expulsaLosCheckoutsMasAntiguos() throws IOException {
+        SessionDataCache acotada = new SessionDataCache(objectMapper, directorio.resolve("acotada").toString(), 2, 3600);
+
+        acotada.saveReservationData("s1", reservation);
+        acotada.saveReservationData("s2", reservation);
+        acotada.saveReservationData("s3", reservation);
+
+        assertNull(acotada.getReservationData("s1"));
+        assertNotNull(acotada.getReservationData("s3"));
+        assertEquals(1, acotada.getEstadisticasCheckouts().expulsadas());
+        assertEquals(2, acotada.getEstadisticasCheckouts().tamano());
+        acotada.cerrar();
+    }
 }
@@ -0,0 +1,95 @@
+package com.eviden.cine.component;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookEventLogTest {
+
+    @TempDir
+    Path directorio;
+
+    private WebhookEventLog log;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        log = new WebhookEventLog(directorio.toString(), 3, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        log.cerrar();
+    }
+
+    @Test
+    void eventoNuevo_seProcesaUnaSolaVez() {
+        assertTrue(log.iniciar("evt_1"));
+        log.completar("evt_1");
+
+        assertTrue(log.yaProcesado("evt_1"));
+        assertFalse(log.iniciar("evt_1"));
+    }
+
+    @Test
+    void eventoEnCurso_rechazaEntregaParalela() {
+        assertTrue(log.iniciar("evt_1"));
+
+        assertFalse(log.iniciar("evt_1"));
+    }
+
+    @Test
+    void eventoAbandonado_sePuedeReintentar() {
+        assertTrue(log.iniciar("evt_1"));
+        log.abandonar("evt_1");
+
+        assertFalse(log.yaProcesado("evt_1"));
+        assertTrue(log.iniciar("evt_1"));
+    }
+
+    @Test
+    void reinicio_recuerdaEventosYCompactaElFichero() throws IOException {
+        for (int i = 1; i <= 5; i++) {
+            log.iniciar("evt_" + i);
+            log.completar("evt_" + i);
+        }
+        log.cerrar();
+
+        log = new WebhookEventLog(directorio.toString(), 3, 100);
+
+        assertTrue(log.yaProcesado("evt_5"));
+        assertTrue(log.yaProcesado("evt_3"));
+        assertFalse(log.iniciar("evt_4"));
+        assertEquals(3, Files.readAllLines(directorio.resolve("eventos.log")).size());
+    }
+
+    @Test
+    void umbralAlcanzado_compactaElFicheroSinReiniciar() throws IOException {
+        log.cerrar();
+        log = new WebhookEventLog(directorio.toString(), 3, 6);
+
+        for (int i = 1; i <= 5; i++) {
+            log.iniciar("evt_" + i);
+            log.completar("evt_" + i);
+        }
+        assertEquals(5, Files.readAllLines(directorio.resolve("eventos.log")).size());
+
+        log.iniciar("evt_6");
+        log.completar("evt_6");
+
+        assertEquals(List.of("evt_4", "evt_5", "evt_6"), Files.readAllLines(directorio.resolve("eventos.log")));
+        assertTrue(log.yaProcesado("evt_6"));
+        assertFalse(log.iniciar("evt_4"));
+        // Se sigue anotando en el fichero compactado
+        log.iniciar("evt_7");
+        log.completar("evt_7");
+        assertEquals(4, Files.readAllLines(directorio.resolve("eventos.log")).size());
+    }
+}
@@ -0,0 +1,50 @@
+package com.eviden.cine.config;
+
+import com.eviden.cine.model.Actor;
+import com.eviden.cine.model.Classification;
+import com.eviden.cine.model.Director;
+import com.eviden.cine.model.Genre;
+import com.eviden.cine.model.Region;
+import com.eviden.cine.model.Role;
+import com.eviden.cine.model.Ticket;
+import org.ehcache.config.ResourceType;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Con missing_cache_strategy=fail Hibernate no arranca si falta una región en ehcache.xml.
+ */
+class CacheRegionsTest {
+
+    private static final List<Class<?>> ENTIDADES_DE_REFERENCIA = List.of(
+            Genre.class, Classification.class, Region.class, Ticket.class, Role.class, Director.class, Actor.class);
+
+    private final XmlConfiguration configuracion = new XmlConfiguration(getClass().getResource("/ehcache.xml"));
+
+    @Test
+    void cadaEntidadDeReferenciaTieneSuRegionLimitada() {
+        Set<String> regiones = configuracion.getCacheConfigurations().keySet();
+        for (Class<?> entidad : ENTIDADES_DE_REFERENCIA) {
+            Cache cache = entidad.getAnnotation(Cache.class);
+            assertNotNull(cache, entidad.getSimpleName());
+            assertEquals(CacheConcurrencyStrategy.READ_WRITE, cache.usage());
+            assertTrue(regiones.contains(cache.region()), cache.region());
+            assertNotNull(configuracion.getCacheConfigurations().get(cache.region())
+                    .getResourcePools().getPoolForResource(ResourceType.Core.HEAP), cache.region());
+        }
+    }
+
+    @Test
+    void existenLasRegionesDeConsultas() {
+        Set<String> regiones = configuracion.getCacheConfigurations().keySet();
+        assertTrue(regiones.contains("default-query-results-region"));
+        assertTrue(regiones.contains("default-update-timestamps-region"));
+    }
+}
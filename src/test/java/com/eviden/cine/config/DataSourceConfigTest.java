@@ -0,0 +1,33 @@
+package com.eviden.cine.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSourceConfigTest {
+
+    private final BeanPostProcessor postProcessor = DataSourceConfig.lotesReescritosEnMysql();
+
+    @Test
+    void mysql_fuerzaLaReescrituraDeLotesAunqueVengaDesactivada() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:mysql://localhost:3306/cine");
+        dataSource.addDataSourceProperty(DataSourceConfig.REESCRIBIR_LOTES, "false");
+
+        postProcessor.postProcessAfterInitialization(dataSource, "dataSource");
+
+        assertEquals("true", dataSource.getDataSourceProperties().getProperty(DataSourceConfig.REESCRIBIR_LOTES));
+    }
+
+    @Test
+    void otraBaseDeDatos_noSeToca() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://localhost:5432/cine");
+
+        postProcessor.postProcessAfterInitialization(dataSource, "dataSource");
+
+        assertFalse(dataSource.getDataSourceProperties().containsKey(DataSourceConfig.REESCRIBIR_LOTES));
+    }
+}
@@ -4,8 +4,10 @@ import com.eviden.cine.component.SessionDataCache;
 import com.eviden.cine.dtos.AsientoTicketDTO;
 import com.eviden.cine.dtos.ReservationRequestDTO;
 import com.eviden.cine.dtos.ReservationResponseDTO;
+import com.eviden.cine.exception.CustomException;
 import com.eviden.cine.model.Reservation;
 import com.eviden.cine.service.ReservationService;
+import com.eviden.cine.service.SeatHoldService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stripe.exception.ApiException;
 import com.stripe.model.checkout.Session;
@@ -48,6 +50,9 @@ class CheckoutControllerTest {
     @MockBean
     private ReservationService reservationService;
 
+    @MockBean
+    private SeatHoldService seatHoldService;
+
     // Java
     @Test
     void getReservaBySessionId_found() throws Exception {
@@ -91,7 +96,7 @@ class CheckoutControllerTest {
                 .roomName(emision.getRoom().getNombreroom())
                 .showTime(emision.getFechaHoraInicio().toString())
                 .selectedSeats(List.of())
-                .qrBase64(null)
+                .qrUrl(null)
                 .build();
 
         when(sessionDataCache.getReservaId("abc123")).thenReturn(reservaId);
@@ -136,6 +141,8 @@ class CheckoutControllerTest {
 
             mockedSession.when(() -> Session.create(any(SessionCreateParams.class))).thenReturn(session);
 
+            when(seatHoldService.retenerAsientos(5L, List.of(1L))).thenReturn("hold_1");
+
             mockMvc.perform(post("/api/checkout")
                             .with(csrf())
                             .contentType(MediaType.APPLICATION_JSON)
@@ -143,6 +150,12 @@ class CheckoutControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.id").value("sess_123"))
                     .andExpect(jsonPath("$.url").value("http://stripe.test/sess_123"));
+
+            verify(sessionDataCache).saveReservationData(eq("sess_123"),
+                    argThat(saved -> "hold_1".equals(saved.getHoldToken())));
+            // La retención se alarga hasta la caducidad de la sesión (mínimo 30 minutos en Stripe)
+            verify(seatHoldService).extender(eq("hold_1"),
+                    longThat(hasta -> hasta >= System.currentTimeMillis() + 1799_000));
         }
     }
 
@@ -154,6 +167,8 @@ class CheckoutControllerTest {
         dto.setTotal(30.0);
         dto.setAsientos(List.of(new AsientoTicketDTO(1L, 7L, "C4")));
 
+        when(seatHoldService.retenerAsientos(5L, List.of(1L))).thenReturn("hold_1");
+
         try (MockedStatic<Session> mockedSession = mockStatic(Session.class)) {
             mockedSession
                     .when(() -> Session.create(any(SessionCreateParams.class)))
@@ -166,6 +181,53 @@ class CheckoutControllerTest {
                     .andExpect(status().isInternalServerError())
                     .andExpect(jsonPath("$.error").value("Error creando la sesión"));
         }
+        verify(seatHoldService).liberar("hold_1");
+    }
+
+    @Test
+    void createCheckoutSession_asientoRetenido() throws Exception {
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setUserId(1L);
+        dto.setEmisionId(5L);
+        dto.setTotal(30.0);
+        dto.setAsientos(List.of(new AsientoTicketDTO(1L, 7L, "C4")));
+
+        when(seatHoldService.retenerAsientos(5L, List.of(1L)))
+                .thenThrow(new CustomException("El asiento 1 está reservado por otra compra en curso", "SEAT_HELD"));
+
+        try (MockedStatic<Session> mockedSession = mockStatic(Session.class)) {
+            mockMvc.perform(post("/api/checkout")
+                            .with(csrf())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.error").value("El asiento 1 está reservado por otra compra en curso"));
+
+            mockedSession.verifyNoInteractions();
+        }
+    }
+
+    @Test
+    void createCheckoutSession_asientoDeOtraSala() throws Exception {
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setUserId(1L);
+        dto.setEmisionId(5L);
+        dto.setTotal(30.0);
+        dto.setAsientos(List.of(new AsientoTicketDTO(1L, 7L, "C4")));
+
+        when(seatHoldService.retenerAsientos(5L, List.of(1L)))
+                .thenThrow(new CustomException("El asiento C4 no pertenece a la sala de esta emisión", "SEAT_INVALID"));
+
+        try (MockedStatic<Session> mockedSession = mockStatic(Session.class)) {
+            mockMvc.perform(post("/api/checkout")
+                            .with(csrf())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error").value("El asiento C4 no pertenece a la sala de esta emisión"));
+
+            mockedSession.verifyNoInteractions();
+        }
     }
 
     @TestConfiguration
@@ -12,6 +12,7 @@ import com.eviden.cine.security.JwtUtil;
 import com.eviden.cine.security.UserDetailsServiceImpl;
 import com.eviden.cine.service.EmisionService;
 import com.eviden.cine.service.MovieService;
+import com.eviden.cine.util.KeysetPage;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
@@ -86,11 +87,13 @@ class EmisionControllerTest {
     @WithMockUser
     @Test
     void testListarTodas() throws Exception {
-        when(emisionService.obtenerTodas()).thenReturn(List.of(emision));
+        EmisionFrontDTO fila = EmisionFrontDTO.of(emision);
+        when(emisionService.obtenerPagina(null, 1)).thenReturn(new KeysetPage<>(List.of(fila), 1L));
 
-        mockMvc.perform(get("/api/emisiones"))
+        mockMvc.perform(get("/api/emisiones").param("size", "1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].idEmision").value(1L));
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(header().string(KeysetPage.CABECERA_CURSOR, "1"));
     }
 
     @WithMockUser
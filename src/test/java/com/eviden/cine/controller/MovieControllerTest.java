@@ -3,8 +3,12 @@ package com.eviden.cine.controller;
 import com.eviden.cine.dtos.MovieDTO;
 import com.eviden.cine.dtos.MovieTranslatedDTO;
 import com.eviden.cine.model.Movie;
+import com.eviden.cine.service.BillboardSnapshotService;
+import com.eviden.cine.service.CatalogImportService;
 import com.eviden.cine.service.CloudinaryService;
+import com.eviden.cine.service.MovieSearchService;
 import com.eviden.cine.service.MovieService;
+import com.eviden.cine.util.KeysetPage;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,6 +38,15 @@ class MovieControllerTest {
     @Mock
     private CloudinaryService cloudinaryService;
 
+    @Mock
+    private BillboardSnapshotService billboardSnapshotService;
+
+    @Mock
+    private MovieSearchService movieSearchService;
+
+    @Mock
+    private CatalogImportService catalogImportService;
+
     @InjectMocks
     private MovieController movieController;
 
@@ -44,11 +57,13 @@ class MovieControllerTest {
 
     @Test
     void getAllMoviesTranslatedTest() {
-        when(movieService.getAllMovies()).thenReturn(Collections.emptyList());
-        when(movieService.translateMovies(anyList(), anyString())).thenReturn(Collections.emptyList());
-        ResponseEntity<List<MovieTranslatedDTO>> response = movieController.getTranslatedMovies(null, "en");
+        when(movieService.resolveLanguage(null, "en")).thenReturn("en");
+        when(movieService.getTranslatedMoviesPage("en", null, null))
+                .thenReturn(new KeysetPage<>(Collections.emptyList(), null));
+        ResponseEntity<List<MovieTranslatedDTO>> response = movieController.getTranslatedMovies(null, "en", null, null);
         assertEquals(200, response.getStatusCodeValue());
         assertNotNull(response.getBody());
+        assertFalse(response.getHeaders().containsKey(KeysetPage.CABECERA_CURSOR));
     }
 
     @Test
@@ -76,16 +91,20 @@ class MovieControllerTest {
     @Test
     void searchMoviesTest() {
         // Mocks necesarios para los servicios
-        when(movieService.searchByKeyword(any())).thenReturn(Collections.emptyList());
-        when(movieService.translateMovies(any(), any())).thenReturn(Collections.emptyList());
+        MovieTranslatedDTO encontrada = new MovieTranslatedDTO();
+        encontrada.setId(7);
+        when(movieService.resolveLanguage(null, "en")).thenReturn("en");
+        when(movieSearchService.buscar("keyword", "en")).thenReturn(List.of(7));
+        when(movieService.getResultadosBusqueda(List.of(7), "en")).thenReturn(List.of(encontrada));
 
         // Llamar al controlador pasando los parámetros necesarios
         ResponseEntity<List<MovieTranslatedDTO>> response = movieController.searchMovies("keyword", "en", null);
 
-        // Verificaciones
+        // Verificaciones: se resuelven solo los ids del índice, sin cargar todas las películas
         assertEquals(200, response.getStatusCodeValue());
-        assertNotNull(response.getBody());
-        assertTrue(response.getBody().isEmpty());  // Verificar que la lista esté vacía
+        assertEquals(List.of(encontrada), response.getBody());
+        verify(movieService, never()).searchByKeyword(any());
+        verifyNoInteractions(billboardSnapshotService);
     }
 
 
@@ -175,29 +194,43 @@ class MovieControllerTest {
     }
 
     @Test
-    void getTranslatedMoviesTest() {
-        when(movieService.getAllMovies()).thenReturn(Collections.emptyList());
-        when(movieService.translateMovies(anyList(), anyString())).thenReturn(Collections.emptyList());
-        ResponseEntity<List<MovieTranslatedDTO>> response = movieController.getTranslatedMovies(null, "en");
+    void getTranslatedMoviesTest_conPaginaSiguiente() {
+        MovieTranslatedDTO dto = new MovieTranslatedDTO();
+        dto.setId(7);
+        when(movieService.resolveLanguage(null, "en")).thenReturn("en");
+        when(movieService.getTranslatedMoviesPage("en", 3L, 1)).thenReturn(new KeysetPage<>(List.of(dto), 7L));
+
+        ResponseEntity<List<MovieTranslatedDTO>> response = movieController.getTranslatedMovies(null, "en", 3L, 1);
+
         assertEquals(200, response.getStatusCodeValue());
+        assertEquals(List.of(dto), response.getBody());
+        assertEquals("7", response.getHeaders().getFirst(KeysetPage.CABECERA_CURSOR));
     }
 
     @Test
     void getBillboardMoviesTest() {
-        when(movieService.getMoviesForBillboard()).thenReturn(Collections.emptyList());
-        ResponseEntity<List<Movie>> response = movieController.getBillboardMovies();
+        byte[] json = "[]".getBytes();
+        when(movieService.resolveLanguage(null, "en")).thenReturn("en");
+        when(billboardSnapshotService.getJson("en")).thenReturn(json);
+
+        ResponseEntity<byte[]> response = movieController.getBillboardMovies(null, "en");
+
         assertEquals(200, response.getStatusCodeValue());
+        assertSame(json, response.getBody());
+        verify(movieService, never()).getMoviesForBillboard();
     }
 
     @Test
     void getAllMoviesTranslated_withAuth() {
         Authentication auth = mock(Authentication.class);
         when(auth.getName()).thenReturn("user@example.com");
-        when(movieService.getAllMovies()).thenReturn(Collections.emptyList());
-        when(movieService.translateMovies(anyList(), anyString())).thenReturn(Collections.emptyList());
+        when(movieService.resolveLanguage("user@example.com", "en")).thenReturn("en");
+        when(movieService.getTranslatedMoviesPage("en", null, null))
+                .thenReturn(new KeysetPage<>(Collections.emptyList(), null));
 
-        ResponseEntity<List<MovieTranslatedDTO>> response = movieController.getAllMoviesTranslated(auth, "en");
+        ResponseEntity<List<MovieTranslatedDTO>> response = movieController.getAllMoviesTranslated(auth, "en", null, null);
         assertEquals(200, response.getStatusCodeValue());
+        verify(movieService, never()).getAllMovies();
     }
 
 
@@ -268,10 +301,20 @@ class MovieControllerTest {
         assertEquals(200, response.getStatusCodeValue());
     }
 
+    @Test
+    void importCatalog_detectaCsvPorExtension() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "catalogo.CSV", "application/octet-stream",
+                "title,time\nTitanic,195\n".getBytes());
+        CatalogImportService.InformeImportacion informe =
+                new CatalogImportService.InformeImportacion(1, 1, 0, List.of(), 5);
+        when(movieService.resolveLanguage(null, "en")).thenReturn("en");
+        when(catalogImportService.importar(any(), eq(CatalogImportService.Formato.CSV), eq("en"), eq(true)))
+                .thenReturn(informe);
+
+        ResponseEntity<CatalogImportService.InformeImportacion> response =
+                movieController.importCatalog(file, true, "en");
 
-
-
-
-
-
-}
\ No newline at end of file
+        assertEquals(200, response.getStatusCodeValue());
+        assertSame(informe, response.getBody());
+    }
+}
@@ -0,0 +1,111 @@
+package com.eviden.cine.controller;
+
+import com.eviden.cine.model.Asiento;
+import com.eviden.cine.model.Emision;
+import com.eviden.cine.model.Movie;
+import com.eviden.cine.model.Reservation;
+import com.eviden.cine.model.ReservationDetails;
+import com.eviden.cine.model.Room;
+import com.eviden.cine.model.Ticket;
+import com.eviden.cine.model.User;
+import com.eviden.cine.repository.AsientoRepository;
+import com.eviden.cine.repository.EmisionRepository;
+import com.eviden.cine.repository.MovieRepository;
+import com.eviden.cine.repository.ReservationRepository;
+import com.eviden.cine.repository.RoomRepository;
+import com.eviden.cine.repository.TicketRepository;
+import com.eviden.cine.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Presupuesto de sentencias de las consultas de reservas con la aplicación completa. Los tests
+ * se ejecutan en modo FALLO (maven-surefire-plugin): si un endpoint supera su presupuesto
+ * (cine.sentencias.presupuestos) la petición falla en lugar de devolver 200.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class ReservationControllerPresupuestoTest {
+
+    private static final String EMAIL = "juanito@mail.com";
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private EntityManager entityManager;
+    @Autowired private UserRepository userRepository;
+    @Autowired private MovieRepository movieRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private AsientoRepository asientoRepository;
+    @Autowired private TicketRepository ticketRepository;
+    @Autowired private EmisionRepository emisionRepository;
+    @Autowired private ReservationRepository reservationRepository;
+
+    private Reservation reserva;
+
+    @BeforeEach
+    void setUp() {
+        User usuario = userRepository.findByEmail(EMAIL).orElseThrow();
+        Movie pelicula = movieRepository.findAll().getFirst();
+        Room sala = roomRepository.findAll().getFirst();
+        Ticket ticket = ticketRepository.findByName("Adulto").orElseThrow();
+        Emision emision = emisionRepository.save(Emision.builder()
+                .movie(pelicula)
+                .room(sala)
+                .fechaHoraInicio(LocalDateTime.now().plusDays(1))
+                .idioma("es")
+                .estado(Emision.EstadoEmision.ACTIVO)
+                .build());
+
+        // Varias reservas con varios asientos: el recuento no debe crecer con ellas
+        for (int r = 0; r < 3; r++) {
+            Reservation nueva = Reservation.builder()
+                    .user(usuario)
+                    .emision(emision)
+                    .reservationDate(LocalDateTime.now())
+                    .status("confirmed")
+                    .totalPrice(32.70)
+                    .build();
+            List<ReservationDetails> detalles = new ArrayList<>();
+            for (Asiento asiento : asientoRepository.findByroomIdroom(sala.getIdroom()).subList(r * 3, r * 3 + 3)) {
+                detalles.add(ReservationDetails.builder().reservation(nueva).asiento(asiento).ticket(ticket).build());
+            }
+            nueva.setReserveDetails(detalles);
+            reserva = reservationRepository.save(nueva);
+        }
+        // Las peticiones leen de la base de datos y no del contexto de persistencia del test
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void misReservas_dentroDelPresupuesto() throws Exception {
+        mockMvc.perform(get("/api/reservations/my-reservations").with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.idReserve == %d)].selectedSeats[*]", reserva.getIdReserve())
+                        .value(hasSize(3)));
+    }
+
+    @Test
+    void reservaPorId_dentroDelPresupuesto() throws Exception {
+        mockMvc.perform(get("/api/reservations/{id}", reserva.getIdReserve()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idReserve").value(reserva.getIdReserve()))
+                .andExpect(jsonPath("$.selectedSeats", hasSize(3)));
+    }
+}
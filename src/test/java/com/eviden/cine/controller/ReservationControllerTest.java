@@ -4,15 +4,24 @@ import com.eviden.cine.dtos.AsientoTicketDTO;
 import com.eviden.cine.dtos.ReservationRequestDTO;
 import com.eviden.cine.dtos.ReservationResponseDTO;
 import com.eviden.cine.model.Reservation;
+import com.eviden.cine.service.PdfService;
+import com.eviden.cine.service.QrService;
 import com.eviden.cine.service.ReservationService;
+import com.eviden.cine.util.KeysetPage;
 import com.google.zxing.WriterException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -85,13 +94,13 @@ class ReservationControllerTest {
                         .roomName("Sala 1")
                         .showTime("2025-04-24T19:30:00")
                         .selectedSeats(List.of("A5", "A6"))
-                        .qrBase64("data:image/png;base64,...")
+                        .qrUrl("/api/reservations/1/qr")
                         .build()
         );
 
-        when(reservationService.getAllReservationsDTO()).thenReturn(reservations);
+        when(reservationService.getReservationsPage(null, null)).thenReturn(new KeysetPage<>(reservations, null));
 
-        ResponseEntity<List<ReservationResponseDTO>> response = controller.getAllReservations();
+        ResponseEntity<List<ReservationResponseDTO>> response = controller.getAllReservations(null, null);
 
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(reservations, response.getBody());
@@ -113,7 +122,7 @@ class ReservationControllerTest {
                         .roomName("Sala 2")
                         .showTime("2025-04-25T20:00:00")
                         .selectedSeats(List.of("B1", "B2"))
-                        .qrBase64("data:image/png;base64,QR...")
+                        .qrUrl("/api/reservations/1/qr")
                         .build()
         );
 
@@ -143,7 +152,7 @@ class ReservationControllerTest {
                         .roomName("Sala IMAX")
                         .showTime("2025-04-26T18:00:00")
                         .selectedSeats(List.of("C1", "C2", "C3"))
-                        .qrBase64("data:image/png;base64,MIIBIjANBgkqhki...")
+                        .qrUrl("/api/reservations/1/qr")
                         .build()
         );
 
@@ -160,28 +169,34 @@ class ReservationControllerTest {
 
 
     @Test
-    void testDownloadPdf_Success() {
+    void testDownloadPdf_Success() throws IOException, WriterException {
         Long id = 1L;
-        Reservation reservation = new Reservation();
+        PdfService.Entrada entrada = new PdfService.Entrada(id, "Inception", LocalDateTime.of(2025, 5, 20, 18, 30),
+                "Sala 1", 9.99, List.of("A5"), null);
         byte[] pdfBytes = new byte[]{1, 2, 3};
 
-        when(reservationService.findById(id)).thenReturn(reservation);
-        when(reservationService.generatePdf(reservation)).thenReturn(pdfBytes);
+        when(reservationService.getEntrada(id)).thenReturn(Optional.of(entrada));
+        doAnswer(inv -> {
+            inv.getArgument(1, OutputStream.class).write(pdfBytes);
+            return null;
+        }).when(reservationService).escribirPdf(eq(entrada), any());
 
-        ResponseEntity<byte[]> response = controller.downloadPdf(id);
+        ResponseEntity<StreamingResponseBody> response = controller.downloadPdf(id);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        response.getBody().writeTo(salida);
 
         assertEquals(200, response.getStatusCodeValue());
-        assertArrayEquals(pdfBytes, response.getBody());
+        assertArrayEquals(pdfBytes, salida.toByteArray());
         assertTrue(response.getHeaders().get("Content-Disposition").get(0).contains("attachment"));
     }
 
     @Test
-    void testDownloadPdf_NotFound() {
+    void testDownloadPdf_NotFound() throws IOException, WriterException {
         Long id = 99L;
 
-        when(reservationService.findById(id)).thenReturn(null);
+        when(reservationService.getEntrada(id)).thenReturn(Optional.empty());
 
-        ResponseEntity<byte[]> response = controller.downloadPdf(id);
+        ResponseEntity<StreamingResponseBody> response = controller.downloadPdf(id);
 
         assertEquals(404, response.getStatusCodeValue());
     }
@@ -201,7 +216,7 @@ class ReservationControllerTest {
                 .roomName("Sala 4D")
                 .showTime("2025-04-27T20:00:00")
                 .selectedSeats(List.of("D4", "D5"))
-                .qrBase64("data:image/png;base64,FAKE_QR_CODE")
+                .qrUrl("/api/reservations/1/qr")
                 .build();
 
         when(reservationService.getReservationById(reservationId)).thenReturn(expectedDto);
@@ -215,4 +230,23 @@ class ReservationControllerTest {
         verify(reservationService).getReservationById(reservationId);
     }
 
+    @Test
+    void testGetQr_pngConETagYCachePrivada() throws IOException, WriterException {
+        when(reservationService.getQr(7L)).thenReturn(Optional.of(new QrService.Qr(new byte[]{1, 2}, "abc")));
+
+        ResponseEntity<byte[]> response = controller.getQr(7L);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(MediaType.IMAGE_PNG, response.getHeaders().getContentType());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getCacheControl().contains("private"));
+        assertArrayEquals(new byte[]{1, 2}, response.getBody());
+    }
+
+    @Test
+    void testGetQr_reservaInexistente() throws IOException, WriterException {
+        when(reservationService.getQr(7L)).thenReturn(Optional.empty());
+
+        assertEquals(404, controller.getQr(7L).getStatusCode().value());
+    }
 }
@@ -2,10 +2,12 @@
 package com.eviden.cine.controller;
 
 import com.eviden.cine.component.SessionDataCache;
+import com.eviden.cine.component.WebhookEventLog;
 import com.eviden.cine.dtos.ReservationRequestDTO;
 import com.eviden.cine.model.Reservation;
-import com.eviden.cine.service.EmailService;
+import com.eviden.cine.service.PostPaymentPipeline;
 import com.eviden.cine.service.ReservationService;
+import com.eviden.cine.service.SeatHoldService;
 import com.stripe.model.Event;
 import com.stripe.model.checkout.Session;
 import com.stripe.net.Webhook;
@@ -18,6 +20,7 @@ import org.springframework.http.ResponseEntity;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -27,7 +30,9 @@ class StripeWebhookControllerTest {
     private StripeWebhookController controller;
     private SessionDataCache sessionDataCache;
     private ReservationService reservationService;
-    private EmailService emailService;
+    private PostPaymentPipeline postPaymentPipeline;
+    private SeatHoldService seatHoldService;
+    private WebhookEventLog webhookEventLog;
 
     private final String endpointSecret = "whsec_test_secret";
 
@@ -35,9 +40,12 @@ class StripeWebhookControllerTest {
     void setUp() {
         sessionDataCache = mock(SessionDataCache.class);
         reservationService = mock(ReservationService.class);
-        emailService = mock(EmailService.class);
+        postPaymentPipeline = mock(PostPaymentPipeline.class);
+        seatHoldService = mock(SeatHoldService.class);
+        webhookEventLog = mock(WebhookEventLog.class);
+        when(webhookEventLog.iniciar(anyString())).thenReturn(true);
 
-        controller = new StripeWebhookController(sessionDataCache, reservationService, emailService);
+        controller = new StripeWebhookController(sessionDataCache, reservationService, postPaymentPipeline, seatHoldService, webhookEventLog);
         controller.setEndpointSecret(endpointSecret);
     }
 
@@ -50,6 +58,7 @@ class StripeWebhookControllerTest {
         when(session.getId()).thenReturn("sess_123");
 
         Event event = mock(Event.class);
+        when(event.getId()).thenReturn("evt_1");
         when(event.getType()).thenReturn("checkout.session.completed");
         Event.Data data = mock(Event.Data.class);
         when(event.getData()).thenReturn(data);
@@ -60,12 +69,12 @@ class StripeWebhookControllerTest {
                     .thenReturn(event);
 
             ReservationRequestDTO requestDTO = mock(ReservationRequestDTO.class);
+            when(requestDTO.getHoldToken()).thenReturn("hold_1");
             when(sessionDataCache.getReservationData("sess_123")).thenReturn(requestDTO);
 
             Reservation reserva = new Reservation();
             reserva.setIdReserve(100L);
-            reserva.setQrContent(new byte[]{1, 2, 3});
-            when(reservationService.createConfirmedReservation(requestDTO)).thenReturn(reserva);
+            when(reservationService.guardarReserva(requestDTO)).thenReturn(reserva);
 
             ResponseEntity<String> response = controller.handleStripeWebhook("{}", "sig_header");
 
@@ -74,7 +83,60 @@ class StripeWebhookControllerTest {
 
             verify(sessionDataCache).saveReservaId("sess_123", 100L);
             verify(sessionDataCache).removeReservationData("sess_123");
-            verify(emailService).enviarCorreoConfirmacion("cliente@example.com", reserva, reserva.getQrContent());
+            verify(seatHoldService).liberar("hold_1");
+            verify(postPaymentPipeline).procesar(reserva, "cliente@example.com");
+            verify(reservationService, never()).createConfirmedReservation(any());
+            verify(webhookEventLog).completar("evt_1");
+        }
+    }
+
+    @Test
+    void testHandleStripeWebhook_EventoRepetido_noHaceNada() {
+        Event event = mock(Event.class);
+        when(event.getId()).thenReturn("evt_1");
+        when(event.getType()).thenReturn("checkout.session.completed");
+        when(webhookEventLog.iniciar("evt_1")).thenReturn(false);
+
+        try (MockedStatic<Webhook> mockedWebhook = Mockito.mockStatic(Webhook.class)) {
+            mockedWebhook.when(() -> Webhook.constructEvent(anyString(), anyString(), eq(endpointSecret)))
+                    .thenReturn(event);
+
+            ResponseEntity<String> response = controller.handleStripeWebhook("{}", "sig_header");
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("Event already processed", response.getBody());
+            verifyNoInteractions(reservationService, sessionDataCache, postPaymentPipeline);
+        }
+    }
+
+    @Test
+    void testHandleStripeWebhook_ErrorAlGuardar_liberaElEvento() throws Exception {
+        Session session = mock(Session.class);
+        Session.CustomerDetails customerDetails = mock(Session.CustomerDetails.class);
+        when(session.getCustomerDetails()).thenReturn(customerDetails);
+        when(session.getId()).thenReturn("sess_123");
+
+        Event event = mock(Event.class);
+        when(event.getId()).thenReturn("evt_2");
+        when(event.getType()).thenReturn("checkout.session.completed");
+        Event.Data data = mock(Event.Data.class);
+        when(event.getData()).thenReturn(data);
+        when(data.getObject()).thenReturn(session);
+
+        ReservationRequestDTO requestDTO = new ReservationRequestDTO();
+        when(sessionDataCache.getReservationData("sess_123")).thenReturn(requestDTO);
+        when(reservationService.guardarReserva(requestDTO)).thenThrow(new RuntimeException("BD caída"));
+
+        try (MockedStatic<Webhook> mockedWebhook = Mockito.mockStatic(Webhook.class)) {
+            mockedWebhook.when(() -> Webhook.constructEvent(anyString(), anyString(), eq(endpointSecret)))
+                    .thenReturn(event);
+
+            ResponseEntity<String> response = controller.handleStripeWebhook("{}", "sig_header");
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            verify(webhookEventLog).abandonar("evt_2");
+            verify(webhookEventLog, never()).completar(anyString());
+            verify(sessionDataCache, never()).removeReservationData(anyString());
         }
     }
 
@@ -1,9 +1,11 @@
 package com.eviden.cine.controller;
 
 import com.eviden.cine.dtos.UpdateProfileDTO;
+import com.eviden.cine.dtos.UserDTO;
 import com.eviden.cine.model.User;
 import com.eviden.cine.repository.UserRepository;
 import com.eviden.cine.service.UserService;
+import com.eviden.cine.util.KeysetPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
@@ -33,13 +35,14 @@ class UserControllerTest {
 
     @Test
     void testGetAllUsers() {
-        List<User> users = List.of(new User(), new User());
-        when(userRepository.findAll()).thenReturn(users);
+        List<UserDTO> users = List.of(new UserDTO(), new UserDTO());
+        when(userService.getUsersPage(10L, 2)).thenReturn(new KeysetPage<>(users, 12L));
 
-        ResponseEntity<List<User>> response = controller.getAllUsers();
+        ResponseEntity<List<UserDTO>> response = controller.getAllUsers(10L, 2);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(users, response.getBody());
+        assertEquals("12", response.getHeaders().getFirst(KeysetPage.CABECERA_CURSOR));
     }
 
     @Test
@@ -53,4 +53,38 @@ class JwtUtilTest {
     void testInvalidToken() {
         assertFalse(jwtUtil.validateToken("invalid.token.value"));
     }
+
+    @Test
+    void testVerificarDevuelveLosClaimsDelToken() {
+        String token = jwtUtil.generateToken(testUser);
+
+        JwtUtil.TokenVerificado verificado = jwtUtil.verificar(token).orElseThrow();
+
+        assertEquals("test@example.com", verificado.email());
+        assertEquals(123L, verificado.userId());
+        assertEquals("USER", verificado.rol());
+        assertTrue(verificado.expiraEn() > System.currentTimeMillis());
+    }
+
+    @Test
+    void testVerificarUsaLaCacheDeTokensVerificados() {
+        String token = jwtUtil.generateToken(testUser);
+
+        jwtUtil.verificar(token);
+        jwtUtil.verificar(token);
+
+        assertEquals(1, jwtUtil.getEstadisticasTokens().aciertos());
+        assertEquals(1, jwtUtil.getEstadisticasTokens().tamano());
+    }
+
+    @Test
+    void testVerificarTokenInvalidoOFirmadoConOtraClave() {
+        JwtUtil otro = new JwtUtil();
+        ReflectionTestUtils.setField(otro, "jwtSecret", "b3RyYWNsYXZlc2VjcmV0YXBhcmFmaXJtYXJ0b2tlbnNkZXBydWViYQ==");
+        ReflectionTestUtils.setField(otro, "jwtExpirationMs", expiration);
+
+        assertTrue(jwtUtil.verificar("invalid.token.value").isEmpty());
+        assertTrue(jwtUtil.verificar(otro.generateToken(testUser)).isEmpty());
+        assertEquals(0, jwtUtil.getEstadisticasTokens().tamano());
+    }
 }
@@ -0,0 +1,73 @@
+package com.eviden.cine.security;
+
+import com.eviden.cine.model.Role;
+import com.eviden.cine.model.User;
+import com.eviden.cine.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PrincipalCacheTest {
+
+    private static final String EMAIL = "user@test.com";
+
+    private UserRepository userRepository;
+    private PrincipalCache cache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        cache = new PrincipalCache(userRepository, 100, 60);
+
+        Role role = new Role();
+        role.setName("USER");
+        user = User.builder()
+                .userId(7L)
+                .email(EMAIL)
+                .password("encoded")
+                .preferredLanguage("fr")
+                .role(role)
+                .build();
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void segundaLecturaNoConsultaLaBaseDeDatos() {
+        UserDetails detalles = cache.obtener(EMAIL).orElseThrow().aUserDetails();
+        String idioma = cache.idiomaPreferido(EMAIL);
+
+        assertEquals(EMAIL, detalles.getUsername());
+        assertThat(detalles.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        assertEquals("fr", idioma);
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+        assertEquals(1, cache.getEstadisticas().aciertos());
+    }
+
+    @Test
+    void invalidarRecargaElPerfil() {
+        cache.obtener(EMAIL);
+        user.getRole().setName("ADMIN");
+        cache.invalidar(EMAIL);
+
+        assertEquals("ADMIN", cache.obtener(EMAIL).orElseThrow().rol());
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void usuarioInexistenteOSinIdiomaUsaEspanol() {
+        when(userRepository.findByEmail("nadie@test.com")).thenReturn(Optional.empty());
+        user.setPreferredLanguage(null);
+
+        assertEquals("es", cache.idiomaPreferido("nadie@test.com"));
+        assertEquals("es", cache.idiomaPreferido(EMAIL));
+        assertTrue(cache.obtener("nadie@test.com").isEmpty());
+        verify(userRepository, times(2)).findByEmail("nadie@test.com");
+    }
+}
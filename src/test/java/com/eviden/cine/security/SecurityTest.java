@@ -22,6 +22,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -53,11 +54,8 @@ public class SecurityTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(jwtUtil.validateToken(token)).thenReturn(true);
-        when(jwtUtil.extractEmail(token)).thenReturn(email);
-        UserDetails fakeUserDetails = new org.springframework.security.core.userdetails.User(
-                email, "password", Collections.singletonList((GrantedAuthority) () -> "ROLE_USER"));
-        when(userDetailsService.loadUserByUsername(email)).thenReturn(fakeUserDetails);
+        when(jwtUtil.verificar(token)).thenReturn(Optional.of(
+                new JwtUtil.TokenVerificado(email, 1L, "USER", Long.MAX_VALUE)));
 
         // Ejecutar filtro
         jwtAuthenticationFilter.doFilterInternal(request, response, chain);
@@ -67,11 +65,49 @@ public class SecurityTest {
         assertNotNull(auth);
         UserDetails principal = (UserDetails) auth.getPrincipal();
         assertEquals(email, principal.getUsername());
+        assertThat(auth.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        // El rol sale del token, sin cargar el usuario
+        verifyNoInteractions(userDetailsService);
 
         // Verificar que se llama al filter chain
         verify(chain, times(1)).doFilter(request, response);
     }
 
+    @Test
+    void testJwtAuthenticationFilterTokenSinRolCargaElUsuario() throws ServletException, IOException {
+        String token = "legacyToken";
+        String email = "legacy@test.com";
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        FilterChain chain = mock(FilterChain.class);
+
+        when(jwtUtil.verificar(token)).thenReturn(Optional.of(
+                new JwtUtil.TokenVerificado(email, 1L, null, Long.MAX_VALUE)));
+        UserDetails fakeUserDetails = new org.springframework.security.core.userdetails.User(
+                email, "password", Collections.singletonList((GrantedAuthority) () -> "ROLE_ADMIN"));
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(fakeUserDetails);
+
+        jwtAuthenticationFilter.doFilterInternal(request, new MockHttpServletResponse(), chain);
+
+        assertThat(org.springframework.security.core.context.SecurityContextHolder.getContext()
+                .getAuthentication().getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void testJwtAuthenticationFilterWithInvalidToken() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer invalido");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        when(jwtUtil.verificar("invalido")).thenReturn(Optional.empty());
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, chain);
+
+        assertNull(org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication());
+        verify(chain, times(1)).doFilter(request, response);
+    }
+
     @Test
     void testJwtAuthenticationFilterWithoutToken() throws ServletException, IOException {
         // Solicitud sin header y sin cookie
@@ -96,11 +132,8 @@ public class SecurityTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(jwtUtil.validateToken(token)).thenReturn(true);
-        when(jwtUtil.extractEmail(token)).thenReturn(email);
-        UserDetails fakeUserDetails = new org.springframework.security.core.userdetails.User(
-                email, "password", Collections.singletonList((GrantedAuthority) () -> "ROLE_USER"));
-        when(userDetailsService.loadUserByUsername(email)).thenReturn(fakeUserDetails);
+        when(jwtUtil.verificar(token)).thenReturn(Optional.of(
+                new JwtUtil.TokenVerificado(email, 1L, "USER", Long.MAX_VALUE)));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, chain);
 
@@ -139,7 +172,7 @@ public class SecurityTest {
                 .build();
         when(userRepository.findByEmail(email)).thenReturn(java.util.Optional.of(usr));
 
-        UserDetailsServiceImpl service = new UserDetailsServiceImpl(userRepository);
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl(new PrincipalCache(userRepository, 100, 60));
         UserDetails userDetails = service.loadUserByUsername(email);
         assertNotNull(userDetails);
         assertEquals(email, userDetails.getUsername());
@@ -153,7 +186,7 @@ public class SecurityTest {
         String email = "noexiste@test.com";
         when(userRepository.findByEmail(anyString())).thenReturn(java.util.Optional.empty());
 
-        UserDetailsServiceImpl service = new UserDetailsServiceImpl(userRepository);
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl(new PrincipalCache(userRepository, 100, 60));
         Exception exception = assertThrows(UsernameNotFoundException.class, () ->
                 service.loadUserByUsername(email));
         assertThat(exception.getMessage()).contains("Usuario no encontrado con email");
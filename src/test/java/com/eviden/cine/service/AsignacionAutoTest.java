@@ -2,6 +2,7 @@ package com.eviden.cine.service;
 
 import com.eviden.cine.model.Emision;
 import com.eviden.cine.model.Movie;
+import com.eviden.cine.model.Region;
 import com.eviden.cine.model.Room;
 import com.eviden.cine.repository.EmisionRepository;
 import com.eviden.cine.repository.MovieRepository;
@@ -12,11 +13,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -35,6 +38,15 @@ class AsignacionAutoTest {
     @Mock
     private RoomAssignmentService roomAssignmentService;
 
+    @Mock
+    private RoomCalendarService roomCalendarService;
+
+    @Spy
+    private WeeklySchedulePlanner weeklySchedulePlanner = new WeeklySchedulePlanner(new Random(1));
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private EmisionService emisionService;
 
@@ -70,16 +82,15 @@ class AsignacionAutoTest {
 
         when(movieRepository.findAll()).thenReturn(List.of(movie));
         when(roomRepository.findAll()).thenReturn(List.of(room));
-        when(roomAssignmentService.selectRoom(any())).thenReturn(room);
-        // Importantísimo: simular disponibilidad limitada
-        AtomicInteger contador = new AtomicInteger(0);
-        when(roomAssignmentService.estaSalaDisponible(any(Room.class), any(LocalDateTime.class), anyInt()))
-                .thenAnswer(invocation -> {
-                    int count = contador.getAndIncrement();
-                    return count < 5; // solo permite 5 emisiones, luego dice "no disponible"
-                });
-
-        when(emisionRepository.findByRoom_Idroom(anyLong())).thenReturn(List.of());
+        // La sala ya tiene una emisión mañana a las 13:00
+        Emision existente = Emision.builder()
+                .idEmision(2L)
+                .fechaHoraInicio(LocalDate.now().plusDays(1).atTime(13, 0))
+                .movie(movie)
+                .room(room)
+                .build();
+        when(emisionRepository.findByFechaHoraInicioBetween(any(), any())).thenReturn(List.of(existente));
+        when(emisionRepository.insertarEnLote(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
     }
 
     @Test
@@ -89,15 +100,22 @@ class AsignacionAutoTest {
         emisionService.generarEmisionesAutomaticas();
         long duration = System.currentTimeMillis() - start;
 
-        // Capturar emisiones guardadas
-        ArgumentCaptor<Emision> captor = ArgumentCaptor.forClass(Emision.class);
-        verify(emisionRepository, atLeastOnce()).save(captor.capture());
+        // Capturar emisiones guardadas: un único lote y sin guardar una a una
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Emision>> captor = ArgumentCaptor.forClass(List.class);
+        verify(emisionRepository).insertarEnLote(captor.capture());
+        verify(emisionRepository, never()).save(any());
+        verify(emisionRepository, never()).findByRoom_Idroom(anyLong());
 
-        List<Emision> emisionesGuardadas = captor.getAllValues();
+        List<Emision> emisionesGuardadas = captor.getValue();
 
         // Validar
         assertThat(emisionesGuardadas).isNotEmpty();
         assertThat(emisionesGuardadas.size()).isLessThanOrEqualTo(50);
+        // Una vez por día, salvo mañana que ya estaba programada
+        assertThat(emisionesGuardadas).hasSize(6);
+        assertThat(emisionesGuardadas)
+                .noneMatch(e -> e.getFechaHoraInicio().toLocalDate().equals(LocalDate.now().plusDays(1)));
 
         emisionesGuardadas.forEach(emision -> {
             assertThat(emision.getRoom()).isEqualTo(room);
@@ -116,4 +134,34 @@ class AsignacionAutoTest {
                         " a las " + emision.getFechaHoraInicio().toLocalTime())
         );
     }
+
+    @Test
+    void generarEmisionesAutomaticas_porRegion_unLotePorRegion() {
+        Region norte = new Region();
+        norte.setId(1L);
+        Region sur = new Region();
+        sur.setId(2L);
+        Room salaNorte = Room.builder().idroom(10L).nombreroom("Norte").region(norte).build();
+        Room salaSur1 = Room.builder().idroom(20L).nombreroom("Sur 1").region(sur).build();
+        Room salaSur2 = Room.builder().idroom(21L).nombreroom("Sur 2").region(sur).build();
+        when(roomRepository.findAll()).thenReturn(List.of(salaNorte, salaSur1, salaSur2));
+        when(emisionRepository.findByFechaHoraInicioBetween(any(), any())).thenReturn(List.of());
+
+        emisionService.setModoParticion(EmisionService.ModoParticion.REGION);
+        emisionService.generarEmisionesAutomaticas();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Emision>> captor = ArgumentCaptor.forClass(List.class);
+        verify(emisionRepository, times(2)).insertarEnLote(captor.capture());
+        captor.getAllValues().forEach(lote -> assertThat(lote.stream().map(e -> e.getRoom().getRegion()).distinct())
+                .hasSize(1));
+
+        List<EmisionService.InformeParticion> informe = emisionService.getUltimoInforme();
+        assertThat(informe).extracting(EmisionService.InformeParticion::particion)
+                .containsExactlyInAnyOrder("region-1", "region-2");
+        assertThat(informe).allMatch(EmisionService.InformeParticion::correcta);
+        assertThat(informe).filteredOn(i -> i.particion().equals("region-2"))
+                .singleElement()
+                .satisfies(i -> assertThat(i.emisiones()).isEqualTo(14));
+    }
 }
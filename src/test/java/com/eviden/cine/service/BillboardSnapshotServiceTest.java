@@ -0,0 +1,112 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.dtos.MovieTranslatedDTO;
+import com.eviden.cine.model.Emision;
+import com.eviden.cine.model.Movie;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class BillboardSnapshotServiceTest {
+
+    private MovieService movieService;
+    private BillboardSnapshotService billboardSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        movieService = mock(MovieService.class);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        billboardSnapshotService = new BillboardSnapshotService(movieService, objectMapper,
+                mock(PlatformTransactionManager.class), 0);
+
+        Movie movie = Movie.builder().id(1).title("Título").build();
+        when(movieService.getMoviesForBillboard()).thenReturn(List.of(movie));
+        when(movieService.translateMovies(anyList(), anyString())).thenAnswer(inv -> {
+            String idioma = inv.getArgument(1);
+            MovieTranslatedDTO dto = new MovieTranslatedDTO();
+            dto.setId(1);
+            dto.setTitle("titulo-" + idioma);
+            dto.setEmisiones(List.of(new Emision()));
+            return List.of(dto);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        billboardSnapshotService.detener();
+    }
+
+    @Test
+    void primeraPeticion_construyeTodasLasInstantaneas() {
+        String json = new String(billboardSnapshotService.getJson("en"), StandardCharsets.UTF_8);
+
+        assertTrue(json.contains("titulo-en"));
+        verify(movieService, times(1)).getMoviesForBillboard();
+        verify(movieService, times(BillboardSnapshotService.IDIOMAS.size())).translateMovies(anyList(), anyString());
+    }
+
+    @Test
+    void sirveDesdeLaInstantaneaSinVolverAConsultar() {
+        billboardSnapshotService.reconstruir();
+
+        byte[] primera = billboardSnapshotService.getJson("FR");
+        byte[] segunda = billboardSnapshotService.getJson("fr");
+
+        assertSame(primera, segunda);
+        assertEquals("titulo-fr", billboardSnapshotService.getPeliculas("fr").getFirst().getTitle());
+        verify(movieService, times(1)).getMoviesForBillboard();
+    }
+
+    @Test
+    void idiomaDesconocido_usaEspanol() {
+        billboardSnapshotService.reconstruir();
+
+        assertSame(billboardSnapshotService.getJson("es"), billboardSnapshotService.getJson("en-US"));
+        assertSame(billboardSnapshotService.getJson("es"), billboardSnapshotService.getJson(null));
+    }
+
+    @Test
+    void noExponeEmisiones() {
+        billboardSnapshotService.reconstruir();
+
+        assertNull(billboardSnapshotService.getPeliculas("es").getFirst().getEmisiones());
+    }
+
+    @Test
+    void getPeliculas_devuelveCopiasQueNoAlteranLaInstantanea() {
+        billboardSnapshotService.reconstruir();
+
+        MovieTranslatedDTO copia = billboardSnapshotService.getPeliculas("es").getFirst();
+        copia.setTitle("cambiado");
+        copia.setEmisiones(List.of(new Emision()));
+
+        MovieTranslatedDTO otra = billboardSnapshotService.getPeliculas("es").getFirst();
+        assertNotSame(copia, otra);
+        assertEquals("titulo-es", otra.getTitle());
+        assertNull(otra.getEmisiones());
+    }
+
+    @Test
+    void reconstruir_sustituyeLaInstantanea() {
+        billboardSnapshotService.reconstruir();
+        byte[] antes = billboardSnapshotService.getJson("es");
+
+        when(movieService.getMoviesForBillboard()).thenReturn(List.of());
+        when(movieService.translateMovies(anyList(), anyString())).thenReturn(List.of());
+        billboardSnapshotService.reconstruir();
+
+        assertNotSame(antes, billboardSnapshotService.getJson("es"));
+        assertEquals("[]", new String(billboardSnapshotService.getJson("es"), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,247 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.event.CarteleraModificadaEvent;
+import com.eviden.cine.model.Actor;
+import com.eviden.cine.model.Director;
+import com.eviden.cine.model.Genre;
+import com.eviden.cine.model.Movie;
+import com.eviden.cine.repository.ActorRepository;
+import com.eviden.cine.repository.ClassificationRepository;
+import com.eviden.cine.repository.DirectorRepository;
+import com.eviden.cine.repository.GenreRepository;
+import com.eviden.cine.repository.MovieRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogImportServiceTest {
+
+    @Mock private MovieRepository movieRepository;
+    @Mock private GenreRepository genreRepository;
+    @Mock private ClassificationRepository classificationRepository;
+    @Mock private DirectorRepository directorRepository;
+    @Mock private ActorRepository actorRepository;
+    @Mock private TranslationService translationService;
+    @Mock private MovieSearchService movieSearchService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private CatalogImportService catalogImportService;
+    private final List<Movie> insertadas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        catalogImportService = new CatalogImportService(movieRepository, genreRepository, classificationRepository,
+                directorRepository, actorRepository, translationService, movieSearchService, eventPublisher,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+
+        when(genreRepository.findAll()).thenReturn(List.of(Genre.builder().id(1).name("Drama").build()));
+        when(directorRepository.findAll()).thenReturn(List.of());
+        when(actorRepository.findAll()).thenReturn(List.of(Actor.builder().id(7).name("Kate Winslet").build()));
+        AtomicInteger ids = new AtomicInteger(100);
+        when(directorRepository.save(any(Director.class))).thenAnswer(inv -> {
+            Director director = inv.getArgument(0);
+            director.setId(ids.incrementAndGet());
+            return director;
+        });
+        when(actorRepository.save(any(Actor.class))).thenAnswer(inv -> {
+            Actor actor = inv.getArgument(0);
+            actor.setId(ids.incrementAndGet());
+            return actor;
+        });
+        when(movieRepository.insertarEnLote(anyList())).thenAnswer(inv -> {
+            List<Movie> lote = inv.getArgument(0);
+            insertadas.addAll(lote);
+            return lote.size();
+        });
+    }
+
+    private static InputStream fichero(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importarJson_resuelveRelacionesConDiccionarios() throws Exception {
+        String json = """
+                [
+                  {"title": "Titanic", "time": 195, "genre": "drama", "director": "James Cameron",
+                   "casting": ["Kate Winslet", "Leonardo DiCaprio"], "releaseDate": "1997-12-19", "isAvailable": true},
+                  {"title": "Avatar", "time": 162, "genre": "Drama", "director": "james cameron",
+                   "casting": ["Kate Winslet"]}
+                ]
+                """;
+
+        CatalogImportService.InformeImportacion informe =
+                catalogImportService.importar(fichero(json), CatalogImportService.Formato.JSON, "es", false);
+
+        assertEquals(2, informe.leidas());
+        assertEquals(2, informe.importadas());
+        assertEquals(0, informe.rechazadas());
+
+        // Un solo findAll por diccionario y cada nombre nuevo se crea una vez
+        verify(genreRepository, times(1)).findAll();
+        verify(genreRepository, never()).save(any());
+        verify(directorRepository, times(1)).save(any(Director.class));
+        verify(actorRepository, times(1)).save(any(Actor.class));
+        verify(movieRepository, times(1)).insertarEnLote(anyList());
+
+        Movie titanic = insertadas.getFirst();
+        assertEquals(1, titanic.getGenre().getId());
+        assertEquals(LocalDate.of(1997, 12, 19), titanic.getReleaseDate());
+        assertTrue(titanic.isAvailable());
+        assertEquals("Titanic", titanic.getTitleEn());
+        assertEquals(List.of(7, 102), titanic.getCasting().stream().map(Actor::getId).toList());
+        assertSame(titanic.getDirector(), insertadas.get(1).getDirector());
+
+        verify(movieSearchService, times(2)).indexar(any(Movie.class));
+        verify(eventPublisher).publishEvent(any(CarteleraModificadaEvent.class));
+        verifyNoInteractions(translationService);
+    }
+
+    @Test
+    void importarCsv_conRepartoSeparadoPorBarras() throws Exception {
+        String csv = """
+                title,synopsis,time,genre,director,casting,releaseDate,isAvailable
+                Titanic,"Un barco, un iceberg",195,Drama,James Cameron,Kate Winslet|Leonardo DiCaprio,1997-12-19,true
+                Sin duración,,,Drama,,,,
+                """;
+
+        CatalogImportService.InformeImportacion informe =
+                catalogImportService.importar(fichero(csv), CatalogImportService.Formato.CSV, "es", false);
+
+        assertEquals(2, informe.leidas());
+        assertEquals(1, informe.importadas());
+        assertEquals(1, informe.rechazadas());
+        assertTrue(informe.errores().getFirst().startsWith("Fila 2"));
+
+        Movie titanic = insertadas.getFirst();
+        assertEquals("Un barco, un iceberg", titanic.getSynopsis());
+        assertEquals(2, titanic.getCasting().size());
+    }
+
+    @Test
+    void importar_valorIncorrecto_descartaSoloEsaFila() throws Exception {
+        String json = """
+                [
+                  {"title": "Mala fecha", "time": 90, "releaseDate": "no-es-fecha"},
+                  {"title": "Buena", "time": 90}
+                ]
+                """;
+
+        CatalogImportService.InformeImportacion informe =
+                catalogImportService.importar(fichero(json), CatalogImportService.Formato.JSON, "es", false);
+
+        assertEquals(1, informe.importadas());
+        assertEquals(1, informe.rechazadas());
+        assertEquals("Buena", insertadas.getFirst().getTitle());
+    }
+
+    @Test
+    void importar_conTraduccion_unaTandaPorLote() throws Exception {
+        String json = """
+                [{"title": "Hola", "synopsis": "Sinopsis", "time": 90}, {"title": "Adiós", "time": 80}]
+                """;
+
+        catalogImportService.importar(fichero(json), CatalogImportService.Formato.JSON, "es", true);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<java.util.Collection<String>> textos = ArgumentCaptor.forClass(java.util.Collection.class);
+        verify(translationService, times(1)).traducir(textos.capture(), eq("es"), anyCollection());
+        assertEquals(List.of("Hola", "Sinopsis", "Adiós"), List.copyOf(textos.getValue()));
+    }
+
+    @Test
+    void ficheroVacio_noPublicaEvento() throws Exception {
+        CatalogImportService.InformeImportacion informe =
+                catalogImportService.importar(fichero("[]"), CatalogImportService.Formato.JSON, "es", false);
+
+        assertEquals(0, informe.leidas());
+        verify(movieRepository, never()).insertarEnLote(anyList());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void importar_traduccionDemasiadoLarga_seRecortaASuColumna() throws Exception {
+        when(translationService.traducir(anyCollection(), eq("es"), anyCollection())).thenReturn(Map.of(
+                "Hola", Map.of("de", "H".repeat(300)),
+                "Sinopsis", Map.of("fr", "s".repeat(1200))));
+        String json = """
+                [{"title": "Hola", "synopsis": "Sinopsis", "time": 90}]
+                """;
+
+        CatalogImportService.InformeImportacion informe =
+                catalogImportService.importar(fichero(json), CatalogImportService.Formato.JSON, "es", true);
+
+        assertEquals(1, informe.importadas());
+        Movie hola = insertadas.getFirst();
+        assertEquals(255, hola.getTitleDe().length());
+        assertEquals(1000, hola.getSynopsisFr().length());
+        assertEquals("Hola", hola.getTitleEn());
+    }
+
+    @Test
+    void importar_urlDemasiadoLarga_rechazaLaFila() throws Exception {
+        String json = """
+                [{"title": "Larga", "time": 90, "urlTrailer": "https://%s"}, {"title": "Corta", "time": 90}]
+                """.formatted("a".repeat(300));
+
+        CatalogImportService.InformeImportacion informe =
+                catalogImportService.importar(fichero(json), CatalogImportService.Formato.JSON, "es", false);
+
+        assertEquals(1, informe.importadas());
+        assertEquals(1, informe.rechazadas());
+        assertTrue(informe.errores().getFirst().startsWith("Fila 1"));
+    }
+
+    @Test
+    void importar_loteRechazado_seReintentaFilaAFila() throws Exception {
+        when(movieRepository.insertarEnLote(anyList())).thenAnswer(inv -> {
+            List<Movie> lote = inv.getArgument(0);
+            if (lote.stream().anyMatch(movie -> movie.getTitle().equals("Duplicada"))) {
+                throw new DataIntegrityViolationException("Duplicate entry");
+            }
+            insertadas.addAll(lote);
+            return lote.size();
+        });
+        String json = """
+                [{"title": "Primera", "time": 90}, {"title": "Duplicada", "time": 90}, {"title": "Tercera", "time": 90}]
+                """;
+
+        CatalogImportService.InformeImportacion informe =
+                catalogImportService.importar(fichero(json), CatalogImportService.Formato.JSON, "es", false);
+
+        assertEquals(3, informe.leidas());
+        assertEquals(2, informe.importadas());
+        assertEquals(1, informe.rechazadas());
+        assertEquals(1, informe.errores().size());
+        assertTrue(informe.errores().getFirst().startsWith("Fila 2"));
+        assertEquals(List.of("Primera", "Tercera"), insertadas.stream().map(Movie::getTitle).toList());
+        verify(movieSearchService, times(2)).indexar(any(Movie.class));
+        verify(eventPublisher).publishEvent(any(CarteleraModificadaEvent.class));
+    }
+
+    @Test
+    void recortar_noParteUnParSustituto() {
+        assertEquals("ab", CatalogImportService.recortar("ab\uD83C\uDFAC", 3));
+        assertEquals("abc", CatalogImportService.recortar("abc", 3));
+        assertNull(CatalogImportService.recortar(null, 3));
+    }
+}
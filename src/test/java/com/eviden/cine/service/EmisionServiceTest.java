@@ -12,9 +12,11 @@ import com.eviden.cine.repository.MovieRepository;
 import com.eviden.cine.repository.RoomRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -37,6 +39,15 @@ class EmisionServiceTest {
     @Mock
     private RoomAssignmentService roomAssignmentService;
 
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    private RoomCalendarService roomCalendarService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private EmisionService emisionService;
 
@@ -80,10 +91,24 @@ class EmisionServiceTest {
 
     @Test
     void testObtenerTodas() {
-        when(emisionRepository.findAll()).thenReturn(List.of(emision));
+        when(emisionRepository.findFuturas(any(LocalDateTime.class))).thenReturn(List.of(emision));
         List<Emision> result = emisionService.obtenerTodas();
         assertEquals(1, result.size());
-        verify(emisionRepository).findAll();
+        verify(emisionRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetEmisionesByMovieId_soloFuturasDesdeLaBaseDeDatos() {
+        LocalDateTime antes = LocalDateTime.now();
+        when(emisionRepository.findFuturasByMovie(eq(7), any(LocalDateTime.class))).thenReturn(List.of(emision));
+
+        List<Emision> result = emisionService.getEmisionesByMovieId(7L);
+
+        assertEquals(List.of(emision), result);
+        ArgumentCaptor<LocalDateTime> ahora = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(emisionRepository).findFuturasByMovie(eq(7), ahora.capture());
+        assertFalse(ahora.getValue().isBefore(antes));
+        verify(emisionRepository, never()).findByMovie_Id(anyLong());
     }
 
     @Test
@@ -115,6 +140,7 @@ class EmisionServiceTest {
         assertEquals(movie, saved.getMovie());
         assertEquals(room, saved.getRoom());
         assertEquals("Español", saved.getIdioma());
+        verify(roomCalendarService).registrar(emision);
     }
 
     @Test
@@ -190,6 +216,7 @@ class EmisionServiceTest {
 
         emisionService.eliminar(1L);
         verify(emisionRepository).deleteById(1L);
+        verify(roomCalendarService).eliminar(1L);
     }
 
     @Test
@@ -211,7 +238,8 @@ class EmisionServiceTest {
                 .estado(Emision.EstadoEmision.ACTIVO)
                 .build();
 
-        when(emisionRepository.findByRoom_Region_Id(1L)).thenReturn(List.of(emision));
+        when(emisionRepository.findFuturasByRegion(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(List.of(EmisionFrontDTO.of(emision)));
 
         List<EmisionFrontDTO> result = emisionService.emisionesPorRegion(1L);
 
@@ -225,7 +253,8 @@ class EmisionServiceTest {
 
     @Test
     void testObtenerEmisionesPorSala() {
-        when(emisionRepository.findByRoom_Idroom(1L)).thenReturn(List.of(emision));
+        when(emisionRepository.findFuturasByRoom(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(List.of(EmisionFrontDTO.of(emision)));
 
         List<EmisionFrontDTO> result = emisionService.obtenerEmisionesPorSala(1L);
 
@@ -2,9 +2,8 @@ package com.eviden.cine.service;
 
 import com.eviden.cine.dtos.GenreTranslatedDTO;
 import com.eviden.cine.model.Genre;
-import com.eviden.cine.model.User;
 import com.eviden.cine.repository.GenreRepository;
-import com.eviden.cine.repository.UserRepository;
+import com.eviden.cine.security.PrincipalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -22,7 +21,7 @@ class GenreServiceTest {
     @Mock
     private GenreRepository genreRepository;
     @Mock
-    private UserRepository userRepository;
+    private PrincipalCache principalCache;
 
     @InjectMocks
     private GenreService genreService;
@@ -84,11 +83,7 @@ class GenreServiceTest {
         genre.setName("Acción");
         genre.setNameEn("Action");
 
-        User user = new User();
-        user.setEmail("test@example.com");
-        user.setPreferredLanguage("en");
-
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(principalCache.idiomaPreferido("test@example.com")).thenReturn("en");
         when(genreRepository.findAll()).thenReturn(List.of(genre));
 
         List<GenreTranslatedDTO> result = genreService.getGenresForUserLanguage("test@example.com");
@@ -104,11 +99,7 @@ class GenreServiceTest {
         genre.setName("Acción");
         genre.setNameEn("Action");
 
-        User user = new User();
-        user.setEmail("test@example.com");
-        user.setPreferredLanguage("en");
-
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(principalCache.idiomaPreferido("test@example.com")).thenReturn("en");
         when(genreRepository.findAll()).thenReturn(List.of(genre));
 
         List<GenreTranslatedDTO> result = genreService.getGenresByUserOrHeader("test@example.com", null);
@@ -124,7 +115,6 @@ class GenreServiceTest {
         genre.setName("Acción");
         genre.setNameFr("ActionFR");
 
-        when(userRepository.findByEmail(null)).thenReturn(Optional.empty());
         when(genreRepository.findAll()).thenReturn(List.of(genre));
 
         List<GenreTranslatedDTO> result = genreService.getGenresByUserOrHeader(null, "fr");
@@ -0,0 +1,65 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.Actor;
+import com.eviden.cine.model.Director;
+import com.eviden.cine.model.Movie;
+import com.eviden.cine.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MovieSearchServiceTest {
+
+    private MovieRepository movieRepository;
+    private MovieSearchService movieSearchService;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository = mock(MovieRepository.class);
+        movieSearchService = new MovieSearchService(movieRepository);
+
+        Director director = new Director();
+        director.setName("Pedro Almodóvar");
+        Actor actor = new Actor();
+        actor.setName("Penélope Cruz");
+        Movie movie = Movie.builder()
+                .id(5)
+                .title("Volver")
+                .titleEn("Coming Back")
+                .director(director)
+                .casting(List.of(actor))
+                .build();
+        when(movieRepository.findAll()).thenReturn(List.of(movie));
+        movieSearchService.cargar();
+    }
+
+    @Test
+    void buscaElTituloEnElIdiomaSolicitado() {
+        assertEquals(List.of(5), movieSearchService.buscar("coming", "en"));
+        assertTrue(movieSearchService.buscar("coming", "es").isEmpty());
+        assertEquals(List.of(5), movieSearchService.buscar("volver", "ES"));
+    }
+
+    @Test
+    void directorYActoresEnTodosLosIdiomas() {
+        assertEquals(List.of(5), movieSearchService.buscar("almodovar", "fr"));
+        assertEquals(List.of(5), movieSearchService.buscar("penelope", "de"));
+    }
+
+    @Test
+    void idiomaDesconocido_usaEspanol() {
+        assertEquals(List.of(5), movieSearchService.buscar("volver", "en-US"));
+    }
+
+    @Test
+    void eliminar_quitaDeTodosLosIdiomas() {
+        movieSearchService.eliminar(5);
+
+        assertTrue(movieSearchService.buscar("almodovar", "es").isEmpty());
+        assertTrue(movieSearchService.buscar("coming", "en").isEmpty());
+    }
+}
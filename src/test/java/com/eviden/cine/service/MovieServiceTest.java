@@ -4,11 +4,13 @@ import com.eviden.cine.dtos.MovieDTO;
 import com.eviden.cine.dtos.MovieTranslatedDTO;
 import com.eviden.cine.model.*;
 import com.eviden.cine.repository.*;
+import com.eviden.cine.security.PrincipalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
@@ -17,6 +19,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -27,8 +30,12 @@ class MovieServiceTest {
     @Mock private ClassificationRepository classificationRepository;
     @Mock private DirectorRepository directorRepository;
     @Mock private ActorRepository actorRepository;
-    @Mock private UserRepository userRepository;
+    @Mock private PrincipalCache principalCache;
     @Mock private CloudinaryService cloudinaryService;
+    @Mock private SeatInventoryService seatInventoryService;
+    @Mock private MovieSearchService movieSearchService;
+    @Mock private TranslationService translationService;
+    @Mock private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private MovieService movieService;
@@ -45,6 +52,31 @@ class MovieServiceTest {
         assertEquals(1, result.size());
     }
 
+    @Test
+    void getTranslatedMoviesPage_proyectaSinColecciones() {
+        MovieRepository.FilaCatalogo fila = mock(MovieRepository.FilaCatalogo.class);
+        when(fila.getId()).thenReturn(5);
+        when(fila.getTitle()).thenReturn("Inception");
+        when(fila.getGenreId()).thenReturn(2);
+        when(fila.getGenreName()).thenReturn("Science fiction");
+        when(fila.getDirectorId()).thenReturn(3);
+        when(fila.getDirectorName()).thenReturn("Christopher Nolan");
+        // Mockito devuelve 0 para un Integer sin stubear; la película no tiene clasificación
+        when(fila.getClassificationId()).thenReturn(null);
+        when(movieRepository.findCatalogoDespuesDe(eq("en"), eq(0), any())).thenReturn(List.of(fila));
+
+        var pagina = movieService.getTranslatedMoviesPage("EN", null, null);
+
+        MovieTranslatedDTO dto = pagina.items().getFirst();
+        assertEquals("Inception", dto.getTitle());
+        assertEquals("Science fiction", dto.getGenre().getName());
+        assertEquals("Christopher Nolan", dto.getDirector().getName());
+        assertNull(dto.getClassification());
+        assertNull(dto.getCasting());
+        assertNull(pagina.siguiente());
+        verify(movieRepository, never()).findAll();
+    }
+
     @Test
     void getAvailableMovies_filtersCorrectly() {
         Movie m1 = new Movie(); m1.setAvailable(true);
@@ -98,11 +130,41 @@ class MovieServiceTest {
         movie.setEmisiones(Collections.singletonList(emision));
 
         when(movieRepository.findAll()).thenReturn(List.of(movie));
+        when(seatInventoryService.tieneAsientosLibres(emision)).thenReturn(true);
 
         List<Movie> result = movieService.searchByKeyword("test");
         assertEquals(1, result.size());
     }
 
+    @Test
+    void getResultadosBusqueda_emisionAgotadaSigueApareciendo() {
+        Emision agotada = new Emision();
+        agotada.setEstado(Emision.EstadoEmision.ACTIVO);
+        Movie movie = new Movie();
+        movie.setId(7);
+        movie.setTitle("Agotada");
+        movie.setEmisiones(List.of(agotada));
+        Movie otra = new Movie();
+        otra.setId(3);
+        otra.setTitle("Otra");
+        when(movieRepository.findBuscablesByIdIn(List.of(7, 3, 9))).thenReturn(List.of(otra, movie));
+        when(seatInventoryService.tieneAsientosLibres(any())).thenReturn(false);
+
+        List<MovieTranslatedDTO> result = movieService.getResultadosBusqueda(List.of(7, 3, 9), "es");
+
+        // Orden de relevancia del índice; el inventario de asientos vendidos no se consulta
+        assertEquals(List.of(7, 3), result.stream().map(MovieTranslatedDTO::getId).toList());
+        assertEquals("Agotada", result.getFirst().getTitle());
+        assertNull(result.getFirst().getEmisiones());
+        verifyNoInteractions(seatInventoryService);
+    }
+
+    @Test
+    void getResultadosBusqueda_sinIds_noConsulta() {
+        assertTrue(movieService.getResultadosBusqueda(List.of(), "es").isEmpty());
+        verify(movieRepository, never()).findBuscablesByIdIn(any());
+    }
+
     @Test
     void createMovie_ok() {
         MovieDTO dto = new MovieDTO();
@@ -134,6 +196,8 @@ class MovieServiceTest {
 
         Movie movie = movieService.createMovie(dto, "es");
         assertEquals("Test", movie.getTitle());
+        // Título y sinopsis se traducen en una única llamada
+        verify(translationService, times(1)).traducir(eq(List.of("Test", "Synopsis")), eq("es"), anyCollection());
     }
 
     @Test
@@ -221,6 +285,7 @@ class MovieServiceTest {
 
         movie.setEmisiones(List.of(emision));
         when(movieRepository.findByIsAvailableTrue()).thenReturn(List.of(movie));
+        when(seatInventoryService.tieneAsientosLibres(emision)).thenReturn(true);
 
         List<Movie> result = movieService.getMoviesForBillboard();
         assertEquals(1, result.size());
@@ -238,6 +303,7 @@ class MovieServiceTest {
 
         Specification<Movie> spec = (root, query, cb) -> null;
         when(movieRepository.findAll(spec)).thenReturn(List.of(movie));
+        when(seatInventoryService.tieneAsientosLibres(emision)).thenReturn(true);
 
         List<Movie> result = movieService.filterMovies(spec);
         assertEquals(1, result.size());
@@ -245,8 +311,7 @@ class MovieServiceTest {
 
     @Test
     void resolveLanguage_emailPreferred() {
-        User user = new User(); user.setPreferredLanguage("fr");
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(principalCache.idiomaPreferido("user@example.com")).thenReturn("fr");
         String lang = movieService.resolveLanguage("user@example.com", null);
         assertEquals("fr", lang);
     }
@@ -0,0 +1,82 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.PasswordResetToken;
+import com.eviden.cine.repository.PasswordResetTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PasswordResetTokenServiceTest {
+
+    private PasswordResetTokenRepository repository;
+    private PasswordResetTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PasswordResetTokenRepository.class);
+        service = new PasswordResetTokenService(repository, 100, 30);
+    }
+
+    @Test
+    void emitirGuardaSoloElHashYAnulaLosAnteriores() {
+        String token = service.emitir("user@test.com");
+
+        ArgumentCaptor<PasswordResetToken> guardado = ArgumentCaptor.forClass(PasswordResetToken.class);
+        verify(repository).borrarPorEmail("user@test.com");
+        verify(repository).save(guardado.capture());
+        assertEquals(PasswordResetTokenService.hash(token), guardado.getValue().getHashToken());
+        assertNotEquals(token, guardado.getValue().getHashToken());
+        assertTrue(guardado.getValue().getExpiraEn().isAfter(LocalDateTime.now().plusMinutes(29)));
+    }
+
+    @Test
+    void consumirRecienEmitidoNoConsultaElToken() {
+        String token = service.emitir("user@test.com");
+        when(repository.borrarPorHash(PasswordResetTokenService.hash(token))).thenReturn(1);
+
+        assertEquals(Optional.of("user@test.com"), service.consumir(token));
+        verify(repository, never()).findByHashToken(anyString());
+    }
+
+    @Test
+    void consumirEmitidoEnOtroNodoLoBuscaEnLaBaseDeDatos() {
+        String hash = PasswordResetTokenService.hash("token-otro-nodo");
+        when(repository.findByHashToken(hash)).thenReturn(Optional.of(PasswordResetToken.builder()
+                .hashToken(hash).email("otro@test.com").expiraEn(LocalDateTime.now().plusMinutes(10)).build()));
+        when(repository.borrarPorHash(hash)).thenReturn(1);
+
+        assertEquals(Optional.of("otro@test.com"), service.consumir("token-otro-nodo"));
+    }
+
+    @Test
+    void tokenYaConsumidoOCaducadoNoSirve() {
+        String token = service.emitir("user@test.com");
+        // Otro nodo lo ha borrado antes
+        when(repository.borrarPorHash(PasswordResetTokenService.hash(token))).thenReturn(0);
+        assertTrue(service.consumir(token).isEmpty());
+
+        String hash = PasswordResetTokenService.hash("caducado");
+        when(repository.findByHashToken(hash)).thenReturn(Optional.of(PasswordResetToken.builder()
+                .hashToken(hash).email("user@test.com").expiraEn(LocalDateTime.now().minusMinutes(1)).build()));
+        when(repository.borrarPorHash(hash)).thenReturn(1);
+        assertTrue(service.consumir("caducado").isEmpty());
+
+        assertTrue(service.consumir("desconocido").isEmpty());
+        verify(repository, never()).borrarPorHash(PasswordResetTokenService.hash("desconocido"));
+    }
+
+    @Test
+    void purgarBorraLosCaducadosEnBloque() {
+        when(repository.borrarCaducados(any())).thenReturn(3);
+
+        service.purgarCaducados();
+
+        verify(repository).borrarCaducados(any(LocalDateTime.class));
+    }
+}
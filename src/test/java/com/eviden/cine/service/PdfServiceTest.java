@@ -1,14 +1,21 @@
 package com.eviden.cine.service;
 
 import com.eviden.cine.model.*;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 class PdfServiceTest {
 
@@ -54,4 +61,48 @@ class PdfServiceTest {
         assertNotNull(pdfBytes);
         assertTrue(pdfBytes.length > 0);
     }
+
+    @Test
+    void testEscribirEntrada_rellenaLosCamposYNoCierraElFlujo() throws IOException {
+        PdfService.Entrada entrada = new PdfService.Entrada(456L, "Interstellar", LocalDateTime.of(2025, 6, 1, 20, 30),
+                "Sala 4D", 21.0, List.of("D4", "D5"), null);
+        AtomicBoolean cerrado = new AtomicBoolean();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                cerrado.set(true);
+            }
+        };
+
+        pdfService.escribirEntrada(entrada, salida);
+
+        assertFalse(cerrado.get());
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(salida.toByteArray())))) {
+            String texto = PdfTextExtractor.getTextFromPage(pdf.getFirstPage());
+            assertTrue(texto.contains("Reserva Nº: 456"));
+            assertTrue(texto.contains("Interstellar"));
+            assertTrue(texto.contains("2025-06-01"));
+            assertTrue(texto.contains("20:30"));
+            assertTrue(texto.contains("Sala 4D"));
+            assertTrue(texto.contains("D4, D5"));
+            assertFalse(texto.contains("Código QR"));
+        }
+    }
+
+    @Test
+    void testEscribirEntrada_conQrYTituloLargo() throws Exception {
+        byte[] qr = new QrService(10, 1).generateQr("Reserva Nº: 789");
+        PdfService.Entrada entrada = new PdfService.Entrada(789L, "Título ".repeat(40), LocalDateTime.of(2025, 6, 1, 20, 30),
+                "Sala 1", 9.5, List.of(), qr);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        pdfService.escribirEntrada(entrada, salida);
+
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(salida.toByteArray())))) {
+            String texto = PdfTextExtractor.getTextFromPage(pdf.getFirstPage());
+            assertTrue(texto.contains("Código QR de tu entrada"));
+            assertTrue(texto.contains("…"));
+            assertTrue(texto.contains("No especificado"));
+        }
+    }
 }
@@ -0,0 +1,292 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.PostPaymentTask;
+import com.eviden.cine.model.Reservation;
+import com.eviden.cine.repository.PostPaymentTaskRepository;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PostPaymentPipelineTest {
+
+    private ReservationService reservationService;
+    private PdfService pdfService;
+    private EmailService emailService;
+    private PostPaymentTaskRepository tareaRepository;
+    private PostPaymentPipeline pipeline;
+
+    // Tabla de tareas en memoria
+    private final Map<Long, PostPaymentTask> tareas = new ConcurrentHashMap<>();
+    private final AtomicLong secuencia = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        reservationService = mock(ReservationService.class);
+        pdfService = mock(PdfService.class);
+        emailService = mock(EmailService.class);
+        tareaRepository = mock(PostPaymentTaskRepository.class);
+        when(tareaRepository.save(any(PostPaymentTask.class))).thenAnswer(inv -> {
+            PostPaymentTask tarea = inv.getArgument(0);
+            tarea.setId(secuencia.incrementAndGet());
+            tareas.put(tarea.getId(), tarea);
+            return tarea;
+        });
+        doAnswer(inv -> tareas.remove(inv.<Long>getArgument(0))).when(tareaRepository).deleteById(any());
+        when(tareaRepository.marcarFallida(any())).thenAnswer(inv -> {
+            tareas.get(inv.<Long>getArgument(0)).setEstado(PostPaymentTask.Estado.FALLIDA);
+            return 1;
+        });
+        when(tareaRepository.findReclamables(any(), any())).thenAnswer(inv ->
+                tareas.values().stream().filter(t -> reclamable(t, inv.getArgument(0))).toList());
+        // Como el UPDATE condicionado: solo una llamada gana la fila
+        when(tareaRepository.reclamar(any(), any(), any())).thenAnswer(inv -> {
+            AtomicInteger filas = new AtomicInteger();
+            tareas.computeIfPresent(inv.getArgument(0), (id, tarea) -> {
+                if (reclamable(tarea, inv.getArgument(2))) {
+                    tarea.setEstado(PostPaymentTask.Estado.EN_CURSO);
+                    tarea.setReclamadaEn(inv.getArgument(1));
+                    filas.set(1);
+                }
+                return tarea;
+            });
+            return filas.get();
+        });
+        when(tareaRepository.soltar(any())).thenAnswer(inv -> {
+            AtomicInteger filas = new AtomicInteger();
+            tareas.computeIfPresent(inv.getArgument(0), (id, tarea) -> {
+                if (tarea.getEstado() == PostPaymentTask.Estado.EN_CURSO) {
+                    tarea.setEstado(PostPaymentTask.Estado.PENDIENTE);
+                    tarea.setReclamadaEn(null);
+                    filas.set(1);
+                }
+                return tarea;
+            });
+            return filas.get();
+        });
+        pipeline = nuevoPipeline(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.detener();
+    }
+
+    @Test
+    void procesar_encadenaQrPdfYCorreo() throws Exception {
+        Reservation reserva = new Reservation();
+        reserva.setIdReserve(1L);
+        byte[] qr = {1, 2, 3};
+        byte[] pdf = {4, 5, 6};
+        when(reservationService.adjuntarQr(reserva)).thenAnswer(inv -> {
+            reserva.setQrContent(qr);
+            return reserva;
+        });
+        when(pdfService.generateReservationPdf(reserva)).thenReturn(pdf);
+
+        pipeline.procesar(reserva, "cliente@example.com");
+
+        verify(emailService, timeout(2000)).enviarCorreoConfirmacion("cliente@example.com", reserva, qr, pdf);
+        assertEquals(1, pipeline.getEstadisticas().get(PostPaymentPipeline.Etapa.QR).completados());
+        assertEquals(1, pipeline.getEstadisticas().get(PostPaymentPipeline.Etapa.PDF).completados());
+        // La tarea apuntada se borra al enviar el correo
+        verify(tareaRepository, timeout(2000)).deleteById(1L);
+        assertTrue(tareas.isEmpty());
+    }
+
+    @Test
+    void procesar_qrYaGenerado_noLoRegenera() throws Exception {
+        Reservation reserva = new Reservation();
+        reserva.setQrContent(new byte[]{1});
+
+        pipeline.procesar(reserva, "cliente@example.com");
+
+        verify(emailService, timeout(2000)).enviarCorreoConfirmacion(eq("cliente@example.com"), eq(reserva), any(), any());
+        verify(reservationService, never()).adjuntarQr(any());
+    }
+
+    @Test
+    void procesar_reintentaElCorreoHastaQueFunciona() throws Exception {
+        Reservation reserva = new Reservation();
+        reserva.setQrContent(new byte[]{1});
+        doThrow(new MessagingException("SMTP caído"))
+                .doNothing()
+                .when(emailService).enviarCorreoConfirmacion(any(), any(), any(), any());
+
+        pipeline.procesar(reserva, "cliente@example.com");
+
+        verify(emailService, timeout(2000).times(2)).enviarCorreoConfirmacion(any(), any(), any(), any());
+        PostPaymentPipeline.EstadisticasEtapa correo = pipeline.getEstadisticas().get(PostPaymentPipeline.Etapa.EMAIL);
+        assertEquals(1, correo.reintentos());
+        assertEquals(0, correo.fallidos());
+    }
+
+    @Test
+    void procesar_agotaIntentos_cuentaFallo() throws Exception {
+        Reservation reserva = new Reservation();
+        reserva.setQrContent(new byte[]{1});
+        when(pdfService.generateReservationPdf(reserva)).thenThrow(new RuntimeException("PDF roto"));
+
+        pipeline.procesar(reserva, "cliente@example.com");
+
+        verify(pdfService, timeout(2000).times(3)).generateReservationPdf(reserva);
+        Thread.sleep(100);
+        assertEquals(1, pipeline.getEstadisticas().get(PostPaymentPipeline.Etapa.PDF).fallidos());
+        verify(emailService, never()).enviarCorreoConfirmacion(any(), any(), any(), any());
+        // Queda apuntada como fallida y la pasada periódica no la repite
+        verify(tareaRepository).marcarFallida(1L);
+        pipeline.reanudarPendientes();
+        verify(reservationService, never()).findCompleta(any());
+    }
+
+    @Test
+    void colaLlena_noEjecutaEnElHiloQueEncolaYLaRetomaLaPasada() throws Exception {
+        PostPaymentPipeline estrecho = nuevoPipeline(1);
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        CountDownLatch dentro = new CountDownLatch(1);
+        Set<Thread> hilosQr = ConcurrentHashMap.newKeySet();
+        when(reservationService.adjuntarQr(any())).thenAnswer(inv -> {
+            hilosQr.add(Thread.currentThread());
+            dentro.countDown();
+            bloqueo.await();
+            Reservation reserva = inv.getArgument(0);
+            reserva.setQrContent(new byte[]{1});
+            return reserva;
+        });
+        List<Reservation> reservas = List.of(reserva(1L), reserva(2L), reserva(3L));
+        reservas.forEach(r -> when(reservationService.findCompleta(r.getIdReserve())).thenReturn(Optional.of(r)));
+
+        try {
+            // Una en el hilo, otra en la cola y la tercera no cabe
+            estrecho.procesar(reservas.get(0), "cliente@example.com");
+            assertTrue(dentro.await(2, TimeUnit.SECONDS));
+            estrecho.procesar(reservas.get(1), "cliente@example.com");
+            estrecho.procesar(reservas.get(2), "cliente@example.com");
+
+            assertTrue(hilosQr.stream().noneMatch(hilo -> hilo == Thread.currentThread()));
+            assertEquals(3, tareas.size());
+
+            bloqueo.countDown();
+            verify(emailService, timeout(2000).times(2)).enviarCorreoConfirmacion(any(), any(), any(), any());
+            estrecho.reanudarPendientes();
+            verify(emailService, timeout(2000).times(3)).enviarCorreoConfirmacion(any(), any(), any(), any());
+            verify(tareaRepository, timeout(2000).times(3)).deleteById(any());
+            assertTrue(hilosQr.stream().noneMatch(hilo -> hilo == Thread.currentThread()));
+        } finally {
+            bloqueo.countDown();
+            estrecho.detener();
+        }
+    }
+
+    @Test
+    void reanudarPendientes_retomaLasApuntadasTrasUnReinicio() throws Exception {
+        Reservation reserva = reserva(7L);
+        reserva.setQrContent(new byte[]{1});
+        tareas.put(40L, tarea(40L, 7L, PostPaymentTask.Estado.PENDIENTE, null));
+        when(reservationService.findCompleta(7L)).thenReturn(Optional.of(reserva));
+
+        pipeline.reanudarPendientes();
+
+        verify(emailService, timeout(2000)).enviarCorreoConfirmacion(eq("cliente@example.com"), eq(reserva), any(), any());
+        verify(tareaRepository, timeout(2000)).deleteById(40L);
+    }
+
+    @Test
+    void reanudarPendientes_dosInstancias_procesanCadaTareaUnaSolaVez() throws Exception {
+        PostPaymentPipeline otra = nuevoPipeline(10);
+        Reservation reserva = reserva(8L);
+        reserva.setQrContent(new byte[]{1});
+        tareas.put(50L, tarea(50L, 8L, PostPaymentTask.Estado.PENDIENTE, null));
+        when(reservationService.findCompleta(8L)).thenReturn(Optional.of(reserva));
+
+        try {
+            // Las dos pasadas encuentran la misma fila; solo la que la reclama la procesa
+            CountDownLatch salida = new CountDownLatch(1);
+            Thread primera = new Thread(() -> esperarYReanudar(salida, pipeline));
+            Thread segunda = new Thread(() -> esperarYReanudar(salida, otra));
+            primera.start();
+            segunda.start();
+            salida.countDown();
+            primera.join(2000);
+            segunda.join(2000);
+
+            verify(emailService, timeout(2000))
+                    .enviarCorreoConfirmacion(eq("cliente@example.com"), eq(reserva), any(), any());
+            verify(tareaRepository, timeout(2000)).deleteById(50L);
+            Thread.sleep(100);
+            verify(reservationService, times(1)).findCompleta(8L);
+            verify(emailService, times(1)).enviarCorreoConfirmacion(any(), any(), any(), any());
+        } finally {
+            otra.detener();
+        }
+    }
+
+    @Test
+    void reanudarPendientes_reclamaLasEnCursoCaducadasYNoLasVigentes() throws Exception {
+        Reservation caida = reserva(9L);
+        caida.setQrContent(new byte[]{1});
+        // 60L quedó en curso en una instancia caída hace una hora; 61L la está procesando otra ahora
+        LocalDateTime haceUnaHora = LocalDateTime.now().minusHours(1);
+        tareas.put(60L, tarea(60L, 9L, PostPaymentTask.Estado.EN_CURSO, haceUnaHora));
+        tareas.put(61L, tarea(61L, 10L, PostPaymentTask.Estado.EN_CURSO, LocalDateTime.now()));
+        when(reservationService.findCompleta(9L)).thenReturn(Optional.of(caida));
+
+        pipeline.reanudarPendientes();
+
+        verify(tareaRepository, timeout(2000)).deleteById(60L);
+        verify(reservationService, never()).findCompleta(10L);
+        assertEquals(PostPaymentTask.Estado.EN_CURSO, tareas.get(61L).getEstado());
+    }
+
+    private PostPaymentPipeline nuevoPipeline(int capacidadCola) {
+        return new PostPaymentPipeline(reservationService, pdfService, emailService, tareaRepository,
+                1, capacidadCola, 3, 10, 600000);
+    }
+
+    private static void esperarYReanudar(CountDownLatch salida, PostPaymentPipeline instancia) {
+        try {
+            salida.await();
+            instancia.reanudarPendientes();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean reclamable(PostPaymentTask tarea, LocalDateTime caducada) {
+        return tarea.getEstado() == PostPaymentTask.Estado.PENDIENTE
+                || tarea.getEstado() == PostPaymentTask.Estado.EN_CURSO && tarea.getReclamadaEn().isBefore(caducada);
+    }
+
+    private static PostPaymentTask tarea(Long id, Long idReserva, PostPaymentTask.Estado estado,
+                                         LocalDateTime reclamadaEn) {
+        return PostPaymentTask.builder()
+                .id(id)
+                .idReserva(idReserva)
+                .email("cliente@example.com")
+                .estado(estado)
+                .reclamadaEn(reclamadaEn)
+                .build();
+    }
+
+    private static Reservation reserva(Long id) {
+        Reservation reserva = new Reservation();
+        reserva.setIdReserve(id);
+        return reserva;
+    }
+}
@@ -3,15 +3,19 @@ package com.eviden.cine.service;
 import com.google.zxing.WriterException;
 import org.junit.jupiter.api.Test;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 class QrServiceTest {
 
-    private final QrService qrService = new QrService();
+    private final QrService qrService = new QrService(100, 60);
 
     @Test
     void testGenerateQr_returnByteArray() throws WriterException, IOException {
@@ -37,5 +41,48 @@ class QrServiceTest {
         // Limpieza del archivo creado después del test
         assertTrue(file.delete());
     }
-}
 
+    @Test
+    void testQrDeReserva_pngDe300x300CacheadoPorContenido() throws WriterException, IOException {
+        String contenido = QrService.contenidoReserva(12L, "Inception", LocalDateTime.of(2025, 6, 1, 20, 30),
+                "Sala 1", List.of("A5", "A6"), 21.0);
+
+        QrService.Qr qr = qrService.qrDeReserva(12L, contenido);
+        BufferedImage imagen = ImageIO.read(new ByteArrayInputStream(qr.png()));
+
+        assertEquals(300, imagen.getWidth());
+        assertEquals(300, imagen.getHeight());
+        assertSame(qr, qrService.qrDeReserva(12L, contenido));
+        assertEquals(1, qrService.getEstadisticas().aciertos());
+
+        // Otro contenido para la misma reserva es otra entrada con otro hash
+        QrService.Qr cambiado = qrService.qrDeReserva(12L, contenido.replace("Sala 1", "Sala 2"));
+        assertNotEquals(qr.hash(), cambiado.hash());
+    }
+
+    @Test
+    void testContenidoReserva_mismoTextoQueLasEntradasYaEmitidas() {
+        String contenido = QrService.contenidoReserva(12L, "Inception", LocalDateTime.of(2025, 6, 1, 20, 30),
+                "Sala 1", List.of("A5", "A6"), 21.0);
+
+        assertEquals(String.format("""
+                    Reserva Nº: 12
+                    Emisión: Inception
+                    Fecha: 2025-06-01
+                    Hora: 20:30
+                    Sala: Sala 1
+                    Asientos: A5, A6
+                    Precio total: %.2f €
+                """, 21.0), contenido);
+        assertTrue(contenido.startsWith("    Reserva Nº: 12\n"));
+        assertTrue(contenido.endsWith(" €\n"));
+    }
+
+    @Test
+    void testGenerateQr_elPoolDevuelveLoMismoQueUnRenderizadorNuevo() throws WriterException, IOException {
+        byte[] primero = qrService.generateQr("entrada-789");
+        qrService.generateQr("otra-entrada-con-texto-mas-largo");
+
+        assertArrayEquals(primero, qrService.generateQr("entrada-789"));
+    }
+}
@@ -2,8 +2,10 @@ package com.eviden.cine.service;
 
 import com.eviden.cine.dtos.AsientoTicketDTO;
 import com.eviden.cine.dtos.ReservationRequestDTO;
+import com.eviden.cine.exception.CustomException;
 import com.eviden.cine.model.*;
 import com.eviden.cine.repository.*;
+import com.eviden.cine.util.KeysetPage;
 import com.google.zxing.WriterException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,7 +21,12 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ReservationServiceTest {
@@ -38,6 +45,12 @@ class ReservationServiceTest {
     private TicketRepository ticketRepo;
     @Mock
     private QrService qrService;
+    @Mock
+    private SeatInventoryService seatInventoryService;
+    @Mock
+    private SeatHoldService seatHoldService;
+    @Mock
+    private ReservationDetailsRepository reservationDetailsRepo;
 
     @InjectMocks
     private ReservationService reservationService;
@@ -117,7 +130,7 @@ class ReservationServiceTest {
         when(emisionRepo.findById(1L)).thenReturn(Optional.of(emision));
         when(asientoRepo.findById(1L)).thenReturn(Optional.of(asiento1));
         when(asientoRepo.findById(2L)).thenReturn(Optional.of(asiento2));
-        when(qrService.generateQr(anyString())).thenReturn(new byte[]{1, 2, 3});
+        when(qrService.qrDeReserva(any(), anyString())).thenReturn(new QrService.Qr(new byte[]{1, 2, 3}, "hash"));
         // Agregar mocks para ticketRepo
         Ticket ticket1 = new Ticket();
         ticket1.setId(1L);
@@ -134,44 +147,136 @@ class ReservationServiceTest {
 
         assertNotNull(result);
         assertEquals(2, result.getReserveDetails().size());
+        verify(seatInventoryService).venderAsientos(emision, List.of(asiento1, asiento2));
+        verify(seatHoldService).comprobarNoRetenidosPorOtro(null, List.of(1L, 2L), null);
     }
+
     @Test
-    void testGetReservationsByEmailDTO() {
-        Reservation mockReservation = createMockReservation();
-        when(reservationRepo.findByUserEmail("testuser@example.com")).thenReturn(List.of(mockReservation));
+    void testGuardarReserva_asientoRetenidoPorOtroCheckout_noSeGuarda() {
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setUserId(1L);
+        dto.setEmisionId(1L);
+        dto.setAsientos(List.of(new AsientoTicketDTO(1L, 1L, "A5")));
+        dto.setTotal(1000.0);
+        dto.setHoldToken("mi-checkout");
+
+        Emision emision = new Emision();
+        emision.setIdEmision(1L);
+        Asiento asiento = new Asiento();
+        asiento.setIdAsiento(1L);
+        when(userRepo.findById(1L)).thenReturn(Optional.of(new User()));
+        when(emisionRepo.findById(1L)).thenReturn(Optional.of(emision));
+        when(asientoRepo.findById(1L)).thenReturn(Optional.of(asiento));
+        when(ticketRepo.findById(1L)).thenReturn(Optional.of(new Ticket()));
+        doThrow(new CustomException("El asiento 1 está reservado por otra compra en curso", "SEAT_HELD"))
+                .when(seatHoldService).comprobarNoRetenidosPorOtro(1L, List.of(1L), "mi-checkout");
+
+        CustomException e = assertThrows(CustomException.class, () -> reservationService.guardarReserva(dto));
+
+        // El rollback de la transacción devuelve el asiento al inventario
+        assertEquals("SEAT_HELD", e.getCode());
+        verify(reservationRepo, never()).save(any());
+    }
+    @Test
+    void testGetReservationsByEmailDTO_unaConsultaAgrupadaPorReserva() {
+        LocalDateTime ahora = LocalDateTime.of(2025, 4, 24, 19, 30);
+        // Las filas se preparan antes: stubear dentro de otro when(...) deja el stubbing a medias
+        List<ReservationRepository.FilaReservaConAsiento> filas = List.of(
+                filaConAsiento(4L, ahora, "A", 5),
+                filaConAsiento(4L, ahora, "A", 6),
+                filaConAsiento(9L, ahora, null, null));
+        when(reservationRepo.findFilasByUserEmail("testuser@example.com")).thenReturn(filas);
 
         var dtos = reservationService.getReservationsByEmailDTO("testuser@example.com");
 
-        assertNotNull(dtos);
-        assertEquals(1, dtos.size());
+        assertEquals(2, dtos.size());
+        assertEquals(4L, dtos.getFirst().getIdReserve());
+        assertEquals(List.of("A5", "A6"), dtos.getFirst().getSelectedSeats());
+        assertEquals(List.of(), dtos.get(1).getSelectedSeats());
+        assertEquals("/api/reservations/4/qr", dtos.getFirst().getQrUrl());
+        verify(reservationRepo, never()).findAll();
     }
 
     @Test
     void testGetAllReservationsDTO() {
-        Reservation mockReservation = createMockReservation();
-        when(reservationRepo.findAll()).thenReturn(List.of(mockReservation));
+        LocalDateTime ahora = LocalDateTime.of(2025, 4, 24, 19, 30);
+        List<ReservationRepository.FilaReservaConAsiento> filas = List.of(filaConAsiento(1L, ahora, "B", 2));
+        when(reservationRepo.findFilasConAsientos()).thenReturn(filas);
 
         var dtos = reservationService.getAllReservationsDTO();
 
         assertNotNull(dtos);
         assertEquals(1, dtos.size());
+        assertEquals(List.of("B2"), dtos.getFirst().getSelectedSeats());
+    }
+
+    @Test
+    void testGetReservationsPage_unaConsultaDeAsientosPorPagina() {
+        LocalDateTime ahora = LocalDateTime.of(2025, 4, 24, 19, 30);
+        List<ReservationRepository.FilaReserva> filas = List.of(fila(4L, ahora), fila(9L, ahora), fila(11L, ahora));
+        when(reservationRepo.findPaginaDespuesDe(eq(3L), any())).thenReturn(filas);
+        ReservationDetailsRepository.AsientoDeReserva a5 = asiento(4L, "A", 5);
+        ReservationDetailsRepository.AsientoDeReserva a6 = asiento(4L, "A", 6);
+        when(reservationDetailsRepo.findAsientosByReservas(List.of(4L, 9L))).thenReturn(List.of(a5, a6));
+
+        var pagina = reservationService.getReservationsPage(3L, 2);
+
+        // Se pide una fila de más para saber si hay página siguiente
+        verify(reservationRepo).findPaginaDespuesDe(3L, KeysetPage.limite(2));
+        assertEquals(2, pagina.items().size());
+        assertEquals(9L, pagina.siguiente());
+        assertEquals(List.of("A5", "A6"), pagina.items().getFirst().getSelectedSeats());
+        assertEquals(List.of(), pagina.items().get(1).getSelectedSeats());
+        assertEquals("/api/reservations/4/qr", pagina.items().getFirst().getQrUrl());
+        verify(reservationRepo, never()).findAll();
+    }
+
+    private static ReservationRepository.FilaReserva fila(Long id, LocalDateTime fecha) {
+        ReservationRepository.FilaReserva fila = mock(ReservationRepository.FilaReserva.class);
+        when(fila.getIdReserve()).thenReturn(id);
+        when(fila.getReservationDate()).thenReturn(fecha);
+        when(fila.getShowTime()).thenReturn(fecha);
+        return fila;
+    }
+
+    private static ReservationRepository.FilaReservaConAsiento filaConAsiento(Long id, LocalDateTime fecha,
+                                                                              String fila, Integer columna) {
+        ReservationRepository.FilaReservaConAsiento resultado = mock(ReservationRepository.FilaReservaConAsiento.class);
+        when(resultado.getIdReserve()).thenReturn(id);
+        when(resultado.getReservationDate()).thenReturn(fecha);
+        when(resultado.getShowTime()).thenReturn(fecha);
+        when(resultado.getMovieTitle()).thenReturn("Mock Movie Title");
+        when(resultado.getFila()).thenReturn(fila);
+        when(resultado.getColumna()).thenReturn(columna);
+        return resultado;
+    }
+
+    private static ReservationDetailsRepository.AsientoDeReserva asiento(Long reserva, String fila, int columna) {
+        ReservationDetailsRepository.AsientoDeReserva asiento = mock(ReservationDetailsRepository.AsientoDeReserva.class);
+        when(asiento.getIdReserve()).thenReturn(reserva);
+        when(asiento.getFila()).thenReturn(fila);
+        when(asiento.getColumna()).thenReturn(columna);
+        return asiento;
     }
 
     @Test
     void testGetReservationById_found() {
-        Reservation mockReservation = createMockReservation();
-        when(reservationRepo.findById(1L)).thenReturn(Optional.of(mockReservation));
+        LocalDateTime ahora = LocalDateTime.of(2025, 4, 24, 19, 30);
+        List<ReservationRepository.FilaReservaConAsiento> filas = List.of(filaConAsiento(1L, ahora, "A", 5));
+        when(reservationRepo.findFilasById(1L)).thenReturn(filas);
 
         var dto = reservationService.getReservationById(1L);
 
         assertNotNull(dto);
         assertEquals("Mock Movie Title", dto.getMovieTitle());
+        assertEquals(List.of("A5"), dto.getSelectedSeats());
+        assertEquals("/api/reservations/1/qr", dto.getQrUrl());
     }
 
     // Java
     @Test
     void testGetReservationById_notFound() {
-        when(reservationRepo.findById(anyLong())).thenReturn(Optional.empty());
+        when(reservationRepo.findFilasById(anyLong())).thenReturn(List.of());
 
         RuntimeException thrown = assertThrows(RuntimeException.class, () -> {
             reservationService.getReservationById(1L);
@@ -180,6 +285,25 @@ class ReservationServiceTest {
         assertEquals("Reserva no encontrada con ID: 1", thrown.getMessage());
     }
 
+    @Test
+    void testGetEntrada_datosDeLaProyeccionYQrCacheado() throws IOException, WriterException {
+        LocalDateTime ahora = LocalDateTime.of(2025, 4, 24, 19, 30);
+        var a5 = filaConAsiento(1L, ahora, "A", 5);
+        when(a5.getRoomName()).thenReturn("Sala 1");
+        when(a5.getTotalPrice()).thenReturn(12.5);
+        var a6 = filaConAsiento(1L, ahora, "A", 6);
+        when(reservationRepo.findFilasById(1L)).thenReturn(List.of(a5, a6));
+        when(qrService.qrDeReserva(eq(1L), anyString())).thenReturn(new QrService.Qr(new byte[]{7}, "hash"));
+
+        var entrada = reservationService.getEntrada(1L).orElseThrow();
+
+        assertEquals("Mock Movie Title", entrada.pelicula());
+        assertEquals(List.of("A5", "A6"), entrada.asientos());
+        assertArrayEquals(new byte[]{7}, entrada.qr());
+        verify(reservationRepo, never()).findById(anyLong());
+        assertTrue(reservationService.getEntrada(2L).isEmpty());
+    }
+
     @Test
     void testGeneratePdf() {
         Reservation mockReservation = createMockReservation();
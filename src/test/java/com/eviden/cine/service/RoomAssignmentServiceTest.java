@@ -19,8 +19,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class RoomAssignmentServiceTest {
 
@@ -28,6 +27,7 @@ class RoomAssignmentServiceTest {
     private EmisionRepository emisionRepository;
     private MovieRepository movieRepository;
     private ReservationRepository reservationRepository;
+    private RoomCalendarService roomCalendarService;
     private RoomAssignmentService service;
 
     @BeforeEach
@@ -37,7 +37,10 @@ class RoomAssignmentServiceTest {
         movieRepository = mock(MovieRepository.class);
         reservationRepository = mock(ReservationRepository.class);
 
-        service = new RoomAssignmentService(roomRepository, emisionRepository, movieRepository, reservationRepository);
+        roomCalendarService = new RoomCalendarService(emisionRepository, roomRepository);
+
+        service = new RoomAssignmentService(roomRepository, emisionRepository, movieRepository, reservationRepository,
+                roomCalendarService);
     }
 
     @Test
@@ -74,8 +77,9 @@ class RoomAssignmentServiceTest {
         emision.setMovie(movie);
         emision.setFechaHoraInicio(LocalDateTime.of(2025, 5, 10, 10, 0));
         emision.setRoom(room);
+        emision.setIdEmision(1L);
 
-        when(emisionRepository.findByRoom_Idroom(1L)).thenReturn(List.of(emision));
+        roomCalendarService.registrar(emision);
 
         boolean result = service.estaSalaDisponible(room, LocalDateTime.of(2025, 5, 10, 13, 0), 90);
         assertTrue(result);
@@ -93,8 +97,9 @@ class RoomAssignmentServiceTest {
         emision.setMovie(movie);
         emision.setFechaHoraInicio(LocalDateTime.of(2025, 5, 10, 10, 0));
         emision.setRoom(room);
+        emision.setIdEmision(1L);
 
-        when(emisionRepository.findByRoom_Idroom(1L)).thenReturn(List.of(emision));
+        roomCalendarService.registrar(emision);
 
         boolean result = service.estaSalaDisponible(room, LocalDateTime.of(2025, 5, 10, 11, 0), 90);
         assertFalse(result);
@@ -132,4 +137,68 @@ class RoomAssignmentServiceTest {
 
         assertThrows(CustomException.class, () -> service.selectRoom(dto));
     }
+
+    @Test
+    void testEstaSalaDisponible_trasEliminarEmision() {
+        Room room = Room.builder().idroom(1L).build();
+        Movie movie = new Movie();
+        movie.setTime(120);
+        Emision emision = Emision.builder().idEmision(1L).movie(movie).room(room)
+                .fechaHoraInicio(LocalDateTime.of(2025, 5, 10, 10, 0)).build();
+        roomCalendarService.registrar(emision);
+
+        roomCalendarService.eliminar(1L);
+
+        assertTrue(service.estaSalaDisponible(room, LocalDateTime.of(2025, 5, 10, 11, 0), 90));
+        verifyNoInteractions(emisionRepository);
+    }
+
+    @Test
+    void testSelectRoom_eligeLaSalaLibreSegunOcupacion() {
+        Room grande = Room.builder().idroom(1L).capacidad(200).build();
+        Room pequena = Room.builder().idroom(2L).capacidad(50).build();
+        Room mediana = Room.builder().idroom(3L).capacidad(100).build();
+        roomCalendarService.registrarSala(grande);
+        roomCalendarService.registrarSala(pequena);
+        roomCalendarService.registrarSala(mediana);
+
+        Movie movie = new Movie();
+        movie.setId(7);
+        movie.setTime(100);
+        movie.setReleaseDate(LocalDate.of(2025, 5, 1));
+        when(movieRepository.findById(7)).thenReturn(Optional.of(movie));
+
+        LocalDateTime inicio = LocalDateTime.of(2025, 5, 3, 18, 0);
+        // La sala grande ya está ocupada a esa hora
+        roomCalendarService.registrar(Emision.builder().idEmision(9L).movie(movie).room(grande)
+                .fechaHoraInicio(inicio.minusMinutes(30)).build());
+
+        EmisionDTO estreno = new EmisionDTO(7, null, inicio, "ES", Emision.EstadoEmision.ACTIVO);
+        assertEquals(mediana, service.selectRoom(estreno));
+
+        EmisionDTO reposicion = new EmisionDTO(7, null, inicio.plusDays(30), "ES", Emision.EstadoEmision.ACTIVO);
+        assertEquals(pequena, service.selectRoom(reposicion));
+    }
+
+    @Test
+    void testSelectRoom_salaEliminadaOAmpliadaSeReordena() {
+        Room grande = Room.builder().idroom(1L).capacidad(200).build();
+        Room pequena = Room.builder().idroom(2L).capacidad(50).build();
+        roomCalendarService.registrarSala(grande);
+        roomCalendarService.registrarSala(pequena);
+
+        Movie movie = new Movie();
+        movie.setId(7);
+        movie.setTime(100);
+        movie.setReleaseDate(LocalDate.of(2025, 5, 1));
+        when(movieRepository.findById(7)).thenReturn(Optional.of(movie));
+        EmisionDTO estreno = new EmisionDTO(7, null, LocalDateTime.of(2025, 5, 3, 18, 0), "ES", Emision.EstadoEmision.ACTIVO);
+
+        // La pequeña pasa a ser la mayor
+        roomCalendarService.registrarSala(Room.builder().idroom(2L).capacidad(300).build());
+        assertEquals(2L, service.selectRoom(estreno).getIdroom());
+
+        roomCalendarService.eliminarSala(2L);
+        assertEquals(grande, service.selectRoom(estreno));
+    }
 }
@@ -30,6 +30,9 @@ class RoomServiceTest {
     @Mock
     private RegionService regionService;
 
+    @Mock
+    private RoomCalendarService roomCalendarService;
+
     @InjectMocks
     private RoomService roomService;
 
@@ -172,5 +175,6 @@ class RoomServiceTest {
     void testEliminarSala() {
         roomService.eliminarSala(1L);
         verify(roomRepository).deleteById(1L);
+        verify(roomCalendarService).eliminarSala(1L);
     }
 }
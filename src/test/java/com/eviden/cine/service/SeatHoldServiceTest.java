@@ -0,0 +1,226 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.exception.CustomException;
+import com.eviden.cine.model.Asiento;
+import com.eviden.cine.model.Emision;
+import com.eviden.cine.model.Room;
+import com.eviden.cine.repository.AsientoRepository;
+import com.eviden.cine.repository.EmisionRepository;
+import com.eviden.cine.repository.SeatHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class SeatHoldServiceTest {
+
+    private SeatHoldRepository seatHoldRepository;
+    private EmisionRepository emisionRepository;
+    private AsientoRepository asientoRepository;
+    private SeatInventoryService seatInventoryService;
+    private SeatHoldService service;
+
+    private Emision emision;
+
+    @BeforeEach
+    void setUp() {
+        seatHoldRepository = mock(SeatHoldRepository.class);
+        emisionRepository = mock(EmisionRepository.class);
+        asientoRepository = mock(AsientoRepository.class);
+        seatInventoryService = mock(SeatInventoryService.class);
+
+        emision = Emision.builder().idEmision(1L).room(Room.builder().filas(10).columnas(10).build()).build();
+        when(emisionRepository.findById(1L)).thenReturn(Optional.of(emision));
+        when(asientoRepository.findAllById(anyList())).thenAnswer(inv -> {
+            List<Long> ids = inv.getArgument(0);
+            return ids.stream().map(id -> Asiento.builder().idAsiento(id).fila("A").columna(1).build()).toList();
+        });
+
+        service = new SeatHoldService(seatHoldRepository, emisionRepository, asientoRepository, seatInventoryService, 1800);
+    }
+
+    @Test
+    void retenerAsientos_ok() {
+        String token = service.retenerAsientos(1L, List.of(5L, 6L));
+
+        assertNotNull(token);
+        assertTrue(service.estaRetenido(1L, 5L));
+        assertTrue(service.estaRetenido(1L, 6L));
+        assertFalse(service.estaRetenido(2L, 5L));
+        verify(seatHoldRepository).saveAll(anyList());
+    }
+
+    @Test
+    void retenerAsientos_yaRetenido_noRetieneNinguno() {
+        service.retenerAsientos(1L, List.of(6L));
+
+        CustomException ex = assertThrows(CustomException.class, () -> service.retenerAsientos(1L, List.of(5L, 6L)));
+
+        assertEquals("SEAT_HELD", ex.getCode());
+        assertFalse(service.estaRetenido(1L, 5L));
+    }
+
+    @Test
+    void retenerAsientos_vendido() {
+        when(seatInventoryService.estaOcupado(eq(emision), any(Asiento.class))).thenReturn(true);
+
+        CustomException ex = assertThrows(CustomException.class, () -> service.retenerAsientos(1L, List.of(5L)));
+
+        assertEquals("SEAT_ALREADY_SOLD", ex.getCode());
+        assertFalse(service.estaRetenido(1L, 5L));
+    }
+
+    @Test
+    void retenerAsientos_vendidoMientrasSeReclama_noRetieneNinguno() {
+        when(seatInventoryService.estaOcupado(eq(emision), any(Asiento.class))).thenReturn(false, true);
+
+        CustomException ex = assertThrows(CustomException.class, () -> service.retenerAsientos(1L, List.of(5L)));
+
+        assertEquals("SEAT_ALREADY_SOLD", ex.getCode());
+        assertFalse(service.estaRetenido(1L, 5L));
+        verify(seatHoldRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void retenerAsientos_retenidoEnOtraInstancia_laClaveUnicaDeshaceLaReclamacion() {
+        when(seatHoldRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("uk_retencion_asiento"));
+
+        CustomException ex = assertThrows(CustomException.class, () -> service.retenerAsientos(1L, List.of(5L, 6L)));
+
+        assertEquals("SEAT_HELD", ex.getCode());
+        assertFalse(service.estaRetenido(1L, 5L));
+        assertFalse(service.estaRetenido(1L, 6L));
+        // Antes de insertar se borran las filas caducadas que chocarían con la clave única
+        verify(seatHoldRepository).borrarCaducadas(eq(1L), eq(List.of(5L, 6L)), any());
+    }
+
+    @Test
+    void comprobarNoRetenidosPorOtro_soloRechazaRetencionesAjenas() {
+        String token = service.retenerAsientos(1L, List.of(5L));
+
+        service.comprobarNoRetenidosPorOtro(1L, List.of(5L), token);
+        service.comprobarNoRetenidosPorOtro(1L, List.of(6L), null);
+        CustomException ex = assertThrows(CustomException.class,
+                () -> service.comprobarNoRetenidosPorOtro(1L, List.of(5L, 6L), null));
+        assertEquals("SEAT_HELD", ex.getCode());
+
+        // Retención de otra instancia: solo está en la tabla
+        when(seatHoldRepository.contarRetenidosPorOtro(eq(1L), eq(List.of(7L)), eq(""), any())).thenReturn(1L);
+        CustomException otraInstancia = assertThrows(CustomException.class,
+                () -> service.comprobarNoRetenidosPorOtro(1L, List.of(7L), null));
+        assertEquals("SEAT_HELD", otraInstancia.getCode());
+    }
+
+    @Test
+    void retenerAsientos_asientoDeOtraSala() {
+        when(seatInventoryService.estaOcupado(eq(emision), any(Asiento.class)))
+                .thenThrow(new CustomException("El asiento A1 no pertenece a la sala de esta emisión", "SEAT_INVALID"));
+
+        CustomException ex = assertThrows(CustomException.class, () -> service.retenerAsientos(1L, List.of(5L)));
+
+        assertEquals("SEAT_INVALID", ex.getCode());
+        assertFalse(service.estaRetenido(1L, 5L));
+    }
+
+    @Test
+    void extender_alargaLaRetencion() throws InterruptedException {
+        SeatHoldService corto = new SeatHoldService(seatHoldRepository, emisionRepository, asientoRepository,
+                seatInventoryService, 1);
+        String token = corto.retenerAsientos(1L, List.of(5L));
+
+        corto.extender(token, System.currentTimeMillis() + 60_000);
+        Thread.sleep(1100);
+        corto.liberarCaducadas();
+
+        assertTrue(corto.estaRetenido(1L, 5L));
+        verify(seatHoldRepository).actualizarExpiracion(eq(token), any());
+        verify(seatHoldRepository, never()).deleteByToken(token);
+    }
+
+    @Test
+    void liberar_permiteVolverARetener() {
+        String token = service.retenerAsientos(1L, List.of(5L));
+
+        service.liberar(token);
+
+        assertFalse(service.estaRetenido(1L, 5L));
+        verify(seatHoldRepository).deleteByToken(token);
+        assertNotNull(service.retenerAsientos(1L, List.of(5L)));
+    }
+
+    @Test
+    void retencionCaducada_seReclamaYLaRuedaLaLibera() throws InterruptedException {
+        SeatHoldService sinTtl = new SeatHoldService(seatHoldRepository, emisionRepository, asientoRepository,
+                seatInventoryService, 0);
+        String primero = sinTtl.retenerAsientos(1L, List.of(5L));
+        assertFalse(sinTtl.estaRetenido(1L, 5L));
+
+        // Una retención caducada se puede reclamar aunque la rueda no haya pasado todavía
+        String segundo = sinTtl.retenerAsientos(1L, List.of(5L));
+        assertNotEquals(primero, segundo);
+
+        Thread.sleep(1100);
+        sinTtl.liberarCaducadas();
+
+        verify(seatHoldRepository).deleteByToken(segundo);
+    }
+
+    @Test
+    void contencion_sinDobleVenta() throws InterruptedException {
+        int hilos = 300;
+        int asientos = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch salida = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(hilos);
+        Map<String, List<Long>> ganadores = new ConcurrentHashMap<>();
+        AtomicInteger rechazados = new AtomicInteger();
+
+        for (int i = 0; i < hilos; i++) {
+            List<Long> seleccion = List.of((long) (i % asientos), (long) ((i + 1) % asientos));
+            executor.submit(() -> {
+                try {
+                    salida.await();
+                    ganadores.put(service.retenerAsientos(1L, seleccion), seleccion);
+                } catch (CustomException e) {
+                    rechazados.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+
+        salida.countDown();
+        assertTrue(fin.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        List<Long> retenidos = new ArrayList<>();
+        ganadores.values().forEach(retenidos::addAll);
+        Set<Long> unicos = new HashSet<>(retenidos);
+
+        assertEquals(retenidos.size(), unicos.size(), "Un asiento ha sido retenido por dos compras");
+        assertEquals(hilos, ganadores.size() + rechazados.get());
+        assertFalse(ganadores.isEmpty());
+        assertTrue(Collections.max(unicos) < asientos);
+    }
+}
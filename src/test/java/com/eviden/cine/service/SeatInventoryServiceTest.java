@@ -0,0 +1,217 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.event.CarteleraModificadaEvent;
+import com.eviden.cine.exception.CustomException;
+import com.eviden.cine.model.Asiento;
+import com.eviden.cine.model.Emision;
+import com.eviden.cine.model.Room;
+import com.eviden.cine.model.SeatInventory;
+import com.eviden.cine.repository.ReservationDetailsRepository;
+import com.eviden.cine.repository.SeatInventoryRepository;
+import com.eviden.cine.util.SeatBitmap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SeatInventoryServiceTest {
+
+    @Mock
+    private SeatInventoryRepository seatInventoryRepository;
+
+    @Mock
+    private ReservationDetailsRepository reservationDetailsRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SeatInventoryService seatInventoryService;
+
+    private Emision emision;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        Room room = Room.builder().idroom(1L).filas(2).columnas(3).build();
+        emision = Emision.builder().idEmision(10L).room(room).build();
+
+        when(seatInventoryRepository.findById(10L)).thenReturn(Optional.empty());
+        when(reservationDetailsRepository.findAsientosVendidosByEmision(10L)).thenReturn(List.of());
+    }
+
+    private Asiento asiento(String fila, int columna) {
+        return Asiento.builder().fila(fila).columna(columna).build();
+    }
+
+    @Test
+    void contarAsientosLibres_emisionNueva() {
+        assertEquals(6, seatInventoryService.contarAsientosLibres(emision));
+        assertTrue(seatInventoryService.tieneAsientosLibres(emision));
+    }
+
+    @Test
+    void venderAsientos_ocupaSoloEsaEmision() {
+        seatInventoryService.venderAsientos(emision, List.of(asiento("A", 1), asiento("B", 3)));
+
+        assertEquals(4, seatInventoryService.contarAsientosLibres(emision));
+        assertTrue(seatInventoryService.estaOcupado(emision, asiento("B", 3)));
+        assertFalse(seatInventoryService.estaOcupado(emision, asiento("A", 2)));
+
+        Room mismaSala = emision.getRoom();
+        Emision otraEmision = Emision.builder().idEmision(11L).room(mismaSala).build();
+        when(seatInventoryRepository.findById(11L)).thenReturn(Optional.empty());
+        when(reservationDetailsRepository.findAsientosVendidosByEmision(11L)).thenReturn(List.of());
+
+        assertEquals(6, seatInventoryService.contarAsientosLibres(otraEmision));
+    }
+
+    @Test
+    void venderAsientos_yaVendido_noModificaNinguno() {
+        seatInventoryService.venderAsientos(emision, List.of(asiento("A", 1)));
+
+        CustomException ex = assertThrows(CustomException.class, () ->
+                seatInventoryService.venderAsientos(emision, List.of(asiento("A", 2), asiento("A", 1))));
+
+        assertEquals("SEAT_ALREADY_SOLD", ex.getCode());
+        assertFalse(seatInventoryService.estaOcupado(emision, asiento("A", 2)));
+        assertEquals(5, seatInventoryService.contarAsientosLibres(emision));
+    }
+
+    @Test
+    void venderAsientos_asientoDeOtraSala_noOcupaNinguno() {
+        Asiento deOtraSala = Asiento.builder().fila("A").columna(2)
+                .room(Room.builder().idroom(2L).filas(2).columnas(3).build()).build();
+
+        CustomException ex = assertThrows(CustomException.class, () ->
+                seatInventoryService.venderAsientos(emision, List.of(asiento("A", 1), deOtraSala)));
+
+        assertEquals("SEAT_INVALID", ex.getCode());
+        assertEquals(6, seatInventoryService.contarAsientosLibres(emision));
+    }
+
+    @Test
+    void venderAsientos_fueraDeLaSala_noOcupaNinguno() {
+        // A4 caería en B1 y C1 fuera del mapa si no se comprobaran las dimensiones
+        for (Asiento fuera : List.of(asiento("A", 4), asiento("A", 0), asiento("C", 1))) {
+            CustomException ex = assertThrows(CustomException.class, () ->
+                    seatInventoryService.venderAsientos(emision, List.of(asiento("A", 1), fuera)));
+            assertEquals("SEAT_INVALID", ex.getCode());
+        }
+
+        assertEquals(6, seatInventoryService.contarAsientosLibres(emision));
+        assertThrows(CustomException.class, () -> seatInventoryService.estaOcupado(emision, asiento("A", 4)));
+    }
+
+    @Test
+    void venderAsientos_falloAlGuardar_noOcupaNinguno() {
+        seatInventoryService.contarAsientosLibres(emision);
+        when(seatInventoryRepository.saveAndFlush(any(SeatInventory.class))).thenThrow(new RuntimeException("BD caída"));
+
+        assertThrows(RuntimeException.class, () ->
+                seatInventoryService.venderAsientos(emision, List.of(asiento("A", 1), asiento("A", 2))));
+
+        assertEquals(6, seatInventoryService.contarAsientosLibres(emision));
+    }
+
+    @Test
+    void venderAsientos_transaccionDeshecha_devuelveLosAsientos() {
+        seatInventoryService.contarAsientosLibres(emision);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            seatInventoryService.venderAsientos(emision, List.of(asiento("A", 1), asiento("B", 2)));
+            assertEquals(4, seatInventoryService.contarAsientosLibres(emision));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(6, seatInventoryService.contarAsientosLibres(emision));
+        assertFalse(seatInventoryService.estaOcupado(emision, asiento("A", 1)));
+    }
+
+    @Test
+    void venderAsientos_transaccionConfirmada_mantieneLosAsientos() {
+        seatInventoryService.contarAsientosLibres(emision);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            seatInventoryService.venderAsientos(emision, List.of(asiento("A", 1)));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(5, seatInventoryService.contarAsientosLibres(emision));
+    }
+
+    @Test
+    void liberarAsientos_devuelveElAsiento() {
+        seatInventoryService.venderAsientos(emision, List.of(asiento("A", 1)));
+        seatInventoryService.liberarAsientos(emision, List.of(asiento("A", 1)));
+
+        assertEquals(6, seatInventoryService.contarAsientosLibres(emision));
+    }
+
+    @Test
+    void avisaALaCarteleraSoloAlLlenarseYAlVaciarse() {
+        seatInventoryService.venderAsientos(emision, List.of(asiento("A", 1), asiento("A", 2), asiento("A", 3)));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        seatInventoryService.venderAsientos(emision, List.of(asiento("B", 1), asiento("B", 2), asiento("B", 3)));
+        verify(eventPublisher, times(1)).publishEvent(any(CarteleraModificadaEvent.class));
+
+        seatInventoryService.liberarAsientos(emision, List.of(asiento("A", 1)));
+        seatInventoryService.liberarAsientos(emision, List.of(asiento("A", 2)));
+        verify(eventPublisher, times(2)).publishEvent(any(CarteleraModificadaEvent.class));
+    }
+
+    @Test
+    void cargaInventarioPersistido() {
+        SeatBitmap guardado = new SeatBitmap(6);
+        guardado.tryOccupy(0);
+        guardado.tryOccupy(5);
+        when(seatInventoryRepository.findById(10L)).thenReturn(Optional.of(SeatInventory.builder()
+                .idEmision(10L).totalAsientos(6).ocupados(2).ocupacion(guardado.toBytes()).build()));
+
+        assertEquals(4, seatInventoryService.contarAsientosLibres(emision));
+        verify(reservationDetailsRepository, never()).findAsientosVendidosByEmision(any());
+    }
+
+    @Test
+    void reconstruyeDesdeReservasSiNoHayInventario() {
+        when(reservationDetailsRepository.findAsientosVendidosByEmision(10L))
+                .thenReturn(List.of(asiento("A", 2), asiento("B", 1)));
+
+        assertEquals(4, seatInventoryService.contarAsientosLibres(emision));
+        verify(seatInventoryRepository).saveAndFlush(any(SeatInventory.class));
+    }
+
+    @Test
+    void eliminar_borraInventario() {
+        when(seatInventoryRepository.existsById(10L)).thenReturn(true);
+
+        seatInventoryService.eliminar(10L);
+
+        verify(seatInventoryRepository).deleteById(10L);
+    }
+}
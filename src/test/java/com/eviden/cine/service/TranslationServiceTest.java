@@ -0,0 +1,114 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.TranslationMemory;
+import com.eviden.cine.repository.TranslationMemoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TranslationServiceTest {
+
+    /**
+     * Proveedor local: "hola" → "[en] hola". Falla con los textos que contienen "error".
+     */
+    private static class ProveedorFalso implements TranslationProvider {
+        private final List<String> llamadas = Collections.synchronizedList(new ArrayList<>());
+        private final Set<Boolean> hilosVirtuales = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public String nombre() {
+            return "falso";
+        }
+
+        @Override
+        public double peticionesPorSegundo() {
+            return 1000;
+        }
+
+        @Override
+        public String traducir(String texto, String idiomaOrigen, String idiomaDestino) {
+            llamadas.add(texto + "→" + idiomaDestino);
+            hilosVirtuales.add(Thread.currentThread().isVirtual());
+            if (texto.contains("error")) {
+                throw new IllegalStateException("fallo simulado");
+            }
+            return "[" + idiomaDestino + "] " + texto;
+        }
+    }
+
+    private TranslationMemoryRepository translationMemoryRepository;
+    private ProveedorFalso proveedor;
+    private TranslationService translationService;
+
+    @BeforeEach
+    void setUp() {
+        translationMemoryRepository = mock(TranslationMemoryRepository.class);
+        when(translationMemoryRepository.findByHashTextoIn(anyCollection())).thenReturn(List.of());
+        proveedor = new ProveedorFalso();
+        translationService = new TranslationService(translationMemoryRepository, proveedor,
+                mock(PlatformTransactionManager.class), 100);
+    }
+
+    @Test
+    void traduceTodosLosTextosEIdiomasEnUnaTanda() {
+        Map<String, Map<String, String>> resultado = translationService.traducir(
+                List.of("hola", "adiós"), "es", List.of("es", "en", "fr"));
+
+        assertEquals("hola", resultado.get("hola").get("es"));
+        assertEquals("[en] hola", resultado.get("hola").get("en"));
+        assertEquals("[fr] adiós", resultado.get("adiós").get("fr"));
+        assertEquals(4, proveedor.llamadas.size());
+        assertEquals(Set.of(true), proveedor.hilosVirtuales);
+        verify(translationMemoryRepository, times(1)).findByHashTextoIn(anyCollection());
+        verify(translationMemoryRepository, times(1)).saveAll(argThat((List<TranslationMemory> lista) -> lista.size() == 4));
+    }
+
+    @Test
+    void segundaVez_usaLaCacheEnMemoria() {
+        translationService.traducir(List.of("hola"), "es", List.of("en"));
+        Map<String, Map<String, String>> resultado = translationService.traducir(List.of("hola"), "ES", List.of("EN"));
+
+        assertEquals("[en] hola", resultado.get("hola").get("en"));
+        assertEquals(1, proveedor.llamadas.size());
+        verify(translationMemoryRepository, times(1)).findByHashTextoIn(anyCollection());
+    }
+
+    @Test
+    void usaLaMemoriaPersistidaAntesQueElProveedor() {
+        when(translationMemoryRepository.findByHashTextoIn(anyCollection())).thenReturn(List.of(
+                TranslationMemory.builder()
+                        .hashTexto(TranslationService.hash("hola"))
+                        .idiomaOrigen("es")
+                        .idiomaDestino("en")
+                        .textoTraducido("hello")
+                        .build()));
+
+        Map<String, Map<String, String>> resultado = translationService.traducir(List.of("hola"), "es", List.of("en", "it"));
+
+        assertEquals("hello", resultado.get("hola").get("en"));
+        assertEquals("[it] hola", resultado.get("hola").get("it"));
+        assertEquals(List.of("hola→it"), proveedor.llamadas);
+    }
+
+    @Test
+    void siFalla_devuelveElOriginalYNoLoGuarda() {
+        Map<String, Map<String, String>> resultado = translationService.traducir(List.of("error"), "es", List.of("en"));
+
+        assertEquals("error", resultado.get("error").get("en"));
+        verify(translationMemoryRepository, never()).saveAll(any());
+
+        // No se cachea el fallo: se vuelve a intentar
+        translationService.traducir(List.of("error"), "es", List.of("en"));
+        assertEquals(2, proveedor.llamadas.size());
+    }
+}
@@ -5,6 +5,7 @@ import com.eviden.cine.model.Role;
 import com.eviden.cine.model.User;
 import com.eviden.cine.repository.RoleRepository;
 import com.eviden.cine.repository.UserRepository;
+import com.eviden.cine.security.PrincipalCache;
 import com.eviden.cine.security.RandomPWordGenerator;
 import jakarta.mail.MessagingException;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,7 +21,6 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class UserServiceTest {
@@ -40,6 +40,12 @@ class UserServiceTest {
     @Mock
     private RandomPWordGenerator randomPWordGenerator;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private PasswordResetTokenService passwordResetTokenService;
+
     @InjectMocks
     private UserService userService;
 
@@ -64,6 +70,7 @@ class UserServiceTest {
         verify(userRepository, times(1)).findById(1L);
         verify(roleRepository, times(1)).findById(2L);
         verify(userRepository, times(1)).save(user);
+        verify(principalCache).invalidar(user.getEmail());
     }
 
     @Test
@@ -110,6 +117,8 @@ class UserServiceTest {
         assertEquals("encodedPassword", updatedUser.getPassword());
         assertEquals("en", updatedUser.getPreferredLanguage());
         assertEquals("US", updatedUser.getRegion());
+        verify(principalCache).invalidar("test@example.com");
+        verify(principalCache).invalidar("updated@example.com");
     }
 
     @Test
@@ -118,10 +127,11 @@ class UserServiceTest {
         User user = new User();
         user.setEmail(email);
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(passwordResetTokenService.emitir(email)).thenReturn("token-emitido");
 
         // No se espera llamada a save, pues el servicio solo envía el email
         userService.sendResetToken(email);
-        verify(emailService, times(1)).sendPasswordResetEmail(eq(email), anyString());
+        verify(emailService, times(1)).sendPasswordResetEmail(email, "token-emitido");
     }
 
     @Test
@@ -129,8 +139,7 @@ class UserServiceTest {
         String token = "valid-token";
         String email = "test@example.com";
 
-        // Forzar que el token esté en resetTokens
-        userService.getResetTokens().put(token, email);
+        when(passwordResetTokenService.consumir(token)).thenReturn(Optional.of(email));
 
         User user = new User();
         user.setEmail(email);
@@ -143,12 +152,13 @@ class UserServiceTest {
 
         verify(userRepository, times(1)).save(user);
         assertEquals("encodedPassword", user.getPassword());
-        assertFalse(userService.getResetTokens().containsKey(token));
+        verify(principalCache).invalidar(email);
     }
 
     @Test
     void testResetPasswordInvalidToken() {
         String invalidToken = "invalid-token";
+        when(passwordResetTokenService.consumir(invalidToken)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 userService.resetPassword(invalidToken, "newPassword")
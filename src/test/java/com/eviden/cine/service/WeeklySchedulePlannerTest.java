@@ -0,0 +1,86 @@
+package com.eviden.cine.service;
+
+import com.eviden.cine.model.Emision;
+import com.eviden.cine.model.Movie;
+import com.eviden.cine.model.Room;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeeklySchedulePlannerTest {
+
+    private final WeeklySchedulePlanner planner = new WeeklySchedulePlanner(new Random(7));
+    private final LocalDate lunes = LocalDate.of(2025, 6, 2);
+
+    private Movie pelicula(int id, int minutos) {
+        return Movie.builder().id(id).title("P" + id).time(minutos).releaseDate(LocalDate.of(2020, 1, 1)).build();
+    }
+
+    @Test
+    void planificar_sinSolapesNiRepeticionesPorSalaYDia() {
+        List<Movie> peliculas = List.of(pelicula(1, 90), pelicula(2, 120), pelicula(3, 100), pelicula(4, 150),
+                pelicula(5, 95));
+        Room sala1 = Room.builder().idroom(1L).build();
+        Room sala2 = Room.builder().idroom(2L).build();
+
+        List<Emision> nuevas = planner.planificar(peliculas, List.of(sala1, sala2), List.of(), lunes, 7);
+
+        assertFalse(nuevas.isEmpty());
+        for (Room sala : List.of(sala1, sala2)) {
+            for (int dia = 0; dia < 7; dia++) {
+                LocalDate fecha = lunes.plusDays(dia);
+                List<Emision> delDia = new ArrayList<>(nuevas.stream()
+                        .filter(e -> e.getRoom() == sala && e.getFechaHoraInicio().toLocalDate().equals(fecha))
+                        .toList());
+                delDia.sort(Comparator.comparing(Emision::getFechaHoraInicio));
+
+                assertFalse(delDia.isEmpty());
+                assertEquals(delDia.size(), delDia.stream().map(e -> e.getMovie().getId()).distinct().count());
+                for (int i = 0; i < delDia.size(); i++) {
+                    Emision emision = delDia.get(i);
+                    LocalDateTime fin = emision.getFechaHoraInicio().plusMinutes(emision.getMovie().getTime() + 20L);
+                    assertFalse(emision.getFechaHoraInicio().isBefore(fecha.atTime(13, 0)));
+                    assertFalse(fin.isAfter(fecha.atTime(23, 59)));
+                    if (i + 1 < delDia.size()) {
+                        assertFalse(fin.isAfter(delDia.get(i + 1).getFechaHoraInicio()));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void planificar_respetaEmisionesExistentesYRellenaElHueco() {
+        Movie larga = pelicula(1, 150);
+        Movie corta = pelicula(2, 70);
+        Room sala = Room.builder().idroom(1L).build();
+        // Existente de 15:00 a 17:50: queda un hueco de 120 min antes, donde solo cabe la corta
+        Emision existente = Emision.builder().movie(larga).room(sala)
+                .fechaHoraInicio(lunes.atTime(15, 0)).build();
+
+        List<Emision> nuevas = planner.planificar(List.of(larga, corta), List.of(sala), List.of(existente), lunes, 1);
+
+        assertEquals(corta, nuevas.get(0).getMovie());
+        assertEquals(lunes.atTime(13, 0), nuevas.get(0).getFechaHoraInicio());
+        assertTrue(nuevas.stream().skip(1).allMatch(e -> !e.getFechaHoraInicio().isBefore(lunes.atTime(17, 50))));
+        assertTrue(nuevas.stream().noneMatch(e -> e.getMovie() == larga));
+    }
+
+    @Test
+    void planificar_prefiereEstrenos() {
+        Movie antigua = pelicula(1, 90);
+        Movie estreno = Movie.builder().id(2).title("Estreno").time(90).releaseDate(lunes.minusDays(3)).build();
+        Room sala = Room.builder().idroom(1L).build();
+
+        List<Emision> nuevas = planner.planificar(List.of(antigua, estreno), List.of(sala), List.of(), lunes, 1);
+
+        assertEquals(estreno, nuevas.get(0).getMovie());
+    }
+}
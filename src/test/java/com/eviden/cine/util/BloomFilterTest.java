@@ -0,0 +1,41 @@
+package com.eviden.cine.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void sinFalsosNegativos() {
+        BloomFilter filtro = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filtro.add("evt_" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filtro.mightContain("evt_" + i));
+        }
+    }
+
+    @Test
+    void tasaDeFalsosPositivosAcotada() {
+        BloomFilter filtro = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filtro.add("evt_" + i);
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filtro.mightContain("otro_" + i)) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos < 300, "Demasiados falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    void parametrosInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+    }
+}
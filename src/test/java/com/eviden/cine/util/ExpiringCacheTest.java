@@ -0,0 +1,107 @@
+package com.eviden.cine.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringCacheTest {
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000);
+
+    @Test
+    void get_cuentaAciertosYFallos() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 60_000, reloj::get);
+        cache.put("a", 1);
+
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+
+        ExpiringCache.Estadisticas estadisticas = cache.getEstadisticas();
+        assertEquals(1, estadisticas.aciertos());
+        assertEquals(1, estadisticas.fallos());
+    }
+
+    @Test
+    void entradaCaducada_noSeDevuelve() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 60_000, reloj::get);
+        cache.put("a", 1);
+
+        reloj.addAndGet(60_000);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getEstadisticas().caducadas());
+    }
+
+    @Test
+    void limpiar_retiraCaducadasSinLeerlas() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(100, 5_000, reloj::get);
+        for (int i = 0; i < 50; i++) {
+            cache.put("k" + i, i);
+        }
+        reloj.addAndGet(2_000);
+        cache.put("nueva", 99);
+
+        reloj.addAndGet(4_000);
+        cache.limpiar();
+
+        assertEquals(1, cache.size());
+        assertEquals(99, cache.get("nueva"));
+        assertEquals(50, cache.getEstadisticas().caducadas());
+    }
+
+    @Test
+    void tamanoMaximo_expulsaLasMasAntiguas() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(3, 60_000, reloj::get);
+        for (int i = 0; i < 5; i++) {
+            cache.put("k" + i, i);
+        }
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("k0"));
+        assertNull(cache.get("k1"));
+        assertEquals(4, cache.get("k4"));
+        assertEquals(2, cache.getEstadisticas().expulsadas());
+    }
+
+    @Test
+    void sobrescribir_noExpulsaLaEntradaNueva() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(2, 60_000, reloj::get);
+        cache.put("a", 1);
+        reloj.incrementAndGet();
+        cache.put("a", 2);
+        cache.put("b", 3);
+        cache.put("c", 4);
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("a"));
+        assertEquals(3, cache.get("b"));
+    }
+
+    @Test
+    void cargaSostenida_memoriaAcotada() {
+        ExpiringCache<String, byte[]> cache = new ExpiringCache<>(1_000, 60_000, reloj::get);
+        for (int i = 0; i < 100_000; i++) {
+            cache.put("sess_" + i, new byte[16]);
+            if (i % 2 == 0) {
+                cache.remove("sess_" + i);
+            }
+            reloj.addAndGet(10);
+        }
+
+        assertTrue(cache.size() <= 1_000);
+    }
+
+    @Test
+    void restaurar_conservaLaCaducidadOriginal() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 60_000, reloj::get);
+        cache.put("a", 1, reloj.get() - 59_000);
+
+        cache.forEach((clave, entrada) -> assertEquals(reloj.get() - 59_000, entrada.creadaEn()));
+        reloj.addAndGet(1_000);
+
+        assertNull(cache.get("a"));
+    }
+}
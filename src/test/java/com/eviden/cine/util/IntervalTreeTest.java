@@ -0,0 +1,72 @@
+package com.eviden.cine.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    @Test
+    void haySolape_intervalosSemiabiertos() {
+        IntervalTree<Long> arbol = new IntervalTree<>();
+        arbol.insertar(100, 200, 1L);
+
+        assertTrue(arbol.haySolape(150, 160));
+        assertTrue(arbol.haySolape(50, 101));
+        assertFalse(arbol.haySolape(200, 300));
+        assertFalse(arbol.haySolape(0, 100));
+    }
+
+    @Test
+    void eliminar_conInicioRepetido() {
+        IntervalTree<Long> arbol = new IntervalTree<>();
+        arbol.insertar(100, 200, 1L);
+        arbol.insertar(100, 150, 2L);
+
+        assertTrue(arbol.eliminar(100, 1L));
+        assertFalse(arbol.eliminar(100, 1L));
+
+        assertEquals(1, arbol.size());
+        assertTrue(arbol.haySolape(120, 130));
+        assertFalse(arbol.haySolape(160, 170));
+    }
+
+    @Test
+    void coincideConBusquedaLineal() {
+        Random random = new Random(42);
+        IntervalTree<Long> arbol = new IntervalTree<>();
+        List<long[]> intervalos = new ArrayList<>();
+
+        for (long i = 0; i < 2000; i++) {
+            long inicio = random.nextInt(100_000);
+            long fin = inicio + 1 + random.nextInt(300);
+            arbol.insertar(inicio, fin, i);
+            intervalos.add(new long[]{inicio, fin, i});
+        }
+        for (int i = 0; i < 500; i++) {
+            long[] quitado = intervalos.remove(random.nextInt(intervalos.size()));
+            assertTrue(arbol.eliminar(quitado[0], quitado[2]));
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            long inicio = random.nextInt(100_000);
+            long fin = inicio + 1 + random.nextInt(300);
+
+            HashSet<Long> esperados = new HashSet<>();
+            for (long[] intervalo : intervalos) {
+                if (intervalo[0] < fin && inicio < intervalo[1]) {
+                    esperados.add(intervalo[2]);
+                }
+            }
+
+            assertEquals(!esperados.isEmpty(), arbol.haySolape(inicio, fin));
+            assertEquals(esperados, new HashSet<>(arbol.solapes(inicio, fin)));
+        }
+        assertEquals(1500, arbol.size());
+    }
+}
@@ -0,0 +1,40 @@
+package com.eviden.cine.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPageTest {
+
+    @Test
+    void tamanoPorDefectoYLimitado() {
+        assertEquals(KeysetPage.TAMANO_POR_DEFECTO, KeysetPage.tamano(null));
+        assertEquals(1, KeysetPage.tamano(0));
+        assertEquals(KeysetPage.TAMANO_MAXIMO, KeysetPage.tamano(100_000));
+        assertEquals(20, KeysetPage.tamano(20));
+        assertEquals(21, KeysetPage.limite(20).getPageSize());
+    }
+
+    @Test
+    void filaDeMasIndicaPaginaSiguiente() {
+        KeysetPage<Long> pagina = KeysetPage.de(List.of(3L, 5L, 8L), 2, id -> id);
+
+        assertEquals(List.of(3L, 5L), pagina.items());
+        assertEquals(5L, pagina.siguiente());
+
+        ResponseEntity<List<Long>> respuesta = pagina.aRespuesta();
+        assertEquals("5", respuesta.getHeaders().getFirst(KeysetPage.CABECERA_CURSOR));
+    }
+
+    @Test
+    void ultimaPaginaSinCursor() {
+        KeysetPage<Long> pagina = KeysetPage.de(List.of(3L, 5L), 2, id -> id);
+
+        assertNull(pagina.siguiente());
+        assertFalse(pagina.aRespuesta().getHeaders().containsKey(KeysetPage.CABECERA_CURSOR));
+        assertEquals(List.of("3", "5"), pagina.map(String::valueOf).items());
+    }
+}
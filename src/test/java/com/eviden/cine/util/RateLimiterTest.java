@@ -0,0 +1,30 @@
+package com.eviden.cine.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    @Test
+    void reparteLasLlamadasEnElTiempo() {
+        AtomicLong reloj = new AtomicLong(0);
+        RateLimiter limitador = new RateLimiter(10, reloj::get);
+
+        assertEquals(0, limitador.reservar());
+        assertEquals(100_000_000, limitador.reservar());
+        assertEquals(200_000_000, limitador.reservar());
+
+        // Pasado el tiempo reservado, la siguiente no espera y no se acumulan permisos
+        reloj.set(1_000_000_000);
+        assertEquals(0, limitador.reservar());
+        assertEquals(100_000_000, limitador.reservar());
+    }
+
+    @Test
+    void rechazaPermisosNoPositivos() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0));
+    }
+}
@@ -0,0 +1,97 @@
+package com.eviden.cine.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    private SearchIndex<Integer> indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new SearchIndex<>();
+        indice.indexar(1, List.of(new SearchIndex.Campo("Amélie", 3),
+                new SearchIndex.Campo("Jean-Pierre Jeunet", 2)));
+        indice.indexar(2, List.of(new SearchIndex.Campo("El laberinto del fauno", 3),
+                new SearchIndex.Campo("Guillermo del Toro", 2),
+                new SearchIndex.Campo("Ivana Baquero", 1)));
+        indice.indexar(3, List.of(new SearchIndex.Campo("Pinocchio", 3),
+                new SearchIndex.Campo("Guillermo del Toro", 2)));
+    }
+
+    @Test
+    void ignoraAcentosYMayusculas() {
+        assertEquals(List.of(1), indice.buscar("AMELIE"));
+        assertEquals(List.of(1), indice.buscar("amél"));
+    }
+
+    @Test
+    void buscaSubcadenasYPrefijosCortos() {
+        assertEquals(List.of(2), indice.buscar("berint"));
+        // Prefijo de "Pinocchio" (título) y de "Pierre" (director)
+        assertEquals(List.of(3, 1), indice.buscar("pi"));
+        assertTrue(indice.buscar("xyz").isEmpty());
+    }
+
+    @Test
+    void todosLosTerminosDebenCoincidir() {
+        assertEquals(List.of(2), indice.buscar("toro fauno"));
+        assertTrue(indice.buscar("toro amelie").isEmpty());
+    }
+
+    @Test
+    void ordenaPorRelevancia() {
+        // "del" es término exacto del título de 2 y del director de 2 y 3
+        assertEquals(List.of(2, 3), indice.buscar("del"));
+        // El título pesa más que el director
+        indice.indexar(4, List.of(new SearchIndex.Campo("Toro salvaje", 3)));
+        assertEquals(4, indice.buscar("toro").getFirst());
+    }
+
+    @Test
+    void actualizarYEliminar() {
+        indice.indexar(3, List.of(new SearchIndex.Campo("Cronos", 3)));
+        assertTrue(indice.buscar("pinocchio").isEmpty());
+        assertEquals(List.of(3), indice.buscar("cronos"));
+
+        indice.eliminar(3);
+        assertTrue(indice.buscar("cronos").isEmpty());
+        assertEquals(2, indice.size());
+    }
+
+    @Test
+    void coincideConBusquedaLineal() {
+        Random random = new Random(3);
+        String[] silabas = {"ma", "ri", "so", "la", "ten", "dor", "é", "qui", "ña", "ro"};
+        SearchIndex<Integer> grande = new SearchIndex<>();
+        List<String> textos = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder texto = new StringBuilder();
+            for (int palabra = 0; palabra < 3; palabra++) {
+                for (int s = 0; s < 2 + random.nextInt(3); s++) {
+                    texto.append(silabas[random.nextInt(silabas.length)]);
+                }
+                texto.append(' ');
+            }
+            textos.add(texto.toString());
+            grande.indexar(i, List.of(new SearchIndex.Campo(texto.toString(), 1)));
+        }
+
+        for (int q = 0; q < 200; q++) {
+            // Tres sílabas: al menos 3 caracteres, que se buscan como subcadena
+            String consulta = silabas[random.nextInt(silabas.length)] + silabas[random.nextInt(silabas.length)]
+                    + silabas[random.nextInt(silabas.length)];
+            String normalizada = SearchIndex.normalizar(consulta);
+            long esperados = textos.stream()
+                    .filter(texto -> SearchIndex.normalizar(texto).contains(normalizada))
+                    .count();
+            assertEquals(esperados, grande.buscar(consulta).size(), consulta);
+        }
+    }
+}
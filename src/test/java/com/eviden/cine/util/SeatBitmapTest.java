@@ -0,0 +1,44 @@
+package com.eviden.cine.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatBitmapTest {
+
+    @Test
+    void tryOccupyAndRelease() {
+        SeatBitmap bitmap = new SeatBitmap(100);
+
+        assertTrue(bitmap.tryOccupy(70));
+        assertFalse(bitmap.tryOccupy(70));
+        assertTrue(bitmap.isOccupied(70));
+        assertEquals(99, bitmap.freeCount());
+
+        assertTrue(bitmap.release(70));
+        assertFalse(bitmap.release(70));
+        assertEquals(100, bitmap.freeCount());
+    }
+
+    @Test
+    void roundTripBytes() {
+        SeatBitmap bitmap = new SeatBitmap(130);
+        bitmap.tryOccupy(0);
+        bitmap.tryOccupy(64);
+        bitmap.tryOccupy(129);
+
+        SeatBitmap copia = SeatBitmap.fromBytes(130, bitmap.toBytes());
+
+        assertEquals(3, copia.occupiedCount());
+        assertTrue(copia.isOccupied(64));
+        assertTrue(copia.isOccupied(129));
+        assertFalse(copia.isOccupied(1));
+    }
+
+    @Test
+    void indiceFueraDeRango() {
+        SeatBitmap bitmap = new SeatBitmap(10);
+        assertThrows(IndexOutOfBoundsException.class, () -> bitmap.tryOccupy(10));
+        assertThrows(IndexOutOfBoundsException.class, () -> bitmap.isOccupied(-1));
+    }
+}
@@ -0,0 +1,75 @@
+package com.eviden.cine.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+
+    @Test
+    void avanzar_devuelveSoloLosCaducados() {
+        TimerWheel<String> rueda = new TimerWheel<>(1000, 8, 0);
+        rueda.programar("a", 2500);
+        rueda.programar("b", 5000);
+
+        assertTrue(rueda.avanzar(1999).isEmpty());
+        assertEquals(List.of("a"), rueda.avanzar(3000));
+        assertEquals(List.of("b"), rueda.avanzar(5000));
+    }
+
+    @Test
+    void avanzar_respetaVueltasPosteriores() {
+        TimerWheel<String> rueda = new TimerWheel<>(1000, 4, 0);
+        // Cae en el mismo cubo que el tick 1 pero en la tercera vuelta
+        rueda.programar("lejano", 9000);
+
+        assertTrue(rueda.avanzar(1000).isEmpty());
+        assertTrue(rueda.avanzar(5000).isEmpty());
+        assertEquals(List.of("lejano"), rueda.avanzar(9000));
+    }
+
+    @Test
+    void programar_yaVencidoSaleEnElSiguienteTick() {
+        TimerWheel<String> rueda = new TimerWheel<>(1000, 4, 3000);
+        rueda.programar("vencido", 2000);
+
+        assertEquals(List.of("vencido"), rueda.avanzar(4000));
+    }
+
+    @Test
+    void programarMientrasAvanza_noPierdeNingunaVuelta() throws InterruptedException {
+        int cubos = 64;
+        int elementos = 2000;
+        TimerWheel<Integer> rueda = new TimerWheel<>(1, cubos, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch salida = new CountDownLatch(1);
+        for (int i = 0; i < elementos; i++) {
+            int elemento = i;
+            executor.submit(() -> {
+                salida.await();
+                // Ya vencido: debe salir en el siguiente avance, nunca una vuelta después
+                rueda.programar(elemento, 0);
+                return null;
+            });
+        }
+
+        List<Integer> caducados = new ArrayList<>();
+        salida.countDown();
+        long ahora = 0;
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+            caducados.addAll(rueda.avanzar(++ahora));
+        }
+        caducados.addAll(rueda.avanzar(++ahora));
+
+        assertEquals(elementos, caducados.size());
+    }
+}